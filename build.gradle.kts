@@ -12,6 +12,8 @@ plugins {
     id("com.gradleup.shadow") version "8.3.0"
     // Apply the Run-Paper plugin for running Paper Minecraft servers
     id("xyz.jpenilla.run-paper") version "2.3.1"
+    // Apply the JMH plugin for the benchmarks in `src/jmh`
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 // Define project properties for versions and package name
@@ -20,11 +22,16 @@ val paperApiVersion: String by project
 val mineCoreLibVersion: String by project
 val hikariCpVersion: String by project
 val caffeineVersion: String by project
+val h2MvStoreVersion: String by project
 val placeholderApiVersion: String by project
 val sirblobmanApiVersion: String by project
 val sirblobmanCombatLogVersion: String by project
 val apacheCommonsTextVersion: String by project
 val vaultApiVersion: String by project
+val junitVersion: String by project
+val mockitoVersion: String by project
+val sqliteJdbcVersion: String by project
+val jmhCoreVersion: String by project
 val projectPackageName = "${project.group}.openChat"
 
 // Configure Java toolchain and compatibility settings
@@ -52,6 +59,17 @@ repositories {
     maven { url = uri("https://jitpack.io") } // Vault API
 }
 
+// Mockito attaches itself as an agent to mock the final classes
+val mockitoAgent = configurations.create("mockitoAgent")
+
+// The tests run against the same server APIs the plugin is compiled against
+configurations.testImplementation {
+    extendsFrom(configurations.compileOnly.get())
+}
+configurations.jmhImplementation {
+    extendsFrom(configurations.compileOnly.get())
+}
+
 // Define project dependencies
 dependencies {
     // Paper API for Minecraft server development
@@ -75,8 +93,29 @@ dependencies {
     implementation("com.zaxxer:HikariCP:${hikariCpVersion}")
     // SQL caching
     implementation("com.github.ben-manes.caffeine:caffeine:${caffeineVersion}")
+    // Embedded key-value storage
+    implementation("com.h2database:h2-mvstore:${h2MvStoreVersion}")
     // String similarity algorithm
     implementation("org.apache.commons:commons-text:${apacheCommonsTextVersion}")
+
+    // Testing
+    testImplementation(platform("org.junit:junit-bom:${junitVersion}"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testImplementation("org.mockito:mockito-core:${mockitoVersion}")
+    // The server provides the SQLite driver, the tests need their own
+    testRuntimeOnly("org.xerial:sqlite-jdbc:${sqliteJdbcVersion}")
+    jmhRuntimeOnly("org.xerial:sqlite-jdbc:${sqliteJdbcVersion}")
+    mockitoAgent("org.mockito:mockito-core:${mockitoVersion}") {
+        isTransitive = false
+    }
+}
+
+// Configure the benchmarks, they can use the test sources like the mocked plugin environment
+jmh {
+    jmhVersion = jmhCoreVersion
+    includeTests = true
+    jvmArgsAppend.add("-javaagent:${mockitoAgent.asPath}")
 }
 
 // Disable the default JAR task
@@ -98,6 +137,7 @@ tasks.shadowJar {
     // Relocate packages to avoid conflicts
     relocate("com.zaxxer.hikari", "${projectPackageName}.shadow.hikari")
     relocate("com.github.benmanes.caffeine", "${projectPackageName}.shadow.caffeine")
+    relocate("org.h2.mvstore", "${projectPackageName}.shadow.mvstore")
     relocate("org.apache.commons.text", "${projectPackageName}.shadow.commonstext")
 }
 
@@ -122,6 +162,16 @@ tasks {
         }
     }
 
+    // Run the tests on the JUnit platform
+    test {
+        useJUnitPlatform()
+        jvmArgs("-javaagent:${mockitoAgent.asPath}")
+        // The database tests create their files under plugins/OpenChat of the working directory
+        val testRunDir = layout.buildDirectory.dir("test-run").get().asFile
+        workingDir = testRunDir
+        doFirst { testRunDir.mkdirs() }
+    }
+
     // Process resources and expand placeholders in `plugin.yml`
     processResources {
         val props = mapOf("version" to project.version.toString()) // Define properties for resource filtering
@@ -0,0 +1,46 @@
+package io.github.tavstaldev.openChat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the chat lines the benchmarks run on.
+ */
+public final class ChatCorpus {
+    private static final String RESOURCE = "chat_corpus.txt";
+
+    private ChatCorpus() {
+    }
+
+    /**
+     * Loads the chat lines, skipping the comments.
+     *
+     * @return The chat lines.
+     */
+    public static String[] load() {
+        List<String> lines = new ArrayList<>();
+        try (InputStream stream = ChatCorpus.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (stream == null)
+                throw new IllegalStateException(String.format("Could not find the resource '%s'.", RESOURCE));
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("#"))
+                        continue;
+                    lines.add(line);
+                }
+            }
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return lines.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.tavstaldev.openChat.database;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.TestEnvironment;
+import io.github.tavstaldev.openChat.config.GeneralConfig;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.config.StorageConfig;
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.models.database.PlayerData;
+import io.github.tavstaldev.openChat.models.database.ViolationData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the throughput of the hot operations of the file based storage backends.
+ * <br/>
+ * The database is filled with {@link #PLAYERS} players, each with {@link #VIOLATIONS_PER_PLAYER} violations, half of
+ * them expired. The {@code Miss} benchmarks and {@code getActiveViolations} remove the entry from the caches of the
+ * backend before the read, so they measure the storage and not the cache. The batch benchmarks write
+ * {@link #BATCH_SIZE} rows, the size of a write-behind flush.
+ * <br/>
+ * The files are created under {@code plugins/OpenChat} of the working directory, and deleted after the run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseBenchmark {
+    private static final Path DATA_FOLDER = Path.of("plugins", "OpenChat");
+    private static final String FILENAME = "database-benchmark";
+    private static final long VIOLATION_DURATION = 60 * 60 * 1000L;
+    private static final int PLAYERS = 500; // Fits in the caches of the backends.
+    private static final int VIOLATIONS_PER_PLAYER = 10;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"sqlite", "mvstore"})
+    public String type;
+
+    private IDatabase database;
+    private UUID[] playerIds;
+    private List<PlayerData> updateBatch;
+    private Cache<UUID, ?> playerCache;
+    private final List<Cache<UUID, ?>> violationCaches = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        OpenChat plugin = TestEnvironment.setUp();
+        GeneralConfig generalConfig = mock(GeneralConfig.class);
+        generalConfig.mentionsDefaultSound = "ENTITY_PLAYER_LEVELUP";
+        generalConfig.mentionsDefaultDisplay = "ALL";
+        generalConfig.mentionsDefaultPreference = "ALWAYS";
+        StorageConfig storageConfig = mock(StorageConfig.class);
+        storageConfig.filename = FILENAME;
+        storageConfig.tablePrefix = "openchat";
+        ModerationConfig moderationConfig = mock(ModerationConfig.class);
+        moderationConfig.violationDurationMilliseconds = VIOLATION_DURATION;
+        TestEnvironment.set(plugin, "_config", generalConfig);
+        TestEnvironment.set(plugin, "storageConfig", storageConfig);
+        TestEnvironment.set(plugin, "moderationConfig", moderationConfig);
+        Files.createDirectories(DATA_FOLDER);
+        deleteFiles();
+
+        database = Objects.requireNonNull(StorageRegistry.get(type), type).create();
+        database.load();
+        database.checkSchema();
+
+        long now = System.currentTimeMillis();
+        playerIds = new UUID[PLAYERS];
+        List<ViolationData> violations = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            playerIds[i] = UUID.randomUUID();
+            database.addPlayerData(playerIds[i]);
+            for (int j = 0; j < VIOLATIONS_PER_PLAYER; j++) {
+                long timestamp = j % 2 == 0 ? now - j * 1000L : now - VIOLATION_DURATION - j * 1000L;
+                violations.add(new ViolationData(UUID.randomUUID(), playerIds[i], EViolationType.values()[j % EViolationType.values().length], "benchmark", timestamp));
+            }
+        }
+        database.addViolationBatch(violations);
+
+        updateBatch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            PlayerData data = database.getPlayerData(playerIds[i]).orElseThrow().copy();
+            data.setMessageColor("#55ff55");
+            updateBatch.add(data);
+        }
+
+        // Only the SQL backends cache the violations
+        playerCache = TestEnvironment.get(database, "_playerCache");
+        for (String name : List.of("_violationCache", "_violationActiveCache")) {
+            if (TestEnvironment.has(database, name))
+                violationCaches.add(TestEnvironment.get(database, name));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        database.unload();
+        deleteFiles();
+        TestEnvironment.tearDown();
+    }
+
+    @Benchmark
+    public Optional<PlayerData> getPlayerDataHit() {
+        return database.getPlayerData(nextPlayer());
+    }
+
+    @Benchmark
+    public Optional<PlayerData> getPlayerDataMiss() {
+        UUID playerId = nextPlayer();
+        playerCache.invalidate(playerId);
+        return database.getPlayerData(playerId);
+    }
+
+    @Benchmark
+    public boolean updatePlayerDataBatch() {
+        return database.updatePlayerDataBatch(updateBatch);
+    }
+
+    @Benchmark
+    public boolean addViolationBatch() {
+        long now = System.currentTimeMillis();
+        List<ViolationData> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++)
+            batch.add(new ViolationData(UUID.randomUUID(), playerIds[i], EViolationType.FLOOD, "benchmark", now));
+        return database.addViolationBatch(batch);
+    }
+
+    @Benchmark
+    public Optional<Set<ViolationData>> getActiveViolations() {
+        // The players of the violation batches are skipped, so every read returns the same number of violations
+        next = (next + 1) % (PLAYERS - BATCH_SIZE);
+        UUID playerId = playerIds[BATCH_SIZE + next];
+        for (Cache<UUID, ?> cache : violationCaches)
+            cache.invalidate(playerId);
+        return database.getActiveViolations(playerId);
+    }
+
+    private UUID nextPlayer() {
+        next = (next + 1) % PLAYERS;
+        return playerIds[next];
+    }
+
+    private static void deleteFiles() throws IOException {
+        for (String suffix : List.of(".db", ".db-wal", ".db-shm", ".mv.db")) {
+            Files.deleteIfExists(DATA_FOLDER.resolve(FILENAME + suffix));
+        }
+    }
+}
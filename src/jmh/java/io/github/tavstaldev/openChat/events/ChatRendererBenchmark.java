@@ -0,0 +1,65 @@
+package io.github.tavstaldev.openChat.events;
+
+import io.github.tavstaldev.minecorelib.utils.ChatUtils;
+import io.papermc.paper.chat.ChatRenderer;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares the cost of rendering one chat message for a growing number of viewers.
+ * <br/>
+ * {@code perViewer} is the previous renderer, which parsed the chat line for every viewer.
+ * {@code shared} parses the line once and returns the same component to every viewer, like the {@link ChatEventListener}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatRendererBenchmark {
+    private static final String CHAT_LINE = "&7[&6Admin&7] <gradient:#ff5555:#ffaa00>Steve</gradient> &8» &fanyone wanna trade diamonds for emeralds?";
+
+    @Param({"1", "20", "200"})
+    public int viewerCount;
+
+    private Player source;
+    private Component displayName;
+    private Component message;
+    private Audience[] viewers;
+
+    @Setup
+    public void setUp() {
+        source = mock(Player.class);
+        displayName = Component.text("Steve");
+        message = Component.text("anyone wanna trade diamonds for emeralds?");
+        viewers = new Audience[viewerCount];
+        for (int i = 0; i < viewerCount; i++) {
+            viewers[i] = Audience.empty();
+        }
+    }
+
+    @Benchmark
+    public void perViewer(Blackhole blackhole) {
+        ChatRenderer renderer = (renderSource, sourceDisplayName, renderMessage, viewer) -> ChatUtils.translateColors(CHAT_LINE, true);
+        for (Audience viewer : viewers) {
+            blackhole.consume(renderer.render(source, displayName, message, viewer));
+        }
+    }
+
+    @Benchmark
+    public void shared(Blackhole blackhole) {
+        Component chatLine = ChatUtils.translateColors(CHAT_LINE, true);
+        ChatRenderer renderer = ChatRenderer.viewerUnaware((renderSource, sourceDisplayName, renderMessage) -> chatLine);
+        for (Audience viewer : viewers) {
+            blackhole.consume(renderer.render(source, displayName, message, viewer));
+        }
+    }
+}
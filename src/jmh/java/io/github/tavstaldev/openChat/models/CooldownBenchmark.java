@@ -0,0 +1,67 @@
+package io.github.tavstaldev.openChat.models;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link Cooldown} with the previous {@link LocalDateTime} timestamps under concurrent chat load.
+ * <br/>
+ * Each thread is a player with its own state. The {@code allowed} benchmarks are a message that passes the check
+ * and starts the delay; the {@code blocked} benchmarks are a message that hits an active delay and
+ * computes the remaining time for the reply.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CooldownBenchmark {
+
+    @State(Scope.Thread)
+    public static class PlayerState {
+        private LocalDateTime chatMessageDelay; // The previous timestamp of the last allowed chat message.
+        private LocalDateTime blockedDelay; // A previous timestamp that is still in the future.
+        private final Cooldown chatCooldown = new Cooldown();
+        private final Cooldown blockedCooldown = new Cooldown();
+
+        @Setup
+        public void setUp() {
+            chatMessageDelay = LocalDateTime.now().minusHours(1);
+            blockedDelay = LocalDateTime.now().plusHours(1);
+            blockedCooldown.start(1, TimeUnit.HOURS);
+        }
+    }
+
+    @Benchmark
+    public boolean legacyAllowed(PlayerState state) {
+        if (LocalDateTime.now().isBefore(state.chatMessageDelay))
+            return false;
+        state.chatMessageDelay = LocalDateTime.now().plusSeconds(0);
+        return true;
+    }
+
+    @Benchmark
+    public boolean cooldownAllowed(PlayerState state) {
+        if (state.chatCooldown.isActive())
+            return false;
+        state.chatCooldown.startSeconds(0);
+        return true;
+    }
+
+    @Benchmark
+    public long legacyBlocked(PlayerState state) {
+        if (LocalDateTime.now().isBefore(state.blockedDelay))
+            return state.blockedDelay.getSecond() - LocalDateTime.now().getSecond() + 1;
+        return 0;
+    }
+
+    @Benchmark
+    public long cooldownBlocked(PlayerState state) {
+        if (state.blockedCooldown.isActive())
+            return state.blockedCooldown.getRemainingSeconds();
+        return 0;
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.tavstaldev.openChat.models;
+
+import io.github.tavstaldev.openChat.ChatCorpus;
+import io.github.tavstaldev.openChat.util.StringUtil;
+import io.github.tavstaldev.openChat.util.TextNormalizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the repeated message detection modes on the chat corpus.
+ * <br/>
+ * {@code legacy} is the previous check, the Jaro-Winkler similarity with the single previous message.
+ * {@code record} stores each message in a {@link MessageHistory} and compares it with the whole window.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageHistoryBenchmark {
+    private static final double THRESHOLD = 0.85;
+
+    private String[] messages;
+    private int index;
+    private String lastMessage = "";
+
+    /**
+     * The history of the player and the settings it is checked with.
+     */
+    @State(Scope.Thread)
+    public static class HistoryState {
+        @Param({"FINGERPRINT", "EXACT"})
+        public ESimilarityMode mode;
+
+        @Param({"1", "5", "20"})
+        public int window;
+
+        private final MessageHistory history = new MessageHistory();
+    }
+
+    @Setup
+    public void setUp() {
+        messages = ChatCorpus.load();
+    }
+
+    private String nextMessage() {
+        String message = messages[index];
+        index = (index + 1) % messages.length;
+        return message;
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String message = nextMessage();
+        boolean similar = StringUtil.similarity(message, lastMessage) >= THRESHOLD;
+        lastMessage = message;
+        return similar;
+    }
+
+    @Benchmark
+    public int record(HistoryState state) {
+        return state.history.record(TextNormalizer.normalize(nextMessage()), state.mode, state.window, THRESHOLD);
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.tavstaldev.openChat.models.systems;
+
+import io.github.tavstaldev.openChat.ChatCorpus;
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.TestEnvironment;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares the advertisement checks on the chat corpus.
+ * <br/>
+ * {@code legacyRegex} is the previous check: the whitelist is removed with {@code replaceAll}, then the
+ * default regex is searched. {@code regexFallback} is the opt-in regex mode, {@code scanner} is the default mode.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AntiAdvertisementBenchmark {
+    private static final String DEFAULT_REGEX = "(?i)((?:[a-z0-9-]+\\.)+[a-z]{2,}|(?:25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)(?:\\.(?:25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)){3})";
+    private static final List<String> DEFAULT_WHITELIST = List.of("minecraft.com", "discord.gg/minecraft");
+    private String[] messages;
+    private Pattern legacyPattern;
+    private Pattern legacyWhitelistPattern;
+    private AntiAdvertisementSystem regexSystem;
+    private AntiAdvertisementSystem scannerSystem;
+
+    @Setup
+    public void setUp() {
+        OpenChat plugin = TestEnvironment.setUp();
+        ModerationConfig config = mock(ModerationConfig.class);
+        config.antiAdvertisementRegex = DEFAULT_REGEX;
+        config.antiAdvertisementWhitelist = new LinkedHashSet<>(DEFAULT_WHITELIST);
+        TestEnvironment.set(plugin, "moderationConfig", config);
+
+        config.antiAdvertisementUseRegex = false;
+        scannerSystem = new AntiAdvertisementSystem();
+        config.antiAdvertisementUseRegex = true;
+        regexSystem = new AntiAdvertisementSystem();
+
+        legacyPattern = Pattern.compile(DEFAULT_REGEX, Pattern.CASE_INSENSITIVE);
+        legacyWhitelistPattern = Pattern.compile(DEFAULT_WHITELIST.stream().map(Pattern::quote).collect(Collectors.joining("|")), Pattern.CASE_INSENSITIVE);
+        messages = ChatCorpus.load();
+    }
+
+    @TearDown
+    public void tearDown() {
+        TestEnvironment.tearDown();
+    }
+
+    @Benchmark
+    public void legacyRegex(Blackhole blackhole) {
+        for (String message : messages) {
+            String sanitizedMessage = legacyWhitelistPattern.matcher(message).replaceAll("");
+            blackhole.consume(legacyPattern.matcher(sanitizedMessage).find());
+        }
+    }
+
+    @Benchmark
+    public void regexFallback(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(regexSystem.containsAdvertisement(message));
+        }
+    }
+
+    @Benchmark
+    public void scanner(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(scannerSystem.containsAdvertisement(message));
+        }
+    }
+}
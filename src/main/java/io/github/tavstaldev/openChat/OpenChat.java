@@ -9,17 +9,31 @@ import io.github.tavstaldev.openChat.config.BadWordsConfig;
 import io.github.tavstaldev.openChat.config.GeneralConfig;
 import io.github.tavstaldev.openChat.config.ModerationConfig;
 import io.github.tavstaldev.openChat.config.StorageConfig;
+import io.github.tavstaldev.openChat.database.AsyncDatabase;
+import io.github.tavstaldev.openChat.database.IAsyncDatabase;
 import io.github.tavstaldev.openChat.database.IDatabase;
-import io.github.tavstaldev.openChat.database.MySqlDatabase;
-import io.github.tavstaldev.openChat.database.SqlLiteDatabase;
+import io.github.tavstaldev.openChat.database.IStorageProvider;
+import io.github.tavstaldev.openChat.database.StorageRegistry;
+import io.github.tavstaldev.openChat.database.ViolationWriter;
+import io.github.tavstaldev.openChat.database.WriteBehindDatabase;
 import io.github.tavstaldev.openChat.events.*;
 import io.github.tavstaldev.openChat.managers.*;
 import io.github.tavstaldev.openChat.metrics.Metrics;
+import io.github.tavstaldev.openChat.models.IgnoreGraph;
 import io.github.tavstaldev.openChat.models.PlayerCache;
+import io.github.tavstaldev.openChat.models.PlayerPositions;
 import io.github.tavstaldev.openChat.models.systems.AntiAdvertisementSystem;
 import io.github.tavstaldev.openChat.models.systems.AntiSwearSystem;
+import io.github.tavstaldev.openChat.models.systems.FloodDetectionSystem;
+import io.github.tavstaldev.openChat.models.systems.SlowModeSystem;
 import io.github.tavstaldev.openChat.models.systems.CommandCheckerSystem;
-import io.github.tavstaldev.openChat.tasks.CacheCleanTask;
+import io.github.tavstaldev.openChat.pipeline.ChatPipeline;
+import io.github.tavstaldev.openChat.tasks.PlayerDataFlushTask;
+import io.github.tavstaldev.openChat.tasks.PlayerPositionTask;
+import io.github.tavstaldev.openChat.tasks.SlowModeTask;
+import io.github.tavstaldev.openChat.tasks.ViolationRetentionTask;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
+import io.github.tavstaldev.openChat.util.ViolationUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
 
@@ -33,19 +47,49 @@ public final class OpenChat extends PluginBase {
     private StorageConfig storageConfig;
     private ModerationConfig moderationConfig;
     private BadWordsConfig badWordsConfig;
-    private IDatabase database; // Database manager for handling player data storage.
+    private WriteBehindDatabase database; // Database manager for handling player data storage, buffers the player data updates.
+    private IAsyncDatabase asyncDatabase; // Runs the database operations off the main thread.
+    private ViolationWriter violationWriter; // Writes the violations in batches from a queue.
+    private final IgnoreGraph ignoreGraph = new IgnoreGraph(); // The ignore lists of the online players.
+    private final PlayerPositions playerPositions = new PlayerPositions(); // The positions of the online players for the local chat.
     private ICombatManager combatManager; // Combat manager for handling combat-related features.
     private IPermissionManager permissionManager; // Permission manager for handling player permissions.
     private AntiAdvertisementSystem advertisementSystem; // System for detecting advertisements in chat.
     private AntiSwearSystem antiSwearSystem; // System for detecting swear words in chat.
     private CommandCheckerSystem commandCheckerSystem; // System for checking commands.
+    private FloodDetectionSystem floodDetectionSystem; // System for detecting server-wide chat floods.
+    private SlowModeSystem slowModeSystem; // System for slowing down the chat when it gets busy.
+    private SlowModeTask slowModeTask; // Task for adjusting the slow mode delay.
+    private PlayerDataFlushTask playerDataFlushTask; // Task for writing the buffered player data updates.
+    private ViolationRetentionTask violationRetentionTask; // Task for removing the old violations.
+    private PlayerPositionTask playerPositionTask; // Task for refreshing the player positions of the local chat.
+    private ChatPipeline chatPipeline; // Pipeline of the chat moderation stages.
     private OpEventListener opEventListener; // Listener for operator-related events.
-    private CacheCleanTask cacheCleanTask; // Task for cleaning player caches.
 
     public static IDatabase database() {
         return Instance.database;
     }
 
+    public static WriteBehindDatabase writeBehindDatabase() {
+        return Instance.database;
+    }
+
+    public static IAsyncDatabase asyncDatabase() {
+        return Instance.asyncDatabase;
+    }
+
+    public static ViolationWriter violationWriter() {
+        return Instance.violationWriter;
+    }
+
+    public static IgnoreGraph ignoreGraph() {
+        return Instance.ignoreGraph;
+    }
+
+    public static PlayerPositions playerPositions() {
+        return Instance.playerPositions;
+    }
+
     public static ICombatManager combatManager() {
         return Instance.combatManager;
     }
@@ -112,6 +156,33 @@ public final class OpenChat extends PluginBase {
         return Instance.commandCheckerSystem;
     }
 
+    /**
+     * Retrieves the FloodDetectionSystem instance.
+     *
+     * @return The FloodDetectionSystem instance.
+     */
+    public static FloodDetectionSystem floodDetectionSystem() {
+        return Instance.floodDetectionSystem;
+    }
+
+    /**
+     * Retrieves the SlowModeSystem instance.
+     *
+     * @return The SlowModeSystem instance.
+     */
+    public static SlowModeSystem slowModeSystem() {
+        return Instance.slowModeSystem;
+    }
+
+    /**
+     * Retrieves the ChatPipeline instance.
+     *
+     * @return The ChatPipeline instance.
+     */
+    public static ChatPipeline chatPipeline() {
+        return Instance.chatPipeline;
+    }
+
     /**
      * Constructor for the OpenChat plugin.
      * Sets the URL for the latest release of the plugin.
@@ -186,21 +257,20 @@ public final class OpenChat extends PluginBase {
         // Create Database
         String databaseType = storageConfig.type;
         if (databaseType == null)
-            databaseType = "sqlite";
-        switch (databaseType.toLowerCase()) {
-            case "mysql":
-            case "mariadb": {
-                database = new MySqlDatabase();
-                break;
-            }
-            case "sqlite":
-            default: {
-                database = new SqlLiteDatabase();
-                break;
-            }
+            databaseType = StorageRegistry.DEFAULT_TYPE;
+        IStorageProvider storageProvider = StorageRegistry.get(databaseType);
+        if (storageProvider == null) {
+            _logger.warn(String.format("Unknown storage type: %s, defaulting to %s. Available types: %s",
+                    databaseType, StorageRegistry.DEFAULT_TYPE, String.join(", ", StorageRegistry.getTypes())));
+            storageProvider = StorageRegistry.get(StorageRegistry.DEFAULT_TYPE);
         }
+        database = new WriteBehindDatabase(storageProvider.create());
         database.load();
         database.checkSchema();
+        int databaseThreads = storageProvider.isSingleWriter() ? 1 : storageConfig.asyncThreads;
+        asyncDatabase = new AsyncDatabase(database, databaseThreads, storageConfig.asyncQueueSize);
+        violationWriter = new ViolationWriter(database, storageConfig.violationQueueSize, storageConfig.violationBatchSize);
+        violationWriter.start();
 
         // Register event listeners.
         new PlayerEventListener(this);
@@ -215,6 +285,41 @@ public final class OpenChat extends PluginBase {
         advertisementSystem = new AntiAdvertisementSystem();
         antiSwearSystem = new AntiSwearSystem();
         commandCheckerSystem = new CommandCheckerSystem();
+        floodDetectionSystem = new FloodDetectionSystem();
+        slowModeSystem = new SlowModeSystem();
+        chatPipeline = ChatPipeline.build(config(), moderationConfig);
+
+        // Register slow mode task.
+        if (slowModeTask != null && !slowModeTask.isCancelled())
+            slowModeTask.cancel();
+        if (moderationConfig.slowModeEnabled) {
+            long interval = Math.max(1, moderationConfig.slowModeUpdateInterval) * 20L;
+            slowModeTask = new SlowModeTask();
+            slowModeTask.runTaskTimerAsynchronously(this, interval, interval);
+        }
+
+        // Register player data flush task.
+        if (playerDataFlushTask != null && !playerDataFlushTask.isCancelled())
+            playerDataFlushTask.cancel();
+        long flushInterval = Math.max(1, storageConfig.flushInterval) * 20L;
+        playerDataFlushTask = new PlayerDataFlushTask();
+        playerDataFlushTask.runTaskTimer(this, flushInterval, flushInterval);
+
+        // Register violation retention task.
+        if (violationRetentionTask != null && !violationRetentionTask.isCancelled())
+            violationRetentionTask.cancel();
+        violationRetentionTask = new ViolationRetentionTask();
+        violationRetentionTask.runTaskTimer(this, 20L * 60, 20L * 60 * 10);
+
+        // Register player position task.
+        if (playerPositionTask != null && !playerPositionTask.isCancelled())
+            playerPositionTask.cancel();
+        if (config().customChatEnabled && config().customChatLocalChatDistance > 0) {
+            playerPositionTask = new PlayerPositionTask();
+            playerPositionTask.runTaskTimer(this, 1L, 1L);
+        } else {
+            playerPositions.clear();
+        }
 
         // Register commands.
         _logger.debug("Registering commands...");
@@ -234,12 +339,6 @@ public final class OpenChat extends PluginBase {
             new CommandWhisperToggle();
         }
 
-        // Register cache cleanup task.
-        if (cacheCleanTask != null && !cacheCleanTask.isCancelled())
-            cacheCleanTask.cancel();
-        cacheCleanTask = new CacheCleanTask(); // Runs every 5 minutes
-        cacheCleanTask.runTaskTimerAsynchronously(this, 0, 5 * 60 * 20);
-
         // Metrics
         try {
             @SuppressWarnings("unused") Metrics metrics = new Metrics(this, 27756);
@@ -251,7 +350,14 @@ public final class OpenChat extends PluginBase {
 
         // Register cache for all online players (in case of reload)
         Bukkit.getOnlinePlayers().forEach(player -> {
-            PlayerCacheManager.add(player.getUniqueId(), new PlayerCache(player));
+            PlayerCache playerCache = new PlayerCache(player);
+            PlayerCacheManager.add(player.getUniqueId(), playerCache);
+            ViolationUtil.loadViolationCounter(player.getUniqueId(), playerCache);
+            ignoreGraph.loadAsync(player);
+            SchedulerUtil.thenSync(asyncDatabase.getPlayerData(player.getUniqueId()), playerData -> playerData.ifPresent(data -> {
+                if (player.isOnline())
+                    RecipientStateManager.load(data);
+            }));
         });
 
         _logger.ok(String.format("%s has been successfully loaded.", getProjectName()));
@@ -277,8 +383,22 @@ public final class OpenChat extends PluginBase {
      */
     @Override
     public void onDisable() {
-        if (cacheCleanTask != null && !cacheCleanTask.isCancelled())
-            cacheCleanTask.cancel();
+        if (slowModeTask != null && !slowModeTask.isCancelled())
+            slowModeTask.cancel();
+        if (playerDataFlushTask != null && !playerDataFlushTask.isCancelled())
+            playerDataFlushTask.cancel();
+        if (violationRetentionTask != null && !violationRetentionTask.isCancelled())
+            violationRetentionTask.cancel();
+        if (playerPositionTask != null && !playerPositionTask.isCancelled())
+            playerPositionTask.cancel();
+        // Write the queued violations and finish the queued operations,
+        // then write the buffered player data before closing the database
+        if (violationWriter != null)
+            violationWriter.shutdown();
+        if (asyncDatabase != null)
+            asyncDatabase.shutdown();
+        if (database != null)
+            database.unload();
         _logger.info(String.format("%s has been successfully unloaded.", getProjectName()));
     }
 
@@ -302,13 +422,43 @@ public final class OpenChat extends PluginBase {
         advertisementSystem = new AntiAdvertisementSystem();
         antiSwearSystem = new AntiSwearSystem();
         commandCheckerSystem = new CommandCheckerSystem();
-        opEventListener.updateAllowedOperators();
+        floodDetectionSystem = new FloodDetectionSystem();
+        slowModeSystem = new SlowModeSystem();
+        chatPipeline = ChatPipeline.build(config(), moderationConfig);
+
+        // Restart slow mode task
+        if (slowModeTask != null && !slowModeTask.isCancelled())
+            slowModeTask.cancel();
+        if (moderationConfig.slowModeEnabled) {
+            long interval = Math.max(1, moderationConfig.slowModeUpdateInterval) * 20L;
+            slowModeTask = new SlowModeTask();
+            slowModeTask.runTaskTimerAsynchronously(this, interval, interval);
+        }
 
-        // Restart cache cleanup task
-        if (cacheCleanTask != null && !cacheCleanTask.isCancelled())
-            cacheCleanTask.cancel();
-        cacheCleanTask = new CacheCleanTask(); // Runs every 5 minutes
-        cacheCleanTask.runTaskTimerAsynchronously(this, 0, 5 * 60 * 20);
+        // Restart player data flush task
+        if (playerDataFlushTask != null && !playerDataFlushTask.isCancelled())
+            playerDataFlushTask.cancel();
+        long flushInterval = Math.max(1, storageConfig.flushInterval) * 20L;
+        playerDataFlushTask = new PlayerDataFlushTask();
+        playerDataFlushTask.runTaskTimer(this, flushInterval, flushInterval);
+
+        // Restart violation retention task
+        if (violationRetentionTask != null && !violationRetentionTask.isCancelled())
+            violationRetentionTask.cancel();
+        violationRetentionTask = new ViolationRetentionTask();
+        violationRetentionTask.runTaskTimer(this, 20L * 60, 20L * 60 * 10);
+
+        // Restart player position task
+        if (playerPositionTask != null && !playerPositionTask.isCancelled())
+            playerPositionTask.cancel();
+        if (config().customChatEnabled && config().customChatLocalChatDistance > 0) {
+            playerPositionTask = new PlayerPositionTask();
+            playerPositionTask.runTaskTimer(this, 1L, 1L);
+        } else {
+            playerPositions.clear();
+        }
+
+        opEventListener.updateAllowedOperators();
 
         // Update database
         database.update();
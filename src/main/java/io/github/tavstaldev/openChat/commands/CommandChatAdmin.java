@@ -4,7 +4,12 @@ import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.models.command.SubCommandData;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
-import io.github.tavstaldev.openChat.models.database.PlayerData;
+import io.github.tavstaldev.openChat.database.ViolationWriter;
+import io.github.tavstaldev.openChat.database.WriteBehindDatabase;
+import io.github.tavstaldev.openChat.managers.RecipientStateManager;
+import io.github.tavstaldev.openChat.pipeline.ChatPipeline;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import io.github.tavstaldev.openChat.util.StringUtil;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
@@ -74,6 +79,11 @@ public class CommandChatAdmin implements CommandExecutor, TabCompleter {
                     "syntax", "Commands.Admin.Log.Syntax",
                     "description", "Commands.Admin.Log.Desc"
             )));
+            // TIMINGS subcommand
+            add(new SubCommandData("timings", "openchat.commands.chatadmin.timings", Map.of(
+                    "syntax", "Commands.Admin.Timings.Syntax",
+                    "description", "Commands.Admin.Timings.Desc"
+            )));
         }
     };
 
@@ -159,105 +169,109 @@ public class CommandChatAdmin implements CommandExecutor, TabCompleter {
                     ));
                     return true;
                 }
-                String targetPlayerName = targetPlayer.getName();
-                if (targetPlayerName == null)
-                    targetPlayerName = args[2];
+                String targetPlayerName = targetPlayer.getName() != null ? targetPlayer.getName() : args[2];
 
-                var playerDataOpt = OpenChat.database().getPlayerData(targetPlayer.getUniqueId());
-                if (playerDataOpt.isEmpty()) {
-                    OpenChat.Instance.sendCommandReply(sender, "General.Error");
-                    return true;
-                }
-
-                boolean isJoin;
-                switch (args[3].toLowerCase()) {
-                    case "join": {
-                        isJoin = true;
-                        break;
-                    }
-                    case "leave":
-                    case "quit": {
-                        isJoin = false;
-                        break;
+                SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(targetPlayer.getUniqueId()), playerDataOpt -> {
+                    if (playerDataOpt.isEmpty()) {
+                        OpenChat.Instance.sendCommandReply(sender, "General.Error");
+                        return;
                     }
-                    default: {
-                        OpenChat.Instance.sendCommandReply(sender, "Commands.InvalidArguments");
-                        return true;
-                    }
-                }
 
-                String subCommand = args[1].toLowerCase();
-                switch (subCommand) {
-                    case "set": {
-                        if (args.length < 5) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.SetUsage");
-                            return true;
+                    boolean isJoin;
+                    switch (args[3].toLowerCase()) {
+                        case "join": {
+                            isJoin = true;
+                            break;
                         }
-
-                        String message = String.join(" ", args).substring(args[0].length() + args[1].length() + args[2].length() + args[3].length() + 4);
-                        if (!message.contains("{player}")) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.CustomGreeting.Set.NoPlayerPlaceholder");
-                            return true;
+                        case "leave":
+                        case "quit": {
+                            isJoin = false;
+                            break;
                         }
-
-                        if (message.length() > 128) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.CustomGreeting.Set.MessageTooLong",
-                                    Map.of("length", "128")
-                            );
-                            return true;
+                        default: {
+                            OpenChat.Instance.sendCommandReply(sender, "Commands.InvalidArguments");
+                            return;
                         }
+                    }
 
-                        if (OpenChat.antiSwearSystem().containsSwearWord(message)) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.CustomGreeting.Set.SwearWordDetected");
-                            return true;
+                    String subCommand = args[1].toLowerCase();
+                    switch (subCommand) {
+                        case "set": {
+                            if (args.length < 5) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.SetUsage");
+                                return;
+                            }
+
+                            String message = String.join(" ", args).substring(args[0].length() + args[1].length() + args[2].length() + args[3].length() + 4);
+                            if (!message.contains("{player}")) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.CustomGreeting.Set.NoPlayerPlaceholder");
+                                return;
+                            }
+
+                            if (message.length() > 128) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.CustomGreeting.Set.MessageTooLong",
+                                        Map.of("length", "128")
+                                );
+                                return;
+                            }
+
+                            if (OpenChat.antiSwearSystem().containsSwearWord(message)) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.CustomGreeting.Set.SwearWordDetected");
+                                return;
+                            }
+
+                            if (OpenChat.advertisementSystem().containsAdvertisement(message)) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.CustomGreeting.Set.AdvertisingDetected");
+                                return;
+                            }
+
+                            var playerData = playerDataOpt.get();
+                            if (isJoin)
+                                playerData.setCustomJoinMessage(message);
+                            else
+                                playerData.setCustomLeaveMessage(message);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData);
+                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.Success", Map.of("player", targetPlayerName));
+                            if (targetPlayer.isOnline())
+                                OpenChat.Instance.sendLocalizedMsg(targetPlayer.getPlayer(), "Commands.Admin.Greeting.SuccessOther");
+                            return;
                         }
-
-                        if (OpenChat.advertisementSystem().containsAdvertisement(message)) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.CustomGreeting.Set.AdvertisingDetected");
-                            return true;
+                        case "get": {
+                            var playerData = playerDataOpt.get();
+                            if (isJoin)
+                            {
+                                if (playerData.getCustomJoinMessage() == null)
+                                    OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.None", Map.of("player", targetPlayerName));
+                                else
+                                    OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.Get", Map.of("message", playerData.getCustomJoinMessage()));
+                            }
+                            else {
+                                if (playerData.getCustomLeaveMessage() == null)
+                                    OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.None", Map.of("player", targetPlayerName));
+                                else
+                                    OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.Get", Map.of("message", playerData.getCustomLeaveMessage()));
+                            }
+                            return;
                         }
-
-                        var playerData = playerDataOpt.get();
-                        if (isJoin)
-                            playerData.setCustomJoinMessage(message);
-                        else
-                            playerData.setCustomLeaveMessage(message);
-                        OpenChat.database().updatePlayerData(playerData);
-                        OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.Success", Map.of("player", targetPlayerName));
-                        if (targetPlayer.isOnline())
-                            OpenChat.Instance.sendLocalizedMsg(targetPlayer.getPlayer(), "Commands.Admin.Greeting.SuccessOther");
-                        return  true;
-                    }
-                    case "get": {
-                        var playerData = playerDataOpt.get();
-                        if (isJoin)
-                        {
-                            if (playerData.getCustomJoinMessage() == null)
-                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.None", Map.of("player", targetPlayerName));
+                        case "clear": {
+                            var playerData = playerDataOpt.get();
+                            if (isJoin)
+                                playerData.setCustomJoinMessage(null);
                             else
-                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.Get", Map.of("message", playerData.getCustomJoinMessage()));
+                                playerData.setCustomLeaveMessage(null);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData);
+                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.Success", Map.of("player", targetPlayerName));
+                            if (targetPlayer.isOnline())
+                                OpenChat.Instance.sendLocalizedMsg(targetPlayer.getPlayer(), "Commands.Admin.Greeting.SuccessOther");
+                            return;
                         }
-                        else {
-                            if (playerData.getCustomLeaveMessage() == null)
-                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.None", Map.of("player", targetPlayerName));
-                            else
-                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.Get", Map.of("message", playerData.getCustomLeaveMessage()));
+                        default: {
+                            OpenChat.Instance.sendCommandReply(sender, "Commands.InvalidArguments");
+                            break;
                         }
-                        return  true;
                     }
-                    case "clear": {
-                        var playerData = playerDataOpt.get();
-                        if (isJoin)
-                            playerData.setCustomJoinMessage(null);
-                        else
-                            playerData.setCustomLeaveMessage(null);
-                        OpenChat.database().updatePlayerData(playerData);
-                        OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Greeting.Success", Map.of("player", targetPlayerName));
-                        if (targetPlayer.isOnline())
-                            OpenChat.Instance.sendLocalizedMsg(targetPlayer.getPlayer(), "Commands.Admin.Greeting.SuccessOther");
-                        return  true;
-                    }
-                }
+                });
+                return true;
             }
             case "chatcolor": {
                 if (!sender.hasPermission("openchat.commands.chatadmin.chatcolor")) {
@@ -277,69 +291,121 @@ public class CommandChatAdmin implements CommandExecutor, TabCompleter {
                     ));
                     return true;
                 }
-                String targetPlayerName = targetPlayer.getName();
-                if (targetPlayerName == null)
-                    targetPlayerName = args[2];
-
-                var playerDataOpt = OpenChat.database().getPlayerData(targetPlayer.getUniqueId());
-                if (playerDataOpt.isEmpty()) {
-                    OpenChat.Instance.sendCommandReply(sender, "General.Error");
-                    return true;
-                }
+                String targetPlayerName = targetPlayer.getName() != null ? targetPlayer.getName() : args[2];
 
-                String subCommand = args[1].toLowerCase();
-                switch (subCommand) {
-                    case "set": {
-                        if (args.length < 4) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.InvalidArguments");
-                            return true;
-                        }
-
-                        String color = args[3].toLowerCase();
-                        boolean isHex = StringUtil.isValidHexColor(color);
-
-                        if (!(colorCodes.containsKey(color) || isHex)) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.InvalidColor", Map.of(
-                                    "value", color
-                            ));
-                            return true;
-                        }
-                        String hexColor = isHex ? color : colorCodes.get(color);
-
-                        var playerData = playerDataOpt.get();
-                        playerData.setMessageColor(hexColor);
-                        OpenChat.database().updatePlayerData(playerData);
-                        OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.ChatColor.Success", Map.of(
-                                "player", targetPlayerName,
-                                "color", hexColor
-                        ));
-                        if (targetPlayer.isOnline())
-                            OpenChat.Instance.sendLocalizedMsg(targetPlayer.getPlayer(), "Commands.Admin.ChatColor.SuccessOther", Map.of("color", hexColor));
-                        return true;
+                SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(targetPlayer.getUniqueId()), playerDataOpt -> {
+                    if (playerDataOpt.isEmpty()) {
+                        OpenChat.Instance.sendCommandReply(sender, "General.Error");
+                        return;
                     }
-                    case "get": {
-                        var playerData = playerDataOpt.get();
-                        String messageColor = playerData.getMessageColor();
-                        if (messageColor == null) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.ChatColor.None", Map.of("player", targetPlayerName));
-                        } else {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.ChatColor.Get", Map.of(
+
+                    String subCommand = args[1].toLowerCase();
+                    switch (subCommand) {
+                        case "set": {
+                            if (args.length < 4) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.InvalidArguments");
+                                return;
+                            }
+
+                            String color = args[3].toLowerCase();
+                            boolean isHex = StringUtil.isValidHexColor(color);
+
+                            if (!(colorCodes.containsKey(color) || isHex)) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.InvalidColor", Map.of(
+                                        "value", color
+                                ));
+                                return;
+                            }
+                            String hexColor = isHex ? color : colorCodes.get(color);
+
+                            var playerData = playerDataOpt.get();
+                            playerData.setMessageColor(hexColor);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData);
+                            RecipientStateManager.update(playerData);
+                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.ChatColor.Success", Map.of(
                                     "player", targetPlayerName,
-                                    "color", messageColor
+                                    "color", hexColor
                             ));
+                            if (targetPlayer.isOnline())
+                                OpenChat.Instance.sendLocalizedMsg(targetPlayer.getPlayer(), "Commands.Admin.ChatColor.SuccessOther", Map.of("color", hexColor));
+                            return;
+                        }
+                        case "get": {
+                            var playerData = playerDataOpt.get();
+                            String messageColor = playerData.getMessageColor();
+                            if (messageColor == null) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.ChatColor.None", Map.of("player", targetPlayerName));
+                            } else {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.ChatColor.Get", Map.of(
+                                        "player", targetPlayerName,
+                                        "color", messageColor
+                                ));
+                            }
+                            return;
+                        }
+                        case "clear": {
+                            var playerData = playerDataOpt.get();
+                            playerData.setMessageColor(null);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData);
+                            RecipientStateManager.update(playerData);
+                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.ChatColor.Clear", Map.of("player", targetPlayerName));
+                            if (targetPlayer.isOnline())
+                                OpenChat.Instance.sendLocalizedMsg(targetPlayer.getPlayer(), "Commands.Admin.ChatColor.ClearOther");
+                            return;
+                        }
+                        default: {
+                            OpenChat.Instance.sendCommandReply(sender, "Commands.InvalidArguments");
+                            break;
                         }
-                        return true;
-                    }
-                    case "clear": {
-                        var playerData = playerDataOpt.get();
-                        playerData.setMessageColor(null);
-                        OpenChat.database().updatePlayerData(playerData);
-                        OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.ChatColor.Clear", Map.of("player", targetPlayerName));
-                        if (targetPlayer.isOnline())
-                            OpenChat.Instance.sendLocalizedMsg(targetPlayer.getPlayer(), "Commands.Admin.ChatColor.ClearOther");
-                        return true;
                     }
+                });
+                return true;
+            }
+            case "timings": {
+                if (!sender.hasPermission("openchat.commands.chatadmin.timings")) {
+                    OpenChat.Instance.sendCommandReply(sender, "General.NoPermission");
+                    return true;
+                }
+
+                ChatPipeline pipeline = OpenChat.chatPipeline();
+                if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+                    pipeline.resetTimings();
+                    OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Timings.Reset");
+                    return true;
+                }
+
+                var stages = pipeline.getStages();
+                if (stages.isEmpty()) {
+                    OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Timings.Empty");
+                    return true;
+                }
+
+                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Timings.Title", Map.of("stages", stages.size()));
+                for (ChatStage stage : stages) {
+                    OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Timings.Entry", Map.of(
+                            "stage", stage.getName(),
+                            "average", String.format("%.3f", stage.getAverageNanos() / 1_000_000.0),
+                            "max", String.format("%.3f", stage.getMaxNanos() / 1_000_000.0),
+                            "calls", stage.getInvocations()
+                    ));
                 }
+
+                // Player data write-behind buffer
+                WriteBehindDatabase database = OpenChat.writeBehindDatabase();
+                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Timings.Storage", Map.of(
+                        "pending", database.getPendingCount(),
+                        "written", database.getLastFlushSize(),
+                        "lag", String.format("%.3f", database.getLastFlushLagNanos() / 1_000_000.0),
+                        "max", String.format("%.3f", database.getMaxFlushLagNanos() / 1_000_000.0)
+                ));
+
+                // Violation writer queue
+                ViolationWriter violationWriter = OpenChat.violationWriter();
+                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Timings.Violations", Map.of(
+                        "queued", violationWriter.getQueueSize(),
+                        "dropped", violationWriter.getDroppedCount()
+                ));
+                return true;
             }
             case "log": {
                 if (!(sender instanceof Player player)) {
@@ -362,20 +428,21 @@ public class CommandChatAdmin implements CommandExecutor, TabCompleter {
                     case "swear":
                     case "antiswear":
                     case "anti-swear": {
-                        Optional<PlayerData> playerData = OpenChat.database().getPlayerData(player.getUniqueId());
-                        if (playerData.isEmpty()) {
-                            OpenChat.Instance.sendCommandReply(sender, "General.Error");
-                            return true;
-                        }
-
-                        boolean isEnabled = playerData.get().isAntiSwearLogsEnabled();
-                        playerData.get().setAntiSwearLogsEnabled(!isEnabled);
-                        OpenChat.database().updatePlayerData(playerData.get());
-                        if (isEnabled) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Disabled.Swear");
-                        } else {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Enabled.Swear");
-                        }
+                        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), playerData -> {
+                            if (playerData.isEmpty()) {
+                                OpenChat.Instance.sendCommandReply(sender, "General.Error");
+                                return;
+                            }
+
+                            boolean isEnabled = playerData.get().isAntiSwearLogsEnabled();
+                            playerData.get().setAntiSwearLogsEnabled(!isEnabled);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData.get());
+                            if (isEnabled) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Disabled.Swear");
+                            } else {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Enabled.Swear");
+                            }
+                        });
                         return true;
                     }
                     case "advertisement":
@@ -383,39 +450,41 @@ public class CommandChatAdmin implements CommandExecutor, TabCompleter {
                     case "antiad":
                     case "anti-advertisement":
                     case "anti-ad": {
-                        Optional<PlayerData> playerData = OpenChat.database().getPlayerData(player.getUniqueId());
-                        if (playerData.isEmpty()) {
-                            OpenChat.Instance.sendCommandReply(sender, "General.Error");
-                            return true;
-                        }
-
-                        boolean isEnabled = playerData.get().isAntiAdLogsEnabled();
-                        playerData.get().setAntiAdLogsEnabled(!isEnabled);
-                        OpenChat.database().updatePlayerData(playerData.get());
-                        if (isEnabled) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Disabled.Advertisement");
-                        } else {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Enabled.Advertisement");
-                        }
+                        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), playerData -> {
+                            if (playerData.isEmpty()) {
+                                OpenChat.Instance.sendCommandReply(sender, "General.Error");
+                                return;
+                            }
+
+                            boolean isEnabled = playerData.get().isAntiAdLogsEnabled();
+                            playerData.get().setAntiAdLogsEnabled(!isEnabled);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData.get());
+                            if (isEnabled) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Disabled.Advertisement");
+                            } else {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Enabled.Advertisement");
+                            }
+                        });
                         return true;
                     }
                     case "spam":
                     case "antispam":
                     case "anti-spam": {
-                        Optional<PlayerData> playerData = OpenChat.database().getPlayerData(player.getUniqueId());
-                        if (playerData.isEmpty()) {
-                            OpenChat.Instance.sendCommandReply(sender, "General.Error");
-                            return true;
-                        }
-
-                        boolean isEnabled = playerData.get().isAntiSpamLogsEnabled();
-                        playerData.get().setAntiSpamLogsEnabled(!isEnabled);
-                        OpenChat.database().updatePlayerData(playerData.get());
-                        if (isEnabled) {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Disabled.Spam");
-                        } else {
-                            OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Enabled.Spam");
-                        }
+                        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), playerData -> {
+                            if (playerData.isEmpty()) {
+                                OpenChat.Instance.sendCommandReply(sender, "General.Error");
+                                return;
+                            }
+
+                            boolean isEnabled = playerData.get().isAntiSpamLogsEnabled();
+                            playerData.get().setAntiSpamLogsEnabled(!isEnabled);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData.get());
+                            if (isEnabled) {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Disabled.Spam");
+                            } else {
+                                OpenChat.Instance.sendCommandReply(sender, "Commands.Admin.Log.Enabled.Spam");
+                            }
+                        });
                         return true;
                     }
                 }
@@ -442,7 +511,7 @@ public class CommandChatAdmin implements CommandExecutor, TabCompleter {
         switch (args.length) {
             case 0:
             case 1: {
-                return List.of("help", "reload", "greeting", "chatcolor", "log");
+                return List.of("help", "reload", "greeting", "chatcolor", "log", "timings");
             }
             case 2: {
                 String subCommand = args[0].toLowerCase();
@@ -458,6 +527,9 @@ public class CommandChatAdmin implements CommandExecutor, TabCompleter {
                     case "log": {
                         return List.of("swear", "advertisement", "spam");
                     }
+                    case "timings": {
+                        return List.of("reset");
+                    }
                     default:
                         return List.of();
                 }
@@ -3,6 +3,8 @@ package io.github.tavstaldev.openChat.commands;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.managers.RecipientStateManager;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import org.bukkit.command.*;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -60,23 +62,25 @@ public class CommandChatToggle implements CommandExecutor, TabCompleter {
         }
 
         // Retrieve the player's data from the database
-        var rawData = OpenChat.database().getPlayerData(player.getUniqueId());
-        if (rawData.isEmpty()) {
-            OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-            return true;
-        }
+        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), rawData -> {
+            if (rawData.isEmpty()) {
+                OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                return;
+            }
 
-        // Toggle the player's public chat visibility
-        var data = rawData.get();
-        data.setPublicChatDisabled(!data.isPublicChatDisabled());
-        OpenChat.database().updatePlayerData(data);
+            // Toggle the player's public chat visibility
+            var data = rawData.get();
+            data.setPublicChatDisabled(!data.isPublicChatDisabled());
+            OpenChat.asyncDatabase().updatePlayerData(data);
+            RecipientStateManager.update(data);
 
-        // Notify the player of the updated chat visibility status
-        if (data.isPublicChatDisabled()) {
-            OpenChat.Instance.sendLocalizedMsg(player, "Commands.PublicChat.Disabled");
-        } else {
-            OpenChat.Instance.sendLocalizedMsg(player, "Commands.PublicChat.Enabled");
-        }
+            // Notify the player of the updated chat visibility status
+            if (data.isPublicChatDisabled()) {
+                OpenChat.Instance.sendLocalizedMsg(player, "Commands.PublicChat.Disabled");
+            } else {
+                OpenChat.Instance.sendLocalizedMsg(player, "Commands.PublicChat.Enabled");
+            }
+        });
         return true;
     }
 
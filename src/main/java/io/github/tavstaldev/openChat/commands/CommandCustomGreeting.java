@@ -4,6 +4,7 @@ import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.models.command.SubCommandData;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import org.bukkit.command.*;
@@ -134,77 +135,79 @@ public class CommandCustomGreeting implements CommandExecutor, TabCompleter {
                     case "join":
                     case "connect": {
                         // Set a custom join message
-                        var playerDataOpt = OpenChat.database().getPlayerData(player.getUniqueId());
-                        if (playerDataOpt.isEmpty()) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-                            return true;
-                        }
-
-                        String message = String.join(" ", args).substring(args[0].length() + args[1].length() + 2);
-                        if (!message.contains("{player}")) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.NoPlayerPlaceholder");
-                            return true;
-                        }
-
-                        if (message.length() > 128) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.MessageTooLong",
-                                    Map.of("length", "128")
-                            );
-                            return true;
-                        }
-
-                        if (OpenChat.antiSwearSystem().containsSwearWord(message)) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.SwearWordDetected");
-                            return true;
-                        }
-
-                        if (OpenChat.advertisementSystem().containsAdvertisement(message)) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.AdvertisingDetected");
-                            return true;
-                        }
-
-                        var playerData = playerDataOpt.get();
-                        playerData.setCustomJoinMessage(message);
-                        OpenChat.database().updatePlayerData(playerData);
-                        OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.Success");
+                        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), playerDataOpt -> {
+                            if (playerDataOpt.isEmpty()) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                                return;
+                            }
+
+                            String message = String.join(" ", args).substring(args[0].length() + args[1].length() + 2);
+                            if (!message.contains("{player}")) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.NoPlayerPlaceholder");
+                                return;
+                            }
+
+                            if (message.length() > 128) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.MessageTooLong",
+                                        Map.of("length", "128")
+                                );
+                                return;
+                            }
+
+                            if (OpenChat.antiSwearSystem().containsSwearWord(message)) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.SwearWordDetected");
+                                return;
+                            }
+
+                            if (OpenChat.advertisementSystem().containsAdvertisement(message)) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.AdvertisingDetected");
+                                return;
+                            }
+
+                            var playerData = playerDataOpt.get();
+                            playerData.setCustomJoinMessage(message);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData);
+                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.Success");
+                        });
                         break;
                     }
                     case "leave":
                     case "disconnect": {
                         // Set a custom leave message
-                        var playerDataOpt = OpenChat.database().getPlayerData(player.getUniqueId());
-                        if (playerDataOpt.isEmpty()) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-                            return true;
-                        }
-
-                        String message = String.join(" ", args).substring(args[0].length() + args[1].length() + 2);
-                        if (!message.contains("{player}")) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.NoPlayerPlaceholder");
-                            return true;
-                        }
-
-                        if (message.length() > 128) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.MessageTooLong",
-                                    Map.of("length", "128")
-                            );
-                            return true;
-                        }
-
-                        if (OpenChat.antiSwearSystem().containsSwearWord(message)) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.SwearWordDetected");
-                            return true;
-                        }
-
-                        if (OpenChat.advertisementSystem().containsAdvertisement(message)) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.AdvertisingDetected");
-                            return true;
-                        }
-
-                        var playerData = playerDataOpt.get();
-                        playerData.setCustomLeaveMessage(message);
-                        OpenChat.database().updatePlayerData(playerData);
-                        OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.Success");
+                        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), playerDataOpt -> {
+                            if (playerDataOpt.isEmpty()) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                                return;
+                            }
+
+                            String message = String.join(" ", args).substring(args[0].length() + args[1].length() + 2);
+                            if (!message.contains("{player}")) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.NoPlayerPlaceholder");
+                                return;
+                            }
+
+                            if (message.length() > 128) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.MessageTooLong",
+                                        Map.of("length", "128")
+                                );
+                                return;
+                            }
+
+                            if (OpenChat.antiSwearSystem().containsSwearWord(message)) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.SwearWordDetected");
+                                return;
+                            }
+
+                            if (OpenChat.advertisementSystem().containsAdvertisement(message)) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.AdvertisingDetected");
+                                return;
+                            }
+
+                            var playerData = playerDataOpt.get();
+                            playerData.setCustomLeaveMessage(message);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData);
+                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Set.Success");
+                        });
                         break;
                     }
                     default: {
@@ -231,36 +234,38 @@ public class CommandCustomGreeting implements CommandExecutor, TabCompleter {
                 switch (type) {
                     case "join":
                     case "connect": {
-                        var playerDataOpt = OpenChat.database().getPlayerData(player.getUniqueId());
-                        if (playerDataOpt.isEmpty()) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-                            return true;
-                        }
-
-                        if (playerDataOpt.get().getCustomJoinMessage() == null) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Get.None");
-                        } else {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Get.Current", Map.of(
-                                    "message", playerDataOpt.get().getCustomJoinMessage()
-                            ));
-                        }
+                        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), playerDataOpt -> {
+                            if (playerDataOpt.isEmpty()) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                                return;
+                            }
+
+                            if (playerDataOpt.get().getCustomJoinMessage() == null) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Get.None");
+                            } else {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Get.Current", Map.of(
+                                        "message", playerDataOpt.get().getCustomJoinMessage()
+                                ));
+                            }
+                        });
                         break;
                     }
                     case "leave":
                     case "disconnect": {
-                        var playerDataOpt = OpenChat.database().getPlayerData(player.getUniqueId());
-                        if (playerDataOpt.isEmpty()) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-                            return true;
-                        }
-
-                        if (playerDataOpt.get().getCustomLeaveMessage() == null) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Get.None");
-                        } else {
-                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Get.Current", Map.of(
-                                    "message", playerDataOpt.get().getCustomLeaveMessage()
-                            ));
-                        }
+                        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), playerDataOpt -> {
+                            if (playerDataOpt.isEmpty()) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                                return;
+                            }
+
+                            if (playerDataOpt.get().getCustomLeaveMessage() == null) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Get.None");
+                            } else {
+                                OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Get.Current", Map.of(
+                                        "message", playerDataOpt.get().getCustomLeaveMessage()
+                                ));
+                            }
+                        });
                         break;
                     }
                     default: {
@@ -287,30 +292,32 @@ public class CommandCustomGreeting implements CommandExecutor, TabCompleter {
                 switch (type) {
                     case "join":
                     case "connect": {
-                        var playerDataOpt = OpenChat.database().getPlayerData(player.getUniqueId());
-                        if (playerDataOpt.isEmpty()) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-                            return true;
-                        }
-
-                        var playerData = playerDataOpt.get();
-                        playerData.setCustomJoinMessage(null);
-                        OpenChat.database().updatePlayerData(playerData);
-                        OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Clear.Success");
+                        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), playerDataOpt -> {
+                            if (playerDataOpt.isEmpty()) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                                return;
+                            }
+
+                            var playerData = playerDataOpt.get();
+                            playerData.setCustomJoinMessage(null);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData);
+                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Clear.Success");
+                        });
                         break;
                     }
                     case "leave":
                     case "disconnect": {
-                        var playerDataOpt = OpenChat.database().getPlayerData(player.getUniqueId());
-                        if (playerDataOpt.isEmpty()) {
-                            OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-                            return true;
-                        }
-
-                        var playerData = playerDataOpt.get();
-                        playerData.setCustomLeaveMessage(null);
-                        OpenChat.database().updatePlayerData(playerData);
-                        OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Clear.Success");
+                        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), playerDataOpt -> {
+                            if (playerDataOpt.isEmpty()) {
+                                OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                                return;
+                            }
+
+                            var playerData = playerDataOpt.get();
+                            playerData.setCustomLeaveMessage(null);
+                            OpenChat.asyncDatabase().updatePlayerData(playerData);
+                            OpenChat.Instance.sendLocalizedMsg(player, "Commands.CustomGreeting.Clear.Success");
+                        });
                         break;
                     }
                     default: {
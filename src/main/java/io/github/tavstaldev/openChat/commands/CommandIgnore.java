@@ -3,6 +3,7 @@ package io.github.tavstaldev.openChat.commands;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.*;
@@ -76,15 +77,21 @@ public class CommandIgnore implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        // Check if the target player is already ignored
-        if (OpenChat.database().isPlayerIgnored(playerId, targetId)) {
-            OpenChat.Instance.sendLocalizedMsg(player, "Commands.Ignore.AlreadyEnabled", Map.of("player", args[0]));
+        // Add the target player to the ignore list unless they are already ignored
+        var addFuture = OpenChat.asyncDatabase().submit(database -> {
+            if (database.isPlayerIgnored(playerId, targetId))
+                return false;
+            database.addIgnoredPlayer(playerId, targetId);
+            OpenChat.ignoreGraph().add(playerId, targetId);
             return true;
-        }
-
-        // Add the target player to the ignore list
-        OpenChat.database().addIgnoredPlayer(playerId, targetId);
-        OpenChat.Instance.sendLocalizedMsg(player, "Commands.Ignore.Enabled", Map.of("player", args[0]));
+        });
+        SchedulerUtil.thenSync(addFuture, added -> {
+            if (added) {
+                OpenChat.Instance.sendLocalizedMsg(player, "Commands.Ignore.Enabled", Map.of("player", args[0]));
+            } else {
+                OpenChat.Instance.sendLocalizedMsg(player, "Commands.Ignore.AlreadyEnabled", Map.of("player", args[0]));
+            }
+        });
         return true;
     }
 
@@ -4,8 +4,10 @@ import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.models.command.SubCommandData;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.managers.RecipientStateManager;
 import io.github.tavstaldev.openChat.models.database.EMentionDisplay;
 import io.github.tavstaldev.openChat.models.database.EMentionPreference;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import io.github.tavstaldev.openChat.util.SoundUtils;
 import net.kyori.adventure.sound.Sound;
 import net.kyori.adventure.text.Component;
@@ -126,18 +128,20 @@ public class CommandMentions implements CommandExecutor, TabCompleter {
 
                 var playerId = player.getUniqueId();
                 String soundName = sound.get().name().asString();
-                var dataOpt = OpenChat.database().getPlayerData(playerId);
-                if (dataOpt.isEmpty()) {
-                    OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-                    _logger.error("Player data not found for " + player.getName());
-                    return true;
-                }
-                var data = dataOpt.get();
-                data.setMentionSound(soundName);
-                OpenChat.database().updatePlayerData(data);
-                OpenChat.Instance.sendLocalizedMsg(player, "Commands.Sound.Set", Map.of(
-                        "value", soundName
-                ));
+                SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(playerId), dataOpt -> {
+                    if (dataOpt.isEmpty()) {
+                        OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                        _logger.error("Player data not found for " + player.getName());
+                        return;
+                    }
+                    var data = dataOpt.get();
+                    data.setMentionSound(soundName);
+                    OpenChat.asyncDatabase().updatePlayerData(data);
+                    RecipientStateManager.update(data);
+                    OpenChat.Instance.sendLocalizedMsg(player, "Commands.Sound.Set", Map.of(
+                            "value", soundName
+                    ));
+                });
                 return true;
             }
             case "display": {
@@ -155,18 +159,20 @@ public class CommandMentions implements CommandExecutor, TabCompleter {
                 }
 
                 var playerId = player.getUniqueId();
-                var dataOpt = OpenChat.database().getPlayerData(playerId);
-                if (dataOpt.isEmpty()) {
-                    OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-                    _logger.error("Player data not found for " + player.getName());
-                    return true;
-                }
-                var data = dataOpt.get();
-                data.setMentionDisplay(display);
-                OpenChat.database().updatePlayerData(data);
-                OpenChat.Instance.sendLocalizedMsg(player, "Commands.Mentions.Display.Set", Map.of(
-                        "value", display.toString()
-                ));
+                SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(playerId), dataOpt -> {
+                    if (dataOpt.isEmpty()) {
+                        OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                        _logger.error("Player data not found for " + player.getName());
+                        return;
+                    }
+                    var data = dataOpt.get();
+                    data.setMentionDisplay(display);
+                    OpenChat.asyncDatabase().updatePlayerData(data);
+                    RecipientStateManager.update(data);
+                    OpenChat.Instance.sendLocalizedMsg(player, "Commands.Mentions.Display.Set", Map.of(
+                            "value", display.toString()
+                    ));
+                });
                 return true;
             }
             case "preference": {
@@ -184,18 +190,20 @@ public class CommandMentions implements CommandExecutor, TabCompleter {
                 }
 
                 var playerId = player.getUniqueId();
-                var dataOpt = OpenChat.database().getPlayerData(playerId);
-                if (dataOpt.isEmpty()) {
-                    OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-                    _logger.error("Player data not found for " + player.getName());
-                    return true;
-                }
-                var data = dataOpt.get();
-                data.setMentionPreference(preference);
-                OpenChat.database().updatePlayerData(data);
-                OpenChat.Instance.sendLocalizedMsg(player, "Commands.Mentions.Preference.Set", Map.of(
-                        "value", preference.toString()
-                ));
+                SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(playerId), dataOpt -> {
+                    if (dataOpt.isEmpty()) {
+                        OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                        _logger.error("Player data not found for " + player.getName());
+                        return;
+                    }
+                    var data = dataOpt.get();
+                    data.setMentionPreference(preference);
+                    OpenChat.asyncDatabase().updatePlayerData(data);
+                    RecipientStateManager.update(data);
+                    OpenChat.Instance.sendLocalizedMsg(player, "Commands.Mentions.Preference.Set", Map.of(
+                            "value", preference.toString()
+                    ));
+                });
                 return true;
             }
             case "ignore": {
@@ -218,13 +226,20 @@ public class CommandMentions implements CommandExecutor, TabCompleter {
                     return true;
                 }
 
-                if (OpenChat.database().isPlayerIgnored(playerId, targetId)) {
-                    OpenChat.Instance.sendLocalizedMsg(player, "Commands.Ignore.AlreadyEnabled", Map.of("player", args[1]));
+                var future = OpenChat.asyncDatabase().submit(database -> {
+                    if (database.isPlayerIgnored(playerId, targetId))
+                        return false;
+                    database.addIgnoredPlayer(playerId, targetId);
+                    OpenChat.ignoreGraph().add(playerId, targetId);
                     return true;
-                }
-
-                OpenChat.database().addIgnoredPlayer(playerId, targetId);
-                OpenChat.Instance.sendLocalizedMsg(player, "Commands.Ignore.Enabled", Map.of("player", args[1]));
+                });
+                SchedulerUtil.thenSync(future, added -> {
+                    if (added) {
+                        OpenChat.Instance.sendLocalizedMsg(player, "Commands.Ignore.Enabled", Map.of("player", args[1]));
+                    } else {
+                        OpenChat.Instance.sendLocalizedMsg(player, "Commands.Ignore.AlreadyEnabled", Map.of("player", args[1]));
+                    }
+                });
                 return true;
             }
             case "unignore": {
@@ -247,13 +262,20 @@ public class CommandMentions implements CommandExecutor, TabCompleter {
                     return true;
                 }
 
-                if (!OpenChat.database().isPlayerIgnored(playerId, targetId)) {
-                    OpenChat.Instance.sendLocalizedMsg(player, "Commands.Unignore.AlreadyDisabled", Map.of("player", args[1]));
+                var future = OpenChat.asyncDatabase().submit(database -> {
+                    if (!database.isPlayerIgnored(playerId, targetId))
+                        return false;
+                    database.removeIgnoredPlayer(playerId, targetId);
+                    OpenChat.ignoreGraph().remove(playerId, targetId);
                     return true;
-                }
-
-                OpenChat.database().removeIgnoredPlayer(playerId, targetId);
-                OpenChat.Instance.sendLocalizedMsg(player, "Commands.Unignore.Disabled", Map.of("player", args[1]));
+                });
+                SchedulerUtil.thenSync(future, removed -> {
+                    if (removed) {
+                        OpenChat.Instance.sendLocalizedMsg(player, "Commands.Unignore.Disabled", Map.of("player", args[1]));
+                    } else {
+                        OpenChat.Instance.sendLocalizedMsg(player, "Commands.Unignore.AlreadyDisabled", Map.of("player", args[1]));
+                    }
+                });
                 return true;
             }
         }
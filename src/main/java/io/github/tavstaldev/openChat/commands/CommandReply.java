@@ -8,6 +8,8 @@ import io.github.tavstaldev.openChat.config.ModerationConfig;
 import io.github.tavstaldev.openChat.managers.PlayerCacheManager;
 import io.github.tavstaldev.openChat.models.PlayerCache;
 import io.github.tavstaldev.openChat.util.PlayerUtil;
+import io.github.tavstaldev.openChat.util.RichTextSanitizer;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import io.github.tavstaldev.openChat.util.VanishUtil;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -16,9 +18,11 @@ import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.regex.Matcher;
+import java.util.stream.Collectors;
 
 /**
  * Handles the `/reply` command, allowing players to reply to the last player who messaged them.
@@ -88,34 +92,18 @@ public class CommandReply implements CommandExecutor {
             return true;
         }
 
-        // Retrieve the target player's data
-        var targetId = target.getUniqueId();
-        var targetData = OpenChat.database().getPlayerData(targetId);
-        if (targetData.isEmpty()) {
-            OpenChat.Instance.sendCommandReply(sender, "General.Error");
-            return true;
-        }
-
-        // Check if the target has whispers enabled
-        if (!targetData.get().isWhisperEnabled()) {
-            OpenChat.Instance.sendCommandReply(sender, "Whisper.Disabled", Map.of("player", PlayerUtil.getPlayerPlainDisplayName(target)));
-            return true;
-        }
-
         // Prevent the sender from replying to themselves
+        var targetId = target.getUniqueId();
         if (sourceId.equals(targetId)) {
             OpenChat.Instance.sendCommandReply(sender, "Whisper.Self");
             return true;
         }
 
-        // Check if the target has ignored the sender
-        if (OpenChat.database().isPlayerIgnored(targetId, sourceId)) {
-            OpenChat.Instance.sendCommandReply(sender, "Whisper.Disabled", Map.of("player", PlayerUtil.getPlayerPlainDisplayName(target)));
-            return true;
-        }
-
         // Construct the reply message
         String message = String.join(" ", args).trim();
+        // Remove the formatting the sender is not allowed to use
+        message = RichTextSanitizer.sanitize(message, RichTextSanitizer.getAllowed(player,
+                OpenChat.config().customChatLegacyRichTextPermission, OpenChat.config().customChatHexRichTextPermission));
         String targetName = PlayerUtil.getPlayerPlainDisplayName(target);
         String sourceName = PlayerUtil.getPlayerPlainDisplayName(player);
 
@@ -139,29 +127,51 @@ public class CommandReply implements CommandExecutor {
         }
         String finalMessage = message;
 
-        // Send the reply message to the target and notify the sender
-        OpenChat.Instance.sendCommandReply(sender, "Whisper.Sender", Map.of("receiver", targetName, "message", finalMessage));
-        OpenChat.Instance.sendLocalizedMsg(target, "Whisper.Receiver", Map.of("sender", sourceName, "message", finalMessage));
-
-        // Notify social spies if enabled
-        if (OpenChat.config().privateMessagingSocialSpyEnabled) {
-            OpenChat.Instance.getServer().getOnlinePlayers().stream()
-                    // Filter out the sender and the receiver
-                    .filter(p -> {
-                        UUID pId = p.getUniqueId();
-                        return !pId.equals(targetId) && !pId.equals(sourceId);
-                    })
-                    // Filter for players who have the spy permission
-                    .filter(p -> OpenChat.database().isSocialSpyEnabled(p))
-                    // Notify the remaining players
-                    .forEach(p -> {
-                        OpenChat.Instance.sendLocalizedMsg(p, "Whisper.Spy", Map.of(
-                                "sender", sourceName,
-                                "receiver", targetName,
-                                "message", finalMessage
-                        ));
-                    });
-        }
+        // Check if the target accepts whispers from the sender, the result is the key of the error message or null
+        var checkFuture = OpenChat.asyncDatabase().submit(database -> {
+            var targetData = database.getPlayerData(targetId);
+            if (targetData.isEmpty())
+                return "General.Error";
+
+            // Check if the target has whispers enabled and has not ignored the sender
+            if (!targetData.get().isWhisperEnabled() || database.isPlayerIgnored(targetId, sourceId))
+                return "Whisper.Disabled";
+            return null;
+        });
+
+        SchedulerUtil.thenSync(checkFuture, errorKey -> {
+            if (errorKey != null) {
+                OpenChat.Instance.sendCommandReply(sender, errorKey, Map.of("player", targetName));
+                return;
+            }
+
+            // Send the reply message to the target and notify the sender
+            OpenChat.Instance.sendCommandReply(sender, "Whisper.Sender", Map.of("receiver", targetName, "message", finalMessage));
+            OpenChat.Instance.sendLocalizedMsg(target, "Whisper.Receiver", Map.of("sender", sourceName, "message", finalMessage));
+
+            // Notify social spies if enabled
+            if (OpenChat.config().privateMessagingSocialSpyEnabled) {
+                // Filter out the sender and the receiver
+                List<Player> candidates = OpenChat.Instance.getServer().getOnlinePlayers().stream()
+                        .filter(p -> {
+                            UUID pId = p.getUniqueId();
+                            return !pId.equals(targetId) && !pId.equals(sourceId);
+                        })
+                        .collect(Collectors.toList());
+                // Filter for players who have the spy permission on the database executor
+                var spiesFuture = OpenChat.asyncDatabase().submit(database -> candidates.stream()
+                        .filter(database::isSocialSpyEnabled)
+                        .toList());
+                // Notify the remaining players
+                SchedulerUtil.thenSync(spiesFuture, spies -> spies.forEach(p -> {
+                    OpenChat.Instance.sendLocalizedMsg(p, "Whisper.Spy", Map.of(
+                            "sender", sourceName,
+                            "receiver", targetName,
+                            "message", finalMessage
+                    ));
+                }));
+            }
+        });
         return true;
     }
 }
\ No newline at end of file
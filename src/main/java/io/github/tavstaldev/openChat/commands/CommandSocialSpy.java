@@ -3,6 +3,8 @@ package io.github.tavstaldev.openChat.commands;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.managers.RecipientStateManager;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import org.bukkit.command.*;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -59,23 +61,25 @@ public class CommandSocialSpy implements CommandExecutor, TabCompleter {
         }
 
         // Retrieve the player's data from the database
-        var rawData = OpenChat.database().getPlayerData(player.getUniqueId());
-        if (rawData.isEmpty()) {
-            OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-            return true;
-        }
+        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), rawData -> {
+            if (rawData.isEmpty()) {
+                OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                return;
+            }
 
-        // Toggle the Social Spy feature for the player
-        var data = rawData.get();
-        data.setSocialSpyEnabled(!data.isSocialSpyEnabled());
-        OpenChat.database().updatePlayerData(data);
+            // Toggle the Social Spy feature for the player
+            var data = rawData.get();
+            data.setSocialSpyEnabled(!data.isSocialSpyEnabled());
+            OpenChat.asyncDatabase().updatePlayerData(data);
+            RecipientStateManager.update(data);
 
-        // Notify the player of the updated Social Spy status
-        if (data.isSocialSpyEnabled()) {
-            OpenChat.Instance.sendLocalizedMsg(player, "Commands.SocialSpy.Enabled");
-        } else {
-            OpenChat.Instance.sendLocalizedMsg(player, "Commands.SocialSpy.Disabled");
-        }
+            // Notify the player of the updated Social Spy status
+            if (data.isSocialSpyEnabled()) {
+                OpenChat.Instance.sendLocalizedMsg(player, "Commands.SocialSpy.Enabled");
+            } else {
+                OpenChat.Instance.sendLocalizedMsg(player, "Commands.SocialSpy.Disabled");
+            }
+        });
         return true;
     }
 
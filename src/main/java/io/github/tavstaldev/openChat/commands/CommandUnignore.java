@@ -3,6 +3,7 @@ package io.github.tavstaldev.openChat.commands;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.*;
@@ -76,15 +77,21 @@ public class CommandUnignore implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        // Check if the target player is already not ignored
-        if (!OpenChat.database().isPlayerIgnored(playerId, targetId)) {
-            OpenChat.Instance.sendLocalizedMsg(player, "Commands.Unignore.AlreadyDisabled", Map.of("player", args[0]));
+        // Remove the target player from the ignore list unless they are already not ignored
+        var removeFuture = OpenChat.asyncDatabase().submit(database -> {
+            if (!database.isPlayerIgnored(playerId, targetId))
+                return false;
+            database.removeIgnoredPlayer(playerId, targetId);
+            OpenChat.ignoreGraph().remove(playerId, targetId);
             return true;
-        }
-
-        // Remove the target player from the ignore list
-        OpenChat.database().removeIgnoredPlayer(playerId, targetId);
-        OpenChat.Instance.sendLocalizedMsg(player, "Commands.Unignore.Disabled", Map.of("player", args[0]));
+        });
+        SchedulerUtil.thenSync(removeFuture, removed -> {
+            if (removed) {
+                OpenChat.Instance.sendLocalizedMsg(player, "Commands.Unignore.Disabled", Map.of("player", args[0]));
+            } else {
+                OpenChat.Instance.sendLocalizedMsg(player, "Commands.Unignore.AlreadyDisabled", Map.of("player", args[0]));
+            }
+        });
         return true;
     }
 
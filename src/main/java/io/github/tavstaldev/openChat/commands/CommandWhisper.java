@@ -6,6 +6,8 @@ import io.github.tavstaldev.openChat.Patterns;
 import io.github.tavstaldev.openChat.config.ModerationConfig;
 import io.github.tavstaldev.openChat.managers.PlayerCacheManager;
 import io.github.tavstaldev.openChat.util.PlayerUtil;
+import io.github.tavstaldev.openChat.util.RichTextSanitizer;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import io.github.tavstaldev.openChat.util.VanishUtil;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -13,9 +15,11 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.regex.Matcher;
+import java.util.stream.Collectors;
 
 /**
  * Handles the `/whisper` command, allowing players to send private messages to other players.
@@ -71,41 +75,21 @@ public class CommandWhisper implements CommandExecutor {
         }
 
         var targetId = target.getUniqueId();
-        var targetData = OpenChat.database().getPlayerData(targetId);
-        if (targetData.isEmpty()) {
-            OpenChat.Instance.sendCommandReply(sender, "General.Error");
-            return true;
-        }
-
-        // Check if the target has whispers enabled
-        if (!targetData.get().isWhisperEnabled()) {
-            OpenChat.Instance.sendCommandReply(sender, "Whisper.Disabled", Map.of("player", PlayerUtil.getPlayerPlainDisplayName(target)));
-            return true;
-        }
-
+        String targetName = PlayerUtil.getPlayerPlainDisplayName(target);
         String senderName;
         UUID sourceId;
 
         // Handle the sender if they are a player
         if (sender instanceof Player senderPlayer) {
-            var senderId = senderPlayer.getUniqueId();
+            sourceId = senderPlayer.getUniqueId();
 
             // Prevent the sender from whispering to themselves
-            if (senderId.equals(targetId)) {
+            if (sourceId.equals(targetId)) {
                 OpenChat.Instance.sendCommandReply(sender, "Whisper.Self");
                 return true;
             }
 
-            // Check if the target has ignored the sender
-            if (OpenChat.database().isPlayerIgnored(targetId, senderId)) {
-                OpenChat.Instance.sendCommandReply(sender, "Whisper.Disabled", Map.of("player", PlayerUtil.getPlayerPlainDisplayName(target)));
-                return true;
-            }
-
             senderName = PlayerUtil.getPlayerPlainDisplayName(senderPlayer);
-            PlayerCacheManager.get(senderId).setLastRepliedTo(targetId);
-            PlayerCacheManager.get(targetId).setLastRepliedTo(senderId);
-            sourceId = senderId;
         } else {
             // Handle the sender if they are the console
             sourceId = null;
@@ -114,6 +98,9 @@ public class CommandWhisper implements CommandExecutor {
 
         // Construct the whisper message
         String message = String.join(" ", args).substring(args[0].length()).trim();
+        // Remove the formatting the sender is not allowed to use
+        message = RichTextSanitizer.sanitize(message, RichTextSanitizer.getAllowed(sender,
+                OpenChat.config().customChatLegacyRichTextPermission, OpenChat.config().customChatHexRichTextPermission));
 
         // Escape emojis if necessary
         ModerationConfig config = OpenChat.moderationConfig();
@@ -135,29 +122,56 @@ public class CommandWhisper implements CommandExecutor {
         }
         String finalMessage = message;
 
-        // Send the whisper message to the target and notify the sender
-        OpenChat.Instance.sendCommandReply(sender, "Whisper.Sender", Map.of("receiver", PlayerUtil.getPlayerPlainDisplayName(target), "message", finalMessage));
-        OpenChat.Instance.sendLocalizedMsg(target, "Whisper.Receiver", Map.of("sender", senderName, "message", finalMessage));
-
-        // Notify social spies if enabled
-        if (OpenChat.config().privateMessagingSocialSpyEnabled) {
-            OpenChat.Instance.getServer().getOnlinePlayers().stream()
-                    // 1. Filter out the sender (if Player) and the receiver
-                    .filter(p -> {
-                        UUID pId = p.getUniqueId();
-                        return !pId.equals(targetId) && !pId.equals(sourceId);
-                    })
-                    // 2. Filter for players who have the spy permission
-                    .filter(p -> OpenChat.database().isSocialSpyEnabled(p))
-                    // 3. Process the remaining players
-                    .forEach(p -> {
-                        OpenChat.Instance.sendLocalizedMsg(p, "Whisper.Spy", Map.of(
-                                "sender", senderName,
-                                "receiver", PlayerUtil.getPlayerPlainDisplayName(target),
-                                "message", finalMessage
-                        ));
-                    });
-        }
+        // Check if the target accepts whispers from the sender, the result is the key of the error message or null
+        var checkFuture = OpenChat.asyncDatabase().submit(database -> {
+            var targetData = database.getPlayerData(targetId);
+            if (targetData.isEmpty())
+                return "General.Error";
+
+            // Check if the target has whispers enabled and has not ignored the sender
+            if (!targetData.get().isWhisperEnabled() || (sourceId != null && database.isPlayerIgnored(targetId, sourceId)))
+                return "Whisper.Disabled";
+            return null;
+        });
+
+        SchedulerUtil.thenSync(checkFuture, errorKey -> {
+            if (errorKey != null) {
+                OpenChat.Instance.sendCommandReply(sender, errorKey, Map.of("player", targetName));
+                return;
+            }
+
+            if (sourceId != null) {
+                PlayerCacheManager.get(sourceId).setLastRepliedTo(targetId);
+                PlayerCacheManager.get(targetId).setLastRepliedTo(sourceId);
+            }
+
+            // Send the whisper message to the target and notify the sender
+            OpenChat.Instance.sendCommandReply(sender, "Whisper.Sender", Map.of("receiver", targetName, "message", finalMessage));
+            OpenChat.Instance.sendLocalizedMsg(target, "Whisper.Receiver", Map.of("sender", senderName, "message", finalMessage));
+
+            // Notify social spies if enabled
+            if (OpenChat.config().privateMessagingSocialSpyEnabled) {
+                // 1. Filter out the sender (if Player) and the receiver
+                List<Player> candidates = OpenChat.Instance.getServer().getOnlinePlayers().stream()
+                        .filter(p -> {
+                            UUID pId = p.getUniqueId();
+                            return !pId.equals(targetId) && !pId.equals(sourceId);
+                        })
+                        .collect(Collectors.toList());
+                // 2. Filter for players who have the spy permission on the database executor
+                var spiesFuture = OpenChat.asyncDatabase().submit(database -> candidates.stream()
+                        .filter(database::isSocialSpyEnabled)
+                        .toList());
+                // 3. Process the remaining players
+                SchedulerUtil.thenSync(spiesFuture, spies -> spies.forEach(p -> {
+                    OpenChat.Instance.sendLocalizedMsg(p, "Whisper.Spy", Map.of(
+                            "sender", senderName,
+                            "receiver", targetName,
+                            "message", finalMessage
+                    ));
+                }));
+            }
+        });
         return true;
     }
 }
\ No newline at end of file
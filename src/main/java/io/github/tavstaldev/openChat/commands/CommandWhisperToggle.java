@@ -3,6 +3,7 @@ package io.github.tavstaldev.openChat.commands;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import org.bukkit.command.*;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -59,23 +60,24 @@ public class CommandWhisperToggle implements CommandExecutor, TabCompleter {
         }
 
         // Retrieve the player's data from the database
-        var rawData = OpenChat.database().getPlayerData(player.getUniqueId());
-        if (rawData.isEmpty()) {
-            OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
-            return true;
-        }
+        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(player.getUniqueId()), rawData -> {
+            if (rawData.isEmpty()) {
+                OpenChat.Instance.sendLocalizedMsg(player, "General.Error");
+                return;
+            }
 
-        // Toggle the whisper feature for the player
-        var data = rawData.get();
-        data.setWhisperEnabled(!data.isWhisperEnabled());
-        OpenChat.database().updatePlayerData(data);
+            // Toggle the whisper feature for the player
+            var data = rawData.get();
+            data.setWhisperEnabled(!data.isWhisperEnabled());
+            OpenChat.asyncDatabase().updatePlayerData(data);
 
-        // Notify the player of the updated whisper status
-        if (data.isWhisperEnabled()) {
-            OpenChat.Instance.sendLocalizedMsg(player, "Commands.WhisperToggle.Enabled");
-        } else {
-            OpenChat.Instance.sendLocalizedMsg(player, "Commands.WhisperToggle.Disabled");
-        }
+            // Notify the player of the updated whisper status
+            if (data.isWhisperEnabled()) {
+                OpenChat.Instance.sendLocalizedMsg(player, "Commands.WhisperToggle.Enabled");
+            } else {
+                OpenChat.Instance.sendLocalizedMsg(player, "Commands.WhisperToggle.Disabled");
+            }
+        });
         return true;
     }
 
@@ -2,9 +2,11 @@ package io.github.tavstaldev.openChat.config;
 
 import io.github.tavstaldev.minecorelib.config.ConfigurationBase;
 import io.github.tavstaldev.openChat.OpenChat;
+import org.bukkit.configuration.ConfigurationSection;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class GeneralConfig extends ConfigurationBase {
 
@@ -134,7 +136,33 @@ public class GeneralConfig extends ConfigurationBase {
                 "Supports placeholders: {player} for the player's name and {message} for the chat message.",
                 "Supports legacy and miniMessage formatting."
         ));
-        customChatShoutEnabled = resolveGet("customChat.shoutEnabled", true);
+        customChatEnableGroupFormats = resolveGet("customChat.enableGroupFormats", false);
+        resolveComment("customChat.enableGroupFormats", List.of(
+                "Enables or disables the group specific chat formats.",
+                "When enabled, players whose primary group has a format in groupFormats use that format instead of the default one.",
+                "Requires Vault and a permission plugin."
+        ));
+        //#region Group formats
+        // Fill with default values if not present
+        if (get("customChat.groupFormats") == null) {
+            resolve("customChat.groupFormats", Map.of("admin", "[Admin] <{player}> {message}"));
+        }
+        customChatGroupFormats = new HashMap<>();
+        ConfigurationSection groupFormatsSection = getConfigurationSection("customChat.groupFormats");
+        if (groupFormatsSection != null) {
+            for (String group : groupFormatsSection.getKeys(false)) {
+                String format = groupFormatsSection.getString(group);
+                if (format != null) {
+                    customChatGroupFormats.put(group, format);
+                }
+            }
+        }
+        resolveComment("customChat.groupFormats", List.of(
+                "The chat formats of the permission groups, by the name of the group.",
+                "Supports the same placeholders and formatting as the default format."
+        ));
+        //#endregion
+        customChatShoutEnabled =resolveGet("customChat.shoutEnabled", true);
         resolveComment("customChat.shoutEnabled", List.of(
                 "Enables or disables the shout feature in chat.",
                 "When enabled, players can use a specific prefix to send messages that are broadcasted to all players."
@@ -179,12 +207,14 @@ public class GeneralConfig extends ConfigurationBase {
         customChatLegacyRichTextPermission = resolveGet("customChat.legacyRichTextPermission", "openchat.chat.color");
         resolveComment("customChat.legacyRichTextPermission", List.of(
                 "The permission node required to use legacy color codes in chat messages.",
-                "Players with this permission can use '&' or '§' followed by a color code to format their messages."
+                "Players with this permission can use '&' or '§' followed by a color code to format their messages.",
+                "They can also use the named color and decoration tags, like <red> or <bold>. Other tags are always escaped."
         ));
         customChatHexRichTextPermission = resolveGet("customChat.hexRichTextPermission", "openchat.chat.hexcolor");
         resolveComment("customChat.hexRichTextPermission", List.of(
                 "The permission node required to use hex color codes in chat messages.",
-                "Players with this permission can use hex color codes (e.g., #FF5733) to format their messages."
+                "Players with this permission can use hex color codes (e.g., #FF5733) to format their messages.",
+                "Both the '&#FF5733' and the '<#FF5733>' forms are allowed."
         ));
         //#endregion
 
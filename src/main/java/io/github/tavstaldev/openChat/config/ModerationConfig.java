@@ -2,6 +2,8 @@ package io.github.tavstaldev.openChat.config;
 
 import io.github.tavstaldev.minecorelib.config.ConfigurationBase;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.models.ESimilarityMode;
+import io.github.tavstaldev.openChat.models.RateLimitTier;
 import io.github.tavstaldev.openChat.models.ViolationAction;
 
 import java.util.*;
@@ -18,18 +20,34 @@ public class ModerationConfig extends ConfigurationBase {
     // Anti-Spam
     public boolean antiSpamEnabled, antiSpamRegexEnabled, antiSpamRegexCancel, antiSpamEmojis;
     public double antiSpamMessageSimilarityThreshold, antiSpamCommandSimilarityThreshold, antiSpamRegexCancelThreshold;
-    public int antiSpamChatDelay, antiSpamCommandDelay, antiSpamMaxDuplicates, antiSpamMaxCommandDuplicates;
+    public int antiSpamChatDelay, antiSpamCommandDelay, antiSpamChatBurst, antiSpamCommandBurst, antiSpamMaxDuplicates, antiSpamMaxCommandDuplicates;
+    public RateLimitTier antiSpamRateLimit;
+    public List<RateLimitTier> antiSpamRateLimitTiers;
+    public ESimilarityMode antiSpamSimilarityMode;
+    public int antiSpamSimilarityWindow;
     public Set<String> antiSpamCommandWhitelist, antiSpamEmojiWhitelist;
     public Set<ViolationAction> antiSpamDelayViolationActions, antiSpamSimilarityViolationActions;
     public String antiSpamExemptPermission, antiSpamRegex, antiSpamEmojiExemptPermission;
 
     // Anti-Advertisement
-    public boolean antiAdvertisementEnabled;
+    public boolean antiAdvertisementEnabled, antiAdvertisementUseRegex;
     public String antiAdvertisementRegex;
     public Set<String> antiAdvertisementWhitelist;
     public Set<ViolationAction> antiAdvertisementViolationActions;
     public String antiAdvertisementExemptPermission;
 
+    // Slow mode
+    public boolean slowModeEnabled;
+    public int slowModeMinDelay, slowModeMaxDelay, slowModeUpdateInterval;
+    public double slowModeTargetRate;
+    public String slowModeNotifyPermission;
+
+    // Anti-Flood
+    public boolean antiFloodEnabled;
+    public int antiFloodWindowSeconds, antiFloodThreshold, antiFloodMinLength;
+    public Set<ViolationAction> antiFloodViolationActions;
+    public String antiFloodExemptPermission;
+
     // Anti-Caps
     public boolean antiCapsEnabled;
     public int antiCapsMinLength, antiCapsPercentage;
@@ -65,7 +83,7 @@ public class ModerationConfig extends ConfigurationBase {
         violationDurationMilliseconds = resolveGet("violations.ResetTime", 60) * 60 * 1000L;
         resolveComment("violations.ResetTime", List.of(
                 "Time in minutes after which a player's violation count is reset.",
-                "Logs are stored indefinitely, but violations older than this time will not be counted towards further actions.")
+                "Logs are kept as set by 'storage.violationRetentionDays', but violations older than this time will not be counted towards further actions.")
         );
         //#endregion
 
@@ -83,13 +101,50 @@ public class ModerationConfig extends ConfigurationBase {
         resolveComment("antiSpam.regexCancelThreshold", List.of("Threshold (0.0 - 1.0) for cancelling messages based on regex filtering.",
                 "If the ratio of removed characters to total characters exceeds this value, the message will be cancelled."));
         antiSpamChatDelay = resolveGet("antiSpam.chatDelay", 2);
-        resolveComment("antiSpam.chatDelay", List.of("Minimum delay in seconds between consecutive chat messages from the same player."));
+        resolveComment("antiSpam.chatDelay", List.of("Time in seconds it takes to regain one chat message after the burst is used up.",
+                "With a burst of 1, this is the minimum delay between consecutive chat messages from the same player."));
+        antiSpamChatBurst = resolveGet("antiSpam.chatBurst", 3);
+        resolveComment("antiSpam.chatBurst", List.of("Number of chat messages a player can send in quick succession before the chat delay applies."));
         antiSpamMaxDuplicates= resolveGet("antiSpam.maxDuplicates", 3);
-        resolveComment("antiSpam.maxDuplicates", List.of("Maximum number of identical messages allowed within the violation duration."));
+        resolveComment("antiSpam.maxDuplicates", List.of("Maximum number of similar messages allowed among the recent messages of a player."));
         antiSpamCommandDelay = resolveGet("antiSpam.commandDelay", 2);
-        resolveComment("antiSpam.commandDelay", List.of("Minimum delay in seconds between consecutive commands from the same player."));
+        resolveComment("antiSpam.commandDelay", List.of("Time in seconds it takes to regain one command after the burst is used up.",
+                "With a burst of 1, this is the minimum delay between consecutive commands from the same player."));
+        antiSpamCommandBurst = resolveGet("antiSpam.commandBurst", 3);
+        resolveComment("antiSpam.commandBurst", List.of("Number of commands a player can execute in quick succession before the command delay applies."));
+        antiSpamRateLimit = new RateLimitTier(null, antiSpamChatDelay, antiSpamChatBurst, antiSpamCommandDelay, antiSpamCommandBurst);
+        //#region Rate limit tiers
+        // Fill with default values if not present
+        if (get("antiSpam.rateLimitTiers") == null) {
+            List<Map<String, Object>> defaultTiers = new ArrayList<>();
+            defaultTiers.add(Map.of("permission", "openchat.ratelimit.vip", "chatDelay", 1, "chatBurst", 5, "commandDelay", 1, "commandBurst", 5));
+            resolve("antiSpam.rateLimitTiers", defaultTiers);
+        }
+        antiSpamRateLimitTiers = new ArrayList<>();
+        for (Map<?, ?> tierMap : getMapList("antiSpam.rateLimitTiers")) {
+            RateLimitTier tier = RateLimitTier.fromMap(tierMap, antiSpamRateLimit);
+            if (tier != null) {
+                antiSpamRateLimitTiers.add(tier);
+            }
+        }
+        resolveComment("antiSpam.rateLimitTiers", List.of("Rate limits for players with the given permission, checked in order. The first matching tier is used.",
+                "Missing values are taken from the default chatDelay, chatBurst, commandDelay and commandBurst."));
+        //#endregion
         antiSpamMaxCommandDuplicates= resolveGet("antiSpam.maxCommandDuplicates", 3);
-        resolveComment("antiSpam.maxCommandDuplicates", List.of("Maximum number of identical commands allowed within the violation duration."));
+        resolveComment("antiSpam.maxCommandDuplicates", List.of("Maximum number of similar commands allowed among the recent commands of a player."));
+        String similarityMode = resolveGet("antiSpam.similarityMode", ESimilarityMode.FINGERPRINT.name());
+        try {
+            antiSpamSimilarityMode = ESimilarityMode.valueOf(similarityMode.toUpperCase());
+        }
+        catch (IllegalArgumentException ex) {
+            OpenChat.logger().warn("Unknown similarity mode: " + similarityMode + ", defaulting to FINGERPRINT");
+            antiSpamSimilarityMode = ESimilarityMode.FINGERPRINT;
+        }
+        resolveComment("antiSpam.similarityMode", List.of("How repeated messages and commands are detected.",
+                "FINGERPRINT: compares compact fingerprints of the messages, fast even with a long window.",
+                "EXACT: compares the messages with the Jaro-Winkler similarity, slower but more precise."));
+        antiSpamSimilarityWindow = resolveGet("antiSpam.similarityWindow", 5);
+        resolveComment("antiSpam.similarityWindow", List.of("Number of recent messages and commands of a player that new ones are compared with."));
         antiSpamMessageSimilarityThreshold = resolveGet("antiSpam.messageSimilarityThreshold", 0.8);
         resolveComment("antiSpam.messageSimilarityThreshold", List.of("Value between 0.0 and 1.0, where 1.0 is 100% identical messages."));
         antiSpamCommandSimilarityThreshold = resolveGet("antiSpam.commandSimilarityThreshold", 0.8);
@@ -214,13 +269,17 @@ public class ModerationConfig extends ConfigurationBase {
         //#region Anti-Advertisement
         antiAdvertisementEnabled = resolveGet("antiAdvertisement.enabled", true);
         resolveComment("antiAdvertisement.enabled", List.of("Enables or disables the anti-advertisement system."));
+        antiAdvertisementUseRegex = resolveGet("antiAdvertisement.useRegex", false);
+        resolveComment("antiAdvertisement.useRegex", List.of("If enabled, the regex below is used instead of the built-in domain and IP scanner.",
+                "The built-in scanner validates domains against a public suffix table and detects obfuscations like 'example dot net' or 'example(.)net'."));
         antiAdvertisementRegex = resolveGet("antiAdvertisement.regex", "(?i)((?:[a-z0-9-]+\\.)+[a-z]{2,}|(?:25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)(?:\\.(?:25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)){3})");
-        resolveComment("antiAdvertisement.regex", List.of("Regex pattern to detect advertisements in chat messages."));
+        resolveComment("antiAdvertisement.regex", List.of("Regex pattern to detect advertisements in chat messages. Only used when useRegex is enabled."));
         antiAdvertisementWhitelist = new LinkedHashSet<>(resolveGet("antiAdvertisement.whitelist", List.of(
                 "minecraft.com",
                 "discord.gg/minecraft"
         )));
-        resolveComment("antiAdvertisement.whitelist", List.of("List of domain substrings that are exempt from advertisement filtering."));
+        resolveComment("antiAdvertisement.whitelist", List.of("List of domains that are exempt from advertisement filtering, their subdomains are exempt as well.",
+                "An entry with a path, like 'discord.gg/minecraft', only exempts links starting with that path."));
         antiAdvertisementExemptPermission = resolveGet("antiAdvertisement.exemptPermission", "openchat.bypass.antiadvertisement");
         resolveComment("antiAdvertisement.exemptPermission", List.of("Permission that exempts a player from anti-advertisement checks."));
         //#region Violation actions
@@ -246,6 +305,61 @@ public class ModerationConfig extends ConfigurationBase {
         //#endregion
         //#endregion
 
+        //#region Slow mode
+        slowModeEnabled = resolveGet("slowMode.enabled", false);
+        resolveComment("slowMode.enabled", List.of("Enables or disables the adaptive slow mode.",
+                "When the chat gets busier than the target rate, the delay between the messages of each player is raised.",
+                "It is applied by the anti-spam system, so players exempt from anti-spam are exempt from slow mode as well."));
+        slowModeTargetRate = resolveGet("slowMode.targetRate", 10.0);
+        resolveComment("slowMode.targetRate", List.of("Messages per second of the whole server above which the chat is slowed down."));
+        slowModeMinDelay = resolveGet("slowMode.minDelay", 0);
+        resolveComment("slowMode.minDelay", List.of("Lowest slow mode delay in seconds, 0 turns slow mode off when the chat is quiet."));
+        slowModeMaxDelay = resolveGet("slowMode.maxDelay", 10);
+        resolveComment("slowMode.maxDelay", List.of("Highest slow mode delay in seconds."));
+        slowModeUpdateInterval = resolveGet("slowMode.updateInterval", 5);
+        resolveComment("slowMode.updateInterval", List.of("Time in seconds between measurements of the chat rate.",
+                "The delay goes up as soon as the chat gets busier, but only comes down by one second per measurement."));
+        slowModeNotifyPermission = resolveGet("slowMode.notifyPermission", "openchat.notify.slowmode");
+        resolveComment("slowMode.notifyPermission", List.of("Permission of the players who are told when the slow mode delay changes."));
+        //#endregion
+
+        //#region Anti-Flood
+        antiFloodEnabled = resolveGet("antiFlood.enabled", false);
+        resolveComment("antiFlood.enabled", List.of("Enables or disables the server-wide flood detection.",
+                "It detects the same or a very similar message being sent by many players in a short time, like during a bot raid.",
+                "Off by default, because normal bursts like 'welcome back!!' or 'gg everyone' after an event look the same.",
+                "Raise the threshold above the number of players who usually answer together before enabling it."));
+        antiFloodWindowSeconds = resolveGet("antiFlood.windowSeconds", 10);
+        resolveComment("antiFlood.windowSeconds", List.of("Time window in seconds in which similar messages are counted."));
+        antiFloodThreshold = resolveGet("antiFlood.threshold", 5);
+        resolveComment("antiFlood.threshold", List.of("Number of similar messages from all players within the time window that counts as a flood.",
+                "Messages are blocked from this count on, until the flood ends."));
+        antiFloodMinLength = resolveGet("antiFlood.minLength", 8);
+        resolveComment("antiFlood.minLength", List.of("Minimum message length for the flood detection, so short messages like 'gg' are not counted."));
+        antiFloodExemptPermission = resolveGet("antiFlood.exemptPermission", "openchat.bypass.antiflood");
+        resolveComment("antiFlood.exemptPermission", List.of("Permission that exempts a player from flood detection."));
+        //#region Violation actions
+        // Fill with default values if not present
+        if (get("antiFlood.violationActions") == null) {
+            List<Map<String, Object>> defaultActions = new ArrayList<>();
+            // Only a warning, a flood also catches the players who join a normal burst
+            defaultActions.add(Map.of("operator", ">=", "amount", 1, "command", "warn {player} Please do not flood the chat."));
+            resolve("antiFlood.violationActions", defaultActions);
+        }
+        // Reset violation set
+        violationActions = new LinkedHashSet<>();
+        // Load from config
+        for (Map<?, ?> actionMap : getMapList("antiFlood.violationActions")) {
+            ViolationAction action = ViolationAction.fromMap(actionMap);
+            if (action != null) {
+                violationActions.add(action);
+            }
+        }
+        antiFloodViolationActions = violationActions;
+        resolveComment("antiFlood.violationActions", List.of("Commands to execute when a player takes part in a chat flood. Use {player} to insert the player's name."));
+        //#endregion
+        //#endregion
+
         //#region Anti-Caps
         antiCapsEnabled = resolveGet("antiCaps.enabled", true);
         resolveComment("antiCaps.enabled", List.of("Enables or disables the anti-caps system."));
@@ -2,6 +2,7 @@ package io.github.tavstaldev.openChat.config;
 
 import io.github.tavstaldev.minecorelib.config.ConfigurationBase;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.models.EBackPressurePolicy;
 
 import java.util.List;
 
@@ -12,19 +13,24 @@ public class StorageConfig extends ConfigurationBase {
     }
 
     public String type, filename, host, database, username, password, tablePrefix;
-    public int port;
+    public int port, asyncThreads, asyncQueueSize, flushInterval;
+    public int violationQueueSize, violationBatchSize, violationQueueTimeout;
+    public EBackPressurePolicy violationQueuePolicy;
+    public int violationRetentionDays, violationRetentionBatchSize;
+    public boolean violationRetentionArchive;
 
     @Override
     public void loadDefaults() {
         type = resolveGet("storage.type", "sqlite");
         resolveComment("storage.type", List.of(
                 "Type of storage to use for the chat data.",
-                "Supported types are 'sqlite' and 'mysql'."
+                "Supported types are 'sqlite', 'mysql' and 'mvstore'.",
+                "'mvstore' is an embedded key-value store in a single file, that unlike SQLite allows several writers at once."
         ));
         filename = resolveGet("storage.filename", "database");
         resolveComment("storage.filename", List.of(
-                "Filename for SQLite database (without extension).",
-                "This setting is only used if 'storage.type' is set to 'sqlite'."
+                "Filename for SQLite or MVStore database (without extension).",
+                "This setting is only used if 'storage.type' is set to 'sqlite' or 'mvstore'."
         ));
         host = resolveGet("storage.host", "localhost");
         resolveComment("storage.host", List.of(
@@ -51,5 +57,63 @@ public class StorageConfig extends ConfigurationBase {
                 "Prefix to use for all database table names.",
                 "This can be useful if you want to run multiple instances of OpenChat in the same database."
         ));
+        asyncThreads = resolveGet("storage.asyncThreads", 2);
+        resolveComment("storage.asyncThreads", List.of(
+                "Number of threads that run the database operations off the main thread.",
+                "SQLite always uses a single thread, because it only allows one writer at a time."
+        ));
+        asyncQueueSize = resolveGet("storage.asyncQueueSize", 1024);
+        resolveComment("storage.asyncQueueSize", List.of(
+                "Maximum number of database operations waiting for a thread.",
+                "Operations beyond this limit are dropped and logged instead of blocking the server."
+        ));
+        flushInterval = resolveGet("storage.flushInterval", 5);
+        resolveComment("storage.flushInterval", List.of(
+                "Interval in seconds between writes of the changed player settings.",
+                "Changes are also written when the player quits and when the server stops."
+        ));
+        violationQueueSize = resolveGet("storage.violationQueueSize", 4096);
+        resolveComment("storage.violationQueueSize", List.of(
+                "Maximum number of violations waiting to be written to the database.",
+                "Changing this setting requires a restart."
+        ));
+        violationBatchSize = resolveGet("storage.violationBatchSize", 500);
+        resolveComment("storage.violationBatchSize", List.of(
+                "Maximum number of violations written to the database at once.",
+                "Changing this setting requires a restart."
+        ));
+        String queuePolicy = resolveGet("storage.violationQueuePolicy", EBackPressurePolicy.DROP_OLDEST.name());
+        try {
+            violationQueuePolicy = EBackPressurePolicy.valueOf(queuePolicy.toUpperCase());
+        }
+        catch (IllegalArgumentException ex) {
+            OpenChat.logger().warn("Unknown violation queue policy: " + queuePolicy + ", defaulting to DROP_OLDEST");
+            violationQueuePolicy = EBackPressurePolicy.DROP_OLDEST;
+        }
+        resolveComment("storage.violationQueuePolicy", List.of(
+                "What happens to a new violation when the violation queue is full.",
+                "The violation actions are executed either way, only the stored record is lost.",
+                "DROP_OLDEST: drops the oldest queued violation to make room for the new one.",
+                "DROP_NEWEST: drops the new violation.",
+                "BLOCK: waits up to 'storage.violationQueueTimeout' milliseconds for room, then drops the new violation."
+        ));
+        violationQueueTimeout = resolveGet("storage.violationQueueTimeout", 50);
+        resolveComment("storage.violationQueueTimeout", List.of(
+                "Maximum time in milliseconds to wait for room in the violation queue with the BLOCK policy.",
+                "Keep this low, because the chat thread of the player waits meanwhile."
+        ));
+        violationRetentionDays = resolveGet("storage.violationRetentionDays", 0);
+        resolveComment("storage.violationRetentionDays", List.of(
+                "Number of days the violations are kept in the violations table.",
+                "Older violations are archived or deleted in the background. Set to 0 to keep them forever."
+        ));
+        violationRetentionArchive = resolveGet("storage.violationRetentionArchive", true);
+        resolveComment("storage.violationRetentionArchive", List.of(
+                "Whether the old violations are moved to the violations archive table instead of being deleted."
+        ));
+        violationRetentionBatchSize = resolveGet("storage.violationRetentionBatchSize", 1000);
+        resolveComment("storage.violationRetentionBatchSize", List.of(
+                "Maximum number of old violations removed at once, so the cleanup does not hold up the database."
+        ));
     }
 }
@@ -0,0 +1,794 @@
+package io.github.tavstaldev.openChat.database;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.GeneralConfig;
+import io.github.tavstaldev.openChat.config.StorageConfig;
+import io.github.tavstaldev.openChat.models.database.*;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Base of the JDBC database backends.
+ * <br/>
+ * Holds the statements, the caches and the row mapping shared by every SQL backend. The backends only decide how a
+ * connection and a prepared statement are obtained and given back, see {@link #acquireConnection()} and
+ * {@link #prepare(Connection, String)}, and how the violation ids are stored. The statements that differ between
+ * the SQL dialects come from the {@link ESqlDialect}.
+ */
+public abstract class AbstractJdbcDatabase implements IDatabase {
+    private static final int VIOLATION_INSERT_ROWS = 100; // The number of rows inserted by one multi-row insert.
+    protected final PluginLogger _logger;
+    protected final ESqlDialect dialect;
+    protected GeneralConfig generalConfig;
+    protected StorageConfig storageConfig;
+    // The player and ignore caches expire after access, so they stay loaded while the player is chatting
+    private final Cache<@NotNull UUID, PlayerData> _playerCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(3, TimeUnit.MINUTES)
+            .build();
+    private final Cache<@NotNull UUID, Set<UUID>> _ignoredPlayerCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(2, TimeUnit.MINUTES)
+            .build();
+    private final Cache<@NotNull UUID, Set<ViolationData>> _violationCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(3, TimeUnit.MINUTES)
+            .build();
+    private final Cache<@NotNull UUID, Set<ViolationData>> _violationActiveCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(3, TimeUnit.MINUTES)
+            .build();
+    //#region SQL Statements
+    private String addPlayerDataSql;
+    private String updatePlayerDataSql;
+    private String removePlayerDataSql;
+    private String getPlayerDataSql;
+    // Ignored players
+    private String addIgnoredPlayerSql;
+    private String removeIgnoredPlayerSql;
+    private String getIgnoredPlayersSql;
+    // Violations
+    private String addViolationSql;
+    private String addViolationRowsSql;
+    private String removeViolationSql;
+    private String getViolationsSql;
+    private String getActiveViolationsSql;
+    private String findPruneCutoffSql;
+    private String archiveViolationsSql;
+    private String pruneViolationsSql;
+    //#endregion
+
+    /**
+     * Work done with a connection.
+     */
+    @FunctionalInterface
+    protected interface IConnectionCall<T> {
+        T call(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Work done with a prepared statement.
+     */
+    @FunctionalInterface
+    protected interface IStatementCall<T> {
+        T call(PreparedStatement statement) throws SQLException;
+    }
+
+    /**
+     * Constructor for AbstractJdbcDatabase.
+     *
+     * @param dialect The SQL dialect of the backend.
+     */
+    protected AbstractJdbcDatabase(ESqlDialect dialect) {
+        this.dialect = dialect;
+        this._logger = OpenChat.logger().withModule(getClass());
+    }
+
+    //#region Connection Handling
+    /**
+     * Gets a connection for a unit of work.
+     * Every acquired connection is given back with {@link #releaseConnection(Connection)}.
+     *
+     * @return The connection.
+     * @throws SQLException If no connection could be opened.
+     */
+    protected abstract Connection acquireConnection() throws SQLException;
+
+    /**
+     * Gives back a connection acquired with {@link #acquireConnection()}.
+     *
+     * @param connection The connection.
+     * @throws SQLException If the connection could not be given back.
+     */
+    protected abstract void releaseConnection(Connection connection) throws SQLException;
+
+    /**
+     * Gets the prepared statement of the sql.
+     * Every prepared statement is given back with {@link #releaseStatement(PreparedStatement)}.
+     *
+     * @param connection The acquired connection.
+     * @param sql        The sql of the statement.
+     * @return The prepared statement.
+     * @throws SQLException If the statement could not be prepared.
+     */
+    protected abstract PreparedStatement prepare(Connection connection, String sql) throws SQLException;
+
+    /**
+     * Gives back a statement prepared with {@link #prepare(Connection, String)}.
+     *
+     * @param statement The statement.
+     * @throws SQLException If the statement could not be given back.
+     */
+    protected abstract void releaseStatement(PreparedStatement statement) throws SQLException;
+
+    /**
+     * Sets a violation id parameter. The ids are stored as text by default.
+     *
+     * @param statement The statement.
+     * @param index     The index of the parameter.
+     * @param id        The id.
+     * @throws SQLException If the parameter could not be set.
+     */
+    protected void setViolationId(PreparedStatement statement, int index, UUID id) throws SQLException {
+        statement.setString(index, id.toString());
+    }
+
+    /**
+     * Reads a violation id column of the current row. The ids are stored as text by default.
+     *
+     * @param result The result set.
+     * @param column The name of the column.
+     * @return The id.
+     * @throws SQLException If the column could not be read.
+     */
+    protected UUID getViolationId(ResultSet result, String column) throws SQLException {
+        return UUID.fromString(result.getString(column));
+    }
+
+    /**
+     * Runs work with an acquired connection, giving it back afterward.
+     *
+     * @param call The work.
+     * @return The result of the work.
+     * @throws SQLException If the work failed.
+     */
+    protected <T> T withConnection(IConnectionCall<T> call) throws SQLException {
+        Connection connection = acquireConnection();
+        try {
+            return call.call(connection);
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Runs work with a prepared statement, giving it back afterward.
+     *
+     * @param connection The acquired connection.
+     * @param sql        The sql of the statement.
+     * @param call       The work.
+     * @return The result of the work.
+     * @throws SQLException If the work failed.
+     */
+    protected <T> T withStatement(Connection connection, String sql, IStatementCall<T> call) throws SQLException {
+        PreparedStatement statement = prepare(connection, sql);
+        try {
+            return call.call(statement);
+        } finally {
+            releaseStatement(statement);
+        }
+    }
+
+    /**
+     * Runs work in a transaction, rolling it back if the work fails.
+     *
+     * @param connection The acquired connection.
+     * @param call       The work.
+     * @return The result of the work.
+     * @throws SQLException If the work failed.
+     */
+    protected <T> T inTransaction(Connection connection, IConnectionCall<T> call) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            T result = call.call(connection);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+    //#endregion
+
+    @Override
+    public void load() {
+        generalConfig = OpenChat.config();
+        storageConfig = OpenChat.storageConfig();
+        update();
+    }
+
+    @Override
+    public void update() {
+        String prefix = storageConfig.tablePrefix;
+        // Ignored if the player already exists, so joining from several threads or servers is safe
+        addPlayerDataSql = String.format("%s INTO %s_players (PlayerId, PublicChatDisabled, WhisperEnabled, SocialSpyEnabled, AntiAdLogsEnabled, AntiSpamLogsEnabled, AntiSwearLogsEnabled, MessageColor, Sound, Display, Preference, CustomJoinMessage, CustomQuitMessage) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);",
+                dialect.getInsertIgnore(), prefix);
+
+        removePlayerDataSql = String.format("DELETE FROM %s_players WHERE PlayerId=?%s;",
+                prefix, dialect.getRowLimit());
+
+        updatePlayerDataSql = String.format("UPDATE %s_players SET PublicChatDisabled=?, WhisperEnabled=?, SocialSpyEnabled=?, " +
+                        "AntiAdLogsEnabled=?, AntiSpamLogsEnabled=?, AntiSwearLogsEnabled=?, MessageColor=?, " +
+                        "Sound=?, Display=?, Preference=?, " +
+                        "CustomJoinMessage=?, CustomQuitMessage=? " +
+                        "WHERE PlayerId=?%s;",
+                prefix, dialect.getRowLimit());
+
+        getPlayerDataSql = String.format("SELECT * FROM %s_players WHERE PlayerId=?;",
+                prefix);
+
+
+        addIgnoredPlayerSql = String.format("INSERT INTO %s_ignores (PlayerId, IgnoredId) " +
+                        "VALUES (?, ?);",
+                prefix);
+
+        removeIgnoredPlayerSql = String.format("DELETE FROM %s_ignores WHERE PlayerId=? AND IgnoredId=?%s;",
+                prefix, dialect.getRowLimit());
+
+        getIgnoredPlayersSql = String.format("SELECT * FROM %s_ignores WHERE PlayerId=?;",
+                prefix);
+
+        addViolationSql = String.format("INSERT INTO %s_violations (Id, PlayerId, Type, Details, Timestamp) " +
+                        "VALUES (?, ?, ?, ?, ?);",
+                prefix);
+
+        addViolationRowsSql = String.format("INSERT INTO %s_violations (Id, PlayerId, Type, Details, Timestamp) VALUES %s;",
+                prefix, String.join(", ", Collections.nCopies(VIOLATION_INSERT_ROWS, "(?, ?, ?, ?, ?)")));
+
+        removeViolationSql = String.format("DELETE FROM %s_violations WHERE Id=?%s;",
+                prefix, dialect.getRowLimit());
+
+        getViolationsSql = String.format("SELECT * FROM %s_violations WHERE PlayerId=?;",
+                prefix);
+
+        // second ? is the time in millis after which a violation is still active, so the index can be used
+        getActiveViolationsSql = String.format("SELECT * FROM %s_violations WHERE PlayerId=? AND Timestamp>?;",
+                prefix);
+
+        // The timestamp of the last violation of a pruning batch
+        findPruneCutoffSql = String.format("SELECT Timestamp FROM %s_violations WHERE Timestamp<? ORDER BY Timestamp LIMIT 1 OFFSET ?;",
+                prefix);
+
+        archiveViolationsSql = String.format("INSERT INTO %s_violations_archive (Id, PlayerId, Type, Details, Timestamp) " +
+                        "SELECT Id, PlayerId, Type, Details, Timestamp FROM %s_violations WHERE Timestamp<?;",
+                prefix, prefix);
+
+        pruneViolationsSql = String.format("DELETE FROM %s_violations WHERE Timestamp<?;",
+                prefix);
+    }
+
+    @Override
+    public void checkSchema() {
+        try {
+            withConnection(connection -> {
+                new SchemaMigrator(dialect, storageConfig.tablePrefix).migrate(connection);
+                return null;
+            });
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while creating tables...\n%s", ex.getMessage()));
+        }
+    }
+
+    //#region Player Data
+    @Override
+    public void addPlayerData(UUID playerId) {
+        try {
+            int added = withConnection(connection -> withStatement(connection, addPlayerDataSql, statement -> {
+                statement.setString(1, playerId.toString());
+                statement.setBoolean(2, false);
+                statement.setBoolean(3, true);
+                statement.setBoolean(4, false);
+                statement.setBoolean(5, false);
+                statement.setBoolean(6, false);
+                statement.setBoolean(7, false);
+                statement.setString(8, null);
+                statement.setString(9, generalConfig.mentionsDefaultSound);
+                statement.setString(10, generalConfig.mentionsDefaultDisplay);
+                statement.setString(11, generalConfig.mentionsDefaultPreference);
+                statement.setString(12, null);
+                statement.setString(13, null);
+                return statement.executeUpdate();
+            }));
+            if (added == 0) {
+                // The player already exists, its data is read on the next lookup
+                _playerCache.invalidate(playerId);
+                return;
+            }
+
+            _playerCache.put(playerId, new PlayerData(playerId, false, true, false,
+                    false, false, false, null,
+                    generalConfig.mentionsDefaultSound,
+                    EMentionDisplay.valueOf(generalConfig.mentionsDefaultDisplay),
+                    EMentionPreference.valueOf(generalConfig.mentionsDefaultPreference),
+                    null, null));
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while adding player data...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public void updatePlayerData(PlayerData newData) {
+        try {
+            withConnection(connection -> withStatement(connection, updatePlayerDataSql, statement -> {
+                setPlayerRow(statement, newData);
+                return statement.executeUpdate();
+            }));
+
+            _playerCache.put(newData.getUuid(), newData);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public boolean updatePlayerDataBatch(Collection<PlayerData> data) {
+        if (data.isEmpty())
+            return true;
+
+        try {
+            withConnection(connection -> inTransaction(connection, transaction -> withStatement(transaction, updatePlayerDataSql, statement -> {
+                for (PlayerData newData : data) {
+                    setPlayerRow(statement, newData);
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            })));
+
+            for (PlayerData newData : data)
+                _playerCache.put(newData.getUuid(), newData);
+            return true;
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while updating player data in batch...\n%s", ex.getMessage()));
+            return false;
+        }
+    }
+
+    @Override
+    public void removePlayerData(UUID playerId) {
+        try {
+            withConnection(connection -> withStatement(connection, removePlayerDataSql, statement -> {
+                statement.setString(1, playerId.toString());
+                return statement.executeUpdate();
+            }));
+
+            _playerCache.invalidate(playerId);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while removing player data...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public Optional<PlayerData> getPlayerData(UUID playerId) {
+        var data = _playerCache.getIfPresent(playerId);
+        if (data != null) {
+            return Optional.of(data);
+        }
+
+        try {
+            data = withConnection(connection -> withStatement(connection, getPlayerDataSql, statement -> {
+                statement.setString(1, playerId.toString());
+                try (ResultSet result = statement.executeQuery()) {
+                    return result.next() ? readPlayer(result) : null;
+                }
+            }));
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while finding player data...\n%s", ex.getMessage()));
+            return Optional.empty();
+        }
+
+        if (data != null) {
+            _playerCache.put(playerId, data);
+        }
+        return Optional.ofNullable(data);
+    }
+
+    @Override
+    public boolean isPublicChatDisabled(UUID playerId) {
+        var data = _playerCache.getIfPresent(playerId);
+        if (data != null) {
+            return data.isPublicChatDisabled();
+        }
+        return getPlayerData(playerId).map(PlayerData::isPublicChatDisabled).orElse(false);
+    }
+
+    @Override
+    public boolean isSocialSpyEnabled(Player player) {
+        var playerId = player.getUniqueId();
+        var data = _playerCache.getIfPresent(playerId);
+        if (data != null) {
+            return data.isSocialSpyEnabled() && player.hasPermission("openchat.socialspy");
+        }
+        return getPlayerData(playerId).map(PlayerData::isSocialSpyEnabled).orElse(false) && player.hasPermission("openchat.socialspy");
+    }
+
+    /**
+     * Sets the parameters of the player data update statement.
+     *
+     * @param statement The update statement.
+     * @param data      The player data.
+     * @throws SQLException If a parameter could not be set.
+     */
+    private void setPlayerRow(PreparedStatement statement, PlayerData data) throws SQLException {
+        statement.setBoolean(1, data.isPublicChatDisabled());
+        statement.setBoolean(2, data.isWhisperEnabled());
+        statement.setBoolean(3, data.isSocialSpyEnabled());
+        statement.setBoolean(4, data.isAntiAdLogsEnabled());
+        statement.setBoolean(5, data.isAntiSpamLogsEnabled());
+        statement.setBoolean(6, data.isAntiSwearLogsEnabled());
+        statement.setString(7, data.getMessageColor());
+        statement.setString(8, data.getMentionSound());
+        statement.setString(9, data.getMentionDisplay().name());
+        statement.setString(10, data.getMentionPreference().name());
+        statement.setString(11, data.getCustomJoinMessage());
+        statement.setString(12, data.getCustomLeaveMessage());
+        statement.setString(13, data.getUuid().toString());
+    }
+
+    /**
+     * Reads the player data from the current row of a result set.
+     *
+     * @param result The result set of a player query.
+     * @return The player data.
+     * @throws SQLException If a column could not be read.
+     */
+    private PlayerData readPlayer(ResultSet result) throws SQLException {
+        return new PlayerData(
+                UUID.fromString(result.getString("PlayerId")),
+                result.getBoolean("PublicChatDisabled"),
+                result.getBoolean("WhisperEnabled"),
+                result.getBoolean("SocialSpyEnabled"),
+                result.getBoolean("AntiAdLogsEnabled"),
+                result.getBoolean("AntiSpamLogsEnabled"),
+                result.getBoolean("AntiSwearLogsEnabled"),
+                result.getString("MessageColor"),
+                result.getString("Sound"),
+                EMentionDisplay.valueOf(result.getString("Display")),
+                EMentionPreference.valueOf(result.getString("Preference")),
+                result.getString("CustomJoinMessage"),
+                result.getString("CustomQuitMessage")
+        );
+    }
+    //#endregion
+
+    //#region Ignored Players
+    @Override
+    public void addIgnoredPlayer(UUID playerId, UUID ignoredPlayerId) {
+        try {
+            withConnection(connection -> withStatement(connection, addIgnoredPlayerSql, statement -> {
+                statement.setString(1, playerId.toString());
+                statement.setString(2, ignoredPlayerId.toString());
+                return statement.executeUpdate();
+            }));
+
+            // Without a cached set the whole list is loaded by the next lookup, a set of only the new player would hide the others
+            Set<UUID> ignoredSet = _ignoredPlayerCache.getIfPresent(playerId);
+            if (ignoredSet != null) {
+                ignoredSet.add(ignoredPlayerId);
+            }
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while adding ignore data...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public void removeIgnoredPlayer(UUID playerId, UUID ignoredPlayerId) {
+        try {
+            withConnection(connection -> withStatement(connection, removeIgnoredPlayerSql, statement -> {
+                statement.setString(1, playerId.toString());
+                statement.setString(2, ignoredPlayerId.toString());
+                return statement.executeUpdate();
+            }));
+
+            Set<UUID> ignoredSet = _ignoredPlayerCache.getIfPresent(playerId);
+            if (ignoredSet != null) {
+                ignoredSet.remove(ignoredPlayerId);
+            }
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened during the deletion of ignore tables...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public Optional<Set<UUID>> getIgnoredPlayers(UUID playerId) {
+        var data = _ignoredPlayerCache.getIfPresent(playerId);
+        if (data != null) {
+            return Optional.of(data);
+        }
+
+        try {
+            data = withConnection(connection -> withStatement(connection, getIgnoredPlayersSql, statement -> {
+                // The set is shared with the chat threads and changed by the ignore commands
+                Set<UUID> ignored = ConcurrentHashMap.newKeySet();
+                statement.setString(1, playerId.toString());
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        ignored.add(UUID.fromString(result.getString("IgnoredId")));
+                    }
+                }
+                return ignored;
+            }));
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while finding ignore data...\n%s", ex.getMessage()));
+            return Optional.empty();
+        }
+
+        _ignoredPlayerCache.put(playerId, data);
+        return Optional.of(data);
+    }
+
+    @Override
+    public boolean isPlayerIgnored(UUID playerId, UUID ignoredPlayerId) {
+        return getIgnoredPlayers(playerId)
+                .map(ignored -> ignored.contains(ignoredPlayerId))
+                .orElse(false);
+    }
+    //#endregion
+
+    //#region Violations
+    @Override
+    public void addViolation(@NotNull UUID playerId, @NotNull EViolationType type, @NotNull String details) {
+        try {
+            ViolationData violation = new ViolationData(UUID.randomUUID(), playerId, type, details, System.currentTimeMillis());
+            withConnection(connection -> withStatement(connection, addViolationSql, statement -> {
+                setViolationRow(statement, 0, violation);
+                return statement.executeUpdate();
+            }));
+
+            cacheViolation(violation);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while adding violation...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public boolean addViolationBatch(Collection<ViolationData> violations) {
+        if (violations.isEmpty())
+            return true;
+
+        List<ViolationData> rows = new ArrayList<>(violations);
+        int fullRows = rows.size() - rows.size() % VIOLATION_INSERT_ROWS;
+        try {
+            withConnection(connection -> inTransaction(connection, transaction -> {
+                // Full chunks go through the multi-row insert, the rest through the single-row one
+                if (fullRows > 0) {
+                    withStatement(transaction, addViolationRowsSql, statement -> {
+                        for (int i = 0; i < fullRows; i += VIOLATION_INSERT_ROWS) {
+                            for (int j = 0; j < VIOLATION_INSERT_ROWS; j++)
+                                setViolationRow(statement, j * 5, rows.get(i + j));
+                            statement.addBatch();
+                        }
+                        return statement.executeBatch();
+                    });
+                }
+                if (fullRows < rows.size()) {
+                    withStatement(transaction, addViolationSql, statement -> {
+                        for (int i = fullRows; i < rows.size(); i++) {
+                            setViolationRow(statement, 0, rows.get(i));
+                            statement.addBatch();
+                        }
+                        return statement.executeBatch();
+                    });
+                }
+                return null;
+            }));
+
+            for (ViolationData violation : rows)
+                cacheViolation(violation);
+            return true;
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while adding violations in batch...\n%s", ex.getMessage()));
+            return false;
+        }
+    }
+
+    @Override
+    public void removeViolation(UUID violationId, UUID playerId) {
+        try {
+            withConnection(connection -> withStatement(connection, removeViolationSql, statement -> {
+                setViolationId(statement, 1, violationId);
+                return statement.executeUpdate();
+            }));
+
+            var violationSet = _violationCache.getIfPresent(playerId);
+            if (violationSet != null) {
+                violationSet.removeIf(v -> v.getId().equals(violationId));
+            }
+
+            var activeViolationSet = _violationActiveCache.getIfPresent(playerId);
+            if (activeViolationSet != null) {
+                activeViolationSet.removeIf(v -> v.getId().equals(violationId));
+            }
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while removing violation...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public Optional<Set<ViolationData>> getViolations(UUID playerId) {
+        var data = _violationCache.getIfPresent(playerId);
+        if (data != null) {
+            return Optional.of(data);
+        }
+
+        try {
+            data = withConnection(connection -> withStatement(connection, getViolationsSql, statement -> {
+                setViolationId(statement, 1, playerId);
+                return readViolations(statement);
+            }));
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while finding violations...\n%s", ex.getMessage()));
+            return Optional.empty();
+        }
+
+        _violationCache.put(playerId, data);
+        return Optional.of(data);
+    }
+
+    @Override
+    public Optional<Set<ViolationData>> getActiveViolations(UUID playerId) {
+        var data = _violationActiveCache.getIfPresent(playerId);
+        if (data != null) {
+            return Optional.of(data);
+        }
+
+        try {
+            data = withConnection(connection -> withStatement(connection, getActiveViolationsSql, statement -> {
+                setViolationId(statement, 1, playerId);
+                statement.setLong(2, System.currentTimeMillis() - OpenChat.moderationConfig().violationDurationMilliseconds);
+                return readViolations(statement);
+            }));
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while finding active violations...\n%s", ex.getMessage()));
+            return Optional.empty();
+        }
+
+        _violationActiveCache.put(playerId, data);
+        return Optional.of(data);
+    }
+
+    @Override
+    public Optional<Set<ViolationData>> getActiveViolationsByType(UUID playerId, EViolationType type) {
+        var data = _violationActiveCache.getIfPresent(playerId);
+        if (data != null) {
+            return Optional.of(data.stream()
+                    .filter(x -> x.getType() == type)
+                    .collect(Collectors.toSet())
+            );
+        }
+
+        return getActiveViolations(playerId).map(violations ->
+                violations.stream()
+                        .filter(x -> x.getType() == type)
+                        .collect(Collectors.toSet())
+        );
+    }
+
+    @Override
+    public int pruneViolations(long olderThan, int limit, boolean archive) {
+        try {
+            int removed = withConnection(connection -> {
+                // Prune up to the timestamp of the limit-th oldest violation, so the batch stays bounded
+                long before = withStatement(connection, findPruneCutoffSql, statement -> {
+                    statement.setLong(1, olderThan);
+                    statement.setInt(2, Math.max(0, limit - 1));
+                    try (ResultSet result = statement.executeQuery()) {
+                        return result.next() ? result.getLong(1) + 1 : olderThan;
+                    }
+                });
+
+                return inTransaction(connection, transaction -> {
+                    if (archive) {
+                        withStatement(transaction, archiveViolationsSql, statement -> {
+                            statement.setLong(1, before);
+                            return statement.executeUpdate();
+                        });
+                    }
+                    return withStatement(transaction, pruneViolationsSql, statement -> {
+                        statement.setLong(1, before);
+                        return statement.executeUpdate();
+                    });
+                });
+            });
+
+            if (removed > 0)
+                _violationCache.invalidateAll();
+            return removed;
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while pruning violations...\n%s", ex.getMessage()));
+            return 0;
+        }
+    }
+
+    /**
+     * Runs a violation query and reads every row.
+     *
+     * @param statement The violation query with its parameters set.
+     * @return The violations.
+     * @throws SQLException If the query failed.
+     */
+    private Set<ViolationData> readViolations(PreparedStatement statement) throws SQLException {
+        Set<ViolationData> violations = new HashSet<>();
+        try (ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                violations.add(new ViolationData(
+                        getViolationId(result, "Id"),
+                        getViolationId(result, "PlayerId"),
+                        EViolationType.valueOf(result.getString("Type")),
+                        result.getString("Details"),
+                        result.getLong("Timestamp")
+                ));
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Sets the parameters of a violation row of an insert statement.
+     *
+     * @param statement The insert statement.
+     * @param offset    The number of parameters before the row.
+     * @param violation The violation to insert.
+     * @throws SQLException If a parameter could not be set.
+     */
+    private void setViolationRow(PreparedStatement statement, int offset, ViolationData violation) throws SQLException {
+        setViolationId(statement, offset + 1, violation.getId());
+        setViolationId(statement, offset + 2, violation.getUuid());
+        statement.setString(offset + 3, violation.getType().name());
+        statement.setString(offset + 4, violation.getDetails());
+        statement.setLong(offset + 5, violation.getTimestamp());
+    }
+
+    /**
+     * Adds a new violation to the cached violation sets of its player.
+     *
+     * @param violation The added violation.
+     */
+    private void cacheViolation(ViolationData violation) {
+        UUID playerId = violation.getUuid();
+
+        // Add to whole cache
+        Set<ViolationData> violationSet = _violationCache.getIfPresent(playerId);
+        if (violationSet != null) {
+            violationSet.add(violation);
+        }
+        else {
+            Set<ViolationData> tempSet = new HashSet<>();
+            tempSet.add(violation);
+            _violationCache.put(playerId, tempSet);
+        }
+
+        // Add to active cache
+        Set<ViolationData> activeViolationSet = _violationActiveCache.getIfPresent(playerId);
+        if (activeViolationSet != null) {
+            activeViolationSet.add(violation);
+        }
+        else {
+            Set<ViolationData> tempSet = new HashSet<>();
+            tempSet.add(violation);
+            _violationActiveCache.put(playerId, tempSet);
+        }
+    }
+    //#endregion
+}
@@ -0,0 +1,197 @@
+package io.github.tavstaldev.openChat.database;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.models.database.PlayerData;
+import io.github.tavstaldev.openChat.models.database.ViolationData;
+import org.bukkit.entity.Player;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs the operations of an {@link IDatabase} on a dedicated, bounded executor.
+ * <br/>
+ * The executor has a fixed number of threads and a bounded queue. When the queue is full, the operation is not run
+ * on the calling thread, because that would usually be the main thread; its future fails with a
+ * {@link RejectedExecutionException} instead.
+ */
+public class AsyncDatabase implements IAsyncDatabase {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private final PluginLogger _logger = OpenChat.logger().withModule(AsyncDatabase.class);
+    private final IDatabase database;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructor for AsyncDatabase.
+     *
+     * @param database      The database the operations are run on.
+     * @param threads       The number of database threads.
+     * @param queueCapacity The maximum number of queued operations.
+     */
+    public AsyncDatabase(IDatabase database, int threads, int queueCapacity) {
+        this.database = database;
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "OpenChat-Database-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Gets the number of operations waiting for a database thread.
+     *
+     * @return The number of queued operations.
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> operation) {
+        try {
+            return CompletableFuture.supplyAsync(operation, executor);
+        } catch (RejectedExecutionException ex) {
+            _logger.warn(String.format("Database queue is full, dropping operation...\n%s", ex.getMessage()));
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private CompletableFuture<Void> run(Runnable operation) {
+        try {
+            return CompletableFuture.runAsync(operation, executor);
+        } catch (RejectedExecutionException ex) {
+            _logger.warn(String.format("Database queue is full, dropping operation...\n%s", ex.getMessage()));
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Function<IDatabase, T> operation) {
+        return supply(() -> operation.apply(database));
+    }
+
+    @Override
+    public CompletableFuture<Void> execute(Consumer<IDatabase> operation) {
+        return run(() -> operation.accept(database));
+    }
+
+    //#region Player Data Management
+    @Override
+    public CompletableFuture<Void> addPlayerData(UUID playerId) {
+        return run(() -> database.addPlayerData(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Void> updatePlayerData(PlayerData newData) {
+        return run(() -> database.updatePlayerData(newData));
+    }
+
+    @Override
+    public CompletableFuture<Void> removePlayerData(UUID playerId) {
+        return run(() -> database.removePlayerData(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerData>> getPlayerData(UUID playerId) {
+        return supply(() -> database.getPlayerData(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerData>> getOrAddPlayerData(UUID playerId) {
+        return supply(() -> {
+            var playerData = database.getPlayerData(playerId);
+            if (playerData.isEmpty()) {
+                database.addPlayerData(playerId);
+                // Since addPlayerData initializes it and also adds it to the cache, we can retrieve it again.
+                playerData = database.getPlayerData(playerId);
+            }
+            return playerData;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isPublicChatDisabled(UUID playerId) {
+        return supply(() -> database.isPublicChatDisabled(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isSocialSpyEnabled(Player player) {
+        return supply(() -> database.isSocialSpyEnabled(player));
+    }
+    //#endregion
+
+    //#region Ignore Management
+    @Override
+    public CompletableFuture<Void> addIgnoredPlayer(UUID playerId, UUID ignoredPlayerId) {
+        return run(() -> database.addIgnoredPlayer(playerId, ignoredPlayerId));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeIgnoredPlayer(UUID playerId, UUID ignoredPlayerId) {
+        return run(() -> database.removeIgnoredPlayer(playerId, ignoredPlayerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isPlayerIgnored(UUID playerId, UUID ignoredPlayerId) {
+        return supply(() -> database.isPlayerIgnored(playerId, ignoredPlayerId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Set<UUID>>> getIgnoredPlayers(UUID playerId) {
+        return supply(() -> database.getIgnoredPlayers(playerId));
+    }
+    //#endregion
+
+    //#region Violations
+    @Override
+    public CompletableFuture<Void> addViolation(UUID playerId, EViolationType type, String details) {
+        return run(() -> database.addViolation(playerId, type, details));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeViolation(UUID violationId, UUID playerId) {
+        return run(() -> database.removeViolation(violationId, playerId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Set<ViolationData>>> getViolations(UUID playerId) {
+        return supply(() -> database.getViolations(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Set<ViolationData>>> getActiveViolations(UUID playerId) {
+        return supply(() -> database.getActiveViolations(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Set<ViolationData>>> getActiveViolationsByType(UUID playerId, EViolationType type) {
+        return supply(() -> database.getActiveViolationsByType(playerId, type));
+    }
+    //#endregion
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                _logger.warn(String.format("Database operations did not finish in %d seconds, %d were dropped.",
+                        SHUTDOWN_TIMEOUT_SECONDS, executor.shutdownNow().size()));
+            }
+        } catch (InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
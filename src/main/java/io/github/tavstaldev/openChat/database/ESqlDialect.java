@@ -0,0 +1,45 @@
+package io.github.tavstaldev.openChat.database;
+
+/**
+ * The ESqlDialect enum represents the SQL dialects of the database backends, for the statements that differ
+ * between them.
+ */
+public enum ESqlDialect {
+    /** MySQL and MariaDB. */
+    MYSQL("INSERT IGNORE", " LIMIT 1"),
+
+    /** SQLite. */
+    SQLITE("INSERT OR IGNORE", "");
+
+    private final String insertIgnore;
+    private final String rowLimit;
+
+    /**
+     * Constructor for ESqlDialect.
+     *
+     * @param insertIgnore The insert keyword that skips the rows already in the table.
+     * @param rowLimit     The clause limiting a delete or an update to one row, empty if the dialect does not support it.
+     */
+    ESqlDialect(String insertIgnore, String rowLimit) {
+        this.insertIgnore = insertIgnore;
+        this.rowLimit = rowLimit;
+    }
+
+    /**
+     * Gets the insert keyword that skips the rows already in the table.
+     *
+     * @return The insert keyword.
+     */
+    public String getInsertIgnore() {
+        return insertIgnore;
+    }
+
+    /**
+     * Gets the clause limiting a delete or an update to one row.
+     *
+     * @return The clause with a leading space, or an empty string.
+     */
+    public String getRowLimit() {
+        return rowLimit;
+    }
+}
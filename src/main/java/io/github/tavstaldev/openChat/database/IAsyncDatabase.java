@@ -0,0 +1,179 @@
+package io.github.tavstaldev.openChat.database;
+
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.models.database.PlayerData;
+import io.github.tavstaldev.openChat.models.database.ViolationData;
+import org.bukkit.entity.Player;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Asynchronous variant of {@link IDatabase}.
+ * Every operation runs on the database executor and completes the returned future with its result, so the calling
+ * thread never waits for the database. Use {@link io.github.tavstaldev.openChat.util.SchedulerUtil} to continue on
+ * the main thread.
+ */
+public interface IAsyncDatabase {
+
+    /**
+     * Runs an operation that needs several database calls as a single task on the database executor.
+     *
+     * @param operation The operation, called with the synchronous database.
+     * @param <T>       The type of the result.
+     * @return A future of the result of the operation.
+     */
+    <T> CompletableFuture<T> submit(Function<IDatabase, T> operation);
+
+    /**
+     * Runs an operation that needs several database calls as a single task on the database executor.
+     *
+     * @param operation The operation, called with the synchronous database.
+     * @return A future completed when the operation finished.
+     */
+    CompletableFuture<Void> execute(Consumer<IDatabase> operation);
+
+    /**
+     * Adds a new player to the database.
+     *
+     * @param playerId The UUID of the player to add.
+     * @return A future completed when the player is added.
+     */
+    CompletableFuture<Void> addPlayerData(UUID playerId);
+
+    /**
+     * Updates the data of an existing player in the database.
+     *
+     * @param newData The updated player data.
+     * @return A future completed when the player data is updated.
+     */
+    CompletableFuture<Void> updatePlayerData(PlayerData newData);
+
+    /**
+     * Removes a player from the database.
+     *
+     * @param playerId The UUID of the player to remove.
+     * @return A future completed when the player is removed.
+     */
+    CompletableFuture<Void> removePlayerData(UUID playerId);
+
+    /**
+     * Retrieves the data of a player from the database.
+     *
+     * @param playerId The UUID of the player.
+     * @return A future of an Optional containing the player's data, or empty if not found.
+     */
+    CompletableFuture<Optional<PlayerData>> getPlayerData(UUID playerId);
+
+    /**
+     * Retrieves the data of a player from the database, adding the player first if they are not found.
+     *
+     * @param playerId The UUID of the player.
+     * @return A future of an Optional containing the player's data, or empty if it could not be added.
+     */
+    CompletableFuture<Optional<PlayerData>> getOrAddPlayerData(UUID playerId);
+
+    /**
+     * Checks if public chat is disabled for a specific player.
+     *
+     * @param playerId The UUID of the player.
+     * @return A future of true if public chat is disabled, false otherwise.
+     */
+    CompletableFuture<Boolean> isPublicChatDisabled(UUID playerId);
+
+    /**
+     * Checks if the Social Spy feature is enabled for a specific player.
+     *
+     * @param player The player to check.
+     * @return A future of true if Social Spy is enabled, false otherwise.
+     */
+    CompletableFuture<Boolean> isSocialSpyEnabled(Player player);
+
+    /**
+     * Adds a player to another player's ignore list.
+     *
+     * @param playerId       The UUID of the player adding the ignore.
+     * @param ignoredPlayerId The UUID of the player to be ignored.
+     * @return A future completed when the ignore is added.
+     */
+    CompletableFuture<Void> addIgnoredPlayer(UUID playerId, UUID ignoredPlayerId);
+
+    /**
+     * Removes a player from another player's ignore list.
+     *
+     * @param playerId       The UUID of the player removing the ignore.
+     * @param ignoredPlayerId The UUID of the player to be removed from the ignore list.
+     * @return A future completed when the ignore is removed.
+     */
+    CompletableFuture<Void> removeIgnoredPlayer(UUID playerId, UUID ignoredPlayerId);
+
+    /**
+     * Checks if a player is ignored by another player.
+     *
+     * @param playerId       The UUID of the player checking the ignore.
+     * @param ignoredPlayerId The UUID of the player being checked.
+     * @return A future of true if the player is ignored, false otherwise.
+     */
+    CompletableFuture<Boolean> isPlayerIgnored(UUID playerId, UUID ignoredPlayerId);
+
+    /**
+     * Retrieves every player a player ignores.
+     *
+     * @param playerId The UUID of the player.
+     * @return A future of an Optional containing the set of ignored players, or empty if they could not be loaded.
+     */
+    CompletableFuture<Optional<Set<UUID>>> getIgnoredPlayers(UUID playerId);
+
+    /**
+     * Adds a violation to a player's record.
+     *
+     * @param playerId The UUID of the player.
+     * @param type     The type of violation.
+     * @param details  Additional details about the violation.
+     * @return A future completed when the violation is added.
+     */
+    CompletableFuture<Void> addViolation(UUID playerId, EViolationType type, String details);
+
+    /**
+     * Removes a violation from a player's record.
+     *
+     * @param violationId The UUID of the violation to remove.
+     * @param playerId    The UUID of the player.
+     * @return A future completed when the violation is removed.
+     */
+    CompletableFuture<Void> removeViolation(UUID violationId, UUID playerId);
+
+    /**
+     * Retrieves all violations for a specific player.
+     *
+     * @param playerId The UUID of the player.
+     * @return A future of an Optional containing a set of all violations, or empty if none exist.
+     */
+    CompletableFuture<Optional<Set<ViolationData>>> getViolations(UUID playerId);
+
+    /**
+     * Retrieves all active violations for a specific player.
+     *
+     * @param playerId The UUID of the player.
+     * @return A future of an Optional containing a set of active violations, or empty if none exist.
+     */
+    CompletableFuture<Optional<Set<ViolationData>>> getActiveViolations(UUID playerId);
+
+    /**
+     * Retrieves all active violations of a specific type for a player.
+     *
+     * @param playerId The UUID of the player.
+     * @param type     The type of violations to retrieve.
+     * @return A future of an Optional containing a set of active violations of the specified type, or empty if none exist.
+     */
+    CompletableFuture<Optional<Set<ViolationData>>> getActiveViolationsByType(UUID playerId, EViolationType type);
+
+    /**
+     * Stops accepting new operations and waits for the queued ones to finish.
+     */
+    void shutdown();
+}
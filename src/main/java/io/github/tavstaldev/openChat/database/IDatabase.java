@@ -5,6 +5,7 @@ import io.github.tavstaldev.openChat.models.database.PlayerData;
 import io.github.tavstaldev.openChat.models.database.ViolationData;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -36,7 +37,8 @@ public interface IDatabase {
     void checkSchema();
 
     /**
-     * Adds a new player to the database.
+     * Adds a new player to the database with the default settings.
+     * Nothing happens if the player already exists.
      *
      * @param playerId The UUID of the player to add.
      */
@@ -49,6 +51,14 @@ public interface IDatabase {
      */
     void updatePlayerData(PlayerData newData);
 
+    /**
+     * Updates the data of several existing players in a single batch.
+     *
+     * @param data The updated player data.
+     * @return True if the batch was written, false if it failed and nothing was written.
+     */
+    boolean updatePlayerDataBatch(Collection<PlayerData> data);
+
     /**
      * Removes a player from the database.
      *
@@ -105,6 +115,14 @@ public interface IDatabase {
      */
     boolean isPlayerIgnored(UUID playerId, UUID ignoredPlayerId);
 
+    /**
+     * Retrieves every player a player ignores.
+     *
+     * @param playerId The UUID of the player.
+     * @return An Optional containing the set of ignored players, or empty if they could not be loaded.
+     */
+    Optional<Set<UUID>> getIgnoredPlayers(UUID playerId);
+
     /**
      * Adds a violation to a player's record.
      *
@@ -114,6 +132,14 @@ public interface IDatabase {
      */
     void addViolation(UUID playerId, EViolationType type, String details);
 
+    /**
+     * Adds several violations in a single batch, using multi-row inserts.
+     *
+     * @param violations The violations to add.
+     * @return True if the batch was written, false if it failed and nothing was written.
+     */
+    boolean addViolationBatch(Collection<ViolationData> violations);
+
     /**
      * Removes a violation from a player's record.
      *
@@ -146,4 +172,15 @@ public interface IDatabase {
      * @return An Optional containing a set of active violations of the specified type, or empty if none exist.
      */
     Optional<Set<ViolationData>> getActiveViolationsByType(UUID playerId, EViolationType type);
+
+    /**
+     * Removes a bounded batch of the oldest violations committed before the given time.
+     * The batch ends at a timestamp boundary, so it can be slightly larger than the limit when timestamps are equal.
+     *
+     * @param olderThan The time in milliseconds, violations before it are removed.
+     * @param limit     The number of violations to remove at most, apart from equal timestamps.
+     * @param archive   True to move the violations to the archive table, false to delete them.
+     * @return The number of removed violations.
+     */
+    int pruneViolations(long olderThan, int limit, boolean archive);
 }
\ No newline at end of file
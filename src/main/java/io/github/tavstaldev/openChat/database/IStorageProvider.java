@@ -0,0 +1,27 @@
+package io.github.tavstaldev.openChat.database;
+
+/**
+ * Interface of a storage backend that can be selected with the {@code storage.type} setting.
+ * <br/>
+ * Providers are registered by name in the {@link StorageRegistry}. A plugin adding its own backend has to register it
+ * before OpenChat is enabled, so it should load before OpenChat.
+ */
+public interface IStorageProvider {
+
+    /**
+     * Creates the database of the backend. The database is loaded by the caller.
+     *
+     * @return A new, not yet loaded database.
+     */
+    IDatabase create();
+
+    /**
+     * Checks if the backend only allows one writer at a time.
+     * The database executor of such a backend runs on a single thread.
+     *
+     * @return True if the backend has a single writer, false otherwise.
+     */
+    default boolean isSingleWriter() {
+        return false;
+    }
+}
@@ -0,0 +1,513 @@
+package io.github.tavstaldev.openChat.database;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.GeneralConfig;
+import io.github.tavstaldev.openChat.config.StorageConfig;
+import io.github.tavstaldev.openChat.models.database.*;
+import org.bukkit.entity.Player;
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded key-value implementation of the database, stored in a single H2 MVStore file.
+ * <br/>
+ * The maps are concurrent, so unlike SQLite any number of threads can read and write at the same time. Each record is
+ * stored under a key that keeps the records of a player next to each other in key order:
+ * <ul>
+ *     <li>players: {@code playerId} to the encoded settings.</li>
+ *     <li>ignores: {@code playerId:ignoredId}, the ignore list of a player is a range scan.</li>
+ *     <li>violations: {@code playerId:timestamp:violationId} to the type and details, with the timestamp as 16 hex
+ *     digits, so the active violations of a player are a range scan from the oldest active timestamp.</li>
+ *     <li>violations by time: {@code timestamp:violationId} to the violation key, the index of the pruning.</li>
+ * </ul>
+ * The changes are committed to the file in the background about every second, and when the database is unloaded.
+ */
+public class MvStoreDatabase implements IDatabase {
+    private static final int SCHEMA_VERSION = 1; // The version of the map layout.
+    private static final int RECORD_VERSION = 1; // The version of the encoded records.
+    private final PluginLogger _logger = OpenChat.logger().withModule(MvStoreDatabase.class);
+    private GeneralConfig generalConfig;
+    private StorageConfig storageConfig;
+    private MVStore _store;
+    private MVMap<String, Integer> _meta;
+    private MVMap<UUID, byte[]> _players;
+    private MVMap<String, Boolean> _ignores;
+    private MVMap<String, byte[]> _violations;
+    private MVMap<String, String> _violationsByTime;
+    private MVMap<String, byte[]> _violationsArchive;
+    // The decoded settings are cached, because the chat reads them for every viewer
+    private final Cache<@NotNull UUID, PlayerData> _playerCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(3, TimeUnit.MINUTES)
+            .build();
+
+    @Override
+    public void load() {
+        generalConfig = OpenChat.config();
+        storageConfig = OpenChat.storageConfig();
+        try {
+            _store = new MVStore.Builder()
+                    .fileName(String.format("plugins/OpenChat/%s.mv.db", storageConfig.filename))
+                    .compress()
+                    .open();
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while opening the database file...\n%s", ex.getMessage()));
+            return;
+        }
+        update();
+    }
+
+    @Override
+    public void update() {
+        if (_store == null)
+            return;
+
+        // The table prefix may have changed
+        String prefix = storageConfig.tablePrefix;
+        _meta = _store.openMap(prefix + "_meta");
+        _players = _store.openMap(prefix + "_players");
+        _ignores = _store.openMap(prefix + "_ignores");
+        _violations = _store.openMap(prefix + "_violations");
+        _violationsByTime = _store.openMap(prefix + "_violations_by_time");
+        _violationsArchive = _store.openMap(prefix + "_violations_archive");
+        _playerCache.invalidateAll();
+    }
+
+    @Override
+    public void unload() {
+        if (_store == null)
+            return;
+
+        try {
+            _store.close();
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while closing the database file...\n%s", ex.getMessage()));
+        } finally {
+            _store = null;
+        }
+    }
+
+    @Override
+    public void checkSchema() {
+        if (_store == null) {
+            _logger.error("Could not open the database file to check schema!");
+            return;
+        }
+
+        Integer version = _meta.get("SchemaVersion");
+        if (version != null && version > SCHEMA_VERSION) {
+            _logger.warn(String.format("The database was written by a newer version (schema %d, supported %d).", version, SCHEMA_VERSION));
+            return;
+        }
+        // The maps are created when they are opened, there is nothing to migrate yet
+        _meta.put("SchemaVersion", SCHEMA_VERSION);
+        _store.commit();
+    }
+
+    //#region Player Data
+    @Override
+    public void addPlayerData(UUID playerId) {
+        try {
+            PlayerData data = new PlayerData(playerId, false, true, false,
+                    false, false, false, null,
+                    generalConfig.mentionsDefaultSound,
+                    EMentionDisplay.valueOf(generalConfig.mentionsDefaultDisplay),
+                    EMentionPreference.valueOf(generalConfig.mentionsDefaultPreference),
+                    null, null);
+            if (_players.putIfAbsent(playerId, encodePlayer(data)) != null) {
+                // The player already exists, its data is read on the next lookup
+                _playerCache.invalidate(playerId);
+                return;
+            }
+
+            _playerCache.put(playerId, data);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while adding player data...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public void updatePlayerData(PlayerData newData) {
+        try {
+            // Only existing players are updated, the same as the SQL backends
+            if (_players.replace(newData.getUuid(), encodePlayer(newData)) != null)
+                _playerCache.put(newData.getUuid(), newData);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public boolean updatePlayerDataBatch(Collection<PlayerData> data) {
+        if (data.isEmpty())
+            return true;
+
+        try {
+            for (PlayerData newData : data) {
+                if (_players.replace(newData.getUuid(), encodePlayer(newData)) != null)
+                    _playerCache.put(newData.getUuid(), newData);
+            }
+            _store.commit();
+            return true;
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while updating player data in batch...\n%s", ex.getMessage()));
+            return false;
+        }
+    }
+
+    @Override
+    public void removePlayerData(UUID playerId) {
+        try {
+            _players.remove(playerId);
+            _playerCache.invalidate(playerId);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while removing player data...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public Optional<PlayerData> getPlayerData(UUID playerId) {
+        var data = _playerCache.getIfPresent(playerId);
+        if (data != null) {
+            return Optional.of(data);
+        }
+
+        try {
+            byte[] record = _players.get(playerId);
+            if (record == null)
+                return Optional.empty();
+            data = decodePlayer(playerId, record);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while finding player data...\n%s", ex.getMessage()));
+            return Optional.empty();
+        }
+
+        _playerCache.put(playerId, data);
+        return Optional.of(data);
+    }
+
+    @Override
+    public boolean isPublicChatDisabled(UUID playerId) {
+        return getPlayerData(playerId).map(PlayerData::isPublicChatDisabled).orElse(false);
+    }
+
+    @Override
+    public boolean isSocialSpyEnabled(Player player) {
+        return getPlayerData(player.getUniqueId()).map(PlayerData::isSocialSpyEnabled).orElse(false) && player.hasPermission("openchat.socialspy");
+    }
+    //#endregion
+
+    //#region Ignored Players
+    @Override
+    public void addIgnoredPlayer(UUID playerId, UUID ignoredPlayerId) {
+        try {
+            _ignores.put(playerId + ":" + ignoredPlayerId, Boolean.TRUE);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while adding ignore data...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public void removeIgnoredPlayer(UUID playerId, UUID ignoredPlayerId) {
+        try {
+            _ignores.remove(playerId + ":" + ignoredPlayerId);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened during the deletion of ignore data...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public Optional<Set<UUID>> getIgnoredPlayers(UUID playerId) {
+        try {
+            String prefix = playerId + ":";
+            Set<UUID> data = ConcurrentHashMap.newKeySet();
+            Iterator<String> keys = _ignores.keyIterator(prefix);
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (!key.startsWith(prefix))
+                    break;
+                data.add(UUID.fromString(key.substring(prefix.length())));
+            }
+            return Optional.of(data);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while finding ignore data...\n%s", ex.getMessage()));
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean isPlayerIgnored(UUID playerId, UUID ignoredPlayerId) {
+        try {
+            return _ignores.containsKey(playerId + ":" + ignoredPlayerId);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while finding ignore data...\n%s", ex.getMessage()));
+            return false;
+        }
+    }
+    //#endregion
+
+    //#region Violations
+    @Override
+    public void addViolation(UUID playerId, EViolationType type, String details) {
+        try {
+            putViolation(new ViolationData(UUID.randomUUID(), playerId, type, details, System.currentTimeMillis()));
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while adding violation...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public boolean addViolationBatch(Collection<ViolationData> violations) {
+        if (violations.isEmpty())
+            return true;
+
+        try {
+            for (ViolationData violation : violations)
+                putViolation(violation);
+            _store.commit();
+            return true;
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while adding violations in batch...\n%s", ex.getMessage()));
+            return false;
+        }
+    }
+
+    @Override
+    public void removeViolation(UUID violationId, UUID playerId) {
+        try {
+            // The id is the last part of the key, so the violations of the player are searched for it
+            String suffix = ":" + violationId;
+            String prefix = playerId + ":";
+            Iterator<String> keys = _violations.keyIterator(prefix);
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (!key.startsWith(prefix))
+                    break;
+                if (!key.endsWith(suffix))
+                    continue;
+
+                _violations.remove(key);
+                _violationsByTime.remove(key.substring(prefix.length()));
+                break;
+            }
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while removing violation...\n%s", ex.getMessage()));
+        }
+    }
+
+    @Override
+    public Optional<Set<ViolationData>> getViolations(UUID playerId) {
+        try {
+            return Optional.of(readViolations(playerId, 0));
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while finding violations...\n%s", ex.getMessage()));
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<Set<ViolationData>> getActiveViolations(UUID playerId) {
+        try {
+            long after = System.currentTimeMillis() - OpenChat.moderationConfig().violationDurationMilliseconds;
+            return Optional.of(readViolations(playerId, Math.max(0, after + 1)));
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while finding active violations...\n%s", ex.getMessage()));
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<Set<ViolationData>> getActiveViolationsByType(UUID playerId, EViolationType type) {
+        return getActiveViolations(playerId).map(violations ->
+                violations.stream()
+                        .filter(x -> x.getType() == type)
+                        .collect(Collectors.toSet())
+        );
+    }
+
+    @Override
+    public int pruneViolations(long olderThan, int limit, boolean archive) {
+        try {
+            int removed = 0;
+            Cursor<String, String> cursor = _violationsByTime.cursor(null);
+            List<String> timeKeys = new ArrayList<>();
+            List<String> violationKeys = new ArrayList<>();
+            while (cursor.hasNext() && timeKeys.size() < limit) {
+                String timeKey = cursor.next();
+                if (Long.parseLong(timeKey.substring(0, 16), 16) >= olderThan)
+                    break;
+                timeKeys.add(timeKey);
+                violationKeys.add(cursor.getValue());
+            }
+
+            for (int i = 0; i < timeKeys.size(); i++) {
+                byte[] record = _violations.remove(violationKeys.get(i));
+                _violationsByTime.remove(timeKeys.get(i));
+                if (record == null)
+                    continue;
+                if (archive)
+                    _violationsArchive.put(violationKeys.get(i), record);
+                removed++;
+            }
+            if (removed > 0)
+                _store.commit();
+            return removed;
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while pruning violations...\n%s", ex.getMessage()));
+            return 0;
+        }
+    }
+
+    /**
+     * Stores a violation and its time index entry.
+     *
+     * @param violation The violation.
+     */
+    private void putViolation(ViolationData violation) {
+        String timeKey = String.format("%016x:%s", violation.getTimestamp(), violation.getId());
+        String key = violation.getUuid() + ":" + timeKey;
+        _violations.put(key, encodeViolation(violation));
+        _violationsByTime.put(timeKey, key);
+    }
+
+    /**
+     * Reads the violations of a player committed from the given time.
+     *
+     * @param playerId The UUID of the player.
+     * @param from     The earliest timestamp in milliseconds.
+     * @return The violations.
+     */
+    private Set<ViolationData> readViolations(UUID playerId, long from) {
+        String prefix = playerId + ":";
+        Set<ViolationData> data = new HashSet<>();
+        Cursor<String, byte[]> cursor = _violations.cursor(String.format("%s%016x", prefix, from));
+        while (cursor.hasNext()) {
+            String key = cursor.next();
+            if (!key.startsWith(prefix))
+                break;
+            data.add(decodeViolation(playerId, key.substring(prefix.length()), cursor.getValue()));
+        }
+        return data;
+    }
+    //#endregion
+
+    //#region Records
+    /**
+     * Encodes the settings of a player.
+     *
+     * @param data The player data.
+     * @return The encoded record.
+     */
+    private static byte[] encodePlayer(PlayerData data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RECORD_VERSION);
+            out.writeBoolean(data.isPublicChatDisabled());
+            out.writeBoolean(data.isWhisperEnabled());
+            out.writeBoolean(data.isSocialSpyEnabled());
+            out.writeBoolean(data.isAntiAdLogsEnabled());
+            out.writeBoolean(data.isAntiSpamLogsEnabled());
+            out.writeBoolean(data.isAntiSwearLogsEnabled());
+            writeNullable(out, data.getMessageColor());
+            writeNullable(out, data.getMentionSound());
+            out.writeUTF(data.getMentionDisplay().name());
+            out.writeUTF(data.getMentionPreference().name());
+            writeNullable(out, data.getCustomJoinMessage());
+            writeNullable(out, data.getCustomLeaveMessage());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes the settings of a player.
+     *
+     * @param playerId The UUID of the player.
+     * @param record   The encoded record.
+     * @return The player data.
+     */
+    private static PlayerData decodePlayer(UUID playerId, byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            in.readByte();
+            return new PlayerData(playerId,
+                    in.readBoolean(),
+                    in.readBoolean(),
+                    in.readBoolean(),
+                    in.readBoolean(),
+                    in.readBoolean(),
+                    in.readBoolean(),
+                    readNullable(in),
+                    readNullable(in),
+                    EMentionDisplay.valueOf(in.readUTF()),
+                    EMentionPreference.valueOf(in.readUTF()),
+                    readNullable(in),
+                    readNullable(in));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Encodes the type and the details of a violation, the rest is stored in the key.
+     *
+     * @param violation The violation.
+     * @return The encoded record.
+     */
+    private static byte[] encodeViolation(ViolationData violation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RECORD_VERSION);
+            out.writeUTF(violation.getType().name());
+            writeNullable(out, violation.getDetails());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a violation.
+     *
+     * @param playerId The UUID of the player.
+     * @param timeKey  The {@code timestamp:violationId} part of the key.
+     * @param record   The encoded record.
+     * @return The violation.
+     */
+    private static ViolationData decodeViolation(UUID playerId, String timeKey, byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            in.readByte();
+            return new ViolationData(
+                    UUID.fromString(timeKey.substring(17)),
+                    playerId,
+                    EViolationType.valueOf(in.readUTF()),
+                    readNullable(in),
+                    Long.parseLong(timeKey.substring(0, 16), 16));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeUTF(value);
+    }
+
+    private static @Nullable String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+    //#endregion
+}
@@ -0,0 +1,263 @@
+package io.github.tavstaldev.openChat.database;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Brings the database schema to the latest version, for both SQL dialects.
+ * <br/>
+ * The version of the schema is stored in the {@code schema_version} table. On startup the migrator reads it with a
+ * single query, and only runs the migrations newer than it, in order. A database without a version is either new or
+ * older than the versioning, so it first gets the baseline tables and the columns that were added before.
+ * <br/>
+ * To change the schema, add a migration with the next version to the end of {@link #migrations}. Released migrations
+ * must never be changed, because they will not run again on databases that already have them. A migration can be
+ * interrupted before its version is stored, so it must be safe to run again on a database it has partly changed.
+ */
+public class SchemaMigrator {
+    private final PluginLogger _logger = OpenChat.logger().withModule(SchemaMigrator.class);
+    private final ESqlDialect dialect;
+    private final String prefix;
+    private final List<Migration> migrations = List.of(
+            new Migration(1, "Index the violations by player and time", this::indexViolations)
+    );
+
+    /**
+     * A step of the schema.
+     *
+     * @param version     The version of the schema after the migration.
+     * @param description The description logged when the migration runs.
+     * @param step        The statements of the migration.
+     */
+    private record Migration(int version, String description, IMigrationStep step) {}
+
+    /**
+     * The statements of a migration.
+     */
+    @FunctionalInterface
+    private interface IMigrationStep {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Constructor for SchemaMigrator.
+     *
+     * @param dialect The SQL dialect of the database.
+     * @param prefix  The prefix of the table names.
+     */
+    public SchemaMigrator(ESqlDialect dialect, String prefix) {
+        this.dialect = dialect;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Gets the version of the newest migration.
+     *
+     * @return The latest schema version.
+     */
+    public int getLatestVersion() {
+        return migrations.getLast().version();
+    }
+
+    /**
+     * Runs the migrations the database does not have yet.
+     * The version is stored after each migration, so a failed migration is retried on the next start.
+     *
+     * @param connection The connection to the database.
+     * @throws SQLException If a migration failed.
+     */
+    public void migrate(Connection connection) throws SQLException {
+        int version = getVersion(connection);
+        if (version >= getLatestVersion())
+            return;
+
+        if (version == 0) {
+            createBaseline(connection);
+            execute(connection, String.format("CREATE TABLE IF NOT EXISTS %s_schema_version (Version INTEGER NOT NULL);", prefix));
+        }
+
+        for (Migration migration : migrations) {
+            if (migration.version() <= version)
+                continue;
+
+            _logger.info(String.format("Migrating the database schema to version %d: %s...", migration.version(), migration.description()));
+            migration.step().apply(connection);
+            setVersion(connection, migration.version());
+        }
+        _logger.ok(String.format("The database schema is up to date, version %d.", getLatestVersion()));
+    }
+
+    /**
+     * Gets the stored schema version.
+     * Only a missing version table means the database has no version, any other error is thrown, so a database
+     * that cannot be read is never migrated from the start.
+     *
+     * @param connection The connection to the database.
+     * @return The schema version, or 0 if the database has none.
+     * @throws SQLException If the version could not be read.
+     */
+    private int getVersion(Connection connection) throws SQLException {
+        if (!tableExists(connection, prefix + "_schema_version"))
+            return 0;
+
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(String.format("SELECT MAX(Version) FROM %s_schema_version;", prefix))) {
+            return result.next() ? result.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Stores the schema version.
+     * The row is updated in place, and only inserted if there is none yet, so the table always holds a version.
+     *
+     * @param connection The connection to the database.
+     * @param version    The new schema version.
+     * @throws SQLException If the version could not be written.
+     */
+    private void setVersion(Connection connection, int version) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (statement.executeUpdate(String.format("UPDATE %s_schema_version SET Version = %d;", prefix, version)) > 0)
+                return;
+        }
+        execute(connection, String.format("INSERT INTO %s_schema_version (Version) VALUES (%d);", prefix, version));
+    }
+
+    /**
+     * Creates the tables as they were before the schema was versioned, and adds the columns that older databases
+     * may be missing. This only runs once, so the column checks do not slow down the later starts.
+     *
+     * @param connection The connection to the database.
+     * @throws SQLException If a table could not be created.
+     */
+    private void createBaseline(Connection connection) throws SQLException {
+        // Players table
+        execute(connection, String.format("CREATE TABLE IF NOT EXISTS %s_players (" +
+                        "PlayerId VARCHAR(36) PRIMARY KEY, " +
+                        "PublicChatDisabled BOOLEAN NOT NULL," +
+                        "WhisperEnabled BOOLEAN NOT NULL," +
+                        "SocialSpyEnabled BOOLEAN NOT NULL," +
+                        "AntiAdLogsEnabled BOOLEAN NOT NULL," +
+                        "AntiSpamLogsEnabled BOOLEAN NOT NULL," +
+                        "AntiSwearLogsEnabled BOOLEAN NOT NULL," +
+                        "MessageColor VARCHAR(7)," +
+                        "Sound VARCHAR(200) NOT NULL, " +
+                        "Display VARCHAR(32) NOT NULL, " +
+                        "Preference VARCHAR(32) NOT NULL, " +
+                        "CustomJoinMessage VARCHAR(128), " +
+                        "CustomQuitMessage VARCHAR(128));",
+                prefix));
+
+        //#region Alter Table - Players
+        String table = prefix + "_players";
+        if (!columnExists(connection, table, "AntiAdLogsEnabled"))
+            execute(connection, "ALTER TABLE " + table + " ADD AntiAdLogsEnabled BOOLEAN NOT NULL DEFAULT FALSE");
+
+        if (!columnExists(connection, table, "AntiSpamLogsEnabled"))
+            execute(connection, "ALTER TABLE " + table + " ADD AntiSpamLogsEnabled BOOLEAN NOT NULL DEFAULT FALSE");
+
+        if (!columnExists(connection, table, "AntiSwearLogsEnabled"))
+            execute(connection, "ALTER TABLE " + table + " ADD AntiSwearLogsEnabled BOOLEAN NOT NULL DEFAULT FALSE");
+
+        if (!columnExists(connection, table, "MessageColor"))
+            execute(connection, "ALTER TABLE " + table + " ADD MessageColor VARCHAR(7)");
+        //#endregion
+
+        // Ignores table
+        execute(connection, String.format("CREATE TABLE IF NOT EXISTS %s_ignores (" +
+                        "PlayerId VARCHAR(36) NOT NULL, " +
+                        "IgnoredId VARCHAR(36) NOT NULL, " +
+                        "PRIMARY KEY (PlayerId, IgnoredId));",
+                prefix));
+
+        // Violations table
+        execute(connection, String.format("CREATE TABLE IF NOT EXISTS %s_violations (" +
+                        "Id VARCHAR(36) NOT NULL PRIMARY KEY, " +
+                        "PlayerId VARCHAR(36) NOT NULL, " +
+                        "Type VARCHAR(32) NOT NULL, " +
+                        "Details VARCHAR(255) NOT NULL, " +
+                        "Timestamp %s NOT NULL);",
+                prefix, dialect == ESqlDialect.MYSQL ? "BIGINT" : "INTEGER"));
+    }
+
+    /**
+     * Version 1: indexes the violations by player and time, and adds the archive table of the pruned violations.
+     * MySQL also stores the violation ids as 16 byte binaries. Its table is copied into a new one and swapped with
+     * it in a single rename. If the migration is interrupted before the rename it is simply run again; after the
+     * rename the ids are already binary, so the copy is skipped and only the old table is dropped. SQLite keeps the
+     * ids as text, because it has no fixed size binary type worth the conversion.
+     *
+     * @param connection The connection to the database.
+     * @throws SQLException If the migration failed.
+     */
+    private void indexViolations(Connection connection) throws SQLException {
+        String table = prefix + "_violations";
+        if (dialect == ESqlDialect.MYSQL) {
+            if (!isBinaryColumn(connection, table, "Id")) {
+                execute(connection, String.format("DROP TABLE IF EXISTS %s_new;", table));
+                execute(connection, String.format("CREATE TABLE %s_new (" +
+                        "Id BINARY(16) NOT NULL PRIMARY KEY, " +
+                        "PlayerId BINARY(16) NOT NULL, " +
+                        "Type VARCHAR(32) NOT NULL, " +
+                        "Details VARCHAR(255) NOT NULL, " +
+                        "Timestamp BIGINT NOT NULL, " +
+                        "INDEX PlayerTimestamp (PlayerId, Timestamp), " +
+                        "INDEX TimestampIndex (Timestamp));", table));
+                execute(connection, String.format("INSERT INTO %s_new (Id, PlayerId, Type, Details, Timestamp) " +
+                        "SELECT UNHEX(REPLACE(Id, '-', '')), UNHEX(REPLACE(PlayerId, '-', '')), Type, Details, Timestamp FROM %s;", table, table));
+                execute(connection, String.format("RENAME TABLE %s TO %s_old, %s_new TO %s;", table, table, table, table));
+            }
+            execute(connection, String.format("DROP TABLE IF EXISTS %s_old;", table));
+            execute(connection, String.format("CREATE TABLE IF NOT EXISTS %s_archive (" +
+                    "Id BINARY(16) NOT NULL PRIMARY KEY, " +
+                    "PlayerId BINARY(16) NOT NULL, " +
+                    "Type VARCHAR(32) NOT NULL, " +
+                    "Details VARCHAR(255) NOT NULL, " +
+                    "Timestamp BIGINT NOT NULL, " +
+                    "INDEX PlayerTimestamp (PlayerId, Timestamp));", table));
+            return;
+        }
+
+        execute(connection, String.format("CREATE INDEX IF NOT EXISTS %s_player_timestamp ON %s (PlayerId, Timestamp);", table, table));
+        execute(connection, String.format("CREATE INDEX IF NOT EXISTS %s_timestamp ON %s (Timestamp);", table, table));
+        execute(connection, String.format("CREATE TABLE IF NOT EXISTS %s_archive (" +
+                "Id VARCHAR(36) NOT NULL PRIMARY KEY, " +
+                "PlayerId VARCHAR(36) NOT NULL, " +
+                "Type VARCHAR(32) NOT NULL, " +
+                "Details VARCHAR(255) NOT NULL, " +
+                "Timestamp INTEGER NOT NULL);", table));
+        execute(connection, String.format("CREATE INDEX IF NOT EXISTS %s_archive_player_timestamp ON %s_archive (PlayerId, Timestamp);", table, table));
+    }
+
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    private boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getTables(connection.getCatalog(), null, table, new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getColumns(connection.getCatalog(), null, table, column)) {
+            return rs.next();
+        }
+    }
+
+    private boolean isBinaryColumn(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getColumns(connection.getCatalog(), null, table, column)) {
+            if (!rs.next())
+                return false;
+            int type = rs.getInt("DATA_TYPE");
+            return type == Types.BINARY || type == Types.VARBINARY;
+        }
+    }
+}
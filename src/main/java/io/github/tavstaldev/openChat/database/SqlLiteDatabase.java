@@ -1,615 +1,150 @@
 package io.github.tavstaldev.openChat.database;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.openChat.OpenChat;
-import io.github.tavstaldev.openChat.config.GeneralConfig;
-import io.github.tavstaldev.openChat.config.StorageConfig;
-import io.github.tavstaldev.openChat.models.database.*;
-import org.bukkit.entity.Player;
-import org.jetbrains.annotations.NotNull;
 
 import java.sql.*;
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
-import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class SqlLiteDatabase implements IDatabase {
-    private final PluginLogger _logger = OpenChat.logger().withModule(SqlLiteDatabase.class);
-    private GeneralConfig generalConfig;
-    private StorageConfig storageConfig;
-    private final Cache<@NotNull UUID, PlayerData> _playerCache = Caffeine.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(3, TimeUnit.MINUTES)
-            .build();
-    private final Cache<@NotNull UUID, Set<UUID>> _ignoredPlayerCache = Caffeine.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(2, TimeUnit.MINUTES)
-            .build();
-    private final Cache<@NotNull UUID, Set<ViolationData>> _violationCache = Caffeine.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(3, TimeUnit.MINUTES)
-            .build();
-    private final Cache<@NotNull UUID, Set<ViolationData>> _violationActiveCache = Caffeine.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(3, TimeUnit.MINUTES)
-            .build();
-    //#region SQL Statements
-    private String addPlayerDataSql;
-    private String updatePlayerDataSql;
-    private String removePlayerDataSql;
-    private String getPlayerDataSql;
-    // Ignored players
-    private String addIgnoredPlayerSql;
-    private String removeIgnoredPlayerSql;
-    private String getIgnoredPlayersSql;
-    // Violations
-    private String addViolationSql;
-    private String removeViolationSql;
-    private String getViolationsSql;
-    private String getActiveViolationsSql;
-    //#endregion
+/**
+ * SQLite implementation of the database.
+ * <br/>
+ * The database is accessed through a single long-lived connection in WAL mode, and the prepared statements are kept
+ * open between calls. SQLite only allows one writer at a time anyway, so the connection is guarded by a lock instead of
+ * being pooled.
+ */
+public class SqlLiteDatabase extends AbstractJdbcDatabase {
+    private final ReentrantLock _lock = new ReentrantLock(); // Guards the connection and the statements.
+    private Connection _connection; // The persistent connection, opened on first use.
+    private final Map<String, PreparedStatement> _statements = new HashMap<>(); // Prepared statements by their sql.
 
-
-    @Override
-    public void load() {
-        generalConfig = OpenChat.config();
-        storageConfig = OpenChat.storageConfig();
-        update();
+    public SqlLiteDatabase() {
+        super(ESqlDialect.SQLITE);
     }
 
     @Override
     public void update() {
-        addPlayerDataSql = String.format("INSERT INTO %s_players (PlayerId, PublicChatDisabled, WhisperEnabled, SocialSpyEnabled, AntiAdLogsEnabled, AntiSpamLogsEnabled, AntiSwearLogsEnabled, MessageColor, Sound, Display, Preference, CustomJoinMessage, CustomQuitMessage) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);",
-                storageConfig.tablePrefix);
-
-        removePlayerDataSql = String.format("DELETE FROM %s_players WHERE PlayerId=?;",
-                storageConfig.tablePrefix);
-
-        updatePlayerDataSql = String.format("UPDATE %s_players SET PublicChatDisabled=?, WhisperEnabled=?, SocialSpyEnabled=?, " +
-                        "AntiAdLogsEnabled=?, AntiSpamLogsEnabled=?, AntiSwearLogsEnabled=?, MessageColor=?," +
-                        "Sound=?, Display=?, Preference=?, " +
-                        "CustomJoinMessage=?, CustomQuitMessage=? " +
-                        "WHERE PlayerId=?;",
-                storageConfig.tablePrefix);
-
-        getPlayerDataSql = String.format("SELECT * FROM %s_players WHERE PlayerId=?;",
-                storageConfig.tablePrefix);
-
-
-        addIgnoredPlayerSql = String.format("INSERT INTO %s_ignores (PlayerId, IgnoredId) " +
-                        "VALUES (?, ?);",
-                storageConfig.tablePrefix);
-
-        removeIgnoredPlayerSql = String.format("DELETE FROM %s_ignores WHERE PlayerId=? AND IgnoredId=?;",
-                storageConfig.tablePrefix);
-
-        getIgnoredPlayersSql = String.format("SELECT * FROM %s_ignores WHERE PlayerId=?;",
-                storageConfig.tablePrefix);
-
-        addViolationSql = String.format("INSERT INTO %s_violations (Id, PlayerId, Type, Details, Timestamp) " +
-                        "VALUES (?, ?, ?, ?, ?);",
-                storageConfig.tablePrefix);
-
-        removeViolationSql = String.format("DELETE FROM %s_violations WHERE Id=? LIMIT 1;",
-                storageConfig.tablePrefix);
-
-        getViolationsSql = String.format("SELECT * FROM %s_violations WHERE PlayerId=?;",
-                storageConfig.tablePrefix);
-
-        // second ? is current time in millis, minus the duration threshold until it is considered active
-        getActiveViolationsSql = String.format("SELECT * FROM %s_violations WHERE PlayerId=? AND (?-Timestamp)<?;",
-                storageConfig.tablePrefix);
-    }
-
-    @Override
-    public void unload() { /* ignored */ }
-
-    private Connection createConnection() {
+        _lock.lock();
         try {
-            if (storageConfig == null)
-                storageConfig = OpenChat.storageConfig();
-            Class.forName("org.sqlite.JDBC");
-            return DriverManager.getConnection(String.format("jdbc:sqlite:plugins/OpenChat/%s.db", storageConfig.filename));
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while creating db connection...\n%s", ex.getMessage()));
-            return null;
-        }
-    }
-
-    @Override
-    public void checkSchema() {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection to check schema!");
-                return;
-            }
-
-            // Players table
-            String sql = String.format("CREATE TABLE IF NOT EXISTS %s_players (" +
-                            "PlayerId VARCHAR(36) PRIMARY KEY, " +
-                            "PublicChatDisabled BOOLEAN NOT NULL," +
-                            "WhisperEnabled BOOLEAN NOT NULL," +
-                            "SocialSpyEnabled BOOLEAN NOT NULL," +
-                            "AntiAdLogsEnabled BOOLEAN NOT NULL," +
-                            "AntiSpamLogsEnabled BOOLEAN NOT NULL," +
-                            "AntiSwearLogsEnabled BOOLEAN NOT NULL," +
-                            "MessageColor VARCHAR(7)," +
-                            "Sound VARCHAR(200) NOT NULL, " +
-                            "Display VARCHAR(32) NOT NULL, " +
-                            "Preference VARCHAR(32) NOT NULL, " +
-                            "CustomJoinMessage VARCHAR(128), " +
-                            "CustomQuitMessage VARCHAR(128));",
-                    storageConfig.tablePrefix);
-            PreparedStatement statement = connection.prepareStatement(sql);
-            statement.executeUpdate();
-
-            //#region Alter Table - Players
-            String table = storageConfig.tablePrefix + "_players";
-            if (!columnExists(connection, table, "AntiAdLogsEnabled")) {
-                connection.prepareStatement(
-                        "ALTER TABLE " + table + " ADD AntiAdLogsEnabled BOOLEAN NOT NULL DEFAULT FALSE"
-                ).executeUpdate();
-            }
-
-            if (!columnExists(connection, table, "AntiSpamLogsEnabled")) {
-                connection.prepareStatement(
-                        "ALTER TABLE " + table + " ADD AntiSpamLogsEnabled BOOLEAN NOT NULL DEFAULT FALSE"
-                ).executeUpdate();
-            }
-
-            if (!columnExists(connection, table, "AntiSwearLogsEnabled")) {
-                connection.prepareStatement(
-                        "ALTER TABLE " + table + " ADD AntiSwearLogsEnabled BOOLEAN NOT NULL DEFAULT FALSE"
-                ).executeUpdate();
-            }
-
-            if (!columnExists(connection, table, "MessageColor")) {
-                connection.prepareStatement(
-                        "ALTER TABLE " + table + " ADD MessageColor VARCHAR(7)"
-                ).executeUpdate();
-            }
-            //#endregion
-
-            // Ignores table
-            sql = String.format("CREATE TABLE IF NOT EXISTS %s_ignores (" +
-                            "PlayerId VARCHAR(36) NOT NULL, " +
-                            "IgnoredId VARCHAR(36) NOT NULL, " +
-                            "PRIMARY KEY (PlayerId, IgnoredId));",
-                    storageConfig.tablePrefix
-            );
-            statement = connection.prepareStatement(sql);
-            statement.executeUpdate();
-
-            // Violations table
-            sql = String.format("CREATE TABLE IF NOT EXISTS %s_violations (" +
-                            "Id VARCHAR(36) NOT NULL PRIMARY KEY, " +
-                            "PlayerId VARCHAR(36) NOT NULL, " +
-                            "Type VARCHAR(32) NOT NULL, " +
-                            "Details VARCHAR(255) NOT NULL, " +
-                            "Timestamp INTEGER NOT NULL);",
-                    storageConfig.tablePrefix
-            );
-            statement = connection.prepareStatement(sql);
-            statement.executeUpdate();
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while creating tables...\n%s", ex.getMessage()));
-        }
-    }
-
-    private boolean columnExists(Connection connection, String table, String column) throws SQLException {
-        DatabaseMetaData meta = connection.getMetaData();
-        try (ResultSet rs = meta.getColumns(null, null, table, column)) {
-            return rs.next();
-        }
-    }
-
-    //#region Player Data Management
-    @Override
-    public void addPlayerData(UUID playerId) {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection to add player data!");
-                return;
-            }
-
-            try (PreparedStatement statement = connection.prepareStatement(addPlayerDataSql)) {
-                statement.setString(1, playerId.toString());
-                statement.setBoolean(2, false);
-                statement.setBoolean(3, true);
-                statement.setBoolean(4, false);
-                statement.setBoolean(5, false);
-                statement.setBoolean(6, false);
-                statement.setBoolean(7, false);
-                statement.setString(8, null);
-                statement.setString(9, generalConfig.mentionsDefaultSound);
-                statement.setString(10, generalConfig.mentionsDefaultDisplay);
-                statement.setString(11, generalConfig.mentionsDefaultPreference);
-                statement.setString(12, null);
-                statement.setString(13, null);
-                statement.executeUpdate();
-            }
-
-            _playerCache.put(playerId, new PlayerData(playerId, false, true, false,
-                    false, false, false, null,
-                    generalConfig.mentionsDefaultSound,
-                    EMentionDisplay.valueOf(generalConfig.mentionsDefaultDisplay),
-                    EMentionPreference.valueOf(generalConfig.mentionsDefaultPreference),
-                    null, null));
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while adding player data...\n%s", ex.getMessage()));
-        }
-    }
-
-    @Override
-    public void updatePlayerData(PlayerData newData) {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection to update player data!");
-                return;
-            }
-
-            try (PreparedStatement statement = connection.prepareStatement(updatePlayerDataSql)) {
-                statement.setBoolean(1, newData.isPublicChatDisabled());
-                statement.setBoolean(2, newData.isWhisperEnabled());
-                statement.setBoolean(3, newData.isSocialSpyEnabled());
-                statement.setBoolean(4, newData.isAntiAdLogsEnabled());
-                statement.setBoolean(5, newData.isAntiSpamLogsEnabled());
-                statement.setBoolean(6, newData.isAntiSwearLogsEnabled());
-                statement.setString(7, newData.getMessageColor());
-                statement.setString(8, newData.getMentionSound());
-                statement.setString(9, newData.getMentionDisplay().name());
-                statement.setString(10, newData.getMentionPreference().name());
-                statement.setString(11, newData.getCustomJoinMessage());
-                statement.setString(12,  newData.getCustomLeaveMessage());
-                statement.setString(13, newData.getUuid().toString());
-                statement.executeUpdate();
-            }
-
-            _playerCache.put(newData.getUuid(), newData);
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
-        }
-    }
-
-    @Override
-    public void removePlayerData(UUID playerId) {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection to remove player data!");
-                return;
-            }
-
-            try (PreparedStatement statement = connection.prepareStatement(removePlayerDataSql)) {
-                statement.setString(1, playerId.toString());
-                statement.executeUpdate();
-            }
-
-            _playerCache.invalidate(playerId);
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while removing player data...\n%s", ex.getMessage()));
-        }
-    }
-
-    @Override
-    public Optional<PlayerData> getPlayerData(UUID playerId) {
-        var data = _playerCache.getIfPresent(playerId);
-        if (data != null) {
-            return Optional.of(data);
-        }
-
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection to get player data!");
-                return Optional.empty();
-            }
-
-            try (PreparedStatement statement = connection.prepareStatement(getPlayerDataSql)) {
-                statement.setString(1, playerId.toString());
-                try (ResultSet result = statement.executeQuery()) {
-                    if (result.next()) {
-                        data = new PlayerData(
-                                UUID.fromString(result.getString("PlayerId")),
-                                result.getBoolean("PublicChatDisabled"),
-                                result.getBoolean("WhisperEnabled"),
-                                result.getBoolean("SocialSpyEnabled"),
-                                result.getBoolean("AntiAdLogsEnabled"),
-                                result.getBoolean("AntiSpamLogsEnabled"),
-                                result.getBoolean("AntiSwearLogsEnabled"),
-                                result.getString("MessageColor"),
-                                result.getString("Sound"),
-                                EMentionDisplay.valueOf(result.getString("Display")),
-                                EMentionPreference.valueOf(result.getString("Preference")),
-                                result.getString("CustomJoinMessage"),
-                                result.getString("CustomQuitMessage")
-                        );
-                    }
-                }
-            }
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while finding player data...\n%s", ex.getMessage()));
-            return Optional.empty();
-        }
-
-        if (data != null) {
-            _playerCache.put(playerId, data);
-        }
-        return Optional.ofNullable(data);
-    }
-
-    @Override
-    public boolean isPublicChatDisabled(UUID playerId) {
-        var data = _playerCache.getIfPresent(playerId);
-        if (data != null) {
-            return data.isPublicChatDisabled();
+            // The table prefix may have changed
+            closeStatements();
+        } finally {
+            _lock.unlock();
         }
-        return getPlayerData(playerId).map(PlayerData::isPublicChatDisabled).orElse(false);
+        super.update();
     }
 
     @Override
-    public boolean isSocialSpyEnabled(Player player) {
-        var playerId = player.getUniqueId();
-        var data = _playerCache.getIfPresent(playerId);
-        if (data != null) {
-            return data.isSocialSpyEnabled() && player.hasPermission("openchat.socialspy");
-        }
-        return getPlayerData(playerId).map(PlayerData::isSocialSpyEnabled).orElse(false) && player.hasPermission("openchat.socialspy");
-    }
-
-    //#endregion
-
-    //#region Ignore Management
-    @Override
-    public void addIgnoredPlayer(UUID playerId, UUID ignoredPlayerId) {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection to add ignore data!");
-                return;
-            }
-
-            try (PreparedStatement statement = connection.prepareStatement(addIgnoredPlayerSql)) {
-                statement.setString(1, playerId.toString());
-                statement.setString(2, ignoredPlayerId.toString());
-                statement.executeUpdate();
-            }
-
-            Set<UUID> ignoredSet = _ignoredPlayerCache.getIfPresent(playerId);
-            if (ignoredSet != null) {
-                ignoredSet.add(ignoredPlayerId);
-            } else {
-                var tempSet = new HashSet<UUID>();
-                tempSet.add(ignoredPlayerId);
-                _ignoredPlayerCache.put(playerId, tempSet);
-            }
+    public void unload() {
+        _lock.lock();
+        try {
+            closeStatements();
+            if (_connection != null && !_connection.isClosed())
+                _connection.close();
         } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while adding ignore data...\n%s", ex.getMessage()));
+            _logger.error(String.format("Unknown error happened while closing db connection...\n%s", ex.getMessage()));
+        } finally {
+            _connection = null;
+            _lock.unlock();
         }
     }
 
+    /**
+     * Takes the lock and gets the persistent connection, opening it if needed.
+     * The lock is held until the connection is released.
+     *
+     * @return The connection.
+     * @throws SQLException If the connection could not be opened.
+     */
     @Override
-    public void removeIgnoredPlayer(UUID playerId, UUID ignoredPlayerId) {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection to remove ignore data!");
-                return;
-            }
-
-            try (PreparedStatement statement = connection.prepareStatement(removeIgnoredPlayerSql)) {
-                statement.setString(1, playerId.toString());
-                statement.setString(2, ignoredPlayerId.toString());
-                statement.executeUpdate();
-            }
-
-            Set<UUID> ignoredSet = _ignoredPlayerCache.getIfPresent(playerId);
-            if (ignoredSet != null) {
-                ignoredSet.remove(ignoredPlayerId);
-            }
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened during the deletion of ignore tables...\n%s", ex.getMessage()));
+    protected Connection acquireConnection() throws SQLException {
+        _lock.lock();
+        Connection connection = getConnection();
+        if (connection == null) {
+            _lock.unlock();
+            throw new SQLException("Could not create database connection!");
         }
+        return connection;
     }
 
     @Override
-    public boolean isPlayerIgnored(UUID playerId, UUID ignoredPlayerId) {
-        var data = _ignoredPlayerCache.getIfPresent(playerId);
-        if (data != null) {
-            return data.contains(ignoredPlayerId);
-        }
-
-        data = new HashSet<>();
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection to find ignore data!");
-                return false;
-            }
-
-            try (PreparedStatement statement = connection.prepareStatement(getIgnoredPlayersSql)) {
-                statement.setString(1, playerId.toString());
-                try (ResultSet result = statement.executeQuery()) {
-                    if (result.next()) {
-                        data.add(UUID.fromString(result.getString("IgnoredId")));
-                    }
-                }
-            }
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while finding ignore data...\n%s", ex.getMessage()));
-            return false;
-        }
-
-        _ignoredPlayerCache.put(playerId, data);
-        return data.contains(ignoredPlayerId);
+    protected void releaseConnection(Connection connection) {
+        _lock.unlock();
     }
-    //#endregion
-
-    //#region Violations
 
+    /**
+     * Gets the prepared statement of the sql, preparing it on first use.
+     * The statement stays open, it is only closed when the connection or the statements change.
+     * Must be called while holding the lock.
+     *
+     * @param connection The persistent connection.
+     * @param sql        The sql of the statement.
+     * @return The prepared statement.
+     * @throws SQLException If the statement could not be prepared.
+     */
     @Override
-    public void addViolation(UUID playerId, EViolationType type, String details) {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection!");
-                return;
-            }
-            UUID violationId = UUID.randomUUID();
-            long timestamp = System.currentTimeMillis();
-            try (PreparedStatement statement = connection.prepareStatement(addViolationSql)) {
-                statement.setString(1, violationId.toString());
-                statement.setString(2, playerId.toString());
-                statement.setString(3, type.name());
-                statement.setString(4, details);
-                statement.setLong(5, timestamp);
-                statement.executeUpdate();
-            }
-
-            ViolationData newViolation = new ViolationData(violationId, playerId, type, details, timestamp);
-
-            // Add to whole cache
-            Set<ViolationData> violationSet = _violationCache.getIfPresent(playerId);
-            if (violationSet != null) {
-                violationSet.add(newViolation);
-            }
-            else {
-                Set<ViolationData> tempSet = new HashSet<>();
-                tempSet.add(newViolation);
-                _violationCache.put(playerId, tempSet);
-            }
-
-            // Add to active cache
-            Set<ViolationData> activeViolationSet = _violationActiveCache.getIfPresent(playerId);
-            if (activeViolationSet != null) {
-                activeViolationSet.add(newViolation);
-            }
-            else {
-                Set<ViolationData> tempSet = new HashSet<ViolationData>();
-                tempSet.add(newViolation);
-                _violationActiveCache.put(playerId, tempSet);
-            }
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while adding violation...\n%s", ex));
+    protected PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = _statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(sql);
+            _statements.put(sql, statement);
         }
+        return statement;
     }
 
     @Override
-    public void removeViolation(UUID violationId, UUID playerId) {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection!");
-                return;
-            }
-            try (PreparedStatement statement = connection.prepareStatement(removeViolationSql)) {
-                statement.setString(1, violationId.toString());
-                statement.executeUpdate();
-            }
-
-            var violationSet = _violationCache.getIfPresent(playerId);
-            if (violationSet != null) {
-                violationSet.removeIf(v -> v.getId().equals(violationId));
-            }
-
-            var activeViolationSet = _violationActiveCache.getIfPresent(playerId);
-            if (activeViolationSet != null) {
-                activeViolationSet.removeIf(v -> v.getId().equals(violationId));
-            }
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while removing violation...\n%s", ex));
-        }
+    protected void releaseStatement(PreparedStatement statement) throws SQLException {
+        // The statement is kept open, so drop the parameters of a failed batch
+        statement.clearBatch();
     }
 
-    @Override
-    public Optional<Set<ViolationData>> getViolations(UUID playerId) {
-        var data = _violationCache.getIfPresent(playerId);
-        if (data != null) {
-            return Optional.of(data);
-        }
+    /**
+     * Gets the persistent connection, opening it if needed.
+     * Must be called while holding the lock.
+     *
+     * @return The connection, or null if it could not be opened.
+     */
+    private Connection getConnection() {
+        try {
+            if (_connection != null && !_connection.isClosed())
+                return _connection;
 
-        data = new HashSet<>();
-        try (Connection connection =createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection!");
-                return Optional.empty();
-            }
-            try (PreparedStatement statement = connection.prepareStatement(getViolationsSql)) {
-                statement.setString(1, playerId.toString());
-                try (ResultSet result = statement.executeQuery()) {
-                    while (result.next()) {
-                        data.add(new ViolationData(
-                                UUID.fromString(result.getString("Id")),
-                                UUID.fromString(result.getString("PlayerId")),
-                                EViolationType.valueOf(result.getString("Type")),
-                                result.getString("Details"),
-                                result.getLong("Timestamp")
-                        ));
-                    }
-                }
-            }
+            if (storageConfig == null)
+                storageConfig = OpenChat.storageConfig();
+            Class.forName("org.sqlite.JDBC");
+            closeStatements();
+            _connection = DriverManager.getConnection(String.format("jdbc:sqlite:plugins/OpenChat/%s.db", storageConfig.filename));
+            try (Statement statement = _connection.createStatement()) {
+                // Readers do not block the writer, and the writer only syncs at checkpoints
+                statement.execute("PRAGMA journal_mode=WAL;");
+                statement.execute("PRAGMA synchronous=NORMAL;");
+                // 8 MB of page cache, temporary tables in memory
+                statement.execute("PRAGMA cache_size=-8000;");
+                statement.execute("PRAGMA temp_store=MEMORY;");
+                // Wait for a lock held by an external tool instead of failing at once
+                statement.execute("PRAGMA busy_timeout=5000;");
+            }
+            return _connection;
         } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while finding violations...\n%s", ex));
-            return Optional.empty();
+            _logger.error(String.format("Unknown error happened while creating db connection...\n%s", ex.getMessage()));
+            _connection = null;
+            return null;
         }
-
-        _violationCache.put(playerId, data);
-        return Optional.of(data);
     }
 
-    @Override
-    public Optional<Set<ViolationData>> getActiveViolations(UUID playerId) {
-        var data = _violationActiveCache.getIfPresent(playerId);
-        if (data != null) {
-            return Optional.of(data);
-        }
-
-        data = new HashSet<>();
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Could not create database connection!");
-                return Optional.empty();
+    /**
+     * Closes the cached prepared statements.
+     * Must be called while holding the lock.
+     */
+    private void closeStatements() {
+        for (PreparedStatement statement : _statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException ex) {
+                _logger.debug(String.format("Failed to close prepared statement...\n%s", ex.getMessage()));
             }
-            try (PreparedStatement statement = connection.prepareStatement(getActiveViolationsSql)) {
-                statement.setString(1, playerId.toString());
-                statement.setLong(2, System.currentTimeMillis());
-                statement.setLong(3, OpenChat.moderationConfig().violationDurationMilliseconds);
-                try (ResultSet result = statement.executeQuery()) {
-                    while (result.next()) {
-                        data.add(new ViolationData(
-                                UUID.fromString(result.getString("Id")),
-                                UUID.fromString(result.getString("PlayerId")),
-                                EViolationType.valueOf(result.getString("Type")),
-                                result.getString("Details"),
-                                result.getLong("Timestamp")
-                        ));
-                    }
-                }
-            }
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while finding active violations...\n%s", ex));
-            return Optional.empty();
         }
-
-        _violationActiveCache.put(playerId, data);
-        return Optional.of(data);
+        _statements.clear();
     }
-
-    @Override
-    public Optional<Set<ViolationData>> getActiveViolationsByType(UUID playerId, EViolationType type) {
-        var data = _violationActiveCache.getIfPresent(playerId);
-        if (data != null) {
-            return Optional.of(data.stream()
-                    .filter(x -> x.getType() == type)
-                    .collect(Collectors.toSet())
-            );
-        }
-
-        return getActiveViolations(playerId).map(violations ->
-                violations.stream()
-                        .filter(x -> x.getType() == type)
-                        .collect(Collectors.toSet())
-        );
-    }
-
-    //#endregion
-}
\ No newline at end of file
+}
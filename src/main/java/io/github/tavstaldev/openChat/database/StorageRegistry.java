@@ -0,0 +1,66 @@
+package io.github.tavstaldev.openChat.database;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the storage backends by the names used in the {@code storage.type} setting.
+ * <br/>
+ * The built-in backends are MySQL (also as {@code mariadb}), SQLite and the embedded MVStore. Other plugins can add
+ * their own with {@link #register(String, IStorageProvider)}.
+ */
+public class StorageRegistry {
+    public static final String DEFAULT_TYPE = "sqlite";
+    private static final Map<String, IStorageProvider> _providers = new ConcurrentHashMap<>();
+
+    static {
+        IStorageProvider mySql = MySqlDatabase::new;
+        register("mysql", mySql);
+        register("mariadb", mySql);
+        register("sqlite", new IStorageProvider() {
+            @Override
+            public IDatabase create() {
+                return new SqlLiteDatabase();
+            }
+
+            @Override
+            public boolean isSingleWriter() {
+                return true;
+            }
+        });
+        register("mvstore", MvStoreDatabase::new);
+    }
+
+    /**
+     * Registers a storage backend, replacing the one registered with the same name.
+     *
+     * @param type     The name of the backend in the storage config, case-insensitive.
+     * @param provider The provider of the backend.
+     */
+    public static void register(String type, IStorageProvider provider) {
+        _providers.put(type.toLowerCase(Locale.ROOT), provider);
+    }
+
+    /**
+     * Gets the storage backend registered with the name.
+     *
+     * @param type The name of the backend in the storage config, case-insensitive.
+     * @return The provider of the backend, or null if there is none with the name.
+     */
+    public static @Nullable IStorageProvider get(String type) {
+        return _providers.get(type.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets the names of the registered backends.
+     *
+     * @return The names of the backends.
+     */
+    public static Set<String> getTypes() {
+        return Set.copyOf(_providers.keySet());
+    }
+}
@@ -0,0 +1,209 @@
+package io.github.tavstaldev.openChat.database;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.StorageConfig;
+import io.github.tavstaldev.openChat.models.EBackPressurePolicy;
+import io.github.tavstaldev.openChat.models.database.ViolationData;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Writes the violations to the database from a bounded queue, on a single thread.
+ * <br/>
+ * The writer thread takes every queued violation, up to the batch size, and inserts them with one batch. When the
+ * queue is full because the database can not keep up, the configured {@link EBackPressurePolicy} decides which
+ * violation is dropped. The violation actions do not wait for the writes, they use the in-memory
+ * {@link io.github.tavstaldev.openChat.models.ViolationCounter}.
+ */
+public class ViolationWriter {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final int MAX_ATTEMPTS = 3; // The number of times a failed batch is written before it is dropped.
+    private final PluginLogger _logger = OpenChat.logger().withModule(ViolationWriter.class);
+    private final IDatabase database;
+    private final BlockingQueue<QueuedViolation> queue;
+    private final int batchSize;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private final AtomicBoolean overloaded = new AtomicBoolean(); // Whether the queue was full since it was last emptied.
+    private final AtomicLong droppedCount = new AtomicLong(); // The number of violations dropped since the start.
+
+    /**
+     * A violation waiting to be written.
+     *
+     * @param violation  The violation.
+     * @param afterWrite The action run on the writer thread after the violation was written, or null.
+     */
+    private record QueuedViolation(ViolationData violation, @Nullable Consumer<IDatabase> afterWrite) {}
+
+    /**
+     * Constructor for ViolationWriter.
+     *
+     * @param database  The database the violations are written to.
+     * @param capacity  The maximum number of queued violations.
+     * @param batchSize The maximum number of violations written by one batch.
+     */
+    public ViolationWriter(IDatabase database, int capacity, int batchSize) {
+        this.database = database;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.thread = new Thread(this::run, "OpenChat-Violations");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues a violation to be written.
+     * If the queue is full, the back-pressure policy of the storage config decides what is dropped.
+     *
+     * @param violation  The violation to write.
+     * @param afterWrite The action to run on the writer thread after the violation was written, or null.
+     * @return True if the violation was queued, false if it was dropped.
+     */
+    public boolean enqueue(ViolationData violation, @Nullable Consumer<IDatabase> afterWrite) {
+        if (!running)
+            return false;
+
+        QueuedViolation queued = new QueuedViolation(violation, afterWrite);
+        if (queue.offer(queued))
+            return true;
+
+        StorageConfig config = OpenChat.storageConfig();
+        boolean accepted = false;
+        switch (config.violationQueuePolicy) {
+            case DROP_OLDEST: {
+                while (!accepted) {
+                    if (queue.poll() != null)
+                        droppedCount.incrementAndGet();
+                    accepted = queue.offer(queued);
+                }
+                break;
+            }
+            case BLOCK: {
+                try {
+                    accepted = queue.offer(queued, config.violationQueueTimeout, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                if (!accepted)
+                    droppedCount.incrementAndGet();
+                break;
+            }
+            case DROP_NEWEST:
+            default: {
+                droppedCount.incrementAndGet();
+                break;
+            }
+        }
+
+        if (overloaded.compareAndSet(false, true))
+            _logger.warn(String.format("The violation queue is full, the database can not keep up. Dropping violations with the %s policy.",
+                    config.violationQueuePolicy.name()));
+        return accepted;
+    }
+
+    /**
+     * Gets the number of violations waiting to be written.
+     *
+     * @return The number of queued violations.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of violations dropped because the queue was full or their batch failed.
+     *
+     * @return The number of dropped violations.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * The loop of the writer thread.
+     * It keeps writing until it is shut down and the queue is empty.
+     */
+    private void run() {
+        List<QueuedViolation> batch = new ArrayList<>(batchSize);
+        List<ViolationData> violations = new ArrayList<>(batchSize);
+        int attempts = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    QueuedViolation first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null)
+                        continue;
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    if (queue.isEmpty())
+                        overloaded.set(false);
+                }
+
+                violations.clear();
+                for (QueuedViolation queued : batch)
+                    violations.add(queued.violation());
+
+                if (!database.addViolationBatch(violations)) {
+                    if (++attempts < MAX_ATTEMPTS) {
+                        // Keep the batch and try again a bit later
+                        Thread.sleep(1000L * attempts);
+                        continue;
+                    }
+                    _logger.error(String.format("Failed to write %d violations after %d attempts, they were dropped.", batch.size(), attempts));
+                    droppedCount.addAndGet(batch.size());
+                    batch.clear();
+                    attempts = 0;
+                    continue;
+                }
+
+                for (QueuedViolation queued : batch) {
+                    if (queued.afterWrite() == null)
+                        continue;
+                    try {
+                        queued.afterWrite().accept(database);
+                    } catch (Exception ex) {
+                        _logger.error(String.format("Unknown error happened after writing a violation...\n%s", ex.getMessage()));
+                    }
+                }
+                batch.clear();
+                attempts = 0;
+            } catch (InterruptedException ex) {
+                // Only the shutdown interrupts the thread, the loop ends once the queue is empty
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Stops accepting new violations and waits for the queued ones to be written.
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+            if (thread.isAlive()) {
+                _logger.warn(String.format("Violations were not written in %d seconds, %d were dropped.",
+                        SHUTDOWN_TIMEOUT_SECONDS, queue.size()));
+                thread.interrupt();
+            }
+        } catch (InterruptedException ex) {
+            thread.interrupt();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
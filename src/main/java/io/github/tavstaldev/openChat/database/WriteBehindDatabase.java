@@ -0,0 +1,269 @@
+package io.github.tavstaldev.openChat.database;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.models.database.PlayerData;
+import io.github.tavstaldev.openChat.models.database.ViolationData;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decorator of an {@link IDatabase} that buffers the player data updates.
+ * <br/>
+ * {@link #updatePlayerData(PlayerData)} only marks the data dirty, so repeated updates of a player are merged into a
+ * single row write. {@link #flush()} writes every dirty row in one batch; it is called periodically by the
+ * {@link io.github.tavstaldev.openChat.tasks.PlayerDataFlushTask}, when a player quits and when the database is
+ * unloaded. Reads return the buffered data until it is written.
+ * <br/>
+ * The buffer holds copies of the data, which are never handed out, so commands changing their own instance on the
+ * main thread cannot change a row while it is being written.
+ */
+public class WriteBehindDatabase implements IDatabase {
+    private final PluginLogger _logger = OpenChat.logger().withModule(WriteBehindDatabase.class);
+    private final IDatabase database;
+    private final Map<UUID, PlayerData> dirty = new ConcurrentHashMap<>(); // Copies of the updated, not yet written player data.
+    private final AtomicLong oldestUpdate = new AtomicLong(); // The nanoTime of the oldest unwritten update, 0 if none.
+    private final ReentrantLock flushLock = new ReentrantLock(); // Serializes the flushes.
+    private volatile long lastFlushLag; // The nanoseconds the oldest update of the last flush waited.
+    private volatile long maxFlushLag; // The highest flush lag since the start.
+    private volatile int lastFlushSize; // The number of rows written by the last flush.
+
+    /**
+     * Constructor for WriteBehindDatabase.
+     *
+     * @param database The database the updates are written to.
+     */
+    public WriteBehindDatabase(IDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Writes every dirty player data in a single batch.
+     * If the batch fails, the data stays dirty and is written by the next flush.
+     *
+     * @return True if the dirty data was written, false otherwise.
+     */
+    public boolean flush() {
+        flushLock.lock();
+        try {
+            long since = oldestUpdate.getAndSet(0);
+            if (dirty.isEmpty())
+                return true;
+
+            List<PlayerData> batch = new ArrayList<>(dirty.values());
+            if (!database.updatePlayerDataBatch(batch)) {
+                oldestUpdate.compareAndSet(0, since);
+                _logger.warn(String.format("Failed to write %d player data, retrying with the next flush.", batch.size()));
+                return false;
+            }
+
+            // Data updated again during the write has a new copy, it stays dirty and is written by the next flush
+            for (PlayerData data : batch)
+                dirty.remove(data.getUuid(), data);
+
+            if (since != 0) {
+                long lag = System.nanoTime() - since;
+                lastFlushLag = lag;
+                if (lag > maxFlushLag)
+                    maxFlushLag = lag;
+            }
+            lastFlushSize = batch.size();
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the dirty data of a player, if there is any.
+     *
+     * @param playerId The UUID of the player.
+     * @return True if the data was written or was not dirty, false otherwise.
+     */
+    public boolean flush(UUID playerId) {
+        flushLock.lock();
+        try {
+            PlayerData data = dirty.get(playerId);
+            if (data == null)
+                return true;
+
+            if (!database.updatePlayerDataBatch(List.of(data)))
+                return false;
+
+            dirty.remove(playerId, data);
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of player data waiting to be written.
+     *
+     * @return The number of dirty player data.
+     */
+    public int getPendingCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Gets how long the oldest update written by the last flush waited in the buffer.
+     *
+     * @return The flush lag in nanoseconds.
+     */
+    public long getLastFlushLagNanos() {
+        return lastFlushLag;
+    }
+
+    /**
+     * Gets the highest flush lag since the start.
+     *
+     * @return The flush lag in nanoseconds.
+     */
+    public long getMaxFlushLagNanos() {
+        return maxFlushLag;
+    }
+
+    /**
+     * Gets the number of player data written by the last flush.
+     *
+     * @return The number of written rows.
+     */
+    public int getLastFlushSize() {
+        return lastFlushSize;
+    }
+
+    @Override
+    public void load() {
+        database.load();
+    }
+
+    @Override
+    public void update() {
+        database.update();
+    }
+
+    @Override
+    public void unload() {
+        if (!flush())
+            _logger.error(String.format("Could not write %d player data before unloading the database!", dirty.size()));
+        database.unload();
+    }
+
+    @Override
+    public void checkSchema() {
+        database.checkSchema();
+    }
+
+    //#region Player Data Management
+    @Override
+    public void addPlayerData(UUID playerId) {
+        database.addPlayerData(playerId);
+    }
+
+    @Override
+    public void updatePlayerData(PlayerData newData) {
+        oldestUpdate.compareAndSet(0, System.nanoTime());
+        dirty.put(newData.getUuid(), newData.copy());
+    }
+
+    @Override
+    public boolean updatePlayerDataBatch(Collection<PlayerData> data) {
+        return database.updatePlayerDataBatch(data);
+    }
+
+    @Override
+    public void removePlayerData(UUID playerId) {
+        dirty.remove(playerId);
+        database.removePlayerData(playerId);
+    }
+
+    @Override
+    public Optional<PlayerData> getPlayerData(UUID playerId) {
+        PlayerData data = dirty.get(playerId);
+        if (data != null)
+            return Optional.of(data.copy());
+        return database.getPlayerData(playerId);
+    }
+
+    @Override
+    public boolean isPublicChatDisabled(UUID playerId) {
+        PlayerData data = dirty.get(playerId);
+        if (data != null)
+            return data.isPublicChatDisabled();
+        return database.isPublicChatDisabled(playerId);
+    }
+
+    @Override
+    public boolean isSocialSpyEnabled(Player player) {
+        PlayerData data = dirty.get(player.getUniqueId());
+        if (data != null)
+            return data.isSocialSpyEnabled() && player.hasPermission("openchat.socialspy");
+        return database.isSocialSpyEnabled(player);
+    }
+    //#endregion
+
+    //#region Ignore Management
+    @Override
+    public void addIgnoredPlayer(UUID playerId, UUID ignoredPlayerId) {
+        database.addIgnoredPlayer(playerId, ignoredPlayerId);
+    }
+
+    @Override
+    public void removeIgnoredPlayer(UUID playerId, UUID ignoredPlayerId) {
+        database.removeIgnoredPlayer(playerId, ignoredPlayerId);
+    }
+
+    @Override
+    public boolean isPlayerIgnored(UUID playerId, UUID ignoredPlayerId) {
+        return database.isPlayerIgnored(playerId, ignoredPlayerId);
+    }
+
+    @Override
+    public Optional<Set<UUID>> getIgnoredPlayers(UUID playerId) {
+        return database.getIgnoredPlayers(playerId);
+    }
+    //#endregion
+
+    //#region Violations
+    @Override
+    public void addViolation(UUID playerId, EViolationType type, String details) {
+        database.addViolation(playerId, type, details);
+    }
+
+    @Override
+    public boolean addViolationBatch(Collection<ViolationData> violations) {
+        return database.addViolationBatch(violations);
+    }
+
+    @Override
+    public void removeViolation(UUID violationId, UUID playerId) {
+        database.removeViolation(violationId, playerId);
+    }
+
+    @Override
+    public Optional<Set<ViolationData>> getViolations(UUID playerId) {
+        return database.getViolations(playerId);
+    }
+
+    @Override
+    public Optional<Set<ViolationData>> getActiveViolations(UUID playerId) {
+        return database.getActiveViolations(playerId);
+    }
+
+    @Override
+    public Optional<Set<ViolationData>> getActiveViolationsByType(UUID playerId, EViolationType type) {
+        return database.getActiveViolationsByType(playerId, type);
+    }
+
+    @Override
+    public int pruneViolations(long olderThan, int limit, boolean archive) {
+        return database.pruneViolations(olderThan, limit, archive);
+    }
+    //#endregion
+}
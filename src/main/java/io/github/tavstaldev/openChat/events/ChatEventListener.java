@@ -3,18 +3,16 @@ package io.github.tavstaldev.openChat.events;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
-import io.github.tavstaldev.openChat.Patterns;
 import io.github.tavstaldev.openChat.config.GeneralConfig;
-import io.github.tavstaldev.openChat.config.ModerationConfig;
 import io.github.tavstaldev.openChat.managers.PlayerCacheManager;
+import io.github.tavstaldev.openChat.managers.RecipientStateManager;
+import io.github.tavstaldev.openChat.models.ChatFormat;
 import io.github.tavstaldev.openChat.models.PlayerCache;
-import io.github.tavstaldev.openChat.models.database.EViolationType;
-import io.github.tavstaldev.openChat.util.MentionUtils;
-import io.github.tavstaldev.openChat.util.PlayerUtil;
-import io.github.tavstaldev.openChat.util.VanishUtil;
-import io.github.tavstaldev.openChat.util.ViolationUtil;
+import io.github.tavstaldev.openChat.models.RecipientState;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.papermc.paper.chat.ChatRenderer;
 import io.papermc.paper.event.player.AsyncChatEvent;
-import me.clip.placeholderapi.PlaceholderAPI;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -22,11 +20,11 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
 
-import java.time.LocalDateTime;
-import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Matcher;
+import java.util.function.Predicate;
 
 /**
  * Listener for handling chat-related events in the OpenChat plugin.
@@ -50,6 +48,7 @@ public class ChatEventListener implements Listener {
 
     /**
      * Handles the AsyncPlayerChatEvent to apply various chat moderation features.
+     * The moderation checks are executed by the {@link io.github.tavstaldev.openChat.pipeline.ChatPipeline}.
      *
      * @param event The chat event triggered when a player sends a message.
      */
@@ -62,154 +61,39 @@ public class ChatEventListener implements Listener {
         var sourceId = source.getUniqueId();
         PlayerCache cache = PlayerCacheManager.get(sourceId); // Retrieve the player's cache.
         String rawMessage = PlainTextComponentSerializer.plainText().serialize(event.originalMessage()); // The raw chat message.
-        cache.setLastChatMessage(rawMessage); // Store the last chat message in the cache.
         GeneralConfig config = OpenChat.config(); // Retrieve the plugin configuration.
-        ModerationConfig moderationConfig = OpenChat.moderationConfig();
 
         // Debug log the received message to find false positives
         _logger.debug("Player " + source.getName() + " sent message: " + rawMessage);
 
-        // Anti-spam
-        if (moderationConfig.antiSpamEnabled && !source.hasPermission(moderationConfig.antiSpamExemptPermission)) {
-            // Feature: Chat cooldown
-            var chatCooldown = cache.getChatMessageDelay();
-            if (LocalDateTime.now().isBefore(chatCooldown)) {
-                event.setCancelled(true);
-                // The +1 ensures that it doesn't display 0 seconds remaining when the cooldown is about to expire
-                OpenChat.Instance.sendLocalizedMsg(source, "AntiSpam.ChatCooldown", Map.of("time", String.valueOf(chatCooldown.getSecond() - LocalDateTime.now().getSecond() + 1)));
+        OpenChat.slowModeSystem().recordMessage(); // Count the message towards the chat rate.
 
-                ViolationUtil.handleViolationAsync(source, EViolationType.SPAM_DELAY, rawMessage, moderationConfig.antiSpamDelayViolationActions);
-                return;
-            }
-
-            // Feature: Repeated messages
-            if (moderationConfig.antiSpamMaxDuplicates >= 1 && cache.getChatSpamCount() >= moderationConfig.antiSpamMaxDuplicates) {
-                event.setCancelled(true);
-                OpenChat.Instance.sendLocalizedMsg(source, "AntiSpam.RepeatedMessages");
-
-                ViolationUtil.handleViolationAsync(source, EViolationType.SPAM_REPETITION, rawMessage, moderationConfig.antiSpamSimilarityViolationActions);
-                return;
-            }
-
-            // Feature: Replace unauthorized characters
-            if (moderationConfig.antiSpamRegexEnabled) {
-                String editedMessage = rawMessage.replaceAll(moderationConfig.antiSpamRegex, "");
-                if (moderationConfig.antiSpamRegexCancel) {
-                    double ratio = (double) editedMessage.length() / rawMessage.length();
-                    if (ratio < moderationConfig.antiSpamRegexCancelThreshold) {
-                        event.setCancelled(true);
-                        OpenChat.Instance.sendLocalizedMsg(source, "AntiSpam.UnacceptableCharacters");
-                        return;
-                    }
-                }
-                rawMessage = editedMessage;
-            }
-        }
-
-        // Anti-advertisement
-        if (moderationConfig.antiAdvertisementEnabled && !source.hasPermission(moderationConfig.antiAdvertisementExemptPermission)) {
-            if (OpenChat.advertisementSystem().containsAdvertisement(rawMessage)) {
-                event.setCancelled(true);
-                OpenChat.Instance.sendLocalizedMsg(source, "AntiAd.AdvertisementDetected");
-
-                ViolationUtil.handleViolationAsync(source, EViolationType.ADVERTISEMENT, rawMessage, moderationConfig.antiAdvertisementViolationActions);
-                return;
-            }
-        }
-
-
-        // Anti-capitalization
-        if (moderationConfig.antiCapsEnabled && !source.hasPermission(moderationConfig.antiCapsExemptPermission)) {
-            double maxCapsPercentage = moderationConfig.antiCapsPercentage / 100.0; // Maximum allowed percentage of capital letters.
-            if (rawMessage.length() >= moderationConfig.antiCapsMinLength) { // Check if the message meets the minimum length.
-                long capsCount = rawMessage.chars().filter(Character::isUpperCase).count(); // Count uppercase letters.
-                double capsPercentage = (double) capsCount / rawMessage.length(); // Calculate the percentage of uppercase letters.
-                if (capsPercentage > maxCapsPercentage) {
-                    event.setCancelled(true);
-                    OpenChat.Instance.sendLocalizedMsg(source, "AntiCaps.TooManyCaps");
-
-                    ViolationUtil.handleViolationAsync(source, EViolationType.CAPS_LOCK, rawMessage, moderationConfig.antiCapsViolationActions);
-                    return;
-                }
-            }
-        }
-
-        // Anti-swear
-        if (moderationConfig.antiSwearEnabled && !source.hasPermission(moderationConfig.antiSwearExemptPermission) ) {
-            if (OpenChat.antiSwearSystem().containsSwearWord(rawMessage)) {
-                event.setCancelled(true);
-                OpenChat.Instance.sendLocalizedMsg(source, "AntiSwear.WordDetected");
-
-                ViolationUtil.handleViolationAsync(source, EViolationType.CURSE_WORDS, rawMessage, moderationConfig.antiSwearViolationActions);
-                return;
-            }
-        }
-
-        int spamDelay = moderationConfig.antiSpamChatDelay;
-        if (spamDelay > 0)
-            cache.setChatMessageDelay(LocalDateTime.now().plusSeconds(spamDelay));
-
-        // Escape emojis if necessary
-        if (moderationConfig.antiSpamEmojis && !source.hasPermission(moderationConfig.antiSpamEmojiExemptPermission)) {
-            var emojiMatcher = Patterns.emojiPattern.matcher(rawMessage);
-            StringBuilder sb = new StringBuilder();
-            while (emojiMatcher.find()) {
-                String emoji = emojiMatcher.group();
-
-                if (!moderationConfig.antiSpamEmojiWhitelist.contains(emoji)) {
-                    // Escape the colons
-                    String escaped = emoji.replace(":", "\\:");
-                    emojiMatcher.appendReplacement(sb, Matcher.quoteReplacement(escaped));
-                }
-            }
-
-            emojiMatcher.appendTail(sb);
-            rawMessage = sb.toString();
+        // Moderation, escaping & mentions
+        ChatContext context = new ChatContext(source, cache, rawMessage);
+        cache.setLastChatMessage(context.getNormalizedText()); // Store the last chat message in the cache.
+        if (!OpenChat.chatPipeline().process(context)) {
+            event.setCancelled(true);
+            return;
         }
+        rawMessage = context.getMessage();
 
-        // Custom chat formatting & Mentions
-        if (!config.customChatEnabled)
+        // Custom chat formatting
+        if (!config.customChatEnabled || context.getChatFormat() == null)
         {
-            rawMessage = handleMentions(source, rawMessage);
-            boolean coloredHexChat = source.hasPermission(config.customChatHexRichTextPermission);
-            boolean coloredLegacyChat = source.hasPermission(config.customChatLegacyRichTextPermission);
-            if (!coloredHexChat && !coloredLegacyChat) {
-                rawMessage = Patterns.hexPattern.matcher(rawMessage).replaceAll("");
-                rawMessage = Patterns.legacyPattern.matcher(rawMessage).replaceAll("");
-                rawMessage = rawMessage.replace("<", "\\<");
-            }
-            else {
-                if (!coloredHexChat) {
-                    rawMessage = Patterns.hexPattern.matcher(rawMessage).replaceAll("");
-                    rawMessage = rawMessage.replace("<#", "\\<#");
-                }
-                if (!coloredLegacyChat) {
-                    rawMessage = Patterns.legacyPattern.matcher(rawMessage).replaceAll("");
-                    rawMessage = rawMessage.replaceAll("<(?!#)", "\\\\<");
-                }
-            }
-            var playerData = OpenChat.database().getPlayerData(sourceId);
-            if (playerData.isPresent()) {
-                rawMessage = playerData.get().formatMessage(rawMessage);
-            }
             event.message(ChatUtils.translateColors(rawMessage, true));
             return;
         }
-        String chatFormat = PlayerUtil.getChatFormat(source);
-        boolean forceGlobal = false;
-        if (config.customChatShoutEnabled && source.hasPermission(config.customChatShoutPermission) && rawMessage.startsWith(config.customChatShoutPrefix)) {
-            chatFormat = config.customChatShoutFormat;
-            rawMessage = rawMessage.substring(1); // Remove the shout prefix
-            forceGlobal = true;
-        } else if (config.customChatQuestionEnabled && source.hasPermission(config.customChatQuestionPermission) && rawMessage.startsWith(config.customChatQuestionPrefix)) {
-            chatFormat = config.customChatQuestionFormat;
-            rawMessage = rawMessage.substring(1); // Remove the question prefix
-            forceGlobal = true;
-        }
+        ChatFormat chatFormat = context.getChatFormat();
+        boolean forceGlobal = context.isForceGlobal();
 
         // Remove recipient players who have ignored the sender or disabled public chat
         if (!(forceGlobal || source.hasPermission(config.customChatLocalChatExemptPermission))) {
+            // The online players ignoring the sender, looked up once for every viewer
+            // A viewer whose ignore list is still loading is not in the set, so the message is shown to them
+            Set<UUID> ignorers = OpenChat.ignoreGraph().getIgnorers(sourceId);
             if (config.customChatLocalChatDistance > 0) {
+                // Whether a viewer is in range of the sender at the last tick, null if the sender joined since
+                Predicate<UUID> inRange = OpenChat.playerPositions().withinDistanceOf(sourceId, config.customChatLocalChatDistance);
                 event.viewers().removeIf(recipient -> {
                     if (!(recipient instanceof Player recipientPlayer)) {
                         return false;
@@ -222,28 +106,34 @@ public class ChatEventListener implements Listener {
                     }
 
                     // 1. Never remove if the recipient has social spy enabled
-                    if (OpenChat.database().isSocialSpyEnabled(recipientPlayer)) {
+                    RecipientState state = RecipientStateManager.get(recipientId);
+                    if (isSpying(recipientPlayer, state)) {
                         return false;
                     }
 
                     // 2. Always remove if the recipient has ignored the sender
-                    if (OpenChat.database().isPlayerIgnored(recipientId, sourceId)) {
+                    if (ignorers.contains(recipientId)) {
                         return true;
                     }
 
-                    // 3, Remove if not in the same world
-                    if (!recipientPlayer.getWorld().getUID().equals(source.getWorld().getUID())) {
-                        return true;
+                    // 3. Remove if not in the same world or outside the local chat distance
+                    if (inRange != null) {
+                        if (!inRange.test(recipientId)) {
+                            return true;
+                        }
                     }
-
-                    // 4. Remove if public chat is disabled
-                    if (OpenChat.database().isPublicChatDisabled(recipientId)) {
+                    else if (!recipientPlayer.getWorld().getUID().equals(source.getWorld().getUID())) {
                         return true;
                     }
+                    else {
+                        double distance = config.customChatLocalChatDistance;
+                        if (recipientPlayer.getLocation().distanceSquared(source.getLocation()) > distance * distance) {
+                            return true;
+                        }
+                    }
 
-                    // 4. Remove if public chat is disabled AND the recipient is outside the local chat distance
-                    var distance = Math.abs(recipientPlayer.getLocation().distance(source.getLocation()));
-                    return distance > config.customChatLocalChatDistance;
+                    // 4. Remove if public chat is disabled
+                    return isPublicChatDisabled(state);
                 });
             } else {
                 event.viewers().removeIf(recipient -> {
@@ -258,109 +148,51 @@ public class ChatEventListener implements Listener {
                     }
 
                     // 1. Never remove if the recipient has social spy enabled
-                    if (OpenChat.database().isSocialSpyEnabled(recipientPlayer)) {
+                    RecipientState state = RecipientStateManager.get(recipientId);
+                    if (isSpying(recipientPlayer, state)) {
                         return false;
                     }
 
                     // 2. Remove if public chat is disabled
-                    if (OpenChat.database().isPublicChatDisabled(recipientId)) {
+                    if (isPublicChatDisabled(state)) {
                         return true;
                     }
 
                     // 3. Remove if the recipient has ignored the sender
-                    return OpenChat.database().isPlayerIgnored(recipientPlayer.getUniqueId(), sourceId);
+                    return ignorers.contains(recipientId);
                 });
             }
         }
 
-        chatFormat = PlaceholderAPI.setPlaceholders(source, chatFormat);
-        boolean hasHex = source.hasPermission(config.customChatHexRichTextPermission);
-        boolean hasLegacy = source.hasPermission(config.customChatLegacyRichTextPermission);
-        if (!hasHex && !hasLegacy) {
-            rawMessage = Patterns.hexPattern.matcher(rawMessage).replaceAll("");
-            rawMessage = Patterns.legacyPattern.matcher(rawMessage).replaceAll("");
-            rawMessage = rawMessage.replace("<", "\\<");
-        }
-        else {
-            if (!hasHex) {
-                rawMessage = Patterns.hexPattern.matcher(rawMessage).replaceAll("");
-                rawMessage = rawMessage.replace("<#", "\\<#");
-            }
-            if (!hasLegacy) {
-                rawMessage = Patterns.legacyPattern.matcher(rawMessage).replaceAll("");
-                rawMessage = rawMessage.replaceAll("<(?!#)", "\\\\<");
-            }
-        }
-
-        // Mentions
-        rawMessage = handleMentions(source, rawMessage);
-
-        var playerData = OpenChat.database().getPlayerData(sourceId);
-        if (playerData.isPresent()) {
-            rawMessage = playerData.get().formatMessage(rawMessage);
-        }
-
-        // Other replacements are handled by PlaceholderAPI above
-        chatFormat = chatFormat.replace("{player}", source.getName())
-                .replace("{displayname}", PlayerUtil.getPlayerPlainDisplayName(source))
-                .replace("{message}", rawMessage);
-
-        // Escape any other literal '%' signs
-        chatFormat = chatFormat.replace("%", "%%");
-        String finalChatFormat = chatFormat;
-        event.renderer((renderSource, sourceDisplayName, message, viewer) -> ChatUtils.translateColors(finalChatFormat, true));
+        // The format is compiled, only the placeholders and the variables are filled in, with any '%' escaped
+        String finalChatFormat = chatFormat.render(source, cache.getChatFormatCache(), rawMessage);
+        // The line is the same for every viewer, so it is parsed once and the immutable component is shared
+        Component chatLine = ChatUtils.translateColors(finalChatFormat, true);
+        event.renderer(ChatRenderer.viewerUnaware((renderSource, sourceDisplayName, message) -> chatLine));
         //event.message(ChatUtils.translateColors(rawMessage, true));
     }
 
     /**
-     * Handles mentions in chat messages.
-     * Replaces mentions with formatted text and notifies mentioned players.
+     * Checks if a viewer has social spy enabled.
+     * The permission is only checked for the viewers with social spy enabled, because it can change at any time.
+     * A viewer whose state is still loading is not spying, the database is never read on the chat thread.
      *
-     * @param source The player who sent the message.
-     * @param rawMessage The raw chat message.
-     * @return The modified message with mentions handled.
+     * @param viewer The viewer.
+     * @param state  The recipient state of the viewer, or null if it is not loaded.
+     * @return True if the viewer has social spy enabled and the permission to use it, false otherwise.
      */
-    private String handleMentions(Player source, String rawMessage) {
-        GeneralConfig config = OpenChat.config();
-        if (!config.mentionsEnabled) {
-            return rawMessage;
-        }
-
-        int mentionCount = 0;
-        StringBuilder newMessage = new StringBuilder();
-        int lastAppendPosition = 0;
-        final int maxMentionCount = config.mentionsLimitPerMessage;
-        final boolean allowSelfMention = config.mentionsAllowSelfMention;
-        Matcher matcher = Patterns.minecraftUsernamePattern.matcher(rawMessage);
-        while (matcher.find() && mentionCount < maxMentionCount) {
-            String mentionName = matcher.group(0);
-            Player mentionedPlayer = Bukkit.getPlayerExact(mentionName);
-            if (mentionedPlayer == null)
-                continue;
-
-            if (mentionedPlayer.getUniqueId() == source.getUniqueId() && !allowSelfMention)
-                continue;
-
-            if (mentionedPlayer.getGameMode() == org.bukkit.GameMode.SPECTATOR)
-                continue;
-
-            if (VanishUtil.isVanished(mentionedPlayer))
-                continue;
-
-            if (!MentionUtils.mentionPlayer(mentionedPlayer, source))
-                continue;
-
-            newMessage.append(rawMessage, lastAppendPosition, matcher.start());
-            String replacement = "<yellow>@" + mentionName + "</yellow>";
-            newMessage.append(replacement);
-
-            lastAppendPosition = matcher.end();
-            mentionCount++;
-        }
+    private static boolean isSpying(Player viewer, @Nullable RecipientState state) {
+        return state != null && state.socialSpyEnabled() && viewer.hasPermission("openchat.socialspy");
+    }
 
-        if (lastAppendPosition < rawMessage.length()) {
-            newMessage.append(rawMessage, lastAppendPosition, rawMessage.length());
-        }
-        return newMessage.toString();
+    /**
+     * Checks if a viewer has disabled the public chat.
+     * A viewer whose state is still loading has the public chat on.
+     *
+     * @param state The recipient state of the viewer, or null if it is not loaded.
+     * @return True if the viewer has disabled the public chat, false otherwise.
+     */
+    private static boolean isPublicChatDisabled(@Nullable RecipientState state) {
+        return state != null && state.publicChatDisabled();
     }
 }
@@ -3,7 +3,9 @@ package io.github.tavstaldev.openChat.events;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.openChat.OpenChat;
 import io.github.tavstaldev.openChat.managers.PlayerCacheManager;
+import io.github.tavstaldev.openChat.models.Cooldown;
 import io.github.tavstaldev.openChat.models.PlayerCache;
+import io.github.tavstaldev.openChat.models.RateLimitTier;
 import io.github.tavstaldev.openChat.models.database.EViolationType;
 import io.github.tavstaldev.openChat.util.ViolationUtil;
 import org.bukkit.Bukkit;
@@ -13,7 +15,6 @@ import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.player.PlayerCommandSendEvent;
 import org.bukkit.plugin.Plugin;
 
-import java.time.LocalDateTime;
 import java.util.Map;
 
 /**
@@ -58,13 +59,14 @@ public class CommandEventListener implements Listener {
         if (cache == null)
             return;
 
-        // Feature: cooldown
-        if (LocalDateTime.now().isBefore(cache.getCommandDelay())) {
-            // Cancel the event if the player is still on cooldown.
+        // Feature: rate limit
+        RateLimitTier tier = RateLimitTier.resolve(player, config.antiSpamRateLimitTiers, config.antiSpamRateLimit);
+        long wait = cache.getCommandBucket().tryAcquire(tier.getCommandIntervalNanos(), tier.getCommandBurst());
+        if (wait > 0) {
+            // Cancel the event if the player has used up their commands.
             event.setCancelled(true);
-            // The +1 ensures that it doesn't display 0 seconds remaining when the cooldown is about to expire
             OpenChat.Instance.sendLocalizedMsg(player, "AntiSpam.CommandCooldown",
-                    Map.of("time", String.valueOf(cache.getCommandDelay().getSecond() - LocalDateTime.now().getSecond() + 1)));
+                    Map.of("time", String.valueOf(Cooldown.toDisplaySeconds(wait))));
 
             // Execute configured commands for cooldown violations.
             ViolationUtil.handleViolationAsync(player, EViolationType.SPAM_DELAY,
@@ -97,9 +99,6 @@ public class CommandEventListener implements Listener {
                     config.antiSpamSimilarityViolationActions);
             return;
         }
-
-        // Set the next allowed command execution time based on the configured delay.
-        cache.setCommandDelay(LocalDateTime.now().plusSeconds(config.antiSpamCommandDelay));
     }
 
     /**
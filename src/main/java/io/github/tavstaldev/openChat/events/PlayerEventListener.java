@@ -1,10 +1,19 @@
 package io.github.tavstaldev.openChat.events;
 
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.database.IAsyncDatabase;
 import io.github.tavstaldev.openChat.managers.PlayerCacheManager;
+import io.github.tavstaldev.openChat.managers.PlayerPreloadManager;
+import io.github.tavstaldev.openChat.managers.RecipientStateManager;
 import io.github.tavstaldev.openChat.models.PlayerCache;
+import io.github.tavstaldev.openChat.models.PreloadedPlayer;
+import io.github.tavstaldev.openChat.models.database.PlayerData;
+import io.github.tavstaldev.openChat.util.RichTextSanitizer;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
 import io.github.tavstaldev.openChat.util.VanishUtil;
+import io.github.tavstaldev.openChat.util.ViolationUtil;
 import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
@@ -13,17 +22,24 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.plugin.Plugin;
 
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Listener for handling player-related events in the OpenChat plugin.
- * Manages player cache on join and quit events.
+ * Preloads the player's state on login, and manages player cache on join and quit events.
  */
 public class PlayerEventListener implements Listener {
+    private static final long PRELOAD_TIMEOUT_SECONDS = 5;
+    private final PluginLogger _logger = OpenChat.logger().withModule(PlayerEventListener.class);
 
     /**
      * Constructor for PlayerEventListener.
@@ -35,6 +51,38 @@ public class PlayerEventListener implements Listener {
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
 
+    /**
+     * Handles the AsyncPlayerPreLoginEvent to load the player's state before they join.
+     * The settings, the ignore list and the active violations are loaded at the same time on the database executor,
+     * while the login thread waits for them. The player is added with the default settings if this is their first
+     * join. If loading fails or takes too long, the join event loads the state instead.
+     *
+     * @param event The event triggered when a player is logging in.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+            return;
+
+        UUID playerId = event.getUniqueId();
+        IAsyncDatabase database = OpenChat.asyncDatabase();
+        var playerDataFuture = database.getOrAddPlayerData(playerId);
+        var ignoredFuture = database.getIgnoredPlayers(playerId);
+        var violationsFuture = database.getActiveViolations(playerId);
+        try {
+            CompletableFuture.allOf(playerDataFuture, ignoredFuture, violationsFuture)
+                    .get(PRELOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            // Without the ignore list the chat could show the player messages they ignore, the join event loads it again
+            var ignored = ignoredFuture.join();
+            if (ignored.isEmpty())
+                return;
+            PlayerPreloadManager.put(playerId, new PreloadedPlayer(playerDataFuture.join(),
+                    ignored.get(), violationsFuture.join().orElse(Set.of())));
+        } catch (Exception ex) {
+            _logger.warn(String.format("Failed to preload the data of %s, loading it on join...\n%s", event.getName(), ex.getMessage()));
+        }
+    }
+
     /**
      * Handles the PlayerJoinEvent to initialize and add the player's cache.
      *
@@ -45,33 +93,42 @@ public class PlayerEventListener implements Listener {
         Player player = event.getPlayer();
         var playerId = player.getUniqueId();
 
-        if (PlayerCacheManager.isMarkedForRemoval(playerId))
-            PlayerCacheManager.unmarkForRemoval(playerId);
+        // Unmarks the player for removal and creates their cache if needed
+        PlayerCache playerCache = PlayerCacheManager.getOrCreate(player);
 
-        if (PlayerCacheManager.get(playerId) == null) {
-            PlayerCache playerCache = new PlayerCache(player);
-            PlayerCacheManager.add(playerId, playerCache);
+        // Use the state loaded during the login, or load it on the database executor if there is none
+        CompletableFuture<Optional<PlayerData>> playerDataFuture;
+        PreloadedPlayer preloaded = PlayerPreloadManager.take(playerId);
+        if (preloaded != null) {
+            playerCache.getViolationCounter().load(preloaded.getActiveViolations());
+            OpenChat.ignoreGraph().load(playerId, preloaded.getIgnoredPlayers());
+            playerDataFuture = CompletableFuture.completedFuture(preloaded.getPlayerData());
         }
-
-        // TODO: Consider making this asynchronous
-        var playerData = OpenChat.database().getPlayerData(playerId);
-        if (playerData.isEmpty()) {
-            OpenChat.database().addPlayerData(playerId);
-            // Since addPlayerData initializes it and also adds it to the cache, we can retrieve it again.
-            playerData = OpenChat.database().getPlayerData(playerId);
+        else {
+            ViolationUtil.loadViolationCounter(playerId, playerCache);
+            OpenChat.ignoreGraph().loadAsync(player);
+            playerDataFuture = OpenChat.asyncDatabase().getOrAddPlayerData(playerId);
         }
 
+        // The chat filters the viewers with the settings of the player, and uses the defaults until they are loaded
+        // Loaded on the main thread, so the player cannot quit between the check and the load
+        SchedulerUtil.thenSync(playerDataFuture, playerData -> playerData.ifPresent(data -> {
+            if (player.isOnline())
+                RecipientStateManager.load(data);
+        }));
+
         var config = OpenChat.config();
         if (config.customGreetingEnabled && config.customGreetingOverrideJoinMessage) {
             event.joinMessage(null);
-            var finalPlayerData = playerData;
             if (!config.customGreetingIgnoreVanished || !VanishUtil.isVanished(player)) {
-                Bukkit.getScheduler().runTaskLater(OpenChat.Instance, () -> {
+                // The formatting the player may use in their custom message
+                int richText = RichTextSanitizer.getAllowed(player, config.customChatLegacyRichTextPermission, config.customChatHexRichTextPermission);
+                SchedulerUtil.thenSync(playerDataFuture, playerData -> Bukkit.getScheduler().runTaskLater(OpenChat.Instance, () -> {
                     String message;
                     String playerName = PlainTextComponentSerializer.plainText().serialize(player.displayName());
                     // Avoid PAPI placeholders in custom messages because of potential exploits.
-                    if (finalPlayerData.isPresent() && finalPlayerData.get().getCustomJoinMessage() != null) {
-                        message = finalPlayerData.get().getCustomJoinMessage();
+                    if (playerData.isPresent() && playerData.get().getCustomJoinMessage() != null) {
+                        message = RichTextSanitizer.sanitize(playerData.get().getCustomJoinMessage(), richText);
                         message = message.replace("{player}", playerName);
                     }
                     else {
@@ -80,7 +137,7 @@ public class PlayerEventListener implements Listener {
                     }
 
                     player.getServer().broadcast(ChatUtils.translateColors(message, true));
-                }, 10L);
+                }, 10L));
             }
         }
 
@@ -115,31 +172,38 @@ public class PlayerEventListener implements Listener {
         UUID playerId = player.getUniqueId();
 
         var config = OpenChat.config();
-        // TODO: Consider making this asynchronous
         if (config.customGreetingEnabled && config.customGreetingOverrideLeaveMessage) {
             event.quitMessage(null);
             if (!config.customGreetingIgnoreVanished || !VanishUtil.isVanished(player)) {
-                String message;
-                var playerData = OpenChat.database().getPlayerData(playerId);
+                // Resolve the default message while the player is still online
                 String playerName = PlainTextComponentSerializer.plainText().serialize(player.displayName());
-                // Avoid PAPI placeholders in custom messages because of potential exploits.
-                if (playerData.isPresent() && playerData.get().getCustomLeaveMessage() != null) {
-                    message = playerData.get().getCustomLeaveMessage();
-                    message = message.replace("{player}", playerName);
-                }
-                else {
-                    message = config.customGreetingLeaveMessage;
-                    message = PlaceholderAPI.setPlaceholders(player, message.replace("{player}", playerName));
-                }
+                String defaultMessage = PlaceholderAPI.setPlaceholders(player, config.customGreetingLeaveMessage.replace("{player}", playerName));
+                int richText = RichTextSanitizer.getAllowed(player, config.customChatLegacyRichTextPermission, config.customChatHexRichTextPermission);
+                SchedulerUtil.thenSync(OpenChat.asyncDatabase().getPlayerData(playerId), playerData -> {
+                    String message;
+                    // Avoid PAPI placeholders in custom messages because of potential exploits.
+                    if (playerData.isPresent() && playerData.get().getCustomLeaveMessage() != null) {
+                        message = RichTextSanitizer.sanitize(playerData.get().getCustomLeaveMessage(), richText);
+                        message = message.replace("{player}", playerName);
+                    }
+                    else {
+                        message = defaultMessage;
+                    }
 
-                // Apply a slight delay to prevent issues with join/leave message order.
-                String finalMessage = message;
-                Bukkit.getScheduler().runTaskLater(OpenChat.Instance, () -> {
-                    server.broadcast(ChatUtils.translateColors(finalMessage, true));
-                }, 10L);
+                    // Apply a slight delay to prevent issues with join/leave message order.
+                    String finalMessage = message;
+                    Bukkit.getScheduler().runTaskLater(OpenChat.Instance, () -> {
+                        server.broadcast(ChatUtils.translateColors(finalMessage, true));
+                    }, 10L);
+                });
             }
         }
 
+        // Write the player's buffered settings without waiting for the next flush
+        OpenChat.asyncDatabase().execute(database -> OpenChat.writeBehindDatabase().flush(playerId));
+
+        OpenChat.ignoreGraph().unload(playerId);
+        RecipientStateManager.remove(playerId);
         PlayerCacheManager.markForRemoval(player.getUniqueId());
     }
 }
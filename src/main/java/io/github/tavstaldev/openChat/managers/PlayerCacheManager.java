@@ -1,17 +1,28 @@
 package io.github.tavstaldev.openChat.managers;
 
+import io.github.tavstaldev.openChat.OpenChat;
 import io.github.tavstaldev.openChat.models.PlayerCache;
+import io.github.tavstaldev.openChat.tasks.CacheCleanTask;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Manages a cache of player data using a static map.
+ * Manages a cache of player data using a static concurrent map.
  * Provides methods to add, remove, clear, and retrieve player data.
+ * <br/>
+ * The cache is read from the async chat threads, so lookups never lock. Players who left the server are
+ * marked for removal, and their cache is removed by a {@link CacheCleanTask} scheduled for the moment
+ * their cooldowns run out.
  */
 public class PlayerCacheManager {
+    private static final long NANOS_PER_TICK = TimeUnit.MILLISECONDS.toNanos(50);
     // A static map to store player data, keyed by the player's UUID.
-    private static final Map<UUID, PlayerCache> _playerData = new HashMap<>();
-    private static final Set<UUID> _markedForRemoval = new HashSet<>();
+    private static final Map<UUID, PlayerCache> _playerData = new ConcurrentHashMap<>();
+    private static final Set<UUID> _markedForRemoval = ConcurrentHashMap.newKeySet();
 
     /**
      * Adds a player's data to the cache.
@@ -23,6 +34,21 @@ public class PlayerCacheManager {
         _playerData.put(playerId, playerData);
     }
 
+    /**
+     * Retrieves a player's data from the cache, creating it if it does not exist.
+     * The player is unmarked for removal in the same atomic step, so a pending cleanup can not remove
+     * the cache of a player who has just rejoined.
+     *
+     * @param player The player to retrieve the data of.
+     * @return The PlayerCache object containing the player's data.
+     */
+    public static @NotNull PlayerCache getOrCreate(@NotNull Player player) {
+        return _playerData.compute(player.getUniqueId(), (playerId, cache) -> {
+            _markedForRemoval.remove(playerId);
+            return cache != null ? cache : new PlayerCache(player);
+        });
+    }
+
     /**
      * Removes a player's data from the cache.
      *
@@ -30,6 +56,31 @@ public class PlayerCacheManager {
      */
     public static void remove(UUID playerId) {
         _playerData.remove(playerId);
+        _markedForRemoval.remove(playerId);
+    }
+
+    /**
+     * Removes a player's data from the cache if they are still marked for removal and their cooldowns have run out.
+     *
+     * @param playerId The UUID of the player to remove.
+     * @return The number of ticks until the player's cooldowns run out if the data was kept because of them, 0 otherwise.
+     */
+    public static long removeIfExpired(UUID playerId) {
+        long[] remainingTicks = new long[1];
+        _playerData.computeIfPresent(playerId, (id, cache) -> {
+            if (!_markedForRemoval.contains(id))
+                return cache;
+
+            long remainingNanos = cache.getRemainingCooldownNanos();
+            if (remainingNanos > 0) {
+                remainingTicks[0] = toTicks(remainingNanos);
+                return cache;
+            }
+
+            _markedForRemoval.remove(id);
+            return null;
+        });
+        return remainingTicks[0];
     }
 
     /**
@@ -37,6 +88,7 @@ public class PlayerCacheManager {
      */
     public static void clear() {
         _playerData.clear();
+        _markedForRemoval.clear();
     }
 
     /**
@@ -50,12 +102,19 @@ public class PlayerCacheManager {
     }
 
     /**
-     * Marks a player for removal by adding their UUID to the removal set.
+     * Marks a player for removal by adding their UUID to the removal set,
+     * and schedules the removal of their data for when their cooldowns run out.
      *
      * @param playerId The UUID of the player to mark for removal.
      */
     public static void markForRemoval(UUID playerId) {
+        PlayerCache cache = _playerData.get(playerId);
+        if (cache == null)
+            return;
+
         _markedForRemoval.add(playerId);
+        long delay = toTicks(cache.getRemainingCooldownNanos());
+        new CacheCleanTask(playerId).runTaskLaterAsynchronously(OpenChat.Instance, delay);
     }
 
     /**
@@ -94,4 +153,11 @@ public class PlayerCacheManager {
     public static Set<UUID> getMarkedForRemovalSet() {
         return new HashSet<>(_markedForRemoval); // Return a copy to prevent external modification
     }
-}
\ No newline at end of file
+
+    /**
+     * Converts nanoseconds to server ticks, rounding up so the task never runs before the cooldown ends.
+     */
+    private static long toTicks(long nanos) {
+        return Math.max(1, (nanos + NANOS_PER_TICK - 1) / NANOS_PER_TICK);
+    }
+}
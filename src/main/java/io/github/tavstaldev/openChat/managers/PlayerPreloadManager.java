@@ -0,0 +1,45 @@
+package io.github.tavstaldev.openChat.managers;
+
+import io.github.tavstaldev.openChat.models.PreloadedPlayer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the player states loaded during the login until the players join.
+ * <br/>
+ * A state is taken by the join event of its player. The states of the players whose login was cancelled after the
+ * preload are never taken, so the expired ones are removed whenever a new state is added.
+ */
+public class PlayerPreloadManager {
+    private static final long EXPIRY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Map<UUID, PreloadedPlayer> _preloaded = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the preloaded state of a player, replacing the previous one.
+     *
+     * @param playerId  The UUID of the player.
+     * @param preloaded The state loaded for the player.
+     */
+    public static void put(UUID playerId, PreloadedPlayer preloaded) {
+        long now = System.nanoTime();
+        _preloaded.values().removeIf(state -> now - state.getLoadedAt() > EXPIRY_NANOS);
+        _preloaded.put(playerId, preloaded);
+    }
+
+    /**
+     * Removes and returns the preloaded state of a player.
+     *
+     * @param playerId The UUID of the player.
+     * @return The preloaded state, or null if the player was not preloaded or the state expired.
+     */
+    public static @Nullable PreloadedPlayer take(UUID playerId) {
+        PreloadedPlayer preloaded = _preloaded.remove(playerId);
+        if (preloaded == null || System.nanoTime() - preloaded.getLoadedAt() > EXPIRY_NANOS)
+            return null;
+        return preloaded;
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.tavstaldev.openChat.managers;
+
+import io.github.tavstaldev.openChat.models.RecipientState;
+import io.github.tavstaldev.openChat.models.database.PlayerData;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link RecipientState} of the online players, so the chat can filter the viewers of a message, color the
+ * message of the sender and notify the mentioned players without database or cache lookups.
+ * <br/>
+ * A state is added when the player data of a joining player is loaded, replaced when a command changes the settings,
+ * and removed when the player quits. The chat treats the players without a state with the default settings, it
+ * never reads the database.
+ */
+public class RecipientStateManager {
+    private static final Map<UUID, RecipientState> _states = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the state of an online player, replacing the previous one.
+     * Must be called on the main thread after checking that the player is online, so it cannot race the removal on quit.
+     *
+     * @param data The data of the player.
+     */
+    public static void load(PlayerData data) {
+        _states.put(data.getUuid(), RecipientState.of(data));
+    }
+
+    /**
+     * Replaces the state of a player after their settings changed, if they have one.
+     *
+     * @param data The updated data of the player.
+     */
+    public static void update(PlayerData data) {
+        _states.computeIfPresent(data.getUuid(), (playerId, state) -> RecipientState.of(data));
+    }
+
+    /**
+     * Removes the state of a player.
+     *
+     * @param playerId The UUID of the player.
+     */
+    public static void remove(UUID playerId) {
+        _states.remove(playerId);
+    }
+
+    /**
+     * Gets the state of a player.
+     *
+     * @param playerId The UUID of the player.
+     * @return The state, or null if the player data of the player is not loaded.
+     */
+    public static @Nullable RecipientState get(UUID playerId) {
+        return _states.get(playerId);
+    }
+}
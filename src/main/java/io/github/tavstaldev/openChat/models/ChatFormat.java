@@ -0,0 +1,171 @@
+package io.github.tavstaldev.openChat.models;
+
+import io.github.tavstaldev.openChat.util.PlayerUtil;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A chat format compiled into segments, so a message is rendered without searching the format again.
+ * <br/>
+ * The format is split once into literals, PlaceholderAPI placeholders and the {@code {player}},
+ * {@code {displayname}} and {@code {message}} variables. A message is rendered by appending the segments to a single
+ * builder, escaping the '%' signs as it goes. The literals are stored already escaped.
+ */
+public final class ChatFormat {
+    private static final String PLAYER = "{player}";
+    private static final String DISPLAY_NAME = "{displayname}";
+    private static final String MESSAGE = "{message}";
+
+    private final String format; // The format the segments were compiled from.
+    private final Segment[] segments; // The segments of the format, in order.
+    private final int literalLength; // The total length of the literals, used to size the builder.
+
+    /**
+     * The kind of a segment of the format.
+     */
+    private enum ESegmentType {
+        LITERAL,
+        PLACEHOLDER,
+        PLAYER,
+        DISPLAY_NAME,
+        MESSAGE
+    }
+
+    /**
+     * A segment of the format.
+     *
+     * @param type  The kind of the segment.
+     * @param value The escaped text of a literal, or the placeholder with its '%' signs, otherwise null.
+     */
+    private record Segment(ESegmentType type, String value) {}
+
+    private ChatFormat(String format, Segment[] segments) {
+        this.format = format;
+        this.segments = segments;
+        int length = 0;
+        for (Segment segment : segments) {
+            if (segment.type() == ESegmentType.LITERAL)
+                length += segment.value().length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles a chat format.
+     * A placeholder is a '%' delimited name with an underscore and no whitespace, the same names PlaceholderAPI resolves.
+     * Any other '%' sign is kept as a literal.
+     *
+     * @param format The format to compile.
+     * @return The compiled format.
+     */
+    public static ChatFormat compile(@NotNull String format) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int length = format.length();
+        int index = 0;
+        while (index < length) {
+            char c = format.charAt(index);
+            ESegmentType variable = null;
+            int variableLength = 0;
+            if (c == '{') {
+                if (format.startsWith(PLAYER, index)) {
+                    variable = ESegmentType.PLAYER;
+                    variableLength = PLAYER.length();
+                } else if (format.startsWith(DISPLAY_NAME, index)) {
+                    variable = ESegmentType.DISPLAY_NAME;
+                    variableLength = DISPLAY_NAME.length();
+                } else if (format.startsWith(MESSAGE, index)) {
+                    variable = ESegmentType.MESSAGE;
+                    variableLength = MESSAGE.length();
+                }
+            } else if (c == '%') {
+                int end = format.indexOf('%', index + 1);
+                if (end > index + 1 && isPlaceholderName(format, index + 1, end)) {
+                    flushLiteral(segments, literal);
+                    segments.add(new Segment(ESegmentType.PLACEHOLDER, format.substring(index, end + 1)));
+                    index = end + 1;
+                    continue;
+                }
+            }
+
+            if (variable != null) {
+                flushLiteral(segments, literal);
+                segments.add(new Segment(variable, null));
+                index += variableLength;
+                continue;
+            }
+
+            appendEscaped(literal, c);
+            index++;
+        }
+        flushLiteral(segments, literal);
+        return new ChatFormat(format, segments.toArray(new Segment[0]));
+    }
+
+    /**
+     * Gets the format the template was compiled from.
+     *
+     * @return The source format.
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * Renders the format for a chat message.
+     * The placeholders are resolved through the sender's format cache, and every '%' sign of the result is escaped.
+     *
+     * @param source  The player who sent the message.
+     * @param cache   The format cache of the sender.
+     * @param message The chat message.
+     * @return The rendered chat line.
+     */
+    public String render(@NotNull Player source, @NotNull ChatFormatCache cache, @NotNull String message) {
+        StringBuilder builder = new StringBuilder(literalLength + message.length() + 32);
+        for (Segment segment : segments) {
+            switch (segment.type()) {
+                case LITERAL -> builder.append(segment.value());
+                case PLACEHOLDER -> appendEscaped(builder, cache.getPlaceholder(source, segment.value()));
+                case PLAYER -> appendEscaped(builder, source.getName());
+                case DISPLAY_NAME -> appendEscaped(builder, PlayerUtil.getPlayerPlainDisplayName(source));
+                case MESSAGE -> appendEscaped(builder, message);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isPlaceholderName(String format, int start, int end) {
+        boolean underscore = false;
+        for (int i = start; i < end; i++) {
+            char c = format.charAt(i);
+            if (Character.isWhitespace(c))
+                return false;
+            if (c == '_')
+                underscore = true;
+        }
+        return underscore;
+    }
+
+    private static void flushLiteral(List<Segment> segments, StringBuilder literal) {
+        if (literal.isEmpty())
+            return;
+        segments.add(new Segment(ESegmentType.LITERAL, literal.toString()));
+        literal.setLength(0);
+    }
+
+    private static void appendEscaped(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            appendEscaped(builder, value.charAt(i));
+        }
+    }
+
+    private static void appendEscaped(StringBuilder builder, char c) {
+        if (c == '%')
+            builder.append("%%");
+        else
+            builder.append(c);
+    }
+}
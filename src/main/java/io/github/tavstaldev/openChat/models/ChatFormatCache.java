@@ -0,0 +1,66 @@
+package io.github.tavstaldev.openChat.models;
+
+import io.github.tavstaldev.openChat.managers.IPermissionManager;
+import me.clip.placeholderapi.PlaceholderAPI;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A short-lived cache of the values a player's chat format is rendered with.
+ * <br/>
+ * Keeps the player's primary group and the resolved PlaceholderAPI placeholders for a second, so a player sending
+ * several messages in a row does not ask the permission plugin and the expansions again for every message. The
+ * deadlines are {@link System#nanoTime()} values, like the ones of the {@link Cooldown}.
+ */
+public final class ChatFormatCache {
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(1); // How long a resolved value is reused.
+    private volatile Entry group; // The primary group of the player, null until first resolved.
+    private final Map<String, Entry> placeholders = new ConcurrentHashMap<>(); // The resolved placeholders.
+
+    /**
+     * A resolved value and the nanoTime at which it expires.
+     */
+    private record Entry(@Nullable String value, long deadline) {
+        boolean isExpired(long now) {
+            return now - deadline >= 0;
+        }
+    }
+
+    /**
+     * Gets the primary group of the player, asking the permission manager only if the cached group has expired.
+     *
+     * @param player            The player.
+     * @param permissionManager The permission manager.
+     * @return The primary group, or null if the player has none.
+     */
+    public @Nullable String getPrimaryGroup(Player player, IPermissionManager permissionManager) {
+        long now = System.nanoTime();
+        Entry current = group;
+        if (current == null || current.isExpired(now)) {
+            current = new Entry(permissionManager.getPrimaryGroup(player), now + TTL_NANOS);
+            group = current;
+        }
+        return current.value();
+    }
+
+    /**
+     * Gets the value of a placeholder for the player, resolving it only if the cached value has expired.
+     *
+     * @param player      The player.
+     * @param placeholder The placeholder, with its '%' signs.
+     * @return The resolved value, or the placeholder itself if no expansion handles it.
+     */
+    public String getPlaceholder(Player player, String placeholder) {
+        long now = System.nanoTime();
+        Entry current = placeholders.get(placeholder);
+        if (current == null || current.isExpired(now)) {
+            current = new Entry(PlaceholderAPI.setPlaceholders(player, placeholder), now + TTL_NANOS);
+            placeholders.put(placeholder, current);
+        }
+        return current.value();
+    }
+}
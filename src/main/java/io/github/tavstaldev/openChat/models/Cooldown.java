@@ -0,0 +1,86 @@
+package io.github.tavstaldev.openChat.models;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cooldown backed by a monotonic {@link System#nanoTime()} deadline.
+ * <br/>
+ * Unlike wall-clock timestamps, the deadline is not affected by clock adjustments, and checking it
+ * does not allocate. Deadlines are compared by their difference to the current time, as required
+ * for nanoTime values, so the cooldown stays correct even if the counter overflows.
+ */
+public final class Cooldown {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private volatile long deadline; // The nanoTime at which the cooldown expires.
+
+    /**
+     * Creates a cooldown that has already expired.
+     */
+    public Cooldown() {
+        deadline = System.nanoTime();
+    }
+
+    /**
+     * Starts the cooldown, replacing the previous deadline.
+     *
+     * @param duration The duration of the cooldown.
+     * @param unit     The unit of the duration.
+     */
+    public void start(long duration, TimeUnit unit) {
+        deadline = System.nanoTime() + unit.toNanos(duration);
+    }
+
+    /**
+     * Starts the cooldown for the given number of seconds, replacing the previous deadline.
+     *
+     * @param seconds The duration of the cooldown in seconds.
+     */
+    public void startSeconds(long seconds) {
+        start(seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Expires the cooldown.
+     */
+    public void reset() {
+        deadline = System.nanoTime();
+    }
+
+    /**
+     * Checks if the cooldown is still active.
+     *
+     * @return True if the cooldown has not expired yet, false otherwise.
+     */
+    public boolean isActive() {
+        return deadline - System.nanoTime() > 0;
+    }
+
+    /**
+     * Gets the time remaining until the cooldown expires.
+     *
+     * @return The remaining time in nanoseconds, or 0 if the cooldown has expired.
+     */
+    public long getRemainingNanos() {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    /**
+     * Gets the time remaining until the cooldown expires, rounded up to whole seconds,
+     * so an active cooldown never shows 0 seconds.
+     *
+     * @return The remaining time in seconds, or 0 if the cooldown has expired.
+     */
+    public long getRemainingSeconds() {
+        return toDisplaySeconds(getRemainingNanos());
+    }
+
+    /**
+     * Converts a remaining time to whole seconds, rounding up so a pending wait never shows 0 seconds.
+     *
+     * @param nanos The remaining time in nanoseconds.
+     * @return The remaining time in seconds.
+     */
+    public static long toDisplaySeconds(long nanos) {
+        return (Math.max(0, nanos) + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+}
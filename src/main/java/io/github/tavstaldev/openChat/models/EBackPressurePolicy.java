@@ -0,0 +1,16 @@
+package io.github.tavstaldev.openChat.models;
+
+/**
+ * The EBackPressurePolicy enum represents what happens to a new violation when the violation queue is full,
+ * because the database can not keep up with the writes.
+ */
+public enum EBackPressurePolicy {
+    /** Drops the new violation, the queued ones are kept. */
+    DROP_NEWEST,
+
+    /** Drops the oldest queued violation to make room for the new one. */
+    DROP_OLDEST,
+
+    /** Waits a limited time for room in the queue, then drops the new violation. */
+    BLOCK
+}
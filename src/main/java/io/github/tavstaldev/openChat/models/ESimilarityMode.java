@@ -0,0 +1,12 @@
+package io.github.tavstaldev.openChat.models;
+
+/**
+ * The ESimilarityMode enum represents the ways repeated messages and commands are detected.
+ */
+public enum ESimilarityMode {
+    /** Compares the SimHash fingerprints of the messages, in constant time. */
+    FINGERPRINT,
+
+    /** Compares the messages with the Jaro-Winkler similarity, slower but more precise. */
+    EXACT
+}
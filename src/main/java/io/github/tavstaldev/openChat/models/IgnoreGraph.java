@@ -0,0 +1,139 @@
+package io.github.tavstaldev.openChat.models;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.util.SchedulerUtil;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ignore lists of the online players, indexed in both directions.
+ * <br/>
+ * Besides the players each online player ignores, the graph also keeps the online players who ignore a player.
+ * The chat can then find every viewer who ignores the sender with a single lookup, instead of checking the ignore
+ * list of each viewer. Lookups never lock, the changes are synchronized on the graph.
+ */
+public class IgnoreGraph {
+    private final Map<UUID, Set<UUID>> ignoring = new ConcurrentHashMap<>(); // The players ignored by each loaded player.
+    private final Map<UUID, Set<UUID>> ignoredBy = new ConcurrentHashMap<>(); // The loaded players ignoring each player.
+
+    /**
+     * Loads the ignore list of a player, replacing the previous one.
+     *
+     * @param playerId The UUID of the player.
+     * @param ignored  The players ignored by the player.
+     */
+    public synchronized void load(UUID playerId, Collection<UUID> ignored) {
+        unload(playerId);
+        Set<UUID> forward = ConcurrentHashMap.newKeySet();
+        forward.addAll(ignored);
+        ignoring.put(playerId, forward);
+        for (UUID ignoredId : ignored)
+            ignoredBy.computeIfAbsent(ignoredId, key -> ConcurrentHashMap.newKeySet()).add(playerId);
+    }
+
+    /**
+     * Loads the ignore list of an online player from the database, and adds it on the main thread.
+     * Nothing is loaded if the player left meanwhile, the main thread keeps a quit from coming between the check and the load.
+     *
+     * @param player The player.
+     */
+    public void loadAsync(Player player) {
+        SchedulerUtil.thenSync(OpenChat.asyncDatabase().getIgnoredPlayers(player.getUniqueId()), ignored -> ignored.ifPresent(set -> {
+            if (player.isOnline())
+                load(player.getUniqueId(), set);
+        }));
+    }
+
+    /**
+     * Removes the ignore list of a player, for example when they leave the server.
+     *
+     * @param playerId The UUID of the player.
+     */
+    public synchronized void unload(UUID playerId) {
+        Set<UUID> forward = ignoring.remove(playerId);
+        if (forward == null)
+            return;
+
+        for (UUID ignoredId : forward)
+            removeIgnorer(ignoredId, playerId);
+    }
+
+    /**
+     * Adds a player to the ignore list of a loaded player.
+     *
+     * @param playerId  The UUID of the player adding the ignore.
+     * @param ignoredId The UUID of the ignored player.
+     */
+    public synchronized void add(UUID playerId, UUID ignoredId) {
+        Set<UUID> forward = ignoring.get(playerId);
+        if (forward == null)
+            return;
+
+        forward.add(ignoredId);
+        ignoredBy.computeIfAbsent(ignoredId, key -> ConcurrentHashMap.newKeySet()).add(playerId);
+    }
+
+    /**
+     * Removes a player from the ignore list of a loaded player.
+     *
+     * @param playerId  The UUID of the player removing the ignore.
+     * @param ignoredId The UUID of the player no longer ignored.
+     */
+    public synchronized void remove(UUID playerId, UUID ignoredId) {
+        Set<UUID> forward = ignoring.get(playerId);
+        if (forward == null)
+            return;
+
+        forward.remove(ignoredId);
+        removeIgnorer(ignoredId, playerId);
+    }
+
+    /**
+     * Checks if the ignore list of a player is loaded.
+     *
+     * @param playerId The UUID of the player.
+     * @return True if the ignore list is loaded, false otherwise.
+     */
+    public boolean isLoaded(UUID playerId) {
+        return ignoring.containsKey(playerId);
+    }
+
+    /**
+     * Checks if a loaded player ignores another player.
+     *
+     * @param playerId  The UUID of the player.
+     * @param ignoredId The UUID of the other player.
+     * @return True if the ignore list of the player is loaded and contains the other player, false otherwise.
+     */
+    public boolean isIgnoring(UUID playerId, UUID ignoredId) {
+        Set<UUID> forward = ignoring.get(playerId);
+        return forward != null && forward.contains(ignoredId);
+    }
+
+    /**
+     * Gets the loaded players who ignore a player.
+     *
+     * @param playerId The UUID of the ignored player.
+     * @return A read-only view of the players ignoring the player.
+     */
+    public Set<UUID> getIgnorers(UUID playerId) {
+        Set<UUID> reverse = ignoredBy.get(playerId);
+        return reverse == null ? Set.of() : Collections.unmodifiableSet(reverse);
+    }
+
+    private void removeIgnorer(UUID ignoredId, UUID playerId) {
+        Set<UUID> reverse = ignoredBy.get(ignoredId);
+        if (reverse == null)
+            return;
+
+        reverse.remove(playerId);
+        if (reverse.isEmpty())
+            ignoredBy.remove(ignoredId);
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.tavstaldev.openChat.models;
+
+import io.github.tavstaldev.openChat.util.FingerprintUtil;
+import io.github.tavstaldev.openChat.util.NormalizedText;
+import io.github.tavstaldev.openChat.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The last messages of a player, used to detect repeated messages.
+ * <br/>
+ * Each message is kept with its SimHash fingerprint in a ring buffer. In {@link ESimilarityMode#FINGERPRINT} mode,
+ * a new message is compared with the whole window by the Hamming distance of the fingerprints, which takes a few
+ * instructions per entry regardless of the message length. {@link ESimilarityMode#EXACT} mode compares the
+ * messages themselves with the Jaro-Winkler similarity instead.
+ */
+public final class MessageHistory {
+    private long[] fingerprints = new long[0];
+    private String[] messages = new String[0];
+    private int size; // The number of stored messages.
+    private int next; // The index the next message is stored at.
+
+    /**
+     * Counts the stored messages that are similar to the new message, then stores the new message.
+     *
+     * @param text      The normalized new message.
+     * @param mode      The way the messages are compared.
+     * @param window    The number of messages to keep.
+     * @param threshold The similarity from which messages count as similar, between 0.0 and 1.0.
+     * @return The number of similar messages in the window, not counting the new message.
+     */
+    public synchronized int record(@NotNull NormalizedText text, @NotNull ESimilarityMode mode, int window, double threshold) {
+        if (fingerprints.length != Math.max(1, window))
+            resize(Math.max(1, window));
+
+        String message = text.getOriginal();
+        long fingerprint = FingerprintUtil.simHash(text);
+        int similar = 0;
+        for (int i = 0; i < size; i++) {
+            double similarity = mode == ESimilarityMode.EXACT
+                    ? StringUtil.similarity(message, messages[i])
+                    : FingerprintUtil.similarity(fingerprint, fingerprints[i]);
+            if (similarity >= threshold)
+                similar++;
+        }
+
+        fingerprints[next] = fingerprint;
+        messages[next] = message;
+        next = (next + 1) % fingerprints.length;
+        if (size < fingerprints.length)
+            size++;
+        return similar;
+    }
+
+    /**
+     * Changes the number of kept messages, keeping the most recent ones.
+     */
+    private void resize(int capacity) {
+        long[] newFingerprints = new long[capacity];
+        String[] newMessages = new String[capacity];
+        int kept = Math.min(size, capacity);
+        for (int i = 0; i < kept; i++) {
+            // Copy from the oldest kept message to the newest
+            int index = Math.floorMod(next - kept + i, fingerprints.length);
+            newFingerprints[i] = fingerprints[index];
+            newMessages[i] = messages[index];
+        }
+        fingerprints = newFingerprints;
+        messages = newMessages;
+        size = kept;
+        next = kept % capacity;
+    }
+}
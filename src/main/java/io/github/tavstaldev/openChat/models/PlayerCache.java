@@ -2,39 +2,43 @@ package io.github.tavstaldev.openChat.models;
 
 import io.github.tavstaldev.openChat.OpenChat;
 import io.github.tavstaldev.openChat.config.ModerationConfig;
-import io.github.tavstaldev.openChat.util.StringUtil;
+import io.github.tavstaldev.openChat.util.NormalizedText;
+import io.github.tavstaldev.openChat.util.TextNormalizer;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.Nullable;
 
-import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
  * Represents a cache for storing player-specific data related to chat and command usage.
  * Tracks the last chat message, command, spam counts, and delays for a player.
+ * <br/>
+ * The cache is shared between the async chat threads and the main thread. Single values are volatile,
+ * and the updates that read and write several of them are synchronized on the cache.
  */
 public class PlayerCache {
     private final Player _player; // The player associated with this cache.
-    private String lastChatMessage = ""; // The last chat message sent by the player.
-    private int chatSpamCount = 0; // The number of consecutive duplicate chat messages.
-    private LocalDateTime chatMessageDelay; // The timestamp of the last allowed chat message.
-    private String lastCommand = ""; // The last command executed by the player.
-    private int commandSpamCount = 0; // The number of consecutive duplicate commands.
-    private LocalDateTime commandDelay; // The timestamp of the last allowed command.
-    private UUID lastRepliedTo = null; // The UUID of the last player who sent a private message to this player.
-    private LocalDateTime mentionCooldown; // The timestamp of the last mention notification.
+    private volatile String lastChatMessage = ""; // The last chat message sent by the player.
+    private volatile int chatSpamCount = 0; // The number of recent chat messages similar to the last one.
+    private final MessageHistory chatHistory = new MessageHistory(); // The recent chat messages.
+    private final TokenBucket chatBucket = new TokenBucket(); // The rate limit of the chat messages.
+    private volatile String lastCommand = ""; // The last command executed by the player.
+    private volatile int commandSpamCount = 0; // The number of recent commands similar to the last one.
+    private final MessageHistory commandHistory = new MessageHistory(); // The recent commands.
+    private final TokenBucket commandBucket = new TokenBucket(); // The rate limit of the commands.
+    private volatile UUID lastRepliedTo = null; // The UUID of the last player who sent a private message to this player.
+    private final Cooldown mentionCooldown = new Cooldown(); // The delay until the next mention notification.
+    private final ViolationCounter violationCounter = new ViolationCounter(); // The active violations of the player.
+    private final ChatFormatCache chatFormatCache = new ChatFormatCache(); // The values the chat format is rendered with.
 
     /**
      * Constructs a PlayerCache for the specified player.
-     * Initializes chat and command delays to allow immediate usage after joining.
+     * The rate limits start full, so the player can chat and use commands immediately after joining.
      *
      * @param player The player associated with this cache.
      */
     public PlayerCache(Player player) {
         this._player = player;
-        // Make sure the player can chat/command immediately after joining
-        chatMessageDelay = LocalDateTime.now().minusHours(1);
-        commandDelay = LocalDateTime.now().minusHours(1);
     }
 
     /**
@@ -47,7 +51,7 @@ public class PlayerCache {
     }
 
     /**
-     * Retrieves the number of consecutive duplicate chat messages sent by the player.
+     * Retrieves the number of recent chat messages that are similar to the last chat message.
      *
      * @return The chat spam count.
      */
@@ -57,21 +61,18 @@ public class PlayerCache {
 
     /**
      * Updates the last chat message sent by the player.
-     * Resets the spam count if the message is different, otherwise increments it.
+     * The spam count is set to the number of recent messages that are similar to the new message.
      *
-     * @param message The new chat message.
+     * @param message The normalized new chat message.
      */
-    public void setLastChatMessage(String message) {
+    public synchronized void setLastChatMessage(NormalizedText message) {
         ModerationConfig config = OpenChat.moderationConfig();
         if (!config.antiSpamEnabled)
             return;
 
-        if (StringUtil.similarity(message, this.lastChatMessage) >= config.antiSpamMessageSimilarityThreshold) {
-            chatSpamCount++;
-        } else {
-            chatSpamCount = 0;
-        }
-        this.lastChatMessage = message;
+        chatSpamCount = chatHistory.record(message, config.antiSpamSimilarityMode,
+                config.antiSpamSimilarityWindow, config.antiSpamMessageSimilarityThreshold);
+        this.lastChatMessage = message.getOriginal();
     }
 
     /**
@@ -84,7 +85,7 @@ public class PlayerCache {
     }
 
     /**
-     * Retrieves the number of consecutive duplicate commands executed by the player.
+     * Retrieves the number of recent commands that are similar to the last command.
      *
      * @return The command spam count.
      */
@@ -94,44 +95,38 @@ public class PlayerCache {
 
     /**
      * Updates the last command executed by the player.
-     * Resets the spam count if the command is different, otherwise increments it.
+     * The spam count is set to the number of recent commands that are similar to the new command,
+     * or to 0 if the command is whitelisted.
      *
      * @param command The new command.
      */
-    public void setLastCommand(String command) {
+    public synchronized void setLastCommand(String command) {
         ModerationConfig config = OpenChat.moderationConfig();
         if (!config.antiSpamEnabled)
             return;
 
-        if (OpenChat.commandCheckerSystem().isSpamWhitelisted(command))
-        {
-            commandSpamCount = 0;
-            this.lastCommand = command;
-            return;
-        }
-
-        if (StringUtil.similarity(command, this.lastCommand) >= config.antiSpamCommandSimilarityThreshold) {
-            commandSpamCount++;
-        } else {
-            commandSpamCount = 0;
-        }
+        int similar = commandHistory.record(TextNormalizer.normalize(command), config.antiSpamSimilarityMode,
+                config.antiSpamSimilarityWindow, config.antiSpamCommandSimilarityThreshold);
+        commandSpamCount = OpenChat.commandCheckerSystem().isSpamWhitelisted(command) ? 0 : similar;
         this.lastCommand = command;
     }
 
-    public LocalDateTime getChatMessageDelay() {
-        return chatMessageDelay;
-    }
-
-    public void setChatMessageDelay(LocalDateTime chatMessageDelay) {
-        this.chatMessageDelay = chatMessageDelay;
-    }
-
-    public LocalDateTime getCommandDelay() {
-        return commandDelay;
+    /**
+     * Retrieves the token bucket limiting the player's chat messages.
+     *
+     * @return The chat token bucket.
+     */
+    public TokenBucket getChatBucket() {
+        return chatBucket;
     }
 
-    public void setCommandDelay(LocalDateTime commandDelay) {
-        this.commandDelay = commandDelay;
+    /**
+     * Retrieves the token bucket limiting the player's commands.
+     *
+     * @return The command token bucket.
+     */
+    public TokenBucket getCommandBucket() {
+        return commandBucket;
     }
 
     public @Nullable UUID getLastRepliedTo() {
@@ -142,11 +137,40 @@ public class PlayerCache {
         this.lastRepliedTo = lastRepliedTo;
     }
 
-    public LocalDateTime getMentionCooldown() {
+    /**
+     * Retrieves the cooldown of the mention notifications sent by the player.
+     *
+     * @return The mention cooldown.
+     */
+    public Cooldown getMentionCooldown() {
         return mentionCooldown;
     }
 
-    public void setMentionCooldown(LocalDateTime mentionCooldown) {
-        this.mentionCooldown = mentionCooldown;
+    /**
+     * Retrieves the counter of the active violations of the player.
+     *
+     * @return The violation counter.
+     */
+    public ViolationCounter getViolationCounter() {
+        return violationCounter;
+    }
+
+    /**
+     * Retrieves the cache of the values the player's chat format is rendered with.
+     *
+     * @return The chat format cache.
+     */
+    public ChatFormatCache getChatFormatCache() {
+        return chatFormatCache;
+    }
+
+    /**
+     * Gets the time until all rate limits of the player are full and all cooldowns have expired.
+     *
+     * @return The remaining time in nanoseconds, or 0 if none of them is active.
+     */
+    public long getRemainingCooldownNanos() {
+        return Math.max(chatBucket.getRemainingNanos(),
+                Math.max(commandBucket.getRemainingNanos(), mentionCooldown.getRemainingNanos()));
     }
-}
\ No newline at end of file
+}
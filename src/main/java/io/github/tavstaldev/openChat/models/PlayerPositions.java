@@ -0,0 +1,100 @@
+package io.github.tavstaldev.openChat.models;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * The online player positions, for finding the players near a chat message.
+ * <br/>
+ * The positions are refreshed on the main thread by the {@link io.github.tavstaldev.openChat.tasks.PlayerPositionTask},
+ * so the async chat threads can read them without touching the live players. Every player keeps its position object
+ * between the refreshes, so a refresh only allocates for the players who joined since the last one. A lookup returns
+ * a check of the viewers instead of collecting the players in range, it compares squared distances without
+ * allocating locations.
+ * <br/>
+ * A lookup running during a refresh can read a position with coordinates of two consecutive ticks, which is off by
+ * at most the movement of one tick.
+ */
+public class PlayerPositions {
+    private final Map<UUID, Position> positions = new ConcurrentHashMap<>(); // The positions of the last refresh.
+    private final Location location = new Location(null, 0, 0, 0); // Reused by the refreshes on the main thread.
+    private long generation; // The number of the refreshes, only used on the main thread.
+
+    /**
+     * The position of a player at the last refresh, updated in place.
+     */
+    private static final class Position {
+        private volatile UUID worldId;
+        private volatile double x, y, z;
+        private long generation; // The refresh that last saw the player, only used on the main thread.
+    }
+
+    /**
+     * Updates the positions from the current player locations, and removes the players who are no longer online.
+     * Must be called on the main thread.
+     *
+     * @param players The online players.
+     */
+    public void refresh(Collection<? extends Player> players) {
+        long current = ++generation;
+        for (Player player : players) {
+            Position position = positions.computeIfAbsent(player.getUniqueId(), key -> new Position());
+            player.getLocation(location);
+            position.worldId = player.getWorld().getUID();
+            position.x = location.getX();
+            position.y = location.getY();
+            position.z = location.getZ();
+            position.generation = current;
+        }
+        location.setWorld(null);
+
+        // Every online player was seen, so only the ones who quit have an older generation
+        if (positions.size() > players.size())
+            positions.values().removeIf(position -> position.generation != current);
+    }
+
+    /**
+     * Removes every position, for example when the local chat is disabled.
+     */
+    public void clear() {
+        positions.clear();
+    }
+
+    /**
+     * Gets a check of whether a player is in the same world within the distance of another player.
+     * The position of the player is read once, the viewers are looked up when they are tested.
+     *
+     * @param playerId The UUID of the player.
+     * @param distance The distance in blocks.
+     * @return The check of the UUIDs of the viewers, true for the player itself, or null if the player was not online
+     * at the last refresh.
+     */
+    public @Nullable Predicate<UUID> withinDistanceOf(UUID playerId, double distance) {
+        Position center = positions.get(playerId);
+        if (center == null)
+            return null;
+
+        UUID worldId = center.worldId;
+        double centerX = center.x;
+        double centerY = center.y;
+        double centerZ = center.z;
+        double distanceSquared = distance * distance;
+        return viewerId -> {
+            Position position = positions.get(viewerId);
+            if (position == null || !worldId.equals(position.worldId))
+                return false;
+
+            double dx = position.x - centerX;
+            double dy = position.y - centerY;
+            double dz = position.z - centerZ;
+            return dx * dx + dy * dy + dz * dz <= distanceSquared;
+        };
+    }
+}
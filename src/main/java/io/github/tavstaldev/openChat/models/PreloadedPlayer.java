@@ -0,0 +1,68 @@
+package io.github.tavstaldev.openChat.models;
+
+import io.github.tavstaldev.openChat.models.database.PlayerData;
+import io.github.tavstaldev.openChat.models.database.ViolationData;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Represents the state of a player loaded from the database while they were logging in,
+ * handed over to the join event so it does not have to wait for the database.
+ */
+public class PreloadedPlayer {
+    private final Optional<PlayerData> playerData; // The settings of the player.
+    private final Set<UUID> ignoredPlayers; // The players ignored by the player.
+    private final Set<ViolationData> activeViolations; // The violations of the player that are still active.
+    private final long loadedAt = System.nanoTime(); // The time the state was loaded.
+
+    /**
+     * Constructs a PreloadedPlayer.
+     *
+     * @param playerData       The settings of the player, or empty if they could not be loaded.
+     * @param ignoredPlayers   The players ignored by the player.
+     * @param activeViolations The violations of the player that are still active.
+     */
+    public PreloadedPlayer(Optional<PlayerData> playerData, Set<UUID> ignoredPlayers, Set<ViolationData> activeViolations) {
+        this.playerData = playerData;
+        this.ignoredPlayers = ignoredPlayers;
+        this.activeViolations = activeViolations;
+    }
+
+    /**
+     * Retrieves the settings of the player.
+     *
+     * @return An Optional containing the player's data, or empty if it could not be loaded.
+     */
+    public Optional<PlayerData> getPlayerData() {
+        return playerData;
+    }
+
+    /**
+     * Retrieves the players ignored by the player.
+     *
+     * @return The UUIDs of the ignored players.
+     */
+    public Set<UUID> getIgnoredPlayers() {
+        return ignoredPlayers;
+    }
+
+    /**
+     * Retrieves the violations of the player that were active at login.
+     *
+     * @return The active violations.
+     */
+    public Set<ViolationData> getActiveViolations() {
+        return activeViolations;
+    }
+
+    /**
+     * Retrieves the time the state was loaded.
+     *
+     * @return The {@link System#nanoTime()} of the load.
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+}
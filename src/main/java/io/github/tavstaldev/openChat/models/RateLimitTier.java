@@ -0,0 +1,117 @@
+package io.github.tavstaldev.openChat.models;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import org.bukkit.permissions.Permissible;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The token bucket settings of the chat and command rate limits, optionally bound to a permission.
+ */
+public class RateLimitTier {
+    private final @Nullable String permission; // Null for the default tier.
+    private final long chatIntervalNanos;
+    private final int chatBurst;
+    private final long commandIntervalNanos;
+    private final int commandBurst;
+
+    /**
+     * Creates a new tier.
+     *
+     * @param permission   The permission required for the tier, or null for the default tier.
+     * @param chatDelay    The time in seconds it takes to refill one chat message.
+     * @param chatBurst    The number of chat messages allowed in quick succession.
+     * @param commandDelay The time in seconds it takes to refill one command.
+     * @param commandBurst The number of commands allowed in quick succession.
+     */
+    public RateLimitTier(@Nullable String permission, double chatDelay, int chatBurst, double commandDelay, int commandBurst) {
+        this.permission = permission;
+        this.chatIntervalNanos = toNanos(chatDelay);
+        this.chatBurst = Math.max(1, chatBurst);
+        this.commandIntervalNanos = toNanos(commandDelay);
+        this.commandBurst = Math.max(1, commandBurst);
+    }
+
+    public @Nullable String getPermission() {
+        return permission;
+    }
+
+    public long getChatIntervalNanos() {
+        return chatIntervalNanos;
+    }
+
+    public int getChatBurst() {
+        return chatBurst;
+    }
+
+    public long getCommandIntervalNanos() {
+        return commandIntervalNanos;
+    }
+
+    public int getCommandBurst() {
+        return commandBurst;
+    }
+
+    /**
+     * Finds the tier of a player.
+     *
+     * @param permissible The player to find the tier of.
+     * @param tiers       The permission tiers, in priority order.
+     * @param fallback    The tier used if the player has none of the permissions.
+     * @return The first tier whose permission the player has, or the fallback tier.
+     */
+    public static @NotNull RateLimitTier resolve(@NotNull Permissible permissible, @NotNull List<RateLimitTier> tiers, @NotNull RateLimitTier fallback) {
+        for (int i = 0; i < tiers.size(); i++) {
+            RateLimitTier tier = tiers.get(i);
+            if (permissible.hasPermission(tier.permission))
+                return tier;
+        }
+        return fallback;
+    }
+
+    /**
+     * Parses a permission tier from the configuration.
+     * Missing values are taken from the fallback tier.
+     *
+     * @param map      The map of the tier.
+     * @param fallback The tier providing the missing values.
+     * @return The tier, or null if the map is invalid.
+     */
+    public static @Nullable RateLimitTier fromMap(Map<?, ?> map, @NotNull RateLimitTier fallback) {
+        if (map == null) {
+            return null;
+        }
+
+        try {
+            String permission = (String) map.get("permission");
+            if (permission == null || permission.isBlank()) {
+                return null;
+            }
+            Number chatDelay = (Number) map.get("chatDelay");
+            Number chatBurst = (Number) map.get("chatBurst");
+            Number commandDelay = (Number) map.get("commandDelay");
+            Number commandBurst = (Number) map.get("commandBurst");
+            return new RateLimitTier(permission,
+                    chatDelay == null ? toSeconds(fallback.chatIntervalNanos) : chatDelay.doubleValue(),
+                    chatBurst == null ? fallback.chatBurst : chatBurst.intValue(),
+                    commandDelay == null ? toSeconds(fallback.commandIntervalNanos) : commandDelay.doubleValue(),
+                    commandBurst == null ? fallback.commandBurst : commandBurst.intValue());
+        }
+        catch (Exception ex) {
+            OpenChat.logger().error("Error parsing RateLimitTier from map: \n" + ex.getMessage());
+            return null;
+        }
+    }
+
+    private static long toNanos(double seconds) {
+        return seconds <= 0 ? 0 : (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static double toSeconds(long nanos) {
+        return (double) nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+}
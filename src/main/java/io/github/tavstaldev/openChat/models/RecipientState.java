@@ -0,0 +1,60 @@
+package io.github.tavstaldev.openChat.models;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.GeneralConfig;
+import io.github.tavstaldev.openChat.models.database.EMentionDisplay;
+import io.github.tavstaldev.openChat.models.database.EMentionPreference;
+import io.github.tavstaldev.openChat.models.database.PlayerData;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The chat settings of an online player, copied from their player data.
+ * The chat reads it for every viewer of every message, and for the sender and the mentioned players, so it is
+ * immutable and replaced as a whole when the settings change.
+ *
+ * @param socialSpyEnabled   Whether the player has social spy enabled. The permission is checked separately.
+ * @param publicChatDisabled Whether the player has disabled the public chat.
+ * @param messageColor       The color of the messages of the player, or null if none.
+ * @param mentionSound       The sound to play when the player is mentioned.
+ * @param mentionDisplay     The display style for mentions.
+ * @param mentionPreference  The preference of the player for handling mentions.
+ */
+public record RecipientState(boolean socialSpyEnabled, boolean publicChatDisabled, @Nullable String messageColor,
+                             String mentionSound, EMentionDisplay mentionDisplay, EMentionPreference mentionPreference) {
+
+    /**
+     * Creates the state from the data of a player.
+     *
+     * @param data The player data.
+     * @return The recipient state.
+     */
+    public static RecipientState of(PlayerData data) {
+        return new RecipientState(data.isSocialSpyEnabled(), data.isPublicChatDisabled(), data.getMessageColor(),
+                data.getMentionSound(), data.getMentionDisplay(), data.getMentionPreference());
+    }
+
+    /**
+     * Creates the state of a new player, used while the data of a player is still loading.
+     *
+     * @return The recipient state with the default settings.
+     */
+    public static RecipientState defaults() {
+        GeneralConfig config = OpenChat.config();
+        return new RecipientState(false, false, null, config.mentionsDefaultSound,
+                EMentionDisplay.valueOf(config.mentionsDefaultDisplay),
+                EMentionPreference.valueOf(config.mentionsDefaultPreference));
+    }
+
+    /**
+     * Applies the message color of the player to a message.
+     *
+     * @param message The message.
+     * @return The message in the color of the player, or the message itself if the player has no color.
+     */
+    public String formatMessage(String message) {
+        if (messageColor != null) {
+            return String.format("<color:%s>%s</color:%s>", messageColor, message, messageColor);
+        }
+        return message;
+    }
+}
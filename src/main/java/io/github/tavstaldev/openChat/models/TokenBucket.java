@@ -0,0 +1,63 @@
+package io.github.tavstaldev.openChat.models;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket, implemented as a generic cell rate algorithm (GCRA).
+ * <br/>
+ * Instead of a token count and a refill timestamp, the bucket only stores the theoretical arrival time:
+ * the {@link System#nanoTime()} at which the bucket would be full again. A request is allowed if it does not
+ * push that time more than {@code burst} intervals into the future. The whole state is a single long,
+ * so a request is checked and consumed with one compare-and-set, without locks or allocations.
+ */
+public final class TokenBucket {
+    private final AtomicLong theoreticalArrival; // The nanoTime at which the bucket is full again.
+
+    /**
+     * Creates a full bucket.
+     */
+    public TokenBucket() {
+        theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Tries to take a token from the bucket.
+     *
+     * @param intervalNanos The time in nanoseconds it takes to refill one token. Values below 1 disable the limit.
+     * @param burst         The capacity of the bucket, the number of requests allowed in quick succession.
+     * @return 0 if a token was taken, otherwise the time in nanoseconds until the next token is available.
+     */
+    public long tryAcquire(long intervalNanos, int burst) {
+        if (intervalNanos < 1)
+            return 0;
+
+        long tolerance = intervalNanos * (Math.max(1, burst) - 1);
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            // An empty history is treated as a full bucket
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long wait = next - now - intervalNanos - tolerance;
+            if (wait > 0)
+                return wait;
+            if (theoreticalArrival.compareAndSet(current, next))
+                return 0;
+        }
+    }
+
+    /**
+     * Gets the time until the bucket is full again.
+     *
+     * @return The remaining time in nanoseconds, or 0 if the bucket is full.
+     */
+    public long getRemainingNanos() {
+        return Math.max(0, theoreticalArrival.get() - System.nanoTime());
+    }
+
+    /**
+     * Refills the bucket.
+     */
+    public void reset() {
+        theoreticalArrival.set(System.nanoTime());
+    }
+}
@@ -0,0 +1,151 @@
+package io.github.tavstaldev.openChat.models;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.models.database.ViolationData;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Counts the active violations of a player by type in memory, so the violation actions do not have to wait for the
+ * database.
+ * <br/>
+ * A violation is active until the violation reset time passed since it was committed. Each type has a ring of
+ * {@value #BUCKETS} time buckets spanning the reset time, and a running total of the ring, so both recording and
+ * counting take constant time. The window moves by whole buckets, so a violation expires up to one bucket earlier
+ * than its exact reset time.
+ * <br/>
+ * The violations committed before the counter was created are loaded from the database once, with
+ * {@link #load(Collection)}.
+ */
+public class ViolationCounter {
+    private static final int BUCKETS = 60; // The number of buckets in the reset time.
+    private static final int TYPES = EViolationType.values().length;
+    private final long createdAt = System.currentTimeMillis(); // Violations before this are loaded from the database.
+    private final int[][] buckets = new int[TYPES][]; // The violation counts of the buckets by type, created on first use.
+    private final long[] heads = new long[TYPES]; // The index of the newest bucket by type.
+    private final int[] totals = new int[TYPES]; // The sum of the buckets by type.
+    private long duration; // The reset time the buckets were sized for.
+    private long bucketMillis; // The time span of a bucket.
+    private boolean loaded = false; // Whether the earlier violations were loaded.
+
+    /**
+     * Counts a new violation.
+     *
+     * @param type      The type of the violation.
+     * @param timestamp The time of the violation in milliseconds.
+     * @return The number of active violations of the type, including the new one.
+     */
+    public synchronized int record(EViolationType type, long timestamp) {
+        int[] ring = advance(type, timestamp);
+        int index = type.ordinal();
+        ring[Math.floorMod(heads[index], BUCKETS)]++;
+        return ++totals[index];
+    }
+
+    /**
+     * Gets the number of active violations of a type.
+     *
+     * @param type The type of the violations.
+     * @return The number of active violations.
+     */
+    public synchronized int getCount(EViolationType type) {
+        if (buckets[type.ordinal()] == null)
+            return 0;
+        advance(type, System.currentTimeMillis());
+        return totals[type.ordinal()];
+    }
+
+    /**
+     * Adds the active violations stored in the database before the counter was created.
+     * Only the first call has an effect, the later violations are already counted by {@link #record}.
+     *
+     * @param violations The active violations of the player.
+     */
+    public synchronized void load(Collection<ViolationData> violations) {
+        if (loaded)
+            return;
+        loaded = true;
+
+        long now = System.currentTimeMillis();
+        for (ViolationData violation : violations) {
+            if (violation.getTimestamp() >= createdAt)
+                continue;
+
+            EViolationType type = violation.getType();
+            int[] ring = advance(type, now);
+            long bucket = Math.floorDiv(violation.getTimestamp(), bucketMillis);
+            long age = heads[type.ordinal()] - bucket;
+            if (age < 0 || age >= BUCKETS)
+                continue;
+
+            ring[Math.floorMod(bucket, BUCKETS)]++;
+            totals[type.ordinal()]++;
+        }
+    }
+
+    /**
+     * Moves the window of a type forward to the given time, emptying the buckets that left it.
+     * Must be called while holding the lock.
+     *
+     * @param type The type of the violations.
+     * @param now  The current time in milliseconds.
+     * @return The buckets of the type.
+     */
+    private int[] advance(EViolationType type, long now) {
+        resize();
+        int index = type.ordinal();
+        long head = Math.floorDiv(now, bucketMillis);
+        int[] ring = buckets[index];
+        if (ring == null) {
+            ring = new int[BUCKETS];
+            buckets[index] = ring;
+            heads[index] = head;
+            return ring;
+        }
+
+        long steps = head - heads[index];
+        if (steps <= 0)
+            return ring;
+
+        if (steps >= BUCKETS) {
+            Arrays.fill(ring, 0);
+            totals[index] = 0;
+        }
+        else {
+            for (long bucket = heads[index] + 1; bucket <= head; bucket++) {
+                int slot = Math.floorMod(bucket, BUCKETS);
+                totals[index] -= ring[slot];
+                ring[slot] = 0;
+            }
+        }
+        heads[index] = head;
+        return ring;
+    }
+
+    /**
+     * Sizes the buckets for the configured reset time.
+     * When the reset time changed since the last call, the active violations are kept in the newest bucket, so they
+     * expire a whole reset time later instead of being lost.
+     * Must be called while holding the lock.
+     */
+    private void resize() {
+        long configured = OpenChat.moderationConfig().violationDurationMilliseconds;
+        if (configured == duration)
+            return;
+
+        duration = configured;
+        bucketMillis = Math.max(1, configured / BUCKETS);
+        long head = Math.floorDiv(System.currentTimeMillis(), bucketMillis);
+        for (int index = 0; index < TYPES; index++) {
+            int[] ring = buckets[index];
+            if (ring == null)
+                continue;
+
+            Arrays.fill(ring, 0);
+            heads[index] = head;
+            ring[Math.floorMod(head, BUCKETS)] = totals[index];
+        }
+    }
+}
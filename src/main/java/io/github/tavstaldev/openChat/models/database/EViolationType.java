@@ -5,5 +5,6 @@ public enum EViolationType {
     SPAM_REPETITION,
     CAPS_LOCK,
     CURSE_WORDS,
-    ADVERTISEMENT
+    ADVERTISEMENT,
+    FLOOD
 }
@@ -65,6 +65,16 @@ public class PlayerData {
         this.customLeaveMessage = customLeaveMessage;
     }
 
+    /**
+     * Creates a copy of the player data.
+     *
+     * @return A new PlayerData instance with the same values.
+     */
+    public PlayerData copy() {
+        return new PlayerData(uuid, publicChatDisabled, whisperEnabled, socialSpyEnabled, antiAdLogsEnabled, antiSpamLogsEnabled,
+                antiSwearLogsEnabled, messageColor, mentionSound, mentionDisplay, mentionPreference, customJoinMessage, customLeaveMessage);
+    }
+
     /**
      * Gets the unique identifier for the player.
      *
@@ -4,18 +4,25 @@ import io.github.tavstaldev.minecorelib.core.PluginTranslator;
 import io.github.tavstaldev.openChat.OpenChat;
 import io.github.tavstaldev.openChat.config.ModerationConfig;
 import io.github.tavstaldev.openChat.models.FilterResult;
+import io.github.tavstaldev.openChat.util.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  * System for detecting and preventing advertisements in chat messages.
- * Uses configurable regular expressions to identify advertisements and whitelist patterns.
+ * By default, the messages are checked by the {@link DomainScanner}; the configurable regular
+ * expression is only used when it is enabled in the configuration.
+ * The messages are checked in their normalized form, see {@link TextNormalizer}.
  */
 public class AntiAdvertisementSystem {
-    private final Pattern adPattern; // Pattern to detect advertisements.
-    private final Pattern whitelistPattern; // Pattern to detect whitelisted content.
+    private final DomainScanner scanner; // Scanner for domains and IP addresses, null if the regex is used.
+    private final Pattern adPattern; // Pattern to detect advertisements, null if the scanner is used.
+    private final ThreadLocal<Matcher> adMatcher; // Reusable matcher of the pattern for each thread.
+    private final WhitelistTrie whitelist; // Trie of the whitelisted content, used with the regex.
     private final String highlightStart;
     private final String highlightEnd;
 
@@ -25,16 +32,20 @@ public class AntiAdvertisementSystem {
      */
     public AntiAdvertisementSystem() {
         ModerationConfig config = OpenChat.moderationConfig();
-        adPattern = Pattern.compile(
-                config.antiAdvertisementRegex, // Regex for detecting advertisements.
-                Pattern.CASE_INSENSITIVE // Case-insensitive matching.
-        );
-
-        // Combine all whitelist entries into a single regex pattern.
-        String combinedWhitelistRegex = config.antiAdvertisementWhitelist.stream()
-                .map(Pattern::quote)
-                .collect(Collectors.joining("|"));
-        whitelistPattern = Pattern.compile(combinedWhitelistRegex, Pattern.CASE_INSENSITIVE);
+        if (config.antiAdvertisementUseRegex) {
+            scanner = null;
+            adPattern = Pattern.compile(
+                    config.antiAdvertisementRegex, // Regex for detecting advertisements.
+                    Pattern.CASE_INSENSITIVE // Case-insensitive matching.
+            );
+            adMatcher = ThreadLocal.withInitial(() -> adPattern.matcher(""));
+            whitelist = new WhitelistTrie(config.antiAdvertisementWhitelist);
+        } else {
+            scanner = new DomainScanner(buildDomainWhitelist(config.antiAdvertisementWhitelist));
+            adPattern = null;
+            adMatcher = null;
+            whitelist = null;
+        }
 
         PluginTranslator translator = OpenChat.translator();
         highlightStart = translator.localize("Logging.Highlight.Start");
@@ -43,35 +54,102 @@ public class AntiAdvertisementSystem {
 
     /**
      * Checks if a given message contains an advertisement.
-     * Whitelisted content is removed from the message before checking.
+     * Whitelisted content is ignored.
      *
      * @param message The message to check for advertisements.
      * @return True if the message contains an advertisement, false otherwise.
      */
     public boolean containsAdvertisement(String message) {
-        // Remove whitelisted content from the message.
-        String sanitizedMessage = whitelistPattern.matcher(message).replaceAll("");
-        // Check if the sanitized message matches the advertisement pattern.
-        return adPattern.matcher(sanitizedMessage).find();
+        return containsAdvertisement(TextNormalizer.normalize(message));
+    }
+
+    /**
+     * Checks if a normalized message contains an advertisement.
+     * Whitelisted content is ignored.
+     *
+     * @param text The normalized message to check for advertisements.
+     * @return True if the message contains an advertisement, false otherwise.
+     */
+    public boolean containsAdvertisement(NormalizedText text) {
+        if (scanner != null)
+            return scanner.scan(text, null) > 0;
+
+        NormalizedText filtered = TextNormalizer.removeWhitelisted(text, whitelist);
+        Matcher matcher = adMatcher.get().reset(filtered);
+        boolean found = matcher.find();
+        matcher.reset(""); // Do not keep a reference to the buffer
+        return found;
     }
 
     public FilterResult highlight(String message) {
-        Matcher matcher = adPattern.matcher(message);
+        return highlight(TextNormalizer.normalize(message));
+    }
+
+    /**
+     * Highlights the advertisements of the normalized message in the original message.
+     *
+     * @param text The normalized message to check for advertisements.
+     * @return The result, which is filtered if the message contains an advertisement.
+     */
+    public FilterResult highlight(NormalizedText text) {
+        String message = text.getOriginal();
+        List<int[]> spans = new ArrayList<>();
+        if (scanner != null) {
+            scanner.scan(text, spans);
+        } else {
+            NormalizedText filtered = TextNormalizer.removeWhitelisted(text, whitelist);
+            Matcher matcher = adPattern.matcher(filtered);
+            while (matcher.find()) {
+                if (matcher.end() == matcher.start())
+                    continue;
+                spans.add(new int[]{filtered.getOriginalIndex(matcher.start()), filtered.getOriginalIndex(matcher.end() - 1) + 1});
+            }
+        }
+
         StringBuilder result = new StringBuilder();
         int lastIndex = 0;
-        boolean found = false;
-
-        while (matcher.find()) {
-            result.append(message, lastIndex, matcher.start());
+        for (int[] span : spans) {
+            int start = Math.max(lastIndex, span[0]);
+            result.append(message, lastIndex, start);
             result.append(highlightStart)
-                    .append(message, matcher.start(), matcher.end())
+                    .append(message, start, span[1])
                     .append(highlightEnd);
-            lastIndex = matcher.end();
-            found = true;
+            lastIndex = span[1];
         }
 
         result.append(message.substring(lastIndex));
-        return new FilterResult(found, result.toString());
+        return new FilterResult(!spans.isEmpty(), result.toString());
     }
 
+    /**
+     * Builds the domain whitelist of the scanner.
+     * Entries may contain a scheme, a port and a path; the scheme and the port are ignored.
+     *
+     * @param entries The whitelisted entries.
+     * @return The domain whitelist.
+     */
+    private static DomainTrie buildDomainWhitelist(Set<String> entries) {
+        DomainTrie trie = new DomainTrie();
+        for (String entry : entries) {
+            String normalized = TextNormalizer.normalizeEntry(entry).trim();
+            int schemeEnd = normalized.indexOf("://");
+            if (schemeEnd >= 0)
+                normalized = normalized.substring(schemeEnd + 3);
+
+            String host = normalized;
+            String path = null;
+            int pathStart = normalized.indexOf('/');
+            if (pathStart >= 0) {
+                host = normalized.substring(0, pathStart);
+                path = normalized.substring(pathStart);
+            }
+            int portStart = host.indexOf(':');
+            if (portStart >= 0)
+                host = host.substring(0, portStart);
+
+            if (!host.isEmpty())
+                trie.add(host, path);
+        }
+        return trie;
+    }
 }
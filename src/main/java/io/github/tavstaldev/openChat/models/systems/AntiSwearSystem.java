@@ -1,27 +1,33 @@
 package io.github.tavstaldev.openChat.models.systems;
 
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.core.PluginTranslator;
 import io.github.tavstaldev.openChat.OpenChat;
 import io.github.tavstaldev.openChat.models.FilterResult;
+import io.github.tavstaldev.openChat.util.AhoCorasick;
+import io.github.tavstaldev.openChat.util.NormalizedText;
+import io.github.tavstaldev.openChat.util.TextNormalizer;
+import io.github.tavstaldev.openChat.util.WhitelistTrie;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.*;
 
 /**
  * System for detecting and preventing the use of swear words in chat messages.
  * Uses configurable patterns for banned words and whitelisted content.
+ * <br/>
+ * The banned words are compiled into an Aho-Corasick automaton. Every character that appears in the
+ * banned words or in the character mappings is assigned to a character class; characters in the same
+ * class are interchangeable in every banned word, so the automaton only has to know the classes.
+ * The messages are checked in their normalized form, see {@link TextNormalizer}.
  */
 public class AntiSwearSystem {
-    private final Pattern combinedBannedWordsPattern; // Pattern to detect banned words.
-    private final Pattern highlightPattern; // Pattern to highlight banned words.
-    private final Pattern whitelistPattern; // Pattern to detect whitelisted content.
+    private static final int MAX_VARIANTS = 4096; // Maximum number of class sequences a single word can expand to.
+    private final PluginLogger _logger = OpenChat.logger().withModule(AntiSwearSystem.class);
+    private final char[] characterClasses = new char[Character.MAX_VALUE + 1]; // Class of each lowercase character + 1, 0 if none.
+    private final AhoCorasick bannedWords; // Automaton of the banned words.
+    private final WhitelistTrie whitelist; // Trie of the whitelisted content.
     private final String highlightStart;
     private final String highlightEnd;
 
@@ -30,32 +36,36 @@ public class AntiSwearSystem {
      * Initializes the banned words and whitelist patterns based on the plugin configuration.
      */
     public AntiSwearSystem() {
-        Set<String> bannedWords = new HashSet<>();
         Map<Character, String> characterMappings = getCharacterMappingsFromConfig();
 
-        // Build regex patterns for banned words using character mappings.
-        for (String word : OpenChat.badWordsConfig().getStringList("blacklist")) {
-            StringBuilder regexWord = new StringBuilder();
-            for (char c : word.toCharArray()) {
-                if (characterMappings.containsKey(c)) {
-                    regexWord.append(characterMappings.get(c));
-                } else {
-                    regexWord.append(Pattern.quote(String.valueOf(c))); // Escape special regex characters.
-                }
+        // Resolve the characters accepted by each mapping.
+        Map<Character, Set<Character>> mappedCharacters = new HashMap<>();
+        for (var entry : characterMappings.entrySet()) {
+            Set<Character> characters = parseCharacterClass(entry.getValue());
+            if (characters == null) {
+                _logger.warn(String.format("The character mapping '%s' of '%s' is not a simple character class, the character will be matched literally.", entry.getValue(), entry.getKey()));
+                continue;
             }
-            bannedWords.add(regexWord.toString());
+            mappedCharacters.put(TextNormalizer.lower(entry.getKey()), characters);
         }
 
-        // Combine all whitelist entries into a single regex pattern.
-        String combinedWhitelistRegex = OpenChat.badWordsConfig().getStringList("whitelist").stream()
-                .map(Pattern::quote)
-                .collect(Collectors.joining("|"));
-        whitelistPattern = Pattern.compile(combinedWhitelistRegex, Pattern.CASE_INSENSITIVE);
+        // Turn each banned word into a list of character sets.
+        List<List<Set<Character>>> words = new ArrayList<>();
+        for (String entry : OpenChat.badWordsConfig().getStringList("blacklist")) {
+            String word = TextNormalizer.normalizeEntry(entry);
+            if (word.isEmpty())
+                continue;
+
+            List<Set<Character>> sets = new ArrayList<>(word.length());
+            for (char c : word.toCharArray()) {
+                Set<Character> mapped = mappedCharacters.get(c);
+                sets.add(mapped != null ? mapped : Set.of(TextNormalizer.lower(c)));
+            }
+            words.add(sets);
+        }
 
-        // Combine all banned words into a single regex pattern.
-        String combinedRegex = String.join("|", bannedWords);
-        this.combinedBannedWordsPattern = Pattern.compile("(?i).*(?:" + combinedRegex + ").*", Pattern.CASE_INSENSITIVE);
-        this.highlightPattern = Pattern.compile("(?i)(" + combinedRegex + ")", Pattern.CASE_INSENSITIVE);
+        this.bannedWords = buildAutomaton(words);
+        this.whitelist = new WhitelistTrie(OpenChat.badWordsConfig().getStringList("whitelist"));
 
         PluginTranslator translator = OpenChat.translator();
         highlightStart = translator.localize("Logging.Highlight.Start");
@@ -70,29 +80,237 @@ public class AntiSwearSystem {
      * @return True if the message contains a swear word, false otherwise.
      */
     public boolean containsSwearWord(String message) {
-        // Remove whitelisted content from the message.
-        String sanitizedMessage = whitelistPattern.matcher(message).replaceAll("");
-        // Check if the sanitized message matches the banned words pattern.
-        return combinedBannedWordsPattern.matcher(sanitizedMessage).matches();
+        return containsSwearWord(TextNormalizer.normalize(message));
     }
 
+    /**
+     * Checks if a normalized message contains a swear word.
+     * Whitelisted content is skipped while checking.
+     *
+     * @param text The normalized message to check for swear words.
+     * @return True if the message contains a swear word, false otherwise.
+     */
+    public boolean containsSwearWord(NormalizedText text) {
+        return scan(text, null) > 0;
+    }
+
+    /**
+     * Checks the message and highlights the swear words in it with a single scan.
+     *
+     * @param message The message to check for swear words.
+     * @return The result, which is filtered if the message contains a swear word.
+     */
     public FilterResult highlight(String message) {
-        Matcher matcher = highlightPattern.matcher(message);
-        StringBuilder result = new StringBuilder();
-        int lastIndex = 0;
-        boolean found = false;
+        return highlight(TextNormalizer.normalize(message));
+    }
 
-        while (matcher.find()) {
-            result.append(message, lastIndex, matcher.start());
-            result.append(highlightStart)
-                    .append(message, matcher.start(), matcher.end())
+    /**
+     * Checks the normalized message and highlights the swear words in the original message with a single scan.
+     * Whitelisted content is skipped the same way as in {@link #containsSwearWord(NormalizedText)}.
+     *
+     * @param text The normalized message to check for swear words.
+     * @return The result, which is filtered if the message contains a swear word.
+     */
+    public FilterResult highlight(NormalizedText text) {
+        String message = text.getOriginal();
+        List<int[]> spans = new ArrayList<>();
+        if (scan(text, spans) == 0)
+            return new FilterResult(false, message);
+
+        StringBuilder result = new StringBuilder(message.length() + spans.size() * (highlightStart.length() + highlightEnd.length()));
+        int lastIndex = 0;
+        for (int[] span : spans) {
+            result.append(message, lastIndex, span[0])
+                    .append(highlightStart)
+                    .append(message, span[0], span[1])
                     .append(highlightEnd);
-            lastIndex = matcher.end();
-            found = true;
+            lastIndex = span[1];
+        }
+        result.append(message, lastIndex, message.length());
+        return new FilterResult(true, result.toString());
+    }
+
+    /**
+     * Scans the normalized message for swear words in a single pass.
+     *
+     * @param text  The normalized message to scan.
+     * @param spans The list to collect the merged ranges of the matches into, or null to stop at the first match.
+     *              The ranges are indexes of the original message.
+     * @return The number of matches found.
+     */
+    private int scan(NormalizedText text, List<int[]> spans) {
+        char[] chars = text.getChars();
+        int length = text.length();
+        int[] keptIndexes = spans == null ? null : text.getIndexBuffer(length); // Index of each character that was not whitelisted.
+        int kept = 0;
+        int matches = 0;
+        int state = AhoCorasick.ROOT;
+        int index = 0;
+        while (index < length) {
+            // Skip the whitelisted content, the characters around it are joined like in a replaced message.
+            int whitelisted = whitelist.match(chars, index, length);
+            if (whitelisted > 0) {
+                index += whitelisted;
+                continue;
+            }
+
+            state = bannedWords.next(state, characterClasses[chars[index]] - 1);
+            if (keptIndexes != null)
+                keptIndexes[kept] = index;
+            kept++;
+
+            int matchLength = bannedWords.matchLength(state);
+            if (matchLength > 0) {
+                matches++;
+                if (spans == null)
+                    return matches;
+
+                int start = text.getOriginalIndex(keptIndexes[kept - matchLength]);
+                int end = text.getOriginalIndex(index) + 1;
+                // Merge the overlapping ranges, so each character is highlighted at most once.
+                while (!spans.isEmpty() && spans.getLast()[1] >= start) {
+                    start = Math.min(start, spans.removeLast()[0]);
+                }
+                spans.add(new int[]{start, end});
+            }
+            index++;
+        }
+        return matches;
+    }
+
+    /**
+     * Builds the automaton from the banned words.
+     * The characters are grouped into classes by the character sets they belong to, then each word
+     * is expanded to every sequence of classes it accepts.
+     *
+     * @param words The banned words as lists of accepted character sets.
+     * @return The built automaton.
+     */
+    private AhoCorasick buildAutomaton(List<List<Set<Character>>> words) {
+        // Give each distinct character set an index.
+        Map<Set<Character>, Integer> setIndexes = new HashMap<>();
+        for (var word : words) {
+            for (var set : word)
+                setIndexes.putIfAbsent(set, setIndexes.size());
+        }
+
+        // Group the characters by the sets they belong to.
+        Map<Character, BitSet> memberships = new HashMap<>();
+        for (var entry : setIndexes.entrySet()) {
+            for (char c : entry.getKey())
+                memberships.computeIfAbsent(c, k -> new BitSet()).set(entry.getValue());
+        }
+        Map<BitSet, Integer> classIndexes = new HashMap<>();
+        for (var entry : memberships.entrySet()) {
+            int classIndex = classIndexes.computeIfAbsent(entry.getValue(), k -> classIndexes.size());
+            characterClasses[entry.getKey()] = (char) (classIndex + 1);
         }
 
-        result.append(message.substring(lastIndex));
-        return new FilterResult(found, result.toString());
+        // Resolve the classes of each set.
+        Map<Set<Character>, int[]> setClasses = new HashMap<>();
+        for (var set : setIndexes.keySet()) {
+            setClasses.put(set, set.stream().mapToInt(c -> characterClasses[c] - 1).distinct().sorted().toArray());
+        }
+
+        AhoCorasick.Builder builder = new AhoCorasick.Builder();
+        for (var word : words) {
+            int[][] options = new int[word.size()][];
+            long variants = 1;
+            for (int i = 0; i < options.length; i++) {
+                options[i] = setClasses.get(word.get(i));
+                variants *= options[i].length;
+            }
+            if (variants > MAX_VARIANTS) {
+                _logger.warn(String.format("A banned word expands to %s character combinations, it is limited to the first %s.", variants, MAX_VARIANTS));
+            }
+            addVariants(builder, options, new int[options.length], 0, new int[]{MAX_VARIANTS});
+        }
+
+        AhoCorasick automaton = builder.build();
+        _logger.debug(String.format("Anti-swear automaton built with %s states and %s character classes.", automaton.size(), classIndexes.size()));
+        return automaton;
+    }
+
+    /**
+     * Adds every class sequence of a word to the builder.
+     *
+     * @param builder   The automaton builder.
+     * @param options   The possible classes at each position of the word.
+     * @param current   The sequence being built.
+     * @param position  The current position in the word.
+     * @param remaining The number of sequences that can still be added.
+     */
+    private static void addVariants(AhoCorasick.Builder builder, int[][] options, int[] current, int position, int[] remaining) {
+        if (remaining[0] <= 0)
+            return;
+
+        if (position == options.length) {
+            builder.add(current.clone());
+            remaining[0]--;
+            return;
+        }
+
+        for (int option : options[position]) {
+            current[position] = option;
+            addVariants(builder, options, current, position + 1, remaining);
+        }
+    }
+
+    /**
+     * Parses a character mapping into the set of characters it accepts.
+     * Supports single characters and character classes with ranges and escaped characters.
+     *
+     * @param regex The regex of the mapping.
+     * @return The lowercase characters accepted by the mapping, or null if the regex is not supported.
+     */
+    static Set<Character> parseCharacterClass(String regex) {
+        if (regex == null || regex.isEmpty())
+            return null;
+
+        Set<Character> characters = new HashSet<>();
+        if (regex.length() == 1) {
+            if ("\\[](){}.*+?^$|".indexOf(regex.charAt(0)) >= 0)
+                return null;
+            characters.add(TextNormalizer.lower(regex.charAt(0)));
+            return characters;
+        }
+        if (regex.length() == 2 && regex.charAt(0) == '\\' && !Character.isLetterOrDigit(regex.charAt(1))) {
+            characters.add(TextNormalizer.lower(regex.charAt(1)));
+            return characters;
+        }
+        if (regex.charAt(0) != '[' || regex.charAt(regex.length() - 1) != ']' || regex.length() < 3 || regex.charAt(1) == '^')
+            return null;
+
+        String body = regex.substring(1, regex.length() - 1);
+        int i = 0;
+        while (i < body.length()) {
+            char c = body.charAt(i);
+            if (c == '[' || (c == '&' && i + 1 < body.length() && body.charAt(i + 1) == '&'))
+                return null;
+            if (c == '\\') {
+                if (i + 1 >= body.length() || Character.isLetterOrDigit(body.charAt(i + 1)))
+                    return null;
+                c = body.charAt(++i);
+            }
+
+            // Range
+            if (i + 2 < body.length() && body.charAt(i + 1) == '-') {
+                char end = body.charAt(i + 2);
+                if (end == '\\' || end == '[' || end < c)
+                    return null;
+                for (char r = c; r <= end; r++) {
+                    characters.add(TextNormalizer.lower(r));
+                    if (r == Character.MAX_VALUE)
+                        break;
+                }
+                i += 3;
+                continue;
+            }
+
+            characters.add(TextNormalizer.lower(c));
+            i++;
+        }
+        return characters.isEmpty() ? null : characters;
     }
 
     /**
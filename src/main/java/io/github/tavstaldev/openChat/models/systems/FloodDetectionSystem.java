@@ -0,0 +1,129 @@
+package io.github.tavstaldev.openChat.models.systems;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.util.FingerprintUtil;
+import io.github.tavstaldev.openChat.util.NormalizedText;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * System for detecting the same message being sent by many players in a short time, like during a bot raid.
+ * <br/>
+ * Every message is fingerprinted with {@link FingerprintUtil#simHash(NormalizedText)}. The fingerprint is split
+ * into bands, so messages whose fingerprints differ in only a few bits still share a band. The bands are counted in
+ * count-min sketches with conservative update, one for each slot of a sliding window. Recording a message and
+ * estimating its count is a fixed number of atomic operations, and the memory used does not depend on the number
+ * of messages or players.
+ */
+public class FloodDetectionSystem {
+    private static final int SLOTS = 6; // The number of slots the window is divided into.
+    private static final int DEPTH = 4; // The number of hash rows of a sketch.
+    private static final int WIDTH = 4096; // The number of counters of a row, a power of two.
+    private static final int BANDS = 4; // The number of 16-bit bands of a fingerprint.
+    private static final long[] ROW_SEEDS = {
+            0x9e3779b97f4a7c15L, 0xbf58476d1ce4e5b9L, 0x94d049bb133111ebL, 0xd6e8feb86659fd93L
+    };
+
+    private final boolean enabled;
+    private final int threshold; // The number of similar messages in the window that counts as a flood.
+    private final int minLength; // Shorter messages, like "gg", are not counted.
+    private final long slotNanos;
+    private final AtomicIntegerArray counters = new AtomicIntegerArray(SLOTS * DEPTH * WIDTH);
+    private final AtomicLongArray slotEpochs = new AtomicLongArray(SLOTS); // The epoch each slot is counting.
+
+    /**
+     * Constructor for FloodDetectionSystem.
+     * Initializes the window and the threshold based on the plugin configuration.
+     */
+    public FloodDetectionSystem() {
+        ModerationConfig config = OpenChat.moderationConfig();
+        enabled = config.antiFloodEnabled;
+        threshold = Math.max(2, config.antiFloodThreshold);
+        minLength = config.antiFloodMinLength;
+        slotNanos = Math.max(1, TimeUnit.SECONDS.toNanos(Math.max(1, config.antiFloodWindowSeconds)) / SLOTS);
+        for (int slot = 0; slot < SLOTS; slot++) {
+            slotEpochs.set(slot, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Records a message and checks if it is part of a flood.
+     *
+     * @param text The normalized message.
+     * @return True if the number of similar messages in the window, including this one, reached the threshold.
+     */
+    public boolean record(@NotNull NormalizedText text) {
+        if (!enabled || text.length() < minLength)
+            return false;
+
+        long fingerprint = FingerprintUtil.simHash(text);
+        long epoch = Math.floorDiv(System.nanoTime(), slotNanos);
+        int slot = rotate(epoch);
+
+        int highest = 0;
+        for (int band = 0; band < BANDS; band++) {
+            long key = ((fingerprint >>> (band * 16)) & 0xFFFF) | ((long) band << 16);
+            int estimate = Integer.MAX_VALUE;
+            int current = Integer.MAX_VALUE; // The estimate of the current slot alone.
+            for (int row = 0; row < DEPTH; row++) {
+                int column = column(key, row);
+                estimate = Math.min(estimate, count(epoch, row, column));
+                current = Math.min(current, counters.get(index(slot, row, column)));
+            }
+
+            // Conservative update, only the counters at the minimum are incremented,
+            // which keeps the collisions of unrelated messages from adding up
+            for (int row = 0; row < DEPTH; row++) {
+                int index = index(slot, row, column(key, row));
+                if (counters.get(index) <= current)
+                    counters.incrementAndGet(index);
+            }
+            highest = Math.max(highest, estimate + 1);
+        }
+        return highest >= threshold;
+    }
+
+    /**
+     * Moves the window to the given epoch, clearing the slot if it was counting an older epoch.
+     *
+     * @param epoch The current epoch.
+     * @return The slot of the epoch.
+     */
+    private int rotate(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) SLOTS);
+        long previous = slotEpochs.get(slot);
+        if (previous < epoch && slotEpochs.compareAndSet(slot, previous, epoch)) {
+            // Increments racing with the clearing may be lost, which only makes the estimate slightly lower
+            int start = index(slot, 0, 0);
+            for (int i = start; i < start + DEPTH * WIDTH; i++) {
+                counters.set(i, 0);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Sums a counter over the slots of the window.
+     */
+    private int count(long epoch, int row, int column) {
+        int total = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            long slotEpoch = slotEpochs.get(slot);
+            if (slotEpoch > epoch - SLOTS && slotEpoch <= epoch)
+                total += counters.get(index(slot, row, column));
+        }
+        return total;
+    }
+
+    private static int column(long key, int row) {
+        return (int) FingerprintUtil.mix(key ^ ROW_SEEDS[row]) & (WIDTH - 1);
+    }
+
+    private static int index(int slot, int row, int column) {
+        return (slot * DEPTH + row) * WIDTH + column;
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.tavstaldev.openChat.models.systems;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * System for slowing down the chat when it gets busy.
+ * <br/>
+ * The chat listener counts every message in a {@link LongAdder}, which is striped between threads, so the chat
+ * threads do not contend on a single counter. {@link #update()} periodically turns the count into a smoothed
+ * messages per second rate, and derives the per-player delay from how far the rate is above the target rate.
+ * The delay goes up at once, but only comes down one second per update, so it does not flap.
+ */
+public class SlowModeSystem {
+    private static final double SMOOTHING = 0.5; // The weight of the latest measurement in the rate.
+    private final PluginLogger _logger = OpenChat.logger().withModule(SlowModeSystem.class);
+    private final LongAdder messages = new LongAdder(); // The messages since the last update.
+    private final boolean enabled;
+    private final int minDelay, maxDelay; // The bounds of the delay in seconds.
+    private final double targetRate; // The messages per second the chat is slowed down to.
+    private final String notifyPermission;
+    private long lastUpdate; // The nanoTime of the last update.
+    private volatile double rate; // The smoothed messages per second.
+    private volatile int delay; // The current delay in seconds, 0 if slow mode is off.
+
+    /**
+     * Constructor for SlowModeSystem.
+     * Initializes the bounds and the target rate based on the plugin configuration.
+     */
+    public SlowModeSystem() {
+        ModerationConfig config = OpenChat.moderationConfig();
+        enabled = config.slowModeEnabled;
+        minDelay = Math.max(0, config.slowModeMinDelay);
+        maxDelay = Math.max(minDelay, config.slowModeMaxDelay);
+        targetRate = Math.max(0.1, config.slowModeTargetRate);
+        notifyPermission = config.slowModeNotifyPermission;
+        delay = enabled ? minDelay : 0;
+        lastUpdate = System.nanoTime();
+    }
+
+    /**
+     * Counts a chat message towards the rate.
+     */
+    public void recordMessage() {
+        if (enabled)
+            messages.increment();
+    }
+
+    /**
+     * Gets the current slow mode delay.
+     *
+     * @return The delay in nanoseconds, 0 if slow mode is off.
+     */
+    public long getDelayNanos() {
+        return TimeUnit.SECONDS.toNanos(delay);
+    }
+
+    /**
+     * Gets the current slow mode delay.
+     *
+     * @return The delay in seconds, 0 if slow mode is off.
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    /**
+     * Gets the smoothed chat rate measured at the last update.
+     *
+     * @return The rate in messages per second.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Measures the chat rate since the last update and adjusts the delay.
+     * Players with the notify permission are told when the delay changes.
+     * Called periodically by the {@link io.github.tavstaldev.openChat.tasks.SlowModeTask}.
+     */
+    public void update() {
+        if (!enabled)
+            return;
+
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-3, (now - lastUpdate) / (double) TimeUnit.SECONDS.toNanos(1));
+        lastUpdate = now;
+        rate = SMOOTHING * (messages.sumThenReset() / seconds) + (1 - SMOOTHING) * rate;
+
+        int target = minDelay;
+        if (rate > targetRate)
+            target = (int) Math.ceil(Math.max(1, minDelay) * rate / targetRate);
+        target = Math.min(maxDelay, Math.max(minDelay, target));
+
+        int previous = delay;
+        int next = target >= previous ? target : previous - 1;
+        if (next == previous)
+            return;
+
+        delay = next;
+        _logger.debug(String.format("Slow mode delay changed from %d to %d seconds at %.1f messages per second.", previous, next, rate));
+        announce(previous, next);
+    }
+
+    /**
+     * Tells the players with the notify permission about a change of the delay.
+     */
+    private void announce(int previous, int next) {
+        String key;
+        if (previous == 0)
+            key = "SlowMode.Enabled";
+        else if (next == 0)
+            key = "SlowMode.Disabled";
+        else
+            key = "SlowMode.Changed";
+
+        Map<String, Object> args = Map.of("delay", next, "rate", String.format("%.1f", rate));
+        Bukkit.getScheduler().runTask(OpenChat.Instance, () -> {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (player.hasPermission(notifyPermission))
+                    OpenChat.Instance.sendLocalizedMsg(player, key, args);
+            }
+        });
+    }
+}
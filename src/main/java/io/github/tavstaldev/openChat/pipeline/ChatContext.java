@@ -0,0 +1,101 @@
+package io.github.tavstaldev.openChat.pipeline;
+
+import io.github.tavstaldev.openChat.models.ChatFormat;
+import io.github.tavstaldev.openChat.models.PlayerCache;
+import io.github.tavstaldev.openChat.util.NormalizedText;
+import io.github.tavstaldev.openChat.util.TextNormalizer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Holds the state of a single chat message while it travels through the {@link ChatPipeline}.
+ * A new context is created for every message, stages read and modify it in order.
+ */
+public class ChatContext {
+    private final Player source; // The player who sent the message.
+    private final UUID sourceId; // The UUID of the sender.
+    private final PlayerCache cache; // The sender's cache.
+    private String message; // The message, modified by the stages.
+    private @Nullable NormalizedText normalizedText; // The normalized message, null until a stage requests it.
+    private @Nullable ChatFormat chatFormat; // The chat format selected by the stages, if any.
+    private boolean forceGlobal; // Whether the message ignores the local chat distance.
+    private boolean cancelled; // Whether a stage has cancelled the message.
+
+    /**
+     * Creates a new context for a chat message.
+     *
+     * @param source  The player who sent the message.
+     * @param cache   The sender's cache.
+     * @param message The raw chat message.
+     */
+    public ChatContext(@NotNull Player source, @NotNull PlayerCache cache, @NotNull String message) {
+        this.source = source;
+        this.sourceId = source.getUniqueId();
+        this.cache = cache;
+        this.message = message;
+    }
+
+    public Player getSource() {
+        return source;
+    }
+
+    public UUID getSourceId() {
+        return sourceId;
+    }
+
+    public PlayerCache getCache() {
+        return cache;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(@NotNull String message) {
+        if (!message.equals(this.message))
+            this.normalizedText = null;
+        this.message = message;
+    }
+
+    /**
+     * Gets the normalized form of the current message.
+     * The message is normalized once, and again only after a stage has changed it.
+     *
+     * @return The normalized message.
+     */
+    public NormalizedText getNormalizedText() {
+        if (normalizedText == null)
+            normalizedText = TextNormalizer.normalize(message);
+        return normalizedText;
+    }
+
+    public @Nullable ChatFormat getChatFormat() {
+        return chatFormat;
+    }
+
+    public void setChatFormat(@Nullable ChatFormat chatFormat) {
+        this.chatFormat = chatFormat;
+    }
+
+    public boolean isForceGlobal() {
+        return forceGlobal;
+    }
+
+    public void setForceGlobal(boolean forceGlobal) {
+        this.forceGlobal = forceGlobal;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Marks the message as cancelled, the pipeline stops after the current stage.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+}
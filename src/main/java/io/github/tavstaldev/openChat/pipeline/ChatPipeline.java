@@ -0,0 +1,156 @@
+package io.github.tavstaldev.openChat.pipeline;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.GeneralConfig;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.pipeline.stages.*;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An ordered chain of {@link ChatStage} objects that every chat message passes through.
+ * The pipeline is built once from the configuration on load and on reload; stages of
+ * disabled features are not added to the chain at all.
+ * <br/>
+ * The exempt permissions of the stages are deduplicated while building, and they are
+ * resolved once per message into a bitmask before the stages run.
+ */
+public class ChatPipeline {
+    private static final PluginLogger _logger = OpenChat.logger().withModule(ChatPipeline.class);
+    private final List<ChatStage> stages; // The stages in execution order.
+    private final String[] exemptPermissions; // The distinct exempt permissions of the stages.
+    private final int[] stageExemptIndexes; // The index of each stage's exempt permission, or -1.
+
+    /**
+     * Creates a new pipeline from the given stages.
+     *
+     * @param stages The stages in execution order.
+     */
+    public ChatPipeline(@NotNull List<ChatStage> stages) {
+        this.stages = Collections.unmodifiableList(new ArrayList<>(stages));
+        List<String> permissions = new ArrayList<>();
+        this.stageExemptIndexes = new int[this.stages.size()];
+        for (int i = 0; i < this.stages.size(); i++) {
+            String permission = this.stages.get(i).getExemptPermission();
+            if (permission == null || permission.isBlank()) {
+                stageExemptIndexes[i] = -1;
+                continue;
+            }
+
+            int index = permissions.indexOf(permission);
+            if (index < 0) {
+                if (permissions.size() >= Long.SIZE) {
+                    _logger.warn("Too many distinct exempt permissions in the chat pipeline, '" + permission + "' will be ignored.");
+                    stageExemptIndexes[i] = -1;
+                    continue;
+                }
+                permissions.add(permission);
+                index = permissions.size() - 1;
+            }
+            stageExemptIndexes[i] = index;
+        }
+        this.exemptPermissions = permissions.toArray(new String[0]);
+    }
+
+    /**
+     * Builds the pipeline from the current configuration.
+     *
+     * @param config           The general configuration.
+     * @param moderationConfig The moderation configuration.
+     * @return The built pipeline.
+     */
+    public static ChatPipeline build(@NotNull GeneralConfig config, @NotNull ModerationConfig moderationConfig) {
+        List<ChatStage> stages = new ArrayList<>();
+        if (moderationConfig.antiSpamEnabled)
+            stages.add(new AntiSpamStage(moderationConfig));
+        if (moderationConfig.antiFloodEnabled)
+            stages.add(new AntiFloodStage(moderationConfig));
+        if (moderationConfig.antiAdvertisementEnabled)
+            stages.add(new AntiAdvertisementStage(moderationConfig));
+        if (moderationConfig.antiCapsEnabled)
+            stages.add(new AntiCapsStage(moderationConfig));
+        if (moderationConfig.antiSwearEnabled)
+            stages.add(new AntiSwearStage(moderationConfig));
+        if (moderationConfig.antiSpamEmojis)
+            stages.add(new EmojiStage(moderationConfig));
+        if (config.customChatEnabled)
+            stages.add(new ChatChannelStage(config));
+        stages.add(new RichTextStage(config));
+        if (config.mentionsEnabled)
+            stages.add(new MentionStage(config));
+        stages.add(new MessageColorStage());
+
+        var pipeline = new ChatPipeline(stages);
+        _logger.debug("Chat pipeline built with " + stages.size() + " stages.");
+        return pipeline;
+    }
+
+    /**
+     * Runs the message through the stages in order.
+     * The pipeline stops at the first stage that cancels the message.
+     *
+     * @param context The context of the message.
+     * @return True if the message passed every stage, false if it was cancelled.
+     */
+    public boolean process(@NotNull ChatContext context) {
+        long exemptMask = resolveExemptions(context.getSource());
+        for (int i = 0; i < stages.size(); i++) {
+            int exemptIndex = stageExemptIndexes[i];
+            if (exemptIndex >= 0 && (exemptMask & (1L << exemptIndex)) != 0)
+                continue;
+
+            ChatStage stage = stages.get(i);
+            long start = System.nanoTime();
+            boolean proceed;
+            try {
+                proceed = stage.process(context);
+            } finally {
+                stage.recordTiming(System.nanoTime() - start);
+            }
+
+            if (!proceed || context.isCancelled()) {
+                context.cancel();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolves which exempt permissions the player has.
+     *
+     * @param player The player to check.
+     * @return A bitmask where each set bit marks a granted exempt permission.
+     */
+    private long resolveExemptions(@NotNull Player player) {
+        long mask = 0L;
+        for (int i = 0; i < exemptPermissions.length; i++) {
+            if (player.hasPermission(exemptPermissions[i]))
+                mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the stages of the pipeline in execution order.
+     *
+     * @return An unmodifiable list of the stages.
+     */
+    public List<ChatStage> getStages() {
+        return stages;
+    }
+
+    /**
+     * Resets the timing counters of every stage.
+     */
+    public void resetTimings() {
+        for (ChatStage stage : stages) {
+            stage.resetTimings();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.tavstaldev.openChat.pipeline;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A single step of the {@link ChatPipeline}.
+ * Stages are created from the configuration when the pipeline is built, so they should
+ * copy every setting they need instead of reading the configuration on each message.
+ * <br/>
+ * Every stage keeps track of its own execution time. The counters are striped, so
+ * the async chat threads do not contend on them.
+ */
+public abstract class ChatStage {
+    private final String name; // The name displayed in the timings.
+    private final @Nullable String exemptPermission; // Permission that skips this stage.
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Creates a new stage.
+     *
+     * @param name             The name of the stage, used in timings.
+     * @param exemptPermission The permission that exempts a player from this stage, or null if none.
+     */
+    protected ChatStage(@NotNull String name, @Nullable String exemptPermission) {
+        this.name = name;
+        this.exemptPermission = exemptPermission;
+    }
+
+    /**
+     * Processes the chat message.
+     *
+     * @param context The context of the message.
+     * @return True if the pipeline should continue, false if the message was cancelled.
+     */
+    public abstract boolean process(@NotNull ChatContext context);
+
+    public String getName() {
+        return name;
+    }
+
+    public @Nullable String getExemptPermission() {
+        return exemptPermission;
+    }
+
+    /**
+     * Records the execution time of a single invocation.
+     *
+     * @param nanos The elapsed time in nanoseconds.
+     */
+    void recordTiming(long nanos) {
+        invocations.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Resets the timing counters of this stage.
+     */
+    void resetTimings() {
+        invocations.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Calculates the average execution time of this stage.
+     *
+     * @return The average time in nanoseconds, or 0 if the stage has not run yet.
+     */
+    public long getAverageNanos() {
+        long count = invocations.sum();
+        return count == 0 ? 0 : totalNanos.sum() / count;
+    }
+}
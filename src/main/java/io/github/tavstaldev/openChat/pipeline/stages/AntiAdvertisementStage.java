@@ -0,0 +1,38 @@
+package io.github.tavstaldev.openChat.pipeline.stages;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.models.ViolationAction;
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import io.github.tavstaldev.openChat.util.NormalizedText;
+import io.github.tavstaldev.openChat.util.ViolationUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+
+/**
+ * Cancels messages that contain advertisements.
+ */
+public class AntiAdvertisementStage extends ChatStage {
+    private final Set<ViolationAction> violationActions;
+
+    public AntiAdvertisementStage(@NotNull ModerationConfig config) {
+        super("AntiAdvertisement", config.antiAdvertisementExemptPermission);
+        this.violationActions = config.antiAdvertisementViolationActions;
+    }
+
+    @Override
+    public boolean process(@NotNull ChatContext context) {
+        var advertisementSystem = OpenChat.advertisementSystem();
+        NormalizedText text = context.getNormalizedText();
+        if (!advertisementSystem.containsAdvertisement(text))
+            return true;
+
+        String highlighted = advertisementSystem.highlight(text).resultMessage;
+        OpenChat.Instance.sendLocalizedMsg(context.getSource(), "AntiAd.AdvertisementDetected");
+        ViolationUtil.handleViolationAsync(context.getSource(), EViolationType.ADVERTISEMENT, context.getMessage(), highlighted, violationActions);
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.tavstaldev.openChat.pipeline.stages;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.models.ViolationAction;
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import io.github.tavstaldev.openChat.util.ViolationUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+
+/**
+ * Cancels messages that contain too many capital letters.
+ */
+public class AntiCapsStage extends ChatStage {
+    private final int minLength;
+    private final double maxCapsPercentage; // Maximum allowed percentage of capital letters.
+    private final Set<ViolationAction> violationActions;
+
+    public AntiCapsStage(@NotNull ModerationConfig config) {
+        super("AntiCaps", config.antiCapsExemptPermission);
+        this.minLength = config.antiCapsMinLength;
+        this.maxCapsPercentage = config.antiCapsPercentage / 100.0;
+        this.violationActions = config.antiCapsViolationActions;
+    }
+
+    @Override
+    public boolean process(@NotNull ChatContext context) {
+        String message = context.getMessage();
+        int length = message.length();
+        if (length < minLength) // Check if the message meets the minimum length.
+            return true;
+
+        int capsCount = context.getNormalizedText().getUpperCaseCount(); // Uppercase letters, counted while normalizing.
+        double capsPercentage = (double) capsCount / length; // Calculate the percentage of uppercase letters.
+        if (capsPercentage <= maxCapsPercentage)
+            return true;
+
+        OpenChat.Instance.sendLocalizedMsg(context.getSource(), "AntiCaps.TooManyCaps");
+        ViolationUtil.handleViolationAsync(context.getSource(), EViolationType.CAPS_LOCK, message, violationActions);
+        return false;
+    }
+}
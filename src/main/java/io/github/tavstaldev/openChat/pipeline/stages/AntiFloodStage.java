@@ -0,0 +1,34 @@
+package io.github.tavstaldev.openChat.pipeline.stages;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.models.ViolationAction;
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import io.github.tavstaldev.openChat.util.ViolationUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+
+/**
+ * Cancels messages that are part of a server-wide flood of similar messages.
+ */
+public class AntiFloodStage extends ChatStage {
+    private final Set<ViolationAction> violationActions;
+
+    public AntiFloodStage(@NotNull ModerationConfig config) {
+        super("AntiFlood", config.antiFloodExemptPermission);
+        this.violationActions = config.antiFloodViolationActions;
+    }
+
+    @Override
+    public boolean process(@NotNull ChatContext context) {
+        if (!OpenChat.floodDetectionSystem().record(context.getNormalizedText()))
+            return true;
+
+        OpenChat.Instance.sendLocalizedMsg(context.getSource(), "AntiFlood.Blocked");
+        ViolationUtil.handleViolationAsync(context.getSource(), EViolationType.FLOOD, context.getMessage(), violationActions);
+        return false;
+    }
+}
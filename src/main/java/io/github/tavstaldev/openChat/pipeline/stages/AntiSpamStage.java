@@ -0,0 +1,92 @@
+package io.github.tavstaldev.openChat.pipeline.stages;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.models.Cooldown;
+import io.github.tavstaldev.openChat.models.PlayerCache;
+import io.github.tavstaldev.openChat.models.RateLimitTier;
+import io.github.tavstaldev.openChat.models.ViolationAction;
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import io.github.tavstaldev.openChat.util.ViolationUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Checks the chat rate limit and repeated messages, and removes unauthorized characters.
+ */
+public class AntiSpamStage extends ChatStage {
+    private final RateLimitTier rateLimit;
+    private final List<RateLimitTier> rateLimitTiers;
+    private final int maxDuplicates;
+    private final @Nullable Pattern characterPattern; // Null if the regex filter is disabled.
+    private final boolean regexCancel;
+    private final double regexCancelThreshold;
+    private final Set<ViolationAction> delayViolationActions;
+    private final Set<ViolationAction> similarityViolationActions;
+
+    public AntiSpamStage(@NotNull ModerationConfig config) {
+        super("AntiSpam", config.antiSpamExemptPermission);
+        this.rateLimit = config.antiSpamRateLimit;
+        this.rateLimitTiers = config.antiSpamRateLimitTiers;
+        this.maxDuplicates = config.antiSpamMaxDuplicates;
+        this.characterPattern = config.antiSpamRegexEnabled ? Pattern.compile(config.antiSpamRegex) : null;
+        this.regexCancel = config.antiSpamRegexCancel;
+        this.regexCancelThreshold = config.antiSpamRegexCancelThreshold;
+        this.delayViolationActions = config.antiSpamDelayViolationActions;
+        this.similarityViolationActions = config.antiSpamSimilarityViolationActions;
+    }
+
+    @Override
+    public boolean process(@NotNull ChatContext context) {
+        var source = context.getSource();
+        PlayerCache cache = context.getCache();
+        String message = context.getMessage();
+
+        // Feature: Chat rate limit
+        RateLimitTier tier = RateLimitTier.resolve(source, rateLimitTiers, rateLimit);
+        long interval = tier.getChatIntervalNanos();
+        int burst = tier.getChatBurst();
+        long slowModeDelay = OpenChat.slowModeSystem().getDelayNanos();
+        if (slowModeDelay > interval) {
+            // Slow mode allows one message per delay, without a burst
+            interval = slowModeDelay;
+            burst = 1;
+        }
+        long wait = cache.getChatBucket().tryAcquire(interval, burst);
+        if (wait > 0) {
+            OpenChat.Instance.sendLocalizedMsg(source, "AntiSpam.ChatCooldown", Map.of("time", String.valueOf(Cooldown.toDisplaySeconds(wait))));
+
+            ViolationUtil.handleViolationAsync(source, EViolationType.SPAM_DELAY, message, delayViolationActions);
+            return false;
+        }
+
+        // Feature: Repeated messages
+        if (maxDuplicates >= 1 && cache.getChatSpamCount() >= maxDuplicates) {
+            OpenChat.Instance.sendLocalizedMsg(source, "AntiSpam.RepeatedMessages");
+
+            ViolationUtil.handleViolationAsync(source, EViolationType.SPAM_REPETITION, message, similarityViolationActions);
+            return false;
+        }
+
+        // Feature: Replace unauthorized characters
+        if (characterPattern != null) {
+            String editedMessage = characterPattern.matcher(message).replaceAll("");
+            if (regexCancel) {
+                double ratio = (double) editedMessage.length() / message.length();
+                if (ratio < regexCancelThreshold) {
+                    OpenChat.Instance.sendLocalizedMsg(source, "AntiSpam.UnacceptableCharacters");
+                    return false;
+                }
+            }
+            context.setMessage(editedMessage);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.tavstaldev.openChat.pipeline.stages;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.models.FilterResult;
+import io.github.tavstaldev.openChat.models.ViolationAction;
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import io.github.tavstaldev.openChat.util.NormalizedText;
+import io.github.tavstaldev.openChat.util.ViolationUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+
+/**
+ * Cancels messages that contain swear words.
+ */
+public class AntiSwearStage extends ChatStage {
+    private final Set<ViolationAction> violationActions;
+
+    public AntiSwearStage(@NotNull ModerationConfig config) {
+        super("AntiSwear", config.antiSwearExemptPermission);
+        this.violationActions = config.antiSwearViolationActions;
+    }
+
+    @Override
+    public boolean process(@NotNull ChatContext context) {
+        var swearSystem = OpenChat.antiSwearSystem();
+        NormalizedText text = context.getNormalizedText();
+        if (!swearSystem.containsSwearWord(text))
+            return true;
+
+        // The highlighted message is created here from the same normalized text, so the log does not normalize it again.
+        FilterResult result = swearSystem.highlight(text);
+        String message = context.getMessage();
+        OpenChat.Instance.sendLocalizedMsg(context.getSource(), "AntiSwear.WordDetected");
+        ViolationUtil.handleViolationAsync(context.getSource(), EViolationType.CURSE_WORDS, message, result.resultMessage, violationActions);
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.tavstaldev.openChat.pipeline.stages;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.GeneralConfig;
+import io.github.tavstaldev.openChat.managers.IPermissionManager;
+import io.github.tavstaldev.openChat.models.ChatFormat;
+import io.github.tavstaldev.openChat.models.PlayerCache;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Selects the chat format of the message, handling the shout and question prefixes.
+ * Only added to the pipeline when the custom chat is enabled.
+ * <br/>
+ * The formats are compiled when the pipeline is built, see {@link ChatFormat}.
+ */
+public class ChatChannelStage extends ChatStage {
+    private final boolean shoutEnabled, questionEnabled, groupFormatsEnabled;
+    private final String shoutPermission, shoutPrefix;
+    private final String questionPermission, questionPrefix;
+    private final ChatFormat defaultFormat, shoutFormat, questionFormat;
+    private final Map<String, ChatFormat> groupFormats = new HashMap<>(); // The compiled formats by group.
+
+    public ChatChannelStage(@NotNull GeneralConfig config) {
+        super("ChatChannel", null);
+        this.shoutEnabled = config.customChatShoutEnabled;
+        this.shoutPermission = config.customChatShoutPermission;
+        this.shoutPrefix = config.customChatShoutPrefix;
+        this.shoutFormat = ChatFormat.compile(config.customChatShoutFormat);
+        this.questionEnabled = config.customChatQuestionEnabled;
+        this.questionPermission = config.customChatQuestionPermission;
+        this.questionPrefix = config.customChatQuestionPrefix;
+        this.questionFormat = ChatFormat.compile(config.customChatQuestionFormat);
+        this.defaultFormat = ChatFormat.compile(config.customChatFormat);
+        this.groupFormatsEnabled = config.customChatEnableGroupFormats;
+        if (groupFormatsEnabled && config.customChatGroupFormats != null) {
+            for (Map.Entry<String, String> entry : config.customChatGroupFormats.entrySet()) {
+                groupFormats.put(entry.getKey(), ChatFormat.compile(entry.getValue()));
+            }
+        }
+    }
+
+    @Override
+    public boolean process(@NotNull ChatContext context) {
+        var source = context.getSource();
+        String message = context.getMessage();
+        if (shoutEnabled && message.startsWith(shoutPrefix) && source.hasPermission(shoutPermission)) {
+            context.setChatFormat(shoutFormat);
+            context.setMessage(message.substring(1)); // Remove the shout prefix
+            context.setForceGlobal(true);
+            return true;
+        }
+        if (questionEnabled && message.startsWith(questionPrefix) && source.hasPermission(questionPermission)) {
+            context.setChatFormat(questionFormat);
+            context.setMessage(message.substring(1)); // Remove the question prefix
+            context.setForceGlobal(true);
+            return true;
+        }
+
+        context.setChatFormat(getChatFormat(source, context.getCache()));
+        return true;
+    }
+
+    /**
+     * Gets the chat format of the player's primary group, or the default format.
+     * The group is taken from the player's format cache, so the permission plugin is not asked for every message.
+     *
+     * @param source The player who sent the message.
+     * @param cache  The cache of the player.
+     * @return The chat format of the player.
+     */
+    private ChatFormat getChatFormat(Player source, PlayerCache cache) {
+        if (groupFormats.isEmpty())
+            return defaultFormat;
+
+        IPermissionManager permissionManager = OpenChat.permissionManager();
+        if (permissionManager.hasPermissions()) {
+            String group = cache.getChatFormatCache().getPrimaryGroup(source, permissionManager);
+            ChatFormat format = group == null ? null : groupFormats.get(group);
+            if (format != null) {
+                return format;
+            }
+        }
+        return defaultFormat;
+    }
+}
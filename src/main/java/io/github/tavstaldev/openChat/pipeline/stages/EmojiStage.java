@@ -0,0 +1,45 @@
+package io.github.tavstaldev.openChat.pipeline.stages;
+
+import io.github.tavstaldev.openChat.Patterns;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+
+/**
+ * Escapes the emojis that are not whitelisted.
+ */
+public class EmojiStage extends ChatStage {
+    private final Set<String> whitelist;
+
+    public EmojiStage(@NotNull ModerationConfig config) {
+        super("Emojis", config.antiSpamEmojiExemptPermission);
+        this.whitelist = config.antiSpamEmojiWhitelist;
+    }
+
+    @Override
+    public boolean process(@NotNull ChatContext context) {
+        String message = context.getMessage();
+        if (message.indexOf(':') < 0)
+            return true;
+
+        var emojiMatcher = Patterns.emojiPattern.matcher(message);
+        StringBuilder sb = new StringBuilder();
+        while (emojiMatcher.find()) {
+            String emoji = emojiMatcher.group();
+
+            if (!whitelist.contains(emoji)) {
+                // Escape the colons
+                String escaped = emoji.replace(":", "\\:");
+                emojiMatcher.appendReplacement(sb, Matcher.quoteReplacement(escaped));
+            }
+        }
+
+        emojiMatcher.appendTail(sb);
+        context.setMessage(sb.toString());
+        return true;
+    }
+}
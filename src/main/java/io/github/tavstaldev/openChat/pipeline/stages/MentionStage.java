@@ -0,0 +1,75 @@
+package io.github.tavstaldev.openChat.pipeline.stages;
+
+import io.github.tavstaldev.openChat.Patterns;
+import io.github.tavstaldev.openChat.config.GeneralConfig;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import io.github.tavstaldev.openChat.util.MentionUtils;
+import io.github.tavstaldev.openChat.util.VanishUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.regex.Matcher;
+
+/**
+ * Highlights the mentioned players and notifies them.
+ * Runs after the {@link RichTextStage}, so the inserted tags are not escaped.
+ */
+public class MentionStage extends ChatStage {
+    private final int maxMentionCount;
+    private final boolean allowSelfMention;
+
+    public MentionStage(@NotNull GeneralConfig config) {
+        super("Mentions", null);
+        this.maxMentionCount = config.mentionsLimitPerMessage;
+        this.allowSelfMention = config.mentionsAllowSelfMention;
+    }
+
+    @Override
+    public boolean process(@NotNull ChatContext context) {
+        Player source = context.getSource();
+        String rawMessage = context.getMessage();
+        int mentionCount = 0;
+        StringBuilder newMessage = null;
+        int lastAppendPosition = 0;
+        Matcher matcher = Patterns.minecraftUsernamePattern.matcher(rawMessage);
+        while (mentionCount < maxMentionCount && matcher.find()) {
+            String mentionName = matcher.group(0);
+            Player mentionedPlayer = Bukkit.getPlayerExact(mentionName);
+            if (mentionedPlayer == null)
+                continue;
+
+            if (mentionedPlayer.getUniqueId().equals(context.getSourceId()) && !allowSelfMention)
+                continue;
+
+            if (mentionedPlayer.getGameMode() == GameMode.SPECTATOR)
+                continue;
+
+            if (VanishUtil.isVanished(mentionedPlayer))
+                continue;
+
+            if (!MentionUtils.mentionPlayer(mentionedPlayer, source))
+                continue;
+
+            if (newMessage == null)
+                newMessage = new StringBuilder(rawMessage.length() + 32);
+            newMessage.append(rawMessage, lastAppendPosition, matcher.start());
+            newMessage.append("<yellow>@").append(mentionName).append("</yellow>");
+
+            lastAppendPosition = matcher.end();
+            mentionCount++;
+        }
+
+        // Nobody was mentioned, keep the message as it is
+        if (newMessage == null)
+            return true;
+
+        if (lastAppendPosition < rawMessage.length()) {
+            newMessage.append(rawMessage, lastAppendPosition, rawMessage.length());
+        }
+        context.setMessage(newMessage.toString());
+        return true;
+    }
+}
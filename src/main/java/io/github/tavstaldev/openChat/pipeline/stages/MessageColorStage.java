@@ -0,0 +1,26 @@
+package io.github.tavstaldev.openChat.pipeline.stages;
+
+import io.github.tavstaldev.openChat.managers.RecipientStateManager;
+import io.github.tavstaldev.openChat.models.RecipientState;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Applies the chat color of the sender to the message.
+ */
+public class MessageColorStage extends ChatStage {
+
+    public MessageColorStage() {
+        super("MessageColor", null);
+    }
+
+    @Override
+    public boolean process(@NotNull ChatContext context) {
+        // The color is read from the state loaded at join, the database is never read on the chat thread
+        RecipientState state = RecipientStateManager.get(context.getSourceId());
+        if (state != null)
+            context.setMessage(state.formatMessage(context.getMessage()));
+        return true;
+    }
+}
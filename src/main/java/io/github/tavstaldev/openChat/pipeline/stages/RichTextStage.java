@@ -0,0 +1,27 @@
+package io.github.tavstaldev.openChat.pipeline.stages;
+
+import io.github.tavstaldev.openChat.config.GeneralConfig;
+import io.github.tavstaldev.openChat.pipeline.ChatContext;
+import io.github.tavstaldev.openChat.pipeline.ChatStage;
+import io.github.tavstaldev.openChat.util.RichTextSanitizer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Removes the color codes and escapes the tags the sender is not allowed to use.
+ */
+public class RichTextStage extends ChatStage {
+    private final String hexPermission, legacyPermission;
+
+    public RichTextStage(@NotNull GeneralConfig config) {
+        super("RichText", null);
+        this.hexPermission = config.customChatHexRichTextPermission;
+        this.legacyPermission = config.customChatLegacyRichTextPermission;
+    }
+
+    @Override
+    public boolean process(@NotNull ChatContext context) {
+        int allowed = RichTextSanitizer.getAllowed(context.getSource(), legacyPermission, hexPermission);
+        context.setMessage(RichTextSanitizer.sanitize(context.getMessage(), allowed));
+        return true;
+    }
+}
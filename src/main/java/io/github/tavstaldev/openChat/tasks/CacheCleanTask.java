@@ -1,56 +1,38 @@
 package io.github.tavstaldev.openChat.tasks;
 
+import io.github.tavstaldev.openChat.OpenChat;
 import io.github.tavstaldev.openChat.managers.PlayerCacheManager;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
- * A task that periodically cleans up the player cache by removing expired entries.
- * This task is executed as a BukkitRunnable.
+ * A task that removes the cache of a player who left the server, once their cooldowns have run out.
+ * This task is executed as a BukkitRunnable, scheduled by {@link PlayerCacheManager#markForRemoval(UUID)}.
  */
 public class CacheCleanTask extends BukkitRunnable {
+    private final UUID playerId; // The player whose cache should be removed.
+
+    /**
+     * Creates a cleanup task for the given player.
+     *
+     * @param playerId The UUID of the player whose cache should be removed.
+     */
+    public CacheCleanTask(UUID playerId) {
+        this.playerId = playerId;
+    }
 
     /**
      * Executes the cache cleaning logic.
      * <br/>
-     * - Skips execution if there are no players marked for removal.
-     * - Iterates through the marked players and removes their cache if:
-     *   - The player's chat message delay has expired.
-     *   - The player's command delay has expired.
-     *   - The player's mention cooldown has expired.
-     * - Unmarks players for removal after processing.
+     * - Does nothing if the player is no longer marked for removal, for example because they rejoined.
+     * - Removes the player's cache if all of their delays and cooldowns have expired.
+     * - Otherwise, schedules itself again for when the last cooldown expires.
      */
     @Override
     public void run() {
-        // Check if there are any players marked for removal
-        if (PlayerCacheManager.isMarkedForRemovalEmpty())
-            return;
-
-        // Iterate through the set of players marked for removal
-        var date = LocalDateTime.now();
-        for (var playerId : PlayerCacheManager.getMarkedForRemovalSet()) {
-            var playerCache = PlayerCacheManager.get(playerId);
-
-            // If the player's cache is null, unmark them for removal and continue
-            if (playerCache == null) {
-                PlayerCacheManager.unmarkForRemoval(playerId);
-                continue;
-            }
-
-            // Skip removal if any of the player's delays or cooldowns are still active
-            if (playerCache.getChatMessageDelay() != null && playerCache.getChatMessageDelay().isAfter(date))
-                continue;
-
-            if (playerCache.getCommandDelay() != null && playerCache.getCommandDelay().isAfter(date))
-                continue;
-
-            if (playerCache.getMentionCooldown() != null && playerCache.getMentionCooldown().isAfter(date))
-                continue;
-
-            // Remove the player's cache and unmark them for removal
-            PlayerCacheManager.remove(playerId);
-            PlayerCacheManager.unmarkForRemoval(playerId);
-        }
+        long remainingTicks = PlayerCacheManager.removeIfExpired(playerId);
+        if (remainingTicks > 0)
+            new CacheCleanTask(playerId).runTaskLaterAsynchronously(OpenChat.Instance, remainingTicks);
     }
 }
@@ -0,0 +1,22 @@
+package io.github.tavstaldev.openChat.tasks;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * A task that periodically writes the buffered player data updates to the database.
+ * This task is executed as a BukkitRunnable.
+ */
+public class PlayerDataFlushTask extends BukkitRunnable {
+
+    /**
+     * Queues a flush on the database executor, see {@link io.github.tavstaldev.openChat.database.WriteBehindDatabase#flush()}.
+     */
+    @Override
+    public void run() {
+        if (OpenChat.writeBehindDatabase().getPendingCount() == 0)
+            return;
+
+        OpenChat.asyncDatabase().execute(database -> OpenChat.writeBehindDatabase().flush());
+    }
+}
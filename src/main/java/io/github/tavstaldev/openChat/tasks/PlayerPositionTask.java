@@ -0,0 +1,20 @@
+package io.github.tavstaldev.openChat.tasks;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * A task that refreshes the positions of the online players every tick, for the local chat.
+ * This task is executed as a BukkitRunnable on the main thread, where the player positions can be read safely.
+ */
+public class PlayerPositionTask extends BukkitRunnable {
+
+    /**
+     * Refreshes the positions, see {@link io.github.tavstaldev.openChat.models.PlayerPositions#refresh}.
+     */
+    @Override
+    public void run() {
+        OpenChat.playerPositions().refresh(Bukkit.getOnlinePlayers());
+    }
+}
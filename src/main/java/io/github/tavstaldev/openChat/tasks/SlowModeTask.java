@@ -0,0 +1,19 @@
+package io.github.tavstaldev.openChat.tasks;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * A task that periodically adjusts the slow mode delay to the measured chat rate.
+ * This task is executed as a BukkitRunnable.
+ */
+public class SlowModeTask extends BukkitRunnable {
+
+    /**
+     * Executes the slow mode update, see {@link io.github.tavstaldev.openChat.models.systems.SlowModeSystem#update()}.
+     */
+    @Override
+    public void run() {
+        OpenChat.slowModeSystem().update();
+    }
+}
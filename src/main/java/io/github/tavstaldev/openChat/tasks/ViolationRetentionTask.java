@@ -0,0 +1,58 @@
+package io.github.tavstaldev.openChat.tasks;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.config.StorageConfig;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A task that periodically removes the violations older than the retention time of the storage config.
+ * The violations are removed in bounded batches on the database executor, one batch per operation, so the other
+ * database operations are not held up by a large cleanup.
+ * This task is executed as a BukkitRunnable.
+ */
+public class ViolationRetentionTask extends BukkitRunnable {
+    private final PluginLogger _logger = OpenChat.logger().withModule(ViolationRetentionTask.class);
+    private final AtomicBoolean running = new AtomicBoolean(); // Whether a cleanup is in progress.
+
+    /**
+     * Starts a cleanup, unless retention is disabled or the previous cleanup is still running.
+     */
+    @Override
+    public void run() {
+        StorageConfig config = OpenChat.storageConfig();
+        if (config.violationRetentionDays <= 0 || !running.compareAndSet(false, true))
+            return;
+
+        long olderThan = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(config.violationRetentionDays);
+        prune(olderThan, 0);
+    }
+
+    /**
+     * Removes a batch of violations, and queues the next batch if this one was full.
+     *
+     * @param olderThan The time in milliseconds, violations before it are removed.
+     * @param total     The number of violations removed by the previous batches.
+     */
+    private void prune(long olderThan, int total) {
+        StorageConfig config = OpenChat.storageConfig();
+        int limit = Math.max(1, config.violationRetentionBatchSize);
+        boolean archive = config.violationRetentionArchive;
+        OpenChat.asyncDatabase().submit(database -> database.pruneViolations(olderThan, limit, archive))
+                .whenComplete((removed, ex) -> {
+                    if (ex == null && removed >= limit && !isCancelled()) {
+                        prune(olderThan, total + removed);
+                        return;
+                    }
+
+                    int sum = ex == null ? total + removed : total;
+                    if (sum > 0)
+                        _logger.info(String.format("%s %d violations older than %d days.", archive ? "Archived" : "Deleted",
+                                sum, config.violationRetentionDays));
+                    running.set(false);
+                });
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.tavstaldev.openChat.util;
+
+import java.util.*;
+
+/**
+ * Multi-pattern matching automaton over integer symbols.
+ * The caller maps the input to symbols and drives the automaton with {@link #next(int, int)},
+ * which makes the scan a single linear pass no matter how many patterns were added.
+ * <br/>
+ * The automaton is immutable after it has been built, so it can be shared between threads.
+ */
+public final class AhoCorasick {
+    public static final int ROOT = 0; // The initial state.
+    private final int[][] symbols; // The sorted transition symbols of each state.
+    private final int[][] targets; // The target states of the transitions.
+    private final int[] failure; // The failure link of each state.
+    private final int[] matchLength; // Length of the longest pattern ending in each state, 0 if none.
+
+    private AhoCorasick(int[][] symbols, int[][] targets, int[] failure, int[] matchLength) {
+        this.symbols = symbols;
+        this.targets = targets;
+        this.failure = failure;
+        this.matchLength = matchLength;
+    }
+
+    /**
+     * Advances the automaton by one symbol.
+     *
+     * @param state  The current state.
+     * @param symbol The next symbol, a negative value resets the automaton.
+     * @return The new state.
+     */
+    public int next(int state, int symbol) {
+        if (symbol < 0)
+            return ROOT;
+
+        while (true) {
+            int[] keys = symbols[state];
+            int index = Arrays.binarySearch(keys, symbol);
+            if (index >= 0)
+                return targets[state][index];
+            if (state == ROOT)
+                return ROOT;
+            state = failure[state];
+        }
+    }
+
+    /**
+     * Gets the length of the longest pattern that ends in the given state.
+     *
+     * @param state The state to check.
+     * @return The length of the pattern, or 0 if no pattern ends in this state.
+     */
+    public int matchLength(int state) {
+        return matchLength[state];
+    }
+
+    /**
+     * Gets the number of states of the automaton.
+     *
+     * @return The number of states.
+     */
+    public int size() {
+        return failure.length;
+    }
+
+    /**
+     * Builder for the {@link AhoCorasick} automaton.
+     */
+    public static final class Builder {
+        private final List<Map<Integer, Integer>> transitions = new ArrayList<>();
+        private final List<Integer> lengths = new ArrayList<>();
+
+        public Builder() {
+            transitions.add(new HashMap<>());
+            lengths.add(0);
+        }
+
+        /**
+         * Adds a pattern to the automaton.
+         *
+         * @param pattern The symbols of the pattern, all of them must be non-negative.
+         * @return This builder.
+         */
+        public Builder add(int[] pattern) {
+            if (pattern.length == 0)
+                return this;
+
+            int state = ROOT;
+            for (int symbol : pattern) {
+                Integer nextState = transitions.get(state).get(symbol);
+                if (nextState == null) {
+                    nextState = transitions.size();
+                    transitions.add(new HashMap<>());
+                    lengths.add(0);
+                    transitions.get(state).put(symbol, nextState);
+                }
+                state = nextState;
+            }
+            lengths.set(state, pattern.length);
+            return this;
+        }
+
+        /**
+         * Builds the automaton, computing the failure links in breadth-first order.
+         *
+         * @return The built automaton.
+         */
+        public AhoCorasick build() {
+            int count = transitions.size();
+            int[][] symbols = new int[count][];
+            int[][] targets = new int[count][];
+            int[] failure = new int[count];
+            int[] matchLength = new int[count];
+
+            for (int state = 0; state < count; state++) {
+                Map<Integer, Integer> map = transitions.get(state);
+                int[] keys = new int[map.size()];
+                int i = 0;
+                for (int key : map.keySet())
+                    keys[i++] = key;
+                Arrays.sort(keys);
+
+                int[] values = new int[keys.length];
+                for (i = 0; i < keys.length; i++)
+                    values[i] = map.get(keys[i]);
+                symbols[state] = keys;
+                targets[state] = values;
+                matchLength[state] = lengths.get(state);
+            }
+
+            AhoCorasick automaton = new AhoCorasick(symbols, targets, failure, matchLength);
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[ROOT]) {
+                failure[child] = ROOT;
+                queue.add(child);
+            }
+
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (int i = 0; i < symbols[state].length; i++) {
+                    int symbol = symbols[state][i];
+                    int child = targets[state][i];
+                    failure[child] = automaton.next(failure[state], symbol);
+                    matchLength[child] = Math.max(matchLength[child], matchLength[failure[child]]);
+                    queue.add(child);
+                }
+            }
+            return automaton;
+        }
+    }
+}
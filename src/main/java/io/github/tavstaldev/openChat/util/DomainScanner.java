@@ -0,0 +1,273 @@
+package io.github.tavstaldev.openChat.util;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Single-pass scanner that finds IPv4 addresses and domains in normalized text.
+ * <br/>
+ * Runs of labels are read with their separators, which can be a plain dot or one of the common obfuscations,
+ * like "(.)", "[dot]" or "example dot net". A run is reported as an IPv4 address if it has four numeric labels
+ * between 0 and 255, or as a domain if it ends in a known public suffix and has at least one label before it.
+ * A port directly after the host is included in the match.
+ */
+public final class DomainScanner {
+    private static final String PUBLIC_SUFFIXES_RESOURCE = "public_suffixes.txt";
+    private final DomainTrie whitelist; // The whitelisted domains, with optional paths.
+
+    /**
+     * Creates a new scanner.
+     *
+     * @param whitelist The domains that are not reported.
+     */
+    public DomainScanner(@NotNull DomainTrie whitelist) {
+        this.whitelist = whitelist;
+    }
+
+    /**
+     * Scans the normalized text for IPv4 addresses and domains.
+     *
+     * @param text  The normalized text to scan.
+     * @param spans The list to collect the ranges of the matches into, or null to stop at the first match.
+     *              The ranges are indexes of the original text.
+     * @return The number of matches found.
+     */
+    public int scan(@NotNull NormalizedText text, @Nullable List<int[]> spans) {
+        char[] chars = text.getChars();
+        int length = text.length();
+        int[] labels = null;
+        int matches = 0;
+        int index = 0;
+        while (index < length) {
+            // Find the start of a token
+            if (!isLabelChar(chars[index]) || (index > 0 && isLabelChar(chars[index - 1]))) {
+                index++;
+                continue;
+            }
+
+            int end = readLabel(chars, index, length);
+            int separator = separatorLength(chars, end, length);
+            if (separator == 0) {
+                index = end;
+                continue;
+            }
+
+            // Read the run of labels
+            if (labels == null)
+                labels = text.getIndexBuffer(length + 2);
+            int labelCount = 0;
+            boolean spaced = false; // Whether a separator contains spaces, like "example dot net".
+            labels[0] = index;
+            labels[1] = end;
+            labelCount++;
+            while (separator > 0 && end + separator < length && isLabelChar(chars[end + separator])) {
+                if (!spaced)
+                    spaced = chars[end] == ' ' || chars[end + separator - 1] == ' ';
+                int start = end + separator;
+                end = readLabel(chars, start, length);
+                labels[labelCount * 2] = start;
+                labels[labelCount * 2 + 1] = end;
+                labelCount++;
+                separator = separatorLength(chars, end, length);
+            }
+
+            int found = findHost(chars, labels, labelCount, spaced, length);
+            if (found >= 0) {
+                int hostEnd = labels[found * 2 + 1];
+                int matchEnd = hostEnd + portLength(chars, hostEnd, length);
+                if (!whitelist.matches(chars, labels, 0, found, matchEnd, length)) {
+                    matches++;
+                    if (spans == null)
+                        return matches;
+                    spans.add(new int[]{text.getOriginalIndex(labels[0]), text.getOriginalIndex(matchEnd - 1) + 1});
+                }
+            }
+            index = end;
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the host in a run of labels.
+     *
+     * @param chars      The characters of the text.
+     * @param labels     The start and end index pairs of the labels.
+     * @param labelCount The number of labels.
+     * @param spaced     Whether any separator of the run contains spaces.
+     * @param length     The number of valid characters.
+     * @return The index of the last label of the host, or -1 if the run is not an address.
+     */
+    private static int findHost(char[] chars, int[] labels, int labelCount, boolean spaced, int length) {
+        if (labelCount < 2)
+            return -1;
+
+        // IPv4
+        if (labelCount >= 4 && isOctet(chars, labels[0], labels[1]) && isOctet(chars, labels[2], labels[3])
+                && isOctet(chars, labels[4], labels[5]) && isOctet(chars, labels[6], labels[7]))
+            return 3;
+
+        // Domain, the rightmost label that is a public suffix ends the host
+        for (int last = labelCount - 1; last >= 1; last--) {
+            int suffix = PublicSuffixes.table.longestSuffix(chars, labels, 0, last);
+            if (suffix == 0 || suffix > last)
+                continue;
+
+            // A spaced separator is common in normal sentences, so short runs need a longer top-level domain
+            if (spaced && last < 2 && labels[last * 2 + 1] - labels[last * 2] < 3)
+                continue;
+            return last;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the length of the separator at the given index.
+     *
+     * @param chars  The characters of the text.
+     * @param index  The index to check.
+     * @param length The number of valid characters.
+     * @return The length of the separator, or 0 if there is no separator.
+     */
+    private static int separatorLength(char[] chars, int index, int length) {
+        if (index >= length)
+            return 0;
+        if (isDot(chars[index]))
+            return 1;
+
+        int i = index;
+        boolean leadingSpace = chars[i] == ' ';
+        if (leadingSpace)
+            i++;
+        if (i >= length)
+            return 0;
+
+        int end;
+        char c = chars[i];
+        if (c == '(' || c == '[' || c == '{') {
+            // (.), [.], {dot}
+            char close = c == '(' ? ')' : c == '[' ? ']' : '}';
+            int inner = i + 1;
+            if (inner < length && isDot(chars[inner]))
+                inner++;
+            else if (isWord(chars, inner, length, "dot"))
+                inner += 3;
+            else
+                return 0;
+            if (inner >= length || chars[inner] != close)
+                return 0;
+            end = inner + 1;
+        } else if (leadingSpace && isDot(c)) {
+            // " . ", only with spaces on both sides, a dot followed by a space is the end of a sentence
+            if (i + 1 >= length || chars[i + 1] != ' ')
+                return 0;
+            return i + 2 - index;
+        } else if (leadingSpace && isWord(chars, i, length, "dot")) {
+            // " dot "
+            end = i + 3;
+            if (end >= length || chars[end] != ' ')
+                return 0;
+        } else {
+            return 0;
+        }
+
+        if (end < length && chars[end] == ' ')
+            end++;
+        return end - index;
+    }
+
+    /**
+     * Gets the length of the port after the host, including the colon.
+     */
+    private static int portLength(char[] chars, int index, int length) {
+        if (index >= length || chars[index] != ':')
+            return 0;
+        int i = index + 1;
+        int value = 0;
+        while (i < length && i - index <= 5 && chars[i] >= '0' && chars[i] <= '9') {
+            value = value * 10 + (chars[i] - '0');
+            i++;
+        }
+        if (i == index + 1 || value > 65535 || (i < length && isLabelChar(chars[i])))
+            return 0;
+        return i - index;
+    }
+
+    private static int readLabel(char[] chars, int index, int length) {
+        while (index < length && isLabelChar(chars[index]))
+            index++;
+        return index;
+    }
+
+    private static boolean isOctet(char[] chars, int start, int end) {
+        int length = end - start;
+        if (length < 1 || length > 3)
+            return false;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9')
+                return false;
+            value = value * 10 + (c - '0');
+        }
+        return value <= 255;
+    }
+
+    private static boolean isWord(char[] chars, int index, int length, String word) {
+        if (length - index < word.length())
+            return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (chars[index + i] != word.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isLabelChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-';
+    }
+
+    private static boolean isDot(char c) {
+        // Full stop, ideographic, fullwidth and halfwidth full stops
+        return c == '.' || c == '。' || c == '．' || c == '｡';
+    }
+
+    /**
+     * Holder of the public suffix table, loaded once from the plugin jar.
+     */
+    private static final class PublicSuffixes {
+        private static final DomainTrie table = load();
+
+        private static DomainTrie load() {
+            PluginLogger logger = OpenChat.logger().withModule(DomainScanner.class);
+            DomainTrie trie = new DomainTrie();
+            try (InputStream stream = DomainScanner.class.getClassLoader().getResourceAsStream(PUBLIC_SUFFIXES_RESOURCE)) {
+                if (stream == null) {
+                    logger.error("Could not find the public suffix table in the plugin jar.");
+                    return trie;
+                }
+
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (line.isEmpty() || line.startsWith("#"))
+                            continue;
+                        trie.add(line.toLowerCase(), null);
+                    }
+                }
+            }
+            catch (Exception ex) {
+                logger.error(String.format("Failed to load the public suffix table.\n%s", ex.getMessage()));
+            }
+            return trie;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.tavstaldev.openChat.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trie of domains stored with their labels in reverse order, so "play.example.net" is stored as "net.example.play".
+ * Looking up a host walks its labels from the top-level domain, which makes every suffix of the host
+ * available in a single walk without building any strings.
+ * <br/>
+ * The labels of a host are passed as an array of start and end index pairs into a character array.
+ */
+public final class DomainTrie {
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Adds a domain to the trie.
+     *
+     * @param domain The lowercase domain, labels separated by dots.
+     * @param path   The path the domain is restricted to, or null to match any path.
+     */
+    public void add(@NotNull String domain, @Nullable String path) {
+        String[] labels = domain.split("\\.");
+        Node node = root;
+        boolean first = true;
+        for (int i = labels.length - 1; i >= 0; i--) {
+            if (labels[i].isEmpty())
+                continue;
+            if (!first)
+                node = node.getOrAdd('.');
+            for (int j = 0; j < labels[i].length(); j++) {
+                node = node.getOrAdd(labels[i].charAt(j));
+            }
+            first = false;
+        }
+        if (node == root)
+            return;
+
+        if (path == null || path.isEmpty()) {
+            node.anyPath = true;
+        } else {
+            if (node.paths == null)
+                node.paths = new ArrayList<>();
+            node.paths.add(path);
+        }
+        node.terminal = true;
+        size++;
+    }
+
+    /**
+     * Checks if the trie has no entries.
+     *
+     * @return True if the trie is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Finds the longest entry that is a suffix of the host.
+     *
+     * @param chars  The characters of the text.
+     * @param labels The start and end index pairs of the labels.
+     * @param first  The index of the first label of the host.
+     * @param last   The index of the last label of the host.
+     * @return The number of labels of the longest matching entry, or 0 if none.
+     */
+    public int longestSuffix(char[] chars, int[] labels, int first, int last) {
+        Node node = root;
+        int matched = 0;
+        for (int label = last; label >= first; label--) {
+            if (label != last) {
+                node = node.get('.');
+                if (node == null)
+                    break;
+            }
+            node = walk(node, chars, labels[label * 2], labels[label * 2 + 1]);
+            if (node == null)
+                break;
+            if (node.terminal)
+                matched = last - label + 1;
+        }
+        return matched;
+    }
+
+    /**
+     * Checks if the host, or one of its parent domains, is in the trie.
+     * Entries with a path only match if the text after the host starts with that path.
+     *
+     * @param chars     The characters of the text.
+     * @param labels    The start and end index pairs of the labels.
+     * @param first     The index of the first label of the host.
+     * @param last      The index of the last label of the host.
+     * @param pathStart The index where the path of the host would start.
+     * @param length    The number of valid characters.
+     * @return True if the host is matched, false otherwise.
+     */
+    public boolean matches(char[] chars, int[] labels, int first, int last, int pathStart, int length) {
+        Node node = root;
+        for (int label = last; label >= first; label--) {
+            if (label != last) {
+                node = node.get('.');
+                if (node == null)
+                    return false;
+            }
+            node = walk(node, chars, labels[label * 2], labels[label * 2 + 1]);
+            if (node == null)
+                return false;
+            if (!node.terminal)
+                continue;
+            if (node.anyPath)
+                return true;
+            for (String path : node.paths) {
+                if (startsWith(chars, pathStart, length, path))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static Node walk(Node node, char[] chars, int start, int end) {
+        for (int i = start; i < end && node != null; i++) {
+            node = node.get(chars[i]);
+        }
+        return node;
+    }
+
+    private static boolean startsWith(char[] chars, int start, int length, String prefix) {
+        if (length - start < prefix.length())
+            return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (chars[start + i] != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0]; // The sorted characters of the children.
+        private Node[] children = new Node[0];
+        private boolean terminal; // Whether an entry ends here.
+        private boolean anyPath; // Whether the entry ending here matches any path.
+        private @Nullable List<String> paths; // The paths of the entries ending here.
+
+        private Node get(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node getOrAdd(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0)
+                return children[index];
+
+            int insertAt = -index - 1;
+            Node node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = node;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.tavstaldev.openChat.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Utility class for computing compact fingerprints of chat messages.
+ * <br/>
+ * The fingerprint is a 64-bit SimHash of the character 3-grams of the normalized message.
+ * Identical messages always have the same fingerprint, and similar messages have fingerprints
+ * that differ in only a few bits, which can be measured with {@link #distance(long, long)}.
+ */
+public final class FingerprintUtil {
+    private static final int SHINGLE_LENGTH = 3;
+
+    private FingerprintUtil() {
+    }
+
+    /**
+     * Computes the SimHash fingerprint of a normalized message.
+     * Spaces are ignored, so "f r e e" and "free" have the same fingerprint.
+     *
+     * @param text The normalized message.
+     * @return The fingerprint, 0 for an empty message.
+     */
+    public static long simHash(@NotNull NormalizedText text) {
+        char[] chars = text.getChars();
+        int length = text.length();
+        int[] weights = new int[Long.SIZE];
+        long shingle = 0; // The last characters, packed 16 bits each.
+        int count = 0; // The number of characters in the current shingle.
+        int shingles = 0;
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+            if (c == ' ')
+                continue;
+            shingle = (shingle << Character.SIZE) | c;
+            if (++count < SHINGLE_LENGTH)
+                continue;
+            addWeights(weights, mix(shingle & 0xFFFFFFFFFFFFL));
+            shingles++;
+        }
+
+        // Messages shorter than a shingle are hashed as a whole
+        if (shingles == 0) {
+            if (count == 0)
+                return 0;
+            addWeights(weights, mix(shingle));
+        }
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0)
+                fingerprint |= 1L << bit;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Gets the number of differing bits between two fingerprints.
+     *
+     * @param first  The first fingerprint.
+     * @param second The second fingerprint.
+     * @return The Hamming distance, between 0 and 64.
+     */
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    /**
+     * Gets the similarity of two fingerprints.
+     *
+     * @param first  The first fingerprint.
+     * @param second The second fingerprint.
+     * @return The similarity, between 0.0 and 1.0, where 1.0 is identical.
+     */
+    public static double similarity(long first, long second) {
+        return 1.0 - (double) distance(first, second) / Long.SIZE;
+    }
+
+    /**
+     * Mixes the bits of a value, the finalizer of MurmurHash3.
+     *
+     * @param value The value to mix.
+     * @return The mixed value.
+     */
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static void addWeights(int[] weights, long hash) {
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            weights[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+        }
+    }
+}
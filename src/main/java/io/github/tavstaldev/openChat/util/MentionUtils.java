@@ -4,13 +4,14 @@ import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openChat.OpenChat;
 import io.github.tavstaldev.openChat.managers.PlayerCacheManager;
+import io.github.tavstaldev.openChat.managers.RecipientStateManager;
+import io.github.tavstaldev.openChat.models.RecipientState;
 import io.github.tavstaldev.openChat.models.database.EMentionDisplay;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.sound.Sound;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
 
@@ -32,33 +33,31 @@ public class MentionUtils {
     public static boolean mentionPlayer(@NotNull Player player, Player mentioner) {
         var playerId = player.getUniqueId();
         var mentionerId = mentioner.getUniqueId();
-        if (OpenChat.database().isPlayerIgnored(playerId, mentionerId))
+        if (OpenChat.ignoreGraph().isIgnoring(playerId, mentionerId))
             return true; // Player has ignored the mentioner, return true so the mentioner will not know that they are ignored
 
         var mentionerCache = PlayerCacheManager.get(mentionerId);
-        if (mentionerCache.getMentionCooldown() != null && LocalDateTime.now().isBefore(mentionerCache.getMentionCooldown()))
+        if (mentionerCache.getMentionCooldown().isActive())
             return false; // Do not notify
 
-        var dataOpt = OpenChat.database().getPlayerData(playerId);
-        if (dataOpt.isEmpty()) {
-            _logger.error("Player data not found for " + player.getName());
-            return false;
-        }
-        var data = dataOpt.get();
-        switch (data.getMentionPreference())
+        // The preferences are read from the state loaded at join, the defaults are used until it is loaded
+        RecipientState state = RecipientStateManager.get(playerId);
+        if (state == null)
+            state = RecipientState.defaults();
+        switch (state.mentionPreference())
         {
             case ALWAYS: {
-                sendMention(player, data.getMentionSound(), data.getMentionDisplay(), false, mentioner);
+                sendMention(player, state.mentionSound(), state.mentionDisplay(), false, mentioner);
                 break;
             }
             case SILENT_IN_COMBAT: {
-                sendMention(player, data.getMentionSound(), data.getMentionDisplay(), OpenChat.combatManager().isPlayerInCombat(player), mentioner);
+                sendMention(player, state.mentionSound(), state.mentionDisplay(), OpenChat.combatManager().isPlayerInCombat(player), mentioner);
                 break;
             }
             case NEVER_IN_COMBAT: {
                 if (OpenChat.combatManager().isPlayerInCombat(player))
                     break; // Player is in combat, do not mention
-                sendMention(player, data.getMentionSound(), data.getMentionDisplay(), false, mentioner);
+                sendMention(player, state.mentionSound(), state.mentionDisplay(), false, mentioner);
                 break;
             }
             case NEVER: {
@@ -71,7 +70,7 @@ public class MentionUtils {
         if (cooldownTime < 1)
             return true;
 
-        mentionerCache.setMentionCooldown(LocalDateTime.now().plusSeconds(cooldownTime));
+        mentionerCache.getMentionCooldown().startSeconds(cooldownTime);
         return true;
     }
 
@@ -0,0 +1,149 @@
+package io.github.tavstaldev.openChat.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The normalized form of a message, produced by the {@link TextNormalizer}.
+ * The characters are lowercased, whitespace runs are collapsed into a single space and invisible
+ * formatting characters are removed. Every character keeps the index it had in the original text,
+ * so the filters can map their matches back for highlighting.
+ * <br/>
+ * Instances are reused per thread, so a text is only valid until the next normalization on the same thread.
+ */
+public final class NormalizedText implements CharSequence {
+    private String original = ""; // The original text.
+    private char[] chars = new char[256]; // The normalized characters.
+    private int[] offsets = new int[256]; // The original index of each normalized character.
+    private int[] indexBuffer = new int[256]; // Scratch buffer for the filters.
+    private int length; // The number of normalized characters.
+    private int upperCaseCount; // The number of uppercase characters in the original text.
+
+    NormalizedText() {
+    }
+
+    /**
+     * Clears the text and prepares the buffers for a new original text.
+     *
+     * @param original The original text.
+     */
+    void reset(@NotNull String original) {
+        this.original = original;
+        this.length = 0;
+        this.upperCaseCount = 0;
+        ensureCapacity(original.length());
+    }
+
+    /**
+     * Appends a normalized character.
+     *
+     * @param c      The character.
+     * @param offset The index of the character in the original text.
+     */
+    void append(char c, int offset) {
+        chars[length] = c;
+        offsets[length] = offset;
+        length++;
+    }
+
+    /**
+     * Increments the number of uppercase characters.
+     */
+    void countUpperCase() {
+        upperCaseCount++;
+    }
+
+    /**
+     * Gets the last normalized character.
+     *
+     * @return The last character, or 0 if the text is empty.
+     */
+    char last() {
+        return length == 0 ? 0 : chars[length - 1];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (chars.length < capacity) {
+            int newCapacity = Math.max(capacity, chars.length * 2);
+            chars = Arrays.copyOf(chars, newCapacity);
+            offsets = Arrays.copyOf(offsets, newCapacity);
+        }
+    }
+
+    public @NotNull String getOriginal() {
+        return original;
+    }
+
+    /**
+     * Gets the length of the original text.
+     *
+     * @return The number of characters in the original text.
+     */
+    public int getOriginalLength() {
+        return original.length();
+    }
+
+    /**
+     * Gets the number of uppercase characters in the original text.
+     *
+     * @return The number of uppercase characters.
+     */
+    public int getUpperCaseCount() {
+        return upperCaseCount;
+    }
+
+    /**
+     * Gets the backing array of the normalized characters, valid up to {@link #length()}.
+     * The array must not be modified.
+     *
+     * @return The backing array.
+     */
+    public char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * Maps a normalized index back to the original text.
+     *
+     * @param index The index in the normalized text.
+     * @return The index in the original text.
+     */
+    public int getOriginalIndex(int index) {
+        return index < length ? offsets[index] : original.length();
+    }
+
+    /**
+     * Gets a scratch buffer that the filters can use while processing this text.
+     *
+     * @param size The minimum size of the buffer.
+     * @return The buffer, its contents are undefined.
+     */
+    public int[] getIndexBuffer(int size) {
+        if (indexBuffer.length < size)
+            indexBuffer = new int[Math.max(size, indexBuffer.length * 2)];
+        return indexBuffer;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(index);
+        return chars[index];
+    }
+
+    @Override
+    public @NotNull CharSequence subSequence(int start, int end) {
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return new String(chars, 0, length);
+    }
+}
@@ -1,8 +1,5 @@
 package io.github.tavstaldev.openChat.util;
 
-import io.github.tavstaldev.openChat.OpenChat;
-import io.github.tavstaldev.openChat.config.GeneralConfig;
-import io.github.tavstaldev.openChat.managers.IPermissionManager;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.entity.Player;
@@ -23,28 +20,4 @@ public class PlayerUtil {
         // Serialize the Component to a plain String
         return PlainTextComponentSerializer.plainText().serialize(component);
     }
-
-    /**
-     * Retrieves the chat format for a given player.
-     *
-     * @param player The player whose chat format is to be retrieved.
-     * @return The chat format string for the player.
-     */
-    public static String getChatFormat(Player player) {
-        IPermissionManager permissionManager = OpenChat.permissionManager();
-        GeneralConfig config = OpenChat.config();
-        if (!config.customChatEnableGroupFormats) {
-            return config.customChatFormat;
-        }
-
-        if (permissionManager.hasPermissions()) {
-            String group = permissionManager.getPrimaryGroup(player);
-            String format = config.customChatGroupFormats.get(group);
-            if (format != null) {
-                return format;
-            }
-        }
-
-        return config.customChatFormat;
-    }
 }
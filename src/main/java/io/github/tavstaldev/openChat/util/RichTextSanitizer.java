@@ -0,0 +1,174 @@
+package io.github.tavstaldev.openChat.util;
+
+import org.bukkit.permissions.Permissible;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Utility class for removing the formatting a player is not allowed to use from their input.
+ * <br/>
+ * The input is scanned once, left to right, into a builder. A color code is removed as soon as its last character is
+ * appended, so removing one can never join the characters around it into a new code. A tag start is kept only if it
+ * opens a complete style tag the player may use, every other one is escaped, together with any backslash that would
+ * cancel the escape. The result never contains a tag the player is not allowed to use, only the style tags below.
+ */
+public class RichTextSanitizer {
+    public static final int LEGACY = 1; // '&' and '§' color codes, and the named color and decoration tags.
+    public static final int HEX = 1 << 1; // '&#rrggbb' color codes, and the '<#rrggbb>' tags.
+
+    private static final int MAX_TAG_LENGTH = 32; // Longer than any of the allowed tags.
+    private static final Set<String> STYLE_TAGS = Set.of(
+            "black", "dark_blue", "dark_green", "dark_aqua", "dark_red", "dark_purple", "gold", "gray", "grey",
+            "dark_gray", "dark_grey", "blue", "green", "aqua", "red", "light_purple", "yellow", "white",
+            "bold", "b", "italic", "i", "em", "underlined", "u", "strikethrough", "st", "obfuscated", "obf", "reset"
+    );
+
+    /**
+     * Gets the formatting a player is allowed to use, as a bitmask of {@link #LEGACY} and {@link #HEX}.
+     *
+     * @param permissible      The player or other command sender.
+     * @param legacyPermission The permission of the legacy formatting.
+     * @param hexPermission    The permission of the hex colors.
+     * @return The allowed formatting.
+     */
+    public static int getAllowed(@NotNull Permissible permissible, String legacyPermission, String hexPermission) {
+        int allowed = 0;
+        if (permissible.hasPermission(legacyPermission))
+            allowed |= LEGACY;
+        if (permissible.hasPermission(hexPermission))
+            allowed |= HEX;
+        return allowed;
+    }
+
+    /**
+     * Removes the color codes and escapes the tags that are not allowed.
+     * The result must not be sanitized again, the escapes would be escaped once more.
+     *
+     * @param input   The player input.
+     * @param allowed The allowed formatting, see {@link #getAllowed}.
+     * @return The sanitized input.
+     */
+    public static String sanitize(@NotNull String input, int allowed) {
+        boolean legacy = (allowed & LEGACY) != 0;
+        boolean hex = (allowed & HEX) != 0;
+        StringBuilder builder = new StringBuilder(input.length() + 8);
+        int length = input.length();
+        int index = 0;
+        while (index < length) {
+            char c = input.charAt(index);
+            if (c == '<') {
+                int end = findAllowedTag(input, index, legacy, hex);
+                if (end > 0) {
+                    builder.append(input, index, end);
+                    index = end;
+                    continue;
+                }
+
+                // An odd run of backslashes before the escape would escape the escape instead
+                if (countTrailingBackslashes(builder) % 2 == 1)
+                    builder.append('\\');
+                builder.append("\\<");
+                index++;
+                continue;
+            }
+
+            builder.append(c);
+            removeTrailingCode(builder, legacy, hex);
+            index++;
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Removes the color code ending with the last appended character, if it is not allowed.
+     * The builder never contains a code that is not allowed, so only the end has to be checked.
+     */
+    private static void removeTrailingCode(StringBuilder builder, boolean legacy, boolean hex) {
+        int length = builder.length();
+        if (length < 2)
+            return;
+
+        char last = builder.charAt(length - 1);
+        if (isMarker(builder.charAt(length - 2))) {
+            char code = Character.toLowerCase(last);
+            // '&x' starts the long form of a hex color
+            boolean allowed = code == 'x' ? hex : legacy;
+            if (!allowed && isLegacyCode(code)) {
+                builder.setLength(length - 2);
+                return;
+            }
+        }
+
+        if (!hex && length >= 8 && isHexDigit(last) && isMarker(builder.charAt(length - 8))
+                && builder.charAt(length - 7) == '#' && isHex(builder, length - 6, length)) {
+            builder.setLength(length - 8);
+        }
+    }
+
+    /**
+     * Finds the end of an allowed tag starting at the index.
+     *
+     * @return The index after the closing '>', or -1 if the tag is not complete or not allowed.
+     */
+    private static int findAllowedTag(String input, int start, boolean legacy, boolean hex) {
+        if (!legacy && !hex)
+            return -1;
+
+        int limit = Math.min(input.length(), start + MAX_TAG_LENGTH);
+        int close = -1;
+        for (int i = start + 1; i < limit; i++) {
+            if (input.charAt(i) == '>') {
+                close = i;
+                break;
+            }
+        }
+        if (close < 0)
+            return -1;
+
+        int nameStart = start + 1;
+        if (nameStart < close && input.charAt(nameStart) == '/')
+            nameStart++;
+        if (nameStart >= close)
+            return -1;
+
+        if (input.charAt(nameStart) == '#') {
+            if (hex && close - nameStart == 7 && isHex(input, nameStart + 1, close))
+                return close + 1;
+            return -1;
+        }
+
+        if (legacy && STYLE_TAGS.contains(input.substring(nameStart, close).toLowerCase(Locale.ROOT)))
+            return close + 1;
+        return -1;
+    }
+
+    private static int countTrailingBackslashes(StringBuilder builder) {
+        int count = 0;
+        for (int i = builder.length() - 1; i >= 0 && builder.charAt(i) == '\\'; i--) {
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isMarker(char c) {
+        return c == '&' || c == '§';
+    }
+
+    private static boolean isLegacyCode(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'k' && c <= 'o') || c == 'r' || c == 'x';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isHex(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isHexDigit(text.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+}
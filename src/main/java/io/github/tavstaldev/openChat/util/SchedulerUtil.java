@@ -0,0 +1,57 @@
+package io.github.tavstaldev.openChat.util;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openChat.OpenChat;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Utility class for continuing asynchronous work on the main server thread.
+ */
+public class SchedulerUtil {
+    private static final PluginLogger _logger = OpenChat.logger().withModule(SchedulerUtil.class);
+
+    /**
+     * Executor that runs tasks on the main server thread.
+     * Tasks submitted from the main thread run at once, others are scheduled for the next tick.
+     * Tasks submitted after the plugin is disabled are dropped.
+     */
+    public static final Executor MAIN_THREAD = task -> {
+        if (Bukkit.isPrimaryThread())
+            task.run();
+        else if (OpenChat.Instance.isEnabled())
+            Bukkit.getScheduler().runTask(OpenChat.Instance, task);
+    };
+
+    /**
+     * Runs an action on the main server thread with the result of a future.
+     * If the future fails, the error is logged and the action is not run.
+     *
+     * @param future The future to wait for.
+     * @param action The action to run with the result.
+     * @param <T>    The type of the result.
+     * @return A future completed after the action ran.
+     */
+    public static <T> CompletableFuture<Void> thenSync(CompletableFuture<T> future, Consumer<T> action) {
+        return future.thenAcceptAsync(action, MAIN_THREAD)
+                .exceptionally(ex -> {
+                    _logger.error(String.format("Unknown error happened during an asynchronous task...\n%s", ex.getMessage()));
+                    return null;
+                });
+    }
+
+    /**
+     * Runs an action on the main server thread after a future completed.
+     * If the future fails, the error is logged and the action is not run.
+     *
+     * @param future The future to wait for.
+     * @param action The action to run.
+     * @return A future completed after the action ran.
+     */
+    public static CompletableFuture<Void> thenSync(CompletableFuture<?> future, Runnable action) {
+        return thenSync(future, result -> action.run());
+    }
+}
@@ -16,10 +16,9 @@ public class StringUtil {
      *
      * @param str1 the first string to compare
      * @param str2 the second string to compare
-     * @return a Double value representing the similarity score between 0.0 and 1.0,
-     *         where 1.0 indicates identical strings
+     * @return the similarity score between 0.0 and 1.0, where 1.0 indicates identical strings
      */
-    public static Double similarity(String str1, String str2) {
+    public static double similarity(String str1, String str2) {
         return jaroWinkler.apply(str1, str2);
     }
 
@@ -0,0 +1,108 @@
+package io.github.tavstaldev.openChat.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Utility class for normalizing messages before they are checked by the filters.
+ * A message is normalized in a single pass into a thread-local {@link NormalizedText},
+ * so once the buffers have grown to the usual message size no allocation happens.
+ */
+public class TextNormalizer {
+    private static final ThreadLocal<NormalizedText> textBuffer = ThreadLocal.withInitial(NormalizedText::new);
+    private static final ThreadLocal<NormalizedText> filteredBuffer = ThreadLocal.withInitial(NormalizedText::new);
+
+    /**
+     * Normalizes a message.
+     * The result is only valid until the next call on the same thread.
+     *
+     * @param message The message to normalize.
+     * @return The normalized text.
+     */
+    public static NormalizedText normalize(@NotNull String message) {
+        NormalizedText text = textBuffer.get();
+        text.reset(message);
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (Character.isUpperCase(c))
+                text.countUpperCase();
+
+            // Collapse whitespace runs into a single space
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                if (text.last() != ' ')
+                    text.append(' ', i);
+                continue;
+            }
+
+            // Remove invisible characters, like zero-width spaces and soft hyphens
+            if (Character.getType(c) == Character.FORMAT)
+                continue;
+
+            text.append(lower(c), i);
+        }
+        return text;
+    }
+
+    /**
+     * Normalizes a configured entry, like a banned or whitelisted word, the same way as messages.
+     *
+     * @param entry The entry to normalize.
+     * @return The normalized entry.
+     */
+    public static String normalizeEntry(@NotNull String entry) {
+        StringBuilder builder = new StringBuilder(entry.length());
+        for (int i = 0; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                if (builder.isEmpty() || builder.charAt(builder.length() - 1) != ' ')
+                    builder.append(' ');
+                continue;
+            }
+            if (Character.getType(c) == Character.FORMAT)
+                continue;
+            builder.append(lower(c));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Removes the whitelisted content from a normalized text.
+     * The characters around the removed content are joined, and they keep their original indexes.
+     * The result is only valid until the next call on the same thread.
+     *
+     * @param text      The normalized text.
+     * @param whitelist The whitelist to remove.
+     * @return The filtered text, or the text itself if the whitelist is empty.
+     */
+    public static NormalizedText removeWhitelisted(@NotNull NormalizedText text, @NotNull WhitelistTrie whitelist) {
+        if (whitelist.isEmpty())
+            return text;
+
+        NormalizedText filtered = filteredBuffer.get();
+        filtered.reset(text.getOriginal());
+        char[] chars = text.getChars();
+        int length = text.length();
+        int index = 0;
+        while (index < length) {
+            int whitelisted = whitelist.match(chars, index, length);
+            if (whitelisted > 0) {
+                index += whitelisted;
+                continue;
+            }
+            filtered.append(chars[index], text.getOriginalIndex(index));
+            index++;
+        }
+        return filtered;
+    }
+
+    /**
+     * Lowercases a character.
+     *
+     * @param c The character.
+     * @return The lowercase character.
+     */
+    public static char lower(char c) {
+        if (c < 128)
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        return Character.toLowerCase(c);
+    }
+}
@@ -2,17 +2,24 @@ package io.github.tavstaldev.openChat.util;
 
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.database.IDatabase;
+import io.github.tavstaldev.openChat.managers.PlayerCacheManager;
+import io.github.tavstaldev.openChat.models.PlayerCache;
 import io.github.tavstaldev.openChat.models.ViolationAction;
 import io.github.tavstaldev.openChat.models.database.EViolationType;
 import io.github.tavstaldev.openChat.models.database.PlayerData;
+import io.github.tavstaldev.openChat.models.database.ViolationData;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 public class ViolationUtil {
     private static PluginLogger _logger = OpenChat.logger().withModule(ViolationUtil.class);
@@ -27,92 +34,154 @@ public class ViolationUtil {
      * @param actionSet   the set of violation actions to evaluate and execute
      */
     public static void handleViolationAsync(@NotNull Player player, @NotNull EViolationType type, @NotNull String details, Set<ViolationAction> actionSet) {
-        // Run the violation handling logic asynchronously
-        Bukkit.getScheduler().runTaskAsynchronously(OpenChat.Instance, () -> {
-            try {
-                // Log the violation in the database
-                OpenChat.database().addViolation(player.getUniqueId(), type, details);
+        handleViolationAsync(player, type, details, null, actionSet);
+    }
 
-                // Retrieve the number of active violations of the specified type
-                int violations = OpenChat.database().getActiveViolationsByType(player.getUniqueId(), type).orElse(Set.of()).size();
+    /**
+     * Handles a violation by queueing it for the database and executing the appropriate actions based on the
+     * number of active violations of the specified type.
+     * <br/>
+     * The active violations are counted in memory, so the actions are executed without waiting for the database.
+     * The staff is notified from the violation writer thread, once the violation is stored.
+     *
+     * @param player             the player who committed the violation
+     * @param type               the type of violation
+     * @param details            additional details about the violation
+     * @param highlightedDetails the details with the violation highlighted, or null to highlight them here
+     * @param actionSet          the set of violation actions to evaluate and execute
+     */
+    public static void handleViolationAsync(@NotNull Player player, @NotNull EViolationType type, @NotNull String details, @Nullable String highlightedDetails, Set<ViolationAction> actionSet) {
+        try {
+            long timestamp = System.currentTimeMillis();
 
-                // Prepare a set of commands to execute based on the violation actions
-                Set<String> commandsToRun = new HashSet<>();
-                String playerName = player.getName();
+            // Count the violation with the earlier active ones of the specified type
+            int violations = PlayerCacheManager.getOrCreate(player).getViolationCounter().record(type, timestamp);
 
-                // Evaluate each action and add its command to the set if it should be executed
-                for (var action : actionSet) {
-                    if (!action.shouldExecute(violations))
-                        continue;
+            // Prepare a set of commands to execute based on the violation actions
+            Set<String> commandsToRun = new HashSet<>();
+            String playerName = player.getName();
 
-                    commandsToRun.add(action.getCommand().replace("{player}", playerName));
-                }
+            // Evaluate each action and add its command to the set if it should be executed
+            for (var action : actionSet) {
+                if (!action.shouldExecute(violations))
+                    continue;
 
-                String logMessageKey;
-                String highlightedDetails;
-                // TODO: Try make a better system for highlighting to prevent running regex multiple times
-                switch (type) {
-                    case ADVERTISEMENT: {
-                        logMessageKey = "Logging.AntiAd";
-                        highlightedDetails = OpenChat.advertisementSystem().highlight(details).resultMessage;
-                        break;
-                    }
-                    case SPAM_REPETITION:
-                    case SPAM_DELAY: {
-                        logMessageKey = "Logging.AntiSpam";
-                        highlightedDetails = details;
-                        break;
-                    }
-                    case CURSE_WORDS: {
-                        logMessageKey = "Logging.AntiSwear";
-                        highlightedDetails = OpenChat.antiSwearSystem().highlight(details).resultMessage;
-                        break;
-                    }
-                    case CAPS_LOCK: {
-                        logMessageKey = "Logging.AntiCaps";
-                        highlightedDetails = details;
-                        break;
-                    }
-                    default: {
-                        logMessageKey = null;
-                        highlightedDetails = details;
-                        break;
-                    }
-                }
+                commandsToRun.add(action.getCommand().replace("{player}", playerName));
+            }
 
-                Set<Player> logRecipients = new HashSet<>();
-                Map<String, Object> args = new HashMap<>();
-                if (logMessageKey != null) {
-                    args.put("player", playerName);
-                    args.put("message", highlightedDetails);
+            // Schedule the execution of commands on the main server thread
+            if (!commandsToRun.isEmpty()) {
+                Bukkit.getScheduler().runTask(OpenChat.Instance, () -> {
+                    commandsToRun.forEach(cmd -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), cmd));
+                });
+            }
 
-                    for (Player target : Bukkit.getOnlinePlayers()) {
-                        if (!target.hasPermission("openchat.notify.violation")) {
-                            continue;
-                        }
+            String logMessageKey;
+            switch (type) {
+                case ADVERTISEMENT: {
+                    logMessageKey = "Logging.AntiAd";
+                    break;
+                }
+                case SPAM_REPETITION:
+                case SPAM_DELAY: {
+                    logMessageKey = "Logging.AntiSpam";
+                    break;
+                }
+                case CURSE_WORDS: {
+                    logMessageKey = "Logging.AntiSwear";
+                    break;
+                }
+                case CAPS_LOCK: {
+                    logMessageKey = "Logging.AntiCaps";
+                    break;
+                }
+                case FLOOD: {
+                    logMessageKey = "Logging.AntiFlood";
+                    break;
+                }
+                default: {
+                    logMessageKey = null;
+                    break;
+                }
+            }
 
-                        PlayerData targetData = OpenChat.database().getPlayerData(target.getUniqueId()).orElse(null);
-                        if (targetData == null)
-                            continue;
+            Consumer<IDatabase> notifyStaff = null;
+            if (logMessageKey != null) {
+                notifyStaff = database -> notifyStaff(database, type, playerName, details, highlightedDetails, logMessageKey);
+            }
 
-                        if (type == EViolationType.ADVERTISEMENT && !targetData.isAntiAdLogsEnabled() || type == EViolationType.CURSE_WORDS && !targetData.isAntiSwearLogsEnabled() ||
-                                (type == EViolationType.SPAM_DELAY || type == EViolationType.SPAM_REPETITION) && !targetData.isAntiSpamLogsEnabled()) {
-                            continue;
-                        }
+            // Log the violation in the database
+            ViolationData violation = new ViolationData(UUID.randomUUID(), player.getUniqueId(), type, details, timestamp);
+            if (!OpenChat.violationWriter().enqueue(violation, notifyStaff) && notifyStaff != null) {
+                // The violation was dropped, but the staff is still notified
+                OpenChat.asyncDatabase().execute(notifyStaff);
+            }
+        }
+        catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while handling violation for player %s...\n%s", player.getName(), ex.getMessage()));
+        }
+    }
 
-                        logRecipients.add(target);
-                    }
-                }
+    /**
+     * Sends the log message of a violation to the online staff who enabled the logs of its type.
+     * Runs on a database thread, the messages are sent on the main server thread.
+     *
+     * @param database           the synchronous database
+     * @param type               the type of violation
+     * @param playerName         the name of the player who committed the violation
+     * @param details            additional details about the violation
+     * @param highlightedDetails the details with the violation highlighted, or null to highlight them here
+     * @param logMessageKey      the localization key of the log message
+     */
+    private static void notifyStaff(IDatabase database, EViolationType type, String playerName, String details, @Nullable String highlightedDetails, String logMessageKey) {
+        String logDetails = highlightedDetails;
+        if (logDetails == null) {
+            if (type == EViolationType.ADVERTISEMENT)
+                logDetails = OpenChat.advertisementSystem().highlight(details).resultMessage;
+            else if (type == EViolationType.CURSE_WORDS)
+                logDetails = OpenChat.antiSwearSystem().highlight(details).resultMessage;
+            else
+                logDetails = details;
+        }
 
-                // Schedule the execution of commands on the main server thread
-                Bukkit.getScheduler().runTask(OpenChat.Instance, () -> {
-                    logRecipients.forEach(p -> OpenChat.Instance.sendCommandReply(p, logMessageKey, args));
-                    commandsToRun.forEach(cmd -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), cmd));
-                });
+        Set<Player> logRecipients = new HashSet<>();
+        Map<String, Object> args = new HashMap<>();
+        args.put("player", playerName);
+        args.put("message", logDetails);
+
+        for (Player target : Bukkit.getOnlinePlayers()) {
+            if (!target.hasPermission("openchat.notify.violation")) {
+                continue;
             }
-            catch (Exception ex) {
-                _logger.error(String.format("Unknown error happened while handling violation for player %s...\n%s", player.getName(), ex.getMessage()));
+
+            PlayerData targetData = database.getPlayerData(target.getUniqueId()).orElse(null);
+            if (targetData == null)
+                continue;
+
+            if (type == EViolationType.ADVERTISEMENT && !targetData.isAntiAdLogsEnabled() || type == EViolationType.CURSE_WORDS && !targetData.isAntiSwearLogsEnabled() ||
+                    (type == EViolationType.SPAM_DELAY || type == EViolationType.SPAM_REPETITION || type == EViolationType.FLOOD) && !targetData.isAntiSpamLogsEnabled()) {
+                continue;
             }
+
+            logRecipients.add(target);
+        }
+
+        if (logRecipients.isEmpty())
+            return;
+
+        Bukkit.getScheduler().runTask(OpenChat.Instance, () -> {
+            logRecipients.forEach(p -> OpenChat.Instance.sendCommandReply(p, logMessageKey, args));
         });
     }
+
+    /**
+     * Loads the active violations of a player into their violation counter, on the database executor.
+     *
+     * @param playerId    the UUID of the player
+     * @param playerCache the cache of the player
+     */
+    public static void loadViolationCounter(@NotNull UUID playerId, @NotNull PlayerCache playerCache) {
+        OpenChat.asyncDatabase().getActiveViolations(playerId)
+                .thenAccept(violations -> violations.ifPresent(playerCache.getViolationCounter()::load));
+    }
 }
\ No newline at end of file
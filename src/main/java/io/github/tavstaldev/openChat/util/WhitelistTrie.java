@@ -0,0 +1,99 @@
+package io.github.tavstaldev.openChat.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Trie of whitelisted content, matched against normalized text.
+ * When several entries match at the same position, the one added first wins,
+ * like in a regex alternation of the entries.
+ */
+public final class WhitelistTrie {
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Creates a trie from the given entries.
+     *
+     * @param entries The entries, in priority order. They are normalized with {@link TextNormalizer#normalizeEntry(String)}.
+     */
+    public WhitelistTrie(@NotNull Iterable<String> entries) {
+        for (String entry : entries) {
+            String normalized = TextNormalizer.normalizeEntry(entry);
+            if (normalized.isEmpty())
+                continue;
+
+            Node node = root;
+            for (int i = 0; i < normalized.length(); i++) {
+                node = node.getOrAdd(normalized.charAt(i));
+            }
+            node.priority = Math.min(node.priority, size);
+            size++;
+        }
+    }
+
+    /**
+     * Checks if the trie has no entries.
+     *
+     * @return True if the trie is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Finds the whitelisted entry that starts at the given index.
+     *
+     * @param chars  The normalized characters.
+     * @param start  The index to start at.
+     * @param length The number of valid characters.
+     * @return The length of the matching entry with the highest priority, or 0 if none.
+     */
+    public int match(char[] chars, int start, int length) {
+        Node node = root;
+        int bestPriority = Integer.MAX_VALUE;
+        int bestLength = 0;
+        for (int i = start; i < length; i++) {
+            node = node.get(chars[i]);
+            if (node == null)
+                break;
+            if (node.priority < bestPriority) {
+                bestPriority = node.priority;
+                bestLength = i - start + 1;
+            }
+        }
+        return bestLength;
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0]; // The sorted characters of the children.
+        private Node[] children = new Node[0];
+        private int priority = Integer.MAX_VALUE; // Index of the entry ending here, MAX_VALUE if none.
+
+        private Node get(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node getOrAdd(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0)
+                return children[index];
+
+            int insertAt = -index - 1;
+            Node node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = node;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.tavstaldev.openChat;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.minecorelib.core.PluginTranslator;
+
+import java.lang.reflect.Field;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sets up a mocked {@link OpenChat} instance for the tests of the classes that use the static accessors of the plugin.
+ * <br/>
+ * The logger and the translator are mocks, the translator returns the keys it is asked for.
+ * The configurations are assigned with {@link #set(Object, String, Object)}.
+ */
+public final class TestEnvironment {
+    private TestEnvironment() {
+    }
+
+    /**
+     * Creates the mocked plugin and assigns it to {@link OpenChat#Instance}.
+     *
+     * @return The mocked plugin.
+     */
+    public static OpenChat setUp() {
+        PluginLogger logger = mock(PluginLogger.class);
+        when(logger.withModule(any(Class.class))).thenReturn(logger);
+        when(logger.withModule(anyString())).thenReturn(logger);
+
+        PluginTranslator translator = mock(PluginTranslator.class);
+        when(translator.localize(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OpenChat plugin = mock(OpenChat.class);
+        when(plugin.getCustomLogger()).thenReturn(logger);
+        when(plugin.getTranslator()).thenReturn(translator);
+        OpenChat.Instance = plugin;
+        return plugin;
+    }
+
+    /**
+     * Clears {@link OpenChat#Instance}.
+     */
+    public static void tearDown() {
+        OpenChat.Instance = null;
+    }
+
+    /**
+     * Sets a field of an object, looking it up in the class and its superclasses.
+     * Used to assign the configurations of the mocked plugin, and the values of the mocked configurations.
+     *
+     * @param target The object.
+     * @param name   The name of the field.
+     * @param value  The value to set.
+     */
+    public static void set(Object target, String name, Object value) {
+        try {
+            findField(target, name).set(target, value);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(String.format("Failed to set the field '%s'.", name), ex);
+        }
+    }
+
+    /**
+     * Gets a field of an object, looking it up in the class and its superclasses.
+     * Used by the benchmarks to reach the caches of the class they measure.
+     *
+     * @param target The object.
+     * @param name   The name of the field.
+     * @param <T>    The type of the field.
+     * @return The value of the field.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(Object target, String name) {
+        try {
+            return (T) findField(target, name).get(target);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(String.format("Failed to get the field '%s'.", name), ex);
+        }
+    }
+
+    /**
+     * Checks whether an object has a field, in its class or its superclasses.
+     *
+     * @param target The object.
+     * @param name   The name of the field.
+     * @return True if the field exists.
+     */
+    public static boolean has(Object target, String name) {
+        try {
+            findField(target, name);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private static Field findField(Object target, String name) {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException ignored) {
+                // Look in the superclass
+            }
+        }
+        throw new IllegalArgumentException(String.format("No field '%s' in %s.", name, target.getClass().getName()));
+    }
+}
@@ -0,0 +1,336 @@
+package io.github.tavstaldev.openChat.database;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.TestEnvironment;
+import io.github.tavstaldev.openChat.config.GeneralConfig;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.config.StorageConfig;
+import io.github.tavstaldev.openChat.models.database.EMentionDisplay;
+import io.github.tavstaldev.openChat.models.database.EMentionPreference;
+import io.github.tavstaldev.openChat.models.database.EViolationType;
+import io.github.tavstaldev.openChat.models.database.PlayerData;
+import io.github.tavstaldev.openChat.models.database.ViolationData;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The behaviour every {@link IDatabase} has to share, run against the file based backends of the {@link StorageRegistry}.
+ * <br/>
+ * The backends cache what they read, so the stored state is checked after reopening the database.
+ * MySQL needs a server, it is not part of the suite.
+ */
+class DatabaseContractTest {
+    private static final Path DATA_FOLDER = Path.of("plugins", "OpenChat");
+    private static final String FILENAME = "contract-test";
+    private static final long VIOLATION_DURATION = 60 * 60 * 1000L;
+    private IDatabase database;
+    private String type;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        OpenChat plugin = TestEnvironment.setUp();
+        GeneralConfig generalConfig = mock(GeneralConfig.class);
+        TestEnvironment.set(generalConfig, "mentionsDefaultSound", "ENTITY_PLAYER_LEVELUP");
+        TestEnvironment.set(generalConfig, "mentionsDefaultDisplay", "ALL");
+        TestEnvironment.set(generalConfig, "mentionsDefaultPreference", "ALWAYS");
+        StorageConfig storageConfig = mock(StorageConfig.class);
+        TestEnvironment.set(storageConfig, "filename", FILENAME);
+        TestEnvironment.set(storageConfig, "tablePrefix", "openchat");
+        ModerationConfig moderationConfig = mock(ModerationConfig.class);
+        TestEnvironment.set(moderationConfig, "violationDurationMilliseconds", VIOLATION_DURATION);
+
+        TestEnvironment.set(plugin, "_config", generalConfig);
+        TestEnvironment.set(plugin, "storageConfig", storageConfig);
+        TestEnvironment.set(plugin, "moderationConfig", moderationConfig);
+        Files.createDirectories(DATA_FOLDER);
+        deleteFiles();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (database != null)
+            database.unload();
+        deleteFiles();
+        TestEnvironment.tearDown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "mvstore"})
+    void newPlayersGetTheDefaults(String type) {
+        open(type);
+        UUID playerId = UUID.randomUUID();
+        assertTrue(database.getPlayerData(playerId).isEmpty());
+
+        database.addPlayerData(playerId);
+        assertDefaults(database.getPlayerData(playerId).orElseThrow());
+        reopen();
+        assertDefaults(database.getPlayerData(playerId).orElseThrow());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "mvstore"})
+    void addingAnExistingPlayerKeepsTheData(String type) {
+        open(type);
+        UUID playerId = UUID.randomUUID();
+        database.addPlayerData(playerId);
+        database.updatePlayerData(changed(playerId));
+
+        database.addPlayerData(playerId);
+        assertChanged(database.getPlayerData(playerId).orElseThrow());
+        reopen();
+        database.addPlayerData(playerId);
+        assertChanged(database.getPlayerData(playerId).orElseThrow());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "mvstore"})
+    void updatesAreStored(String type) {
+        open(type);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        database.addPlayerData(first);
+        database.addPlayerData(second);
+
+        database.updatePlayerData(changed(first));
+        assertTrue(database.updatePlayerDataBatch(List.of(changed(second), changed(unknown))));
+        assertTrue(database.updatePlayerDataBatch(List.of()));
+        reopen();
+        assertChanged(database.getPlayerData(first).orElseThrow());
+        assertChanged(database.getPlayerData(second).orElseThrow());
+        // Only the existing players are updated
+        assertTrue(database.getPlayerData(unknown).isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "mvstore"})
+    void removedPlayersAreGone(String type) {
+        open(type);
+        UUID removed = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        database.addPlayerData(removed);
+        database.addPlayerData(kept);
+
+        database.removePlayerData(removed);
+        assertTrue(database.getPlayerData(removed).isEmpty());
+        reopen();
+        assertTrue(database.getPlayerData(removed).isEmpty());
+        assertTrue(database.getPlayerData(kept).isPresent());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "mvstore"})
+    void readsTheChatSettings(String type) {
+        open(type);
+        UUID playerId = UUID.randomUUID();
+        Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(playerId);
+        when(player.hasPermission("openchat.socialspy")).thenReturn(true);
+        assertFalse(database.isPublicChatDisabled(playerId));
+        assertFalse(database.isSocialSpyEnabled(player));
+
+        database.addPlayerData(playerId);
+        database.updatePlayerData(changed(playerId));
+        reopen();
+        assertTrue(database.isPublicChatDisabled(playerId));
+        assertTrue(database.isSocialSpyEnabled(player));
+        // Social spy also needs the permission
+        when(player.hasPermission("openchat.socialspy")).thenReturn(false);
+        assertFalse(database.isSocialSpyEnabled(player));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "mvstore"})
+    void storesTheIgnoredPlayers(String type) {
+        open(type);
+        UUID playerId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        assertEquals(Set.of(), database.getIgnoredPlayers(playerId).orElseThrow());
+
+        database.addIgnoredPlayer(playerId, first);
+        database.addIgnoredPlayer(playerId, second);
+        database.addIgnoredPlayer(other, playerId);
+        assertTrue(database.isPlayerIgnored(playerId, first));
+        assertFalse(database.isPlayerIgnored(first, playerId));
+        assertEquals(Set.of(first, second), database.getIgnoredPlayers(playerId).orElseThrow());
+
+        database.removeIgnoredPlayer(playerId, first);
+        assertFalse(database.isPlayerIgnored(playerId, first));
+        reopen();
+        assertEquals(Set.of(second), database.getIgnoredPlayers(playerId).orElseThrow());
+        assertEquals(Set.of(playerId), database.getIgnoredPlayers(other).orElseThrow());
+        assertTrue(database.isPlayerIgnored(playerId, second));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "mvstore"})
+    void storesTheViolations(String type) {
+        open(type);
+        UUID playerId = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        assertEquals(Set.of(), database.getViolations(playerId).orElseThrow());
+
+        // More than one multi-row insert, and a remainder
+        List<ViolationData> batch = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            EViolationType violationType = EViolationType.values()[i % EViolationType.values().length];
+            long timestamp = i % 2 == 0 ? now - i : now - VIOLATION_DURATION - 1000 - i;
+            batch.add(new ViolationData(UUID.randomUUID(), i % 10 == 0 ? other : playerId, violationType, "batch " + i, timestamp));
+        }
+        assertTrue(database.addViolationBatch(batch));
+        assertTrue(database.addViolationBatch(List.of()));
+        database.addViolation(playerId, EViolationType.FLOOD, "single");
+        reopen();
+
+        Set<ViolationData> stored = database.getViolations(playerId).orElseThrow();
+        ViolationData single = stored.stream().filter(v -> v.getDetails().equals("single")).findFirst().orElseThrow();
+        assertEquals(playerId, single.getUuid());
+        assertEquals(EViolationType.FLOOD, single.getType());
+        Set<UUID> expectedIds = ids(batch, playerId, 0);
+        expectedIds.add(single.getId());
+        assertEquals(expectedIds, ids(stored));
+        for (ViolationData expected : batch) {
+            if (!expected.getUuid().equals(playerId))
+                continue;
+            ViolationData actual = stored.stream().filter(v -> v.getId().equals(expected.getId())).findFirst().orElseThrow();
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getDetails(), actual.getDetails());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        }
+
+        long activeAfter = now - VIOLATION_DURATION;
+        Set<UUID> active = ids(database.getActiveViolations(playerId).orElseThrow());
+        Set<UUID> expectedActive = ids(batch, playerId, activeAfter);
+        expectedActive.add(single.getId());
+        assertEquals(expectedActive, active);
+        Set<UUID> activeFlood = ids(database.getActiveViolationsByType(playerId, EViolationType.FLOOD).orElseThrow());
+        assertEquals(stored.stream()
+                .filter(v -> v.getType() == EViolationType.FLOOD && v.getTimestamp() > activeAfter)
+                .map(ViolationData::getId)
+                .collect(Collectors.toSet()), activeFlood);
+        assertEquals(25, database.getViolations(other).orElseThrow().size());
+
+        database.removeViolation(single.getId(), playerId);
+        assertTrue(database.getViolations(playerId).orElseThrow().stream().noneMatch(v -> v.getId().equals(single.getId())));
+        reopen();
+        assertEquals(225, database.getViolations(playerId).orElseThrow().size());
+        assertFalse(ids(database.getActiveViolations(playerId).orElseThrow()).contains(single.getId()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "mvstore"})
+    void prunesTheOldestViolations(String type) {
+        open(type);
+        UUID playerId = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        List<ViolationData> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            batch.add(new ViolationData(UUID.randomUUID(), playerId, EViolationType.SPAM_DELAY, "old " + i, 1000 + i));
+        ViolationData recent = new ViolationData(UUID.randomUUID(), playerId, EViolationType.SPAM_DELAY, "recent", now);
+        batch.add(recent);
+        assertTrue(database.addViolationBatch(batch));
+
+        long olderThan = now - VIOLATION_DURATION;
+        assertEquals(4, database.pruneViolations(olderThan, 4, false));
+        assertEquals(ids(batch.subList(4, 11)), ids(database.getViolations(playerId).orElseThrow()));
+        assertEquals(6, database.pruneViolations(olderThan, 100, true));
+        assertEquals(0, database.pruneViolations(olderThan, 100, true));
+        reopen();
+        assertEquals(Set.of(recent.getId()), ids(database.getViolations(playerId).orElseThrow()));
+    }
+
+    /**
+     * Opens a new database of the type and creates its schema.
+     *
+     * @param type The storage type of the registry.
+     */
+    private void open(String type) {
+        this.type = type;
+        IStorageProvider provider = StorageRegistry.get(type);
+        assertNotNull(provider, type);
+        database = provider.create();
+        database.load();
+        database.checkSchema();
+    }
+
+    /**
+     * Closes the database and opens it again, so nothing is read from the caches.
+     */
+    private void reopen() {
+        database.unload();
+        database = null;
+        open(type);
+    }
+
+    private static PlayerData changed(UUID playerId) {
+        return new PlayerData(playerId, true, false, true, true, true, true, "#ff0000",
+                "BLOCK_NOTE_BLOCK_PLING", EMentionDisplay.ONLY_SOUND,
+                EMentionPreference.NEVER, "joined", "left");
+    }
+
+    private static void assertChanged(PlayerData data) {
+        assertTrue(data.isPublicChatDisabled());
+        assertFalse(data.isWhisperEnabled());
+        assertTrue(data.isSocialSpyEnabled());
+        assertTrue(data.isAntiAdLogsEnabled());
+        assertTrue(data.isAntiSpamLogsEnabled());
+        assertTrue(data.isAntiSwearLogsEnabled());
+        assertEquals("#ff0000", data.getMessageColor());
+        assertEquals("BLOCK_NOTE_BLOCK_PLING", data.getMentionSound());
+        assertEquals(EMentionDisplay.ONLY_SOUND, data.getMentionDisplay());
+        assertEquals(EMentionPreference.NEVER, data.getMentionPreference());
+        assertEquals("joined", data.getCustomJoinMessage());
+        assertEquals("left", data.getCustomLeaveMessage());
+    }
+
+    private static void assertDefaults(PlayerData data) {
+        assertFalse(data.isPublicChatDisabled());
+        assertTrue(data.isWhisperEnabled());
+        assertFalse(data.isSocialSpyEnabled());
+        assertFalse(data.isAntiAdLogsEnabled());
+        assertFalse(data.isAntiSpamLogsEnabled());
+        assertFalse(data.isAntiSwearLogsEnabled());
+        assertNull(data.getMessageColor());
+        assertEquals("ENTITY_PLAYER_LEVELUP", data.getMentionSound());
+        assertEquals(EMentionDisplay.ALL, data.getMentionDisplay());
+        assertEquals(EMentionPreference.ALWAYS, data.getMentionPreference());
+        assertNull(data.getCustomJoinMessage());
+        assertNull(data.getCustomLeaveMessage());
+    }
+
+    private static Set<UUID> ids(Collection<ViolationData> violations) {
+        return violations.stream().map(ViolationData::getId).collect(Collectors.toSet());
+    }
+
+    /**
+     * Gets the ids of the violations of a player after a time.
+     */
+    private static Set<UUID> ids(Collection<ViolationData> violations, UUID playerId, long after) {
+        return violations.stream()
+                .filter(v -> v.getUuid().equals(playerId) && v.getTimestamp() > after)
+                .map(ViolationData::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static void deleteFiles() throws IOException {
+        for (String suffix : List.of(".db", ".db-wal", ".db-shm", ".mv.db")) {
+            Files.deleteIfExists(DATA_FOLDER.resolve(FILENAME + suffix));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.tavstaldev.openChat.database;
+
+import io.github.tavstaldev.openChat.TestEnvironment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests of the {@link SchemaMigrator}.
+ * The SQLite tests run on an in-memory database, the MySQL ones on a mocked connection.
+ */
+class SchemaMigratorTest {
+    private static final String PREFIX = "openchat";
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        TestEnvironment.setUp();
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+        TestEnvironment.tearDown();
+    }
+
+    @Test
+    void migratesANewDatabaseToTheLatestVersion() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(ESqlDialect.SQLITE, PREFIX);
+        migrator.migrate(connection);
+        assertEquals(List.of(migrator.getLatestVersion()), readVersions());
+        assertTrue(indexExists(PREFIX + "_violations_player_timestamp"));
+
+        // Running it again changes nothing
+        migrator.migrate(connection);
+        assertEquals(List.of(migrator.getLatestVersion()), readVersions());
+    }
+
+    @Test
+    void rerunsAnInterruptedMigration() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(ESqlDialect.SQLITE, PREFIX);
+        migrator.migrate(connection);
+
+        // The process died after the migrations ran, but before the first version was stored
+        execute("DELETE FROM openchat_schema_version;");
+        execute("INSERT INTO openchat_violations (Id, PlayerId, Type, Details, Timestamp) VALUES ('a', 'b', 'SPAM', 'x', 1);");
+        migrator.migrate(connection);
+        assertEquals(List.of(migrator.getLatestVersion()), readVersions());
+        assertEquals(1, count("openchat_violations"));
+    }
+
+    @Test
+    void readErrorsAreNotTakenForANewDatabase() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(ESqlDialect.SQLITE, PREFIX);
+        migrator.migrate(connection);
+
+        // Only the version query fails, the migrations themselves would succeed
+        Connection failing = spy(connection);
+        List<Statement> statements = new ArrayList<>();
+        doAnswer(invocation -> {
+            Statement statement = spy((Statement) invocation.callRealMethod());
+            doThrow(new SQLTimeoutException("Timed out")).when(statement).executeQuery(anyString());
+            statements.add(statement);
+            return statement;
+        }).when(failing).createStatement();
+
+        assertThrows(SQLTimeoutException.class, () -> migrator.migrate(failing));
+        for (Statement statement : statements)
+            verify(statement, never()).executeUpdate(anyString());
+    }
+
+    @Test
+    void mysqlRerunAfterTheRenameOnlyCleansUp() throws SQLException {
+        Connection mysql = mock(Connection.class);
+        DatabaseMetaData meta = mock(DatabaseMetaData.class);
+        Statement statement = mock(Statement.class);
+        when(mysql.getMetaData()).thenReturn(meta);
+        when(mysql.createStatement()).thenReturn(statement);
+
+        // The version table exists, but has no version yet
+        when(meta.getTables(any(), any(), anyString(), any())).thenAnswer(invocation -> row());
+        ResultSet version = row();
+        when(version.getInt(1)).thenReturn(0);
+        when(statement.executeQuery(anyString())).thenReturn(version);
+        when(statement.executeUpdate(anyString())).thenReturn(1);
+
+        // The violations were already converted
+        when(meta.getColumns(any(), any(), anyString(), anyString())).thenAnswer(invocation -> {
+            ResultSet column = row();
+            when(column.getInt("DATA_TYPE")).thenReturn(Types.BINARY);
+            return column;
+        });
+
+        new SchemaMigrator(ESqlDialect.MYSQL, PREFIX).migrate(mysql);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(statement, atLeastOnce()).executeUpdate(sql.capture());
+        for (String executed : sql.getAllValues()) {
+            assertFalse(executed.contains("UNHEX"), executed);
+            assertFalse(executed.contains("RENAME"), executed);
+            assertFalse(executed.startsWith("DELETE"), executed);
+        }
+        assertTrue(sql.getAllValues().contains("DROP TABLE IF EXISTS openchat_violations_old;"));
+    }
+
+    private static ResultSet row() throws SQLException {
+        ResultSet result = mock(ResultSet.class);
+        when(result.next()).thenReturn(true, false);
+        return result;
+    }
+
+    private List<Integer> readVersions() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT Version FROM openchat_schema_version;")) {
+            List<Integer> versions = new ArrayList<>();
+            while (result.next())
+                versions.add(result.getInt(1));
+            return versions;
+        }
+    }
+
+    private boolean indexExists(String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?;")) {
+            statement.setString(1, name);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next();
+            }
+        }
+    }
+
+    private int count(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM " + table + ";")) {
+            return result.next() ? result.getInt(1) : 0;
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.tavstaldev.openChat.database;
+
+import io.github.tavstaldev.openChat.TestEnvironment;
+import io.github.tavstaldev.openChat.models.database.EMentionDisplay;
+import io.github.tavstaldev.openChat.models.database.EMentionPreference;
+import io.github.tavstaldev.openChat.models.database.PlayerData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests of the {@link WriteBehindDatabase} buffer.
+ */
+class WriteBehindDatabaseTest {
+    private final UUID playerId = UUID.randomUUID();
+    private IDatabase database;
+    private WriteBehindDatabase writeBehind;
+    private final List<PlayerData> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TestEnvironment.setUp();
+        database = mock(IDatabase.class);
+        writeBehind = new WriteBehindDatabase(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestEnvironment.tearDown();
+    }
+
+    @Test
+    void changesAfterTheUpdateAreNotBuffered() {
+        PlayerData data = createData();
+        writeBehind.updatePlayerData(data);
+        data.setPublicChatDisabled(true);
+        writeBehind.getPlayerData(playerId).orElseThrow().setSocialSpyEnabled(true);
+
+        PlayerData buffered = writeBehind.getPlayerData(playerId).orElseThrow();
+        assertFalse(buffered.isPublicChatDisabled());
+        assertFalse(buffered.isSocialSpyEnabled());
+        assertFalse(writeBehind.isPublicChatDisabled(playerId));
+
+        recordWrites(true);
+        assertTrue(writeBehind.flush());
+        assertEquals(1, written.size());
+        assertFalse(written.getFirst().isPublicChatDisabled());
+        assertEquals(0, writeBehind.getPendingCount());
+    }
+
+    @Test
+    void updateDuringTheWriteStaysDirty() {
+        writeBehind.updatePlayerData(createData());
+        when(database.updatePlayerDataBatch(anyCollection())).thenAnswer(invocation -> {
+            // The row being written is still read from the buffer
+            assertTrue(writeBehind.getPlayerData(playerId).isPresent());
+            PlayerData changed = createData();
+            changed.setPublicChatDisabled(true);
+            writeBehind.updatePlayerData(changed);
+            return true;
+        });
+
+        assertTrue(writeBehind.flush());
+        assertEquals(1, writeBehind.getPendingCount());
+        assertTrue(writeBehind.isPublicChatDisabled(playerId));
+
+        recordWrites(true);
+        assertTrue(writeBehind.flush());
+        assertTrue(written.getFirst().isPublicChatDisabled());
+        assertEquals(0, writeBehind.getPendingCount());
+    }
+
+    @Test
+    void failedWriteIsRetried() {
+        writeBehind.updatePlayerData(createData());
+        recordWrites(false);
+        assertFalse(writeBehind.flush());
+        assertFalse(writeBehind.flush(playerId));
+        assertEquals(1, writeBehind.getPendingCount());
+        assertTrue(writeBehind.getPlayerData(playerId).isPresent());
+        verify(database, never()).getPlayerData(playerId);
+
+        recordWrites(true);
+        assertTrue(writeBehind.flush(playerId));
+        assertEquals(0, writeBehind.getPendingCount());
+        assertTrue(writeBehind.flush());
+        assertEquals(1, written.size());
+    }
+
+    private void recordWrites(boolean result) {
+        written.clear();
+        when(database.updatePlayerDataBatch(anyCollection())).thenAnswer(invocation -> {
+            Collection<PlayerData> batch = invocation.getArgument(0);
+            if (result)
+                written.addAll(batch);
+            return result;
+        });
+    }
+
+    private PlayerData createData() {
+        return new PlayerData(playerId, false, true, false, false, false, false, null, "entity.experience_orb.pickup",
+                EMentionDisplay.ALL, EMentionPreference.ALWAYS, null, null);
+    }
+}
@@ -0,0 +1,245 @@
+package io.github.tavstaldev.openChat.models.systems;
+
+import io.github.tavstaldev.openChat.OpenChat;
+import io.github.tavstaldev.openChat.TestEnvironment;
+import io.github.tavstaldev.openChat.config.BadWordsConfig;
+import io.github.tavstaldev.openChat.config.ModerationConfig;
+import io.github.tavstaldev.openChat.models.FilterResult;
+import org.bukkit.configuration.ConfigurationSection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Differential tests of the {@link AntiSwearSystem} against the regex filter it replaced.
+ * <br/>
+ * {@link RegexFilter} is the previous implementation, kept here as the reference.
+ * The corpora leave out the cases where the behaviour was changed on purpose, those are tested separately.
+ */
+class AntiSwearSystemTest {
+    private static final String HIGHLIGHT_START = "«";
+    private static final String HIGHLIGHT_END = "»";
+    private OpenChat plugin;
+
+    @BeforeEach
+    void setUp() {
+        plugin = TestEnvironment.setUp();
+        when(OpenChat.translator().localize("Logging.Highlight.Start")).thenReturn(HIGHLIGHT_START);
+        when(OpenChat.translator().localize("Logging.Highlight.End")).thenReturn(HIGHLIGHT_END);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestEnvironment.tearDown();
+    }
+
+    @Test
+    void matchesTheRegexFilterOnRandomLists() {
+        Random random = new Random(42);
+        String messageAlphabet = "abcdefghijklmnopqrstuvwxyzáéíóöőúüűABSTUZ@4301!$5+798 .,";
+        for (int round = 0; round < 200; round++) {
+            List<String> blacklist = new ArrayList<>();
+            int blacklistSize = 1 + random.nextInt(40);
+            for (int i = 0; i < blacklistSize; i++) {
+                blacklist.add(randomText(random, "abstuegioázükXY ", 2 + random.nextInt(5)).replaceAll(" +", " "));
+            }
+            List<String> whitelist = new ArrayList<>();
+            int whitelistSize = random.nextInt(6);
+            for (int i = 0; i < whitelistSize; i++) {
+                whitelist.add(random.nextBoolean()
+                        ? blacklist.get(random.nextInt(blacklistSize)) + randomText(random, "abcxyz", random.nextInt(3))
+                        : randomText(random, "abcstuxy", 1 + random.nextInt(5)));
+            }
+
+            AntiSwearSystem system = create(blacklist, whitelist, defaultMappings());
+            RegexFilter reference = new RegexFilter(blacklist, whitelist, defaultMappings());
+            for (int i = 0; i < 3000; i++) {
+                String message = randomText(random, messageAlphabet, random.nextInt(30));
+                if (random.nextInt(3) == 0)
+                    message = insert(random, message, blacklist.get(random.nextInt(blacklistSize)));
+                if (whitelistSize > 0 && random.nextInt(4) == 0)
+                    message = insert(random, message, whitelist.get(random.nextInt(whitelistSize)));
+                if (message.contains("  "))
+                    continue;
+
+                assertSameResult(system, reference, message, blacklist, whitelist);
+            }
+        }
+    }
+
+    @Test
+    void matchesTheRegexFilterOnTheDefaultLists() {
+        List<String> blacklist = List.of("asshole", "bitch", "damn", "fuck", "hell", "shit", "penis", "vagina");
+        List<String> whitelist = List.of("hello", "shuttle");
+        AntiSwearSystem system = create(blacklist, whitelist, defaultMappings());
+        RegexFilter reference = new RegexFilter(blacklist, whitelist, defaultMappings());
+
+        List<String> corpus = List.of(
+                "hello there", "HELLO", "hell", "shell", "Hello hell", "hellohell", "sh1t", "SH!T", "$h1t", "5hit",
+                "the shuttle", "shuttleshit", "a$$hole", "@55h0l3", "b!tch", "b1tch", "8itch", "d@mn", "fück", "fúck",
+                "f u c k", "fu.ck", "pen1s", "v@g1n@", "vág1na", "hell0", "he11", "nothing here", "", "h", "shiitake"
+        );
+        for (String message : corpus) {
+            assertSameResult(system, reference, message, blacklist, whitelist);
+        }
+    }
+
+    @Test
+    void highlightMarksTheMatchesOfTheScan() {
+        Random random = new Random(7);
+        List<String> blacklist = List.of("fuck", "shit", "hell", "ass");
+        List<String> whitelist = List.of("hello", "class");
+        AntiSwearSystem system = create(blacklist, whitelist, defaultMappings());
+        for (int i = 0; i < 20_000; i++) {
+            String message = randomText(random, "fuckshitelloas$@1!HEL ", random.nextInt(24));
+            FilterResult result = system.highlight(message);
+            assertEquals(system.containsSwearWord(message), result.isFiltered, message);
+            assertEquals(message, result.resultMessage.replace(HIGHLIGHT_START, "").replace(HIGHLIGHT_END, ""), message);
+        }
+
+        assertEquals("«sh1t» and «$hit»", system.highlight("sh1t and $hit").resultMessage);
+        assertEquals("hello «hell»", system.highlight("hello hell").resultMessage);
+        assertEquals("«fuckshit»", system.highlight("fuckshit").resultMessage);
+    }
+
+    @Test
+    void checksMessagesWithLineBreaks() {
+        List<String> blacklist = List.of("shit");
+        AntiSwearSystem system = create(blacklist, List.of(), defaultMappings());
+        RegexFilter reference = new RegexFilter(blacklist, List.of(), defaultMappings());
+
+        // The regex did not match across lines, because '.' does not match a line terminator.
+        assertFalse(reference.containsSwearWord("first line\nshit"));
+        assertTrue(system.containsSwearWord("first line\nshit"));
+    }
+
+    @Test
+    void normalizesWhitespaceAndNonAsciiCase() {
+        AntiSwearSystem system = create(List.of("bad word", "üt"), List.of(), Map.of());
+        RegexFilter reference = new RegexFilter(List.of("bad word", "üt"), List.of(), Map.of());
+
+        // The regex matched the whitespace literally and folded only the ASCII case.
+        assertFalse(reference.containsSwearWord("bad   word"));
+        assertTrue(system.containsSwearWord("bad   word"));
+        assertFalse(reference.containsSwearWord("ÜT"));
+        assertTrue(system.containsSwearWord("ÜT"));
+        assertTrue(system.containsSwearWord("b\u200Bad word"));
+    }
+
+    @Test
+    void unsupportedMappingsAreMatchedLiterally() {
+        AntiSwearSystem system = create(List.of("abc"), List.of(), Map.of('a', "(a|4)", 'b', "[b8]", 'c', "\\$"));
+        assertTrue(system.containsSwearWord("a8$"));
+        assertFalse(system.containsSwearWord("48$"));
+        assertFalse(system.containsSwearWord("a8c"));
+    }
+
+    @Test
+    void parseCharacterClassReadsRangesAndEscapes() {
+        assertEquals(Set.of('a', 'b', 'c', '4'), AntiSwearSystem.parseCharacterClass("[a-c4]"));
+        assertEquals(Set.of('$', 's'), AntiSwearSystem.parseCharacterClass("[S\\$]"));
+        assertEquals(Set.of('x'), AntiSwearSystem.parseCharacterClass("X"));
+        assertEquals(Set.of('.'), AntiSwearSystem.parseCharacterClass("\\."));
+        assertNull(AntiSwearSystem.parseCharacterClass("[^a]"));
+        assertNull(AntiSwearSystem.parseCharacterClass("(a|b)"));
+        assertNull(AntiSwearSystem.parseCharacterClass("[\\d]"));
+        assertNull(AntiSwearSystem.parseCharacterClass("."));
+    }
+
+    private void assertSameResult(AntiSwearSystem system, RegexFilter reference, String message, List<String> blacklist, List<String> whitelist) {
+        boolean expected = reference.containsSwearWord(message);
+        String context = String.format("message [%s], blacklist %s, whitelist %s", message, blacklist, whitelist);
+        assertEquals(expected, system.containsSwearWord(message), context);
+        assertEquals(expected, system.highlight(message).isFiltered, context);
+    }
+
+    /**
+     * Creates the system with the given lists and mappings in the mocked configurations.
+     */
+    private AntiSwearSystem create(List<String> blacklist, List<String> whitelist, Map<Character, String> mappings) {
+        BadWordsConfig badWordsConfig = mock(BadWordsConfig.class);
+        when(badWordsConfig.getStringList("blacklist")).thenReturn(blacklist);
+        when(badWordsConfig.getStringList("whitelist")).thenReturn(whitelist);
+
+        ConfigurationSection section = mock(ConfigurationSection.class);
+        Set<String> keys = new LinkedHashSet<>();
+        for (var entry : mappings.entrySet()) {
+            keys.add(String.valueOf(entry.getKey()));
+            when(section.getString(String.valueOf(entry.getKey()))).thenReturn(entry.getValue());
+        }
+        when(section.getKeys(false)).thenReturn(keys);
+        ModerationConfig moderationConfig = mock(ModerationConfig.class);
+        when(moderationConfig.getConfigurationSection("antiSwear.characterMapping")).thenReturn(section);
+
+        TestEnvironment.set(plugin, "badWordsConfig", badWordsConfig);
+        TestEnvironment.set(plugin, "moderationConfig", moderationConfig);
+        return new AntiSwearSystem();
+    }
+
+    /**
+     * The default character mappings of the moderation config.
+     */
+    private static Map<Character, String> defaultMappings() {
+        Map<Character, String> mappings = new LinkedHashMap<>();
+        mappings.put('a', "[aA@4]");
+        mappings.put('á', "[áÁaA@4]");
+        mappings.put('e', "[eE3]");
+        mappings.put('i', "[iI1!íÍ]");
+        mappings.put('o', "[oO0óÓ]");
+        mappings.put('s', "[sS5$]");
+        mappings.put('u', "[uUúÚ]");
+        mappings.put('ü', "[üÜűŰuU]");
+        mappings.put('t', "[tT7+]");
+        mappings.put('g', "[gG9]");
+        mappings.put('b', "[bB8]");
+        mappings.put('z', "[zZ2]");
+        return mappings;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static String insert(Random random, String message, String text) {
+        int position = random.nextInt(message.length() + 1);
+        return message.substring(0, position) + text + message.substring(position);
+    }
+
+    /**
+     * The regex based filter the automaton replaced.
+     * The banned words are joined into one alternation, and the whitelisted content is removed before matching.
+     */
+    private static final class RegexFilter {
+        private final Pattern bannedWordsPattern;
+        private final Pattern whitelistPattern;
+
+        RegexFilter(List<String> blacklist, List<String> whitelist, Map<Character, String> mappings) {
+            Set<String> bannedWords = new HashSet<>();
+            for (String word : blacklist) {
+                StringBuilder regexWord = new StringBuilder();
+                for (char c : word.toCharArray()) {
+                    regexWord.append(mappings.containsKey(c) ? mappings.get(c) : Pattern.quote(String.valueOf(c)));
+                }
+                bannedWords.add(regexWord.toString());
+            }
+            whitelistPattern = Pattern.compile(whitelist.stream().map(Pattern::quote).collect(Collectors.joining("|")), Pattern.CASE_INSENSITIVE);
+            bannedWordsPattern = Pattern.compile("(?i).*(?:" + String.join("|", bannedWords) + ").*", Pattern.CASE_INSENSITIVE);
+        }
+
+        boolean containsSwearWord(String message) {
+            return bannedWordsPattern.matcher(whitelistPattern.matcher(message).replaceAll("")).matches();
+        }
+    }
+}
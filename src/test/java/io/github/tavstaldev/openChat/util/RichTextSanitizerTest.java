@@ -0,0 +1,182 @@
+package io.github.tavstaldev.openChat.util;
+
+import org.bukkit.permissions.Permissible;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of the {@link RichTextSanitizer}.
+ * Every output is also checked by {@link #assertSafe}, which parses it independently of the sanitizer.
+ */
+class RichTextSanitizerTest {
+    private static final int NONE = 0;
+    private static final int BOTH = RichTextSanitizer.LEGACY | RichTextSanitizer.HEX;
+    private static final int[] MASKS = {NONE, RichTextSanitizer.LEGACY, RichTextSanitizer.HEX, BOTH};
+    private static final Set<String> STYLE_TAGS = Set.of(
+            "black", "dark_blue", "dark_green", "dark_aqua", "dark_red", "dark_purple", "gold", "gray", "grey",
+            "dark_gray", "dark_grey", "blue", "green", "aqua", "red", "light_purple", "yellow", "white",
+            "bold", "b", "italic", "i", "em", "underlined", "u", "strikethrough", "st", "obfuscated", "obf", "reset"
+    );
+
+    @Test
+    void randomInputNeverKeepsDisallowedFormatting() {
+        Random random = new Random(20251017L);
+        String alphabet = "&§<>\\/#:'\" abcdefklorxABFKX0123456789_redbluclik";
+        for (int round = 0; round < 200_000; round++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(24);
+            for (int i = 0; i < length; i++) {
+                input.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            for (int allowed : MASKS) {
+                assertSafe(input.toString(), allowed);
+            }
+        }
+    }
+
+    @Test
+    void removedCodesDoNotJoinIntoNewCodes() {
+        assertEquals("", sanitize("&&aa", NONE));
+        assertEquals("", sanitize("&&&aaa", NONE));
+        assertEquals("", sanitize("§&aa", NONE));
+        assertEquals("x", sanitize("&&ab" + "x", NONE));
+        assertEquals("", sanitize("&&#abcdef#123456", NONE));
+        assertEquals("", sanitize("&#12&a3456", NONE));
+        assertEquals("&&aa", sanitize("&&aa", RichTextSanitizer.LEGACY));
+        assertEquals("", sanitize("&&#abcdef#123456", RichTextSanitizer.LEGACY));
+    }
+
+    @Test
+    void backslashesCannotCancelTheEscape() {
+        // One backslash: the run before the escape is made even, so the inserted escape applies
+        assertEquals("\\\\\\<click:run_command:/op>", sanitize("\\<click:run_command:/op>", NONE));
+        // Two backslashes: already even
+        assertEquals("\\\\\\<b>", sanitize("\\\\<b>", NONE));
+        // Three backslashes
+        assertEquals("\\\\\\\\\\<b>", sanitize("\\\\\\<b>", NONE));
+        // A removed code must not leave a backslash next to the tag unaccounted for
+        assertEquals("\\\\\\<b>", sanitize("\\&a<b>", NONE));
+        for (int allowed : MASKS) {
+            for (int backslashes = 0; backslashes < 6; backslashes++) {
+                assertSafe("\\".repeat(backslashes) + "<click:run_command:'/op me'>", allowed);
+                assertSafe("\\".repeat(backslashes) + "<hover:show_text:x>", allowed);
+            }
+        }
+    }
+
+    @Test
+    void incompleteTagsAreEscaped() {
+        for (int allowed : MASKS) {
+            assertEquals("\\<red", sanitize("<red", allowed));
+            assertEquals("\\<#123456", sanitize("<#123456", allowed));
+            assertEquals("\\<click:run_command:/op", sanitize("<click:run_command:/op", allowed));
+            assertEquals("a \\<", sanitize("a <", allowed));
+            assertSafe("<" + "a".repeat(64) + ">", allowed);
+        }
+    }
+
+    @Test
+    void eachMaskKeepsOnlyItsFormatting() {
+        String input = "&a<red>x</red>&#123456<#123456>y";
+        assertEquals("\\<red>x\\</red>\\<#123456>y", sanitize(input, NONE));
+        assertEquals("&a<red>x</red>\\<#123456>y", sanitize(input, RichTextSanitizer.LEGACY));
+        assertEquals("\\<red>x\\</red>&#123456<#123456>y", sanitize(input, RichTextSanitizer.HEX));
+        assertEquals(input, sanitize(input, BOTH));
+    }
+
+    @Test
+    void longHexFormNeedsTheHexPermission() {
+        assertEquals("hi", sanitize("&xhi", RichTextSanitizer.LEGACY));
+        assertEquals("&xhi", sanitize("&xhi", RichTextSanitizer.HEX));
+    }
+
+    @Test
+    void interactiveTagsAreAlwaysEscaped() {
+        for (int allowed : MASKS) {
+            assertEquals("\\<click:run_command:/op me>hi", sanitize("<click:run_command:/op me>hi", allowed));
+            assertEquals("\\<insert:/op me>", sanitize("<insert:/op me>", allowed));
+            assertEquals("\\<newline>", sanitize("<newline>", allowed));
+        }
+    }
+
+    @Test
+    void plainTextIsKept() {
+        for (int allowed : MASKS) {
+            assertEquals("hello world 100% & more > less", sanitize("hello world 100% & more > less", allowed));
+        }
+    }
+
+    @Test
+    void getAllowedReadsBothPermissions() {
+        Permissible permissible = mock(Permissible.class);
+        when(permissible.hasPermission("legacy")).thenReturn(true);
+        assertEquals(RichTextSanitizer.LEGACY, RichTextSanitizer.getAllowed(permissible, "legacy", "hex"));
+        when(permissible.hasPermission("hex")).thenReturn(true);
+        assertEquals(BOTH, RichTextSanitizer.getAllowed(permissible, "legacy", "hex"));
+    }
+
+    private static String sanitize(String input, int allowed) {
+        String output = RichTextSanitizer.sanitize(input, allowed);
+        assertSafe(output, input, allowed);
+        return output;
+    }
+
+    private static void assertSafe(String input, int allowed) {
+        assertSafe(RichTextSanitizer.sanitize(input, allowed), input, allowed);
+    }
+
+    /**
+     * Checks that the output has no code or tag the mask does not allow.
+     * A tag start counts as escaped if an odd run of backslashes precedes it, the way MiniMessage reads escapes.
+     */
+    private static void assertSafe(String output, String input, int allowed) {
+        boolean legacy = (allowed & RichTextSanitizer.LEGACY) != 0;
+        boolean hex = (allowed & RichTextSanitizer.HEX) != 0;
+        String context = String.format("input [%s], mask %d, output [%s]", input, allowed, output);
+        for (int i = 0; i < output.length(); i++) {
+            char c = output.charAt(i);
+            if ((c == '&' || c == '§') && i + 1 < output.length()) {
+                char code = Character.toLowerCase(output.charAt(i + 1));
+                if (code == 'x')
+                    assertTrue(hex, "Disallowed long hex code in " + context);
+                else if ("0123456789abcdefklmnor".indexOf(code) >= 0)
+                    assertTrue(legacy, "Disallowed legacy code in " + context);
+                else if (code == '#' && i + 8 <= output.length() && isHex(output.substring(i + 2, i + 8)))
+                    assertTrue(hex, "Disallowed hex code in " + context);
+            }
+
+            if (c == '<') {
+                int backslashes = 0;
+                for (int j = i - 1; j >= 0 && output.charAt(j) == '\\'; j--) {
+                    backslashes++;
+                }
+                if (backslashes % 2 == 1)
+                    continue;
+
+                int close = output.indexOf('>', i);
+                assertTrue(close > 0, "Unescaped incomplete tag in " + context);
+                String name = output.substring(i + 1, close);
+                if (name.startsWith("/"))
+                    name = name.substring(1);
+                boolean allowedTag = (hex && name.length() == 7 && name.charAt(0) == '#' && isHex(name.substring(1)))
+                        || (legacy && STYLE_TAGS.contains(name.toLowerCase(Locale.ROOT)));
+                assertTrue(allowedTag, "Unescaped disallowed tag <" + name + "> in " + context);
+            }
+        }
+    }
+
+    private static boolean isHex(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.digit(text.charAt(i), 16) < 0)
+                return false;
+        }
+        return true;
+    }
+}